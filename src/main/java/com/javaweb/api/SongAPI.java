@@ -1,15 +1,20 @@
 package com.javaweb.api;
 
+import com.javaweb.model.dto.AudioStreamDTO;
 import com.javaweb.model.dto.SongDTO;
+import com.javaweb.model.dto.SongUploadProgressDTO;
 import com.javaweb.model.request.SongRequestDTO;
+import com.javaweb.service.AudioStreamService;
 import com.javaweb.service.SongService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.repository.query.Param;
-import org.springframework.http.HttpStatus;
-import org.springframework.http.ResponseEntity;
+import org.springframework.http.*;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 
@@ -22,6 +27,8 @@ public class SongAPI {
 
     private final SongService songService;
 
+    private final AudioStreamService audioStreamService;
+
     @GetMapping("/title/{title}")
     public ResponseEntity<SongDTO> findByTitle(@PathVariable String title) {
         log.info("Fetching song with title: {}", title);
@@ -132,6 +139,15 @@ public class SongAPI {
         }
     }
 
+    @GetMapping("/uploads/{uploadId}")
+    public ResponseEntity<List<SongUploadProgressDTO>> findUploadProgress(@PathVariable String uploadId) {
+        List<SongUploadProgressDTO> progress = songService.findUploadProgress(uploadId);
+        if (progress == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(progress);
+    }
+
     @GetMapping("/search")
     public ResponseEntity<List<SongDTO>> search(
             @RequestParam String query,
@@ -170,6 +186,81 @@ public class SongAPI {
         }
     }
 
+    @GetMapping(value = "/{id}/seek_index", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<byte[]> fetchSeekIndex(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(songService.findSeekIndex(id));
+        } catch (Exception e) {
+            log.debug("No seek index for song {}: {}", id, e.getMessage());
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    /**
+     * Streams the song's audio from media storage. Supports a single byte range (206 with
+     * Content-Range), If-Range, and ETag / Last-Modified validation (304).
+     */
+    @GetMapping("/{id}/stream")
+    public ResponseEntity<StreamingResponseBody> streamSong(@PathVariable Long id,
+                                                            @RequestHeader HttpHeaders requestHeaders,
+                                                            WebRequest webRequest) {
+        AudioStreamDTO audioStream;
+        try {
+            audioStream = audioStreamService.findAudioStream(id);
+        } catch (Exception e) {
+            log.debug("No audio stream for song {}: {}", id, e.getMessage());
+            return ResponseEntity.notFound().build();
+        }
+
+        if (webRequest.checkNotModified(audioStream.getETag(), audioStream.getLastModified())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(audioStream.getETag()).build();
+        }
+
+        long length = audioStream.getContentLength();
+        long start = 0;
+        long end = length - 1;
+        boolean partial = false;
+
+        List<HttpRange> ranges;
+        try {
+            ranges = requestHeaders.getRange();
+        } catch (IllegalArgumentException e) {
+            ranges = List.of();
+        }
+        // A stale If-Range means the client's partial copy is outdated, so it gets the whole file
+        String ifRange = requestHeaders.getFirst(HttpHeaders.IF_RANGE);
+        if (!ranges.isEmpty() && (ifRange == null || ifRange.equals(audioStream.getETag()))) {
+            HttpRange range = ranges.get(0);
+            try {
+                start = range.getRangeStart(length);
+                end = range.getRangeEnd(length);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                        .header(HttpHeaders.CONTENT_RANGE, "bytes */" + length)
+                        .build();
+            }
+            partial = true;
+        }
+
+        long from = start;
+        long count = end - start + 1;
+        StreamingResponseBody body = outputStream -> audioStreamService.writeAudio(audioStream, from, count, outputStream);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(partial ? HttpStatus.PARTIAL_CONTENT : HttpStatus.OK)
+                .contentType(MediaType.parseMediaType(audioStream.getMimeType()))
+                .contentLength(count)
+                .eTag(audioStream.getETag())
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .cacheControl(CacheControl.maxAge(Duration.ofDays(1)).cachePrivate());
+        if (audioStream.getLastModified() > 0) {
+            response.lastModified(audioStream.getLastModified());
+        }
+        if (partial) {
+            response.header(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+        }
+        return response.body(body);
+    }
+
     @GetMapping("/filter")
     public ResponseEntity<List<SongDTO>> fetchSongsByFilter(
             @RequestParam(value = "releaseYear", required = false) Integer releaseYear,
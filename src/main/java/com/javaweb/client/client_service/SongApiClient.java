@@ -2,9 +2,12 @@ package com.javaweb.client.client_service;
 
 
 import com.javaweb.model.dto.SongDTO;
+import com.javaweb.model.dto.SongUploadProgressDTO;
 import com.javaweb.model.request.SongRequestDTO;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 
@@ -41,8 +44,14 @@ public interface SongApiClient {
 
     Boolean createSongs(SongRequestDTO songRequestDTO);
 
+    List<SongUploadProgressDTO> fetchUploadProgress(String uploadId);
+
     List<SongDTO> findTopByPlayCount(Integer limit);
 
     List<SongDTO> findSongsByFilter(Integer releaseYear, String genre, Long artistId);
 
+    byte[] fetchSeekIndex(Long songId);
+
+    InputStream openSongStream(Long songId, long offset) throws IOException;
+
 }
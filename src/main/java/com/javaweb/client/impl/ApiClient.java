@@ -12,12 +12,19 @@ import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
 public class ApiClient {
 
+    private static final int STREAM_CONNECT_TIMEOUT_MS = 5000;
+    private static final int STREAM_READ_TIMEOUT_MS = 30000;
+
     private final WebClient webClient;
     private final RestTemplate restTemplate;
     private final ObjectMapper objectMapper;
@@ -365,4 +372,35 @@ public class ApiClient {
                 })
                 .block();
     }
-}
\ No newline at end of file
+
+    /**
+     * Opens a streaming GET with a Range header starting at {@code offset}. The body is read as it
+     * arrives instead of being buffered in memory; closing the stream releases the connection.
+     */
+    public InputStream getAsStream(String url, long offset) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) URI.create(url).toURL().openConnection();
+        connection.setConnectTimeout(STREAM_CONNECT_TIMEOUT_MS);
+        connection.setReadTimeout(STREAM_READ_TIMEOUT_MS);
+
+        String token = UserSessionManager.getInstance().getAuthToken();
+        if (token != null && !token.isEmpty()) {
+            connection.setRequestProperty(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+        }
+        if (offset > 0) {
+            connection.setRequestProperty(HttpHeaders.RANGE, "bytes=" + offset + "-");
+        }
+
+        int status = connection.getResponseCode();
+        if (status != HttpURLConnection.HTTP_OK && status != HttpURLConnection.HTTP_PARTIAL) {
+            connection.disconnect();
+            throw new IOException("Unexpected status " + status + " for " + url);
+        }
+        if (offset > 0 && status == HttpURLConnection.HTTP_OK) {
+            // Server ignored the range, skip to the requested position ourselves
+            InputStream inputStream = connection.getInputStream();
+            inputStream.skipNBytes(offset);
+            return inputStream;
+        }
+        return connection.getInputStream();
+    }
+}
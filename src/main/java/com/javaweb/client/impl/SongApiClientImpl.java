@@ -3,11 +3,14 @@ package com.javaweb.client.impl;
 import com.javaweb.client.ApiConfig;
 import com.javaweb.client.client_service.SongApiClient;
 import com.javaweb.model.dto.SongDTO;
+import com.javaweb.model.dto.SongUploadProgressDTO;
 import com.javaweb.model.request.SongRequestDTO;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.*;
 
 @RequiredArgsConstructor
@@ -94,6 +97,9 @@ class SongApiClientImpl implements SongApiClient {
             if (songRequestDTO.getMp3Files() != null) {
                 parts.put("mp3Files", songRequestDTO.getMp3Files());
             }
+            if (songRequestDTO.getUploadId() != null) {
+                parts.put("uploadId", songRequestDTO.getUploadId());
+            }
 
             Boolean result = apiClient.postMultipart(url, parts, Boolean.class);
             return result;
@@ -103,6 +109,17 @@ class SongApiClientImpl implements SongApiClient {
         }
     }
 
+    @Override
+    public List<SongUploadProgressDTO> fetchUploadProgress(String uploadId) {
+        try {
+            String url = apiConfig.buildSongUrl("/uploads/" + uploadId);
+            return apiClient.getList(url, SongUploadProgressDTO.class);
+        } catch (Exception e) {
+            log.debug("Upload progress unavailable for {}: {}", uploadId, e.getMessage());
+            return Collections.emptyList();
+        }
+    }
+
     @Override
     public List<SongDTO> findTopByPlayCount(Integer limit) {
         try {
@@ -228,4 +245,21 @@ class SongApiClientImpl implements SongApiClient {
         String url = apiConfig.buildSongUrl(path.toString());
         return apiClient.getList(url, SongDTO.class);
     }
-}
\ No newline at end of file
+
+    @Override
+    public byte[] fetchSeekIndex(Long songId) {
+        try {
+            String url = apiConfig.buildSongUrl("/" + songId + "/seek_index");
+            return apiClient.getAsByteArray(url);
+        } catch (Exception e) {
+            log.debug("Seek index unavailable for song {}: {}", songId, e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public InputStream openSongStream(Long songId, long offset) throws IOException {
+        String url = apiConfig.buildSongUrl("/" + songId + "/stream");
+        return apiClient.getAsStream(url, offset);
+    }
+}
@@ -0,0 +1,25 @@
+package com.javaweb.config;
+
+import com.javaweb.constant.AppConstant;
+import com.javaweb.service.MediaStorage;
+import com.javaweb.utils.AudioChunkCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Paths;
+
+/**
+ * Chunk cache used by the stream endpoint, separate from the desktop client's own cache so the two
+ * size limits and directories stay independent.
+ */
+@Configuration
+public class AudioCacheConfig {
+
+    @Bean(name = "serverAudioCache")
+    public AudioChunkCache serverAudioCache(MediaStorage mediaStorage,
+                                            @Value("${app.audio-cache.dir}") String cacheDir,
+                                            @Value("${app.audio-cache.max-bytes}") long maxBytes) {
+        return new AudioChunkCache(mediaStorage, Paths.get(cacheDir), maxBytes, AppConstant.AUDIO_CACHE_CHUNK_SIZE);
+    }
+}
@@ -94,6 +94,16 @@ public class AppConstant {
     public static final Dimension FILE_CHOOSER_SIZE = new Dimension(1500, 800);
     public static final Dimension TEXT_FIELD_SIZE = new Dimension(300, 30);
 
+    //IMAGE THUMBNAILS
+    public static final int[] IMAGE_THUMBNAIL_SIZES = {64, 160, 320}; // views up to the largest get a thumbnail, larger ones the original
+    public static final float IMAGE_RENDITION_JPEG_QUALITY = 0.85f;
+
+    //IMAGE CACHE
+    public static final long IMAGE_CACHE_MEMORY_BYTES = 128L * 1024 * 1024; // decoded images kept in memory
+    public static final String IMAGE_CACHE_DIR = "D:\\MuseMoe resources\\image_cache";
+    public static final long IMAGE_CACHE_DISK_BYTES = 512L * 1024 * 1024; // encoded images on disk
+    public static final int IMAGE_LOAD_PARALLELISM = 4; // concurrent image downloads, leaving bandwidth for audio
+
     //MISCELLANEOUS
     public static final String CHANGE_PASSWORD_FAIL = "change_password_fail";
     public static final String DEFAULT_PASSWORD = "123321";
@@ -116,6 +126,71 @@ public class AppConstant {
     public static final String DEFAULT_DOWNLOAD_DIR = "D:\\MuseMoe resources\\user_downloaded_songs";
 
 
+    //AUDIO CACHE
+    public static final String AUDIO_CACHE_DIR = "D:\\MuseMoe resources\\audio_cache";
+    public static final long AUDIO_CACHE_MAX_BYTES = 2L * 1024 * 1024 * 1024; // 2 GB on disk
+    public static final int AUDIO_CACHE_CHUNK_SIZE = 256 * 1024; // 256 KB per chunk
+    public static final int SEEK_INDEX_FRAME_INTERVAL = 38; // ~1 second of 44.1 kHz MPEG-1 Layer III
+    public static final int SEEK_INDEX_BUILD_PARALLELISM = 2; // server-side index builds running at once
+    public static final int PREFETCH_HEAD_FRAMES = 76; // ~2 seconds decoded ahead for the next track
+    public static final int PREFETCH_CHUNKS = 4; // first 1 MB of the next track warmed in the chunk cache
+    public static final long HANDOVER_DRAIN_TIMEOUT_MS = 1500;
+    public static final long PLAYBACK_PROGRESS_INTERVAL_MS = 50; // how often the slider position is published
+
+    //JITTER BUFFER (bytes of compressed audio; 1 MB is ~26 s at 320 kbps)
+    public static final int JITTER_BUFFER_CAPACITY = 2 * 1024 * 1024;
+    public static final int JITTER_BUFFER_HIGH_WATERMARK = 1536 * 1024; // reader pauses here
+    public static final int JITTER_BUFFER_LOW_WATERMARK = 512 * 1024; // reader resumes here
+    public static final int JITTER_BUFFER_PREROLL = 96 * 1024; // ~2.5 s at 320 kbps before output starts
+
+    //SPECTRUM ANALYZER
+    public static final int SPECTRUM_FFT_SIZE = 2048; // ~46 ms window at 44.1 kHz, analysed every half window
+    public static final float SPECTRUM_SMOOTHING = 0.75f; // how slowly bars fall back, 0 = no smoothing
+    public static final float SPECTRUM_MIN_FREQUENCY = 40f;
+    public static final float SPECTRUM_MAX_FREQUENCY = 16000f;
+    public static final float SPECTRUM_DB_FLOOR = -70f; // levels at or below this draw as empty bars
+    public static final int SPECTRUM_FRAMERATE = 60;
+
+    //LOCAL LIBRARY INDEX
+    public static final String LOCAL_INDEX_FILE = "D:\\MuseMoe resources\\local_library.idx";
+    public static final int LOCAL_INDEX_PARSE_THREADS = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors() / 2));
+    public static final int LOCAL_INDEX_THUMBNAIL_SIZE = 200; // longest side of the cover kept in memory
+    public static final long LOCAL_INDEX_DEBOUNCE_MS = 1500; // quiet time before a changed file is re-parsed
+
+    //DOWNLOADS
+    public static final int DOWNLOAD_MAX_CONCURRENT = 2; // songs downloaded at the same time, the rest wait in the queue
+    public static final int DOWNLOAD_SEGMENT_THREADS = 4; // Range requests in flight across all downloads
+    public static final int DOWNLOAD_SEGMENT_SIZE = 2 * 1024 * 1024;
+    public static final int DOWNLOAD_MAX_RETRIES = 3; // per segment, each retry resumes where the segment stopped
+    public static final long DOWNLOAD_CHECKPOINT_INTERVAL_BYTES = 512 * 1024;
+    public static final long DOWNLOAD_PROGRESS_INTERVAL_MS = 100;
+
+    //LOUDNESS NORMALIZATION
+    public static final boolean LOUDNESS_NORMALIZATION_ENABLED = true;
+    public static final double LOUDNESS_TARGET_LUFS = -18.0; // ReplayGain 2.0 reference level
+
+    //AUDIO ANALYSIS
+    public static final int AUDIO_ANALYSIS_BATCH_SIZE = 32; // songs analysed and saved per round of the job
+    public static final int WAVEFORM_PEAK_PAIRS = 1000; // min/max pairs stored per song for the seek bar
+
+    //GOOGLE DRIVE
+    public static final int DRIVE_LIST_PAGE_SIZE = 200; // files per listing request (Drive allows up to 1000)
+    public static final int DRIVE_BATCH_SIZE = 100; // calls per batch request, Drive's limit
+    public static final int DRIVE_BATCH_CONCURRENCY = 4; // batch requests in flight at once
+    public static final int DRIVE_BATCH_MAX_RETRIES = 5; // for calls that were rate limited or hit a server error
+    public static final long DRIVE_BATCH_RETRY_BASE_DELAY_MS = 1000; // doubled on each retry
+    public static final int DRIVE_UPLOAD_CHUNK_SIZE = 8 * 1024 * 1024; // resumable upload chunk, a multiple of 256 KB
+    public static final long DRIVE_IMAGE_LOOKUP_TTL_MS = 10 * 60 * 1000; // how long a found image name stays cached
+    public static final long DRIVE_IMAGE_MISS_TTL_MS = 60 * 1000; // misses expire sooner so new uploads show up
+    public static final int DRIVE_IMAGE_LOOKUP_CACHE_SIZE = 2000;
+    public static final long DRIVE_THUMBNAIL_LINK_TTL_MS = 60 * 60 * 1000; // Drive's thumbnail links expire after a few hours
+
+    //UPLOADS
+    public static final int SONG_UPLOAD_PARALLELISM = 3; // files streamed to storage at once in a multi-song upload
+    public static final int SONG_METADATA_PARALLELISM = 2; // songs having metadata read and tags generated at once
+    public static final long SONG_UPLOAD_PROGRESS_RETENTION_MS = 60 * 60 * 1000; // finished uploads stay pollable this long
+
+
     //ADS
     public static final String MUSE_MOE_AD = "1LIj0GvIz6R_qGoWjVzIVotLn_Dx5Qlkh";
     public static final String STUDY_SMART_AD = "13R3QMh-7Gbkek9LlMoPAtH0x3SrxvMzl";
@@ -1,23 +1,24 @@
 package com.javaweb.converter;
 
-import com.google.api.services.drive.model.File;
 import com.javaweb.entity.AlbumEntity;
 import com.javaweb.entity.ArtistEntity;
 import com.javaweb.entity.SongEntity;
 import com.javaweb.entity.StreamingMediaEntity;
 import com.javaweb.model.dto.AlbumDTO;
 import com.javaweb.model.dto.SongDTO;
+import com.javaweb.model.dto.StoredFileDTO;
 import com.javaweb.model.request.AlbumRequestDTO;
 import com.javaweb.repository.ArtistRepository;
 import com.javaweb.repository.StreamingMediaRepository;
+import com.javaweb.service.MediaStorage;
 import com.javaweb.service.StreamingMediaService;
-import com.javaweb.service.impl.GoogleDriveService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.modelmapper.ModelMapper;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
+import java.util.Map;
 
 @Component
 @RequiredArgsConstructor
@@ -26,7 +27,7 @@ public class AlbumConverter implements EntityConverter<AlbumEntity, AlbumRequest
     private final ModelMapper modelMapper;
     private final ArtistRepository artistRepository;
     private final StreamingMediaService streamingMediaService;
-    private final GoogleDriveService googleDriveService;
+    private final MediaStorage mediaStorage;
     private final SongConverter songConverter;
     private final StreamingMediaRepository streamingMediaRepository;
 
@@ -57,6 +58,7 @@ public class AlbumConverter implements EntityConverter<AlbumEntity, AlbumRequest
         if (entity.getCoverArt() != null && entity.getCoverArt().getGoogleDriveId() != null) {
             try {
                 dto.setImageId(entity.getCoverArt().getGoogleDriveId());
+                dto.setImageRenditions(Map.copyOf(entity.getCoverArt().getRenditions()));
             } catch (Exception e) {
                 log.error("Failed to process album cover picture from Google Drive", e);
             }
@@ -75,7 +77,7 @@ public class AlbumConverter implements EntityConverter<AlbumEntity, AlbumRequest
 
         if (request.getGoogleDriveFileId() != null) {
             try {
-                File driveFile = googleDriveService.getFileMetadata(request.getGoogleDriveFileId());
+                StoredFileDTO driveFile = mediaStorage.getMetadata(request.getGoogleDriveFileId());
 
                 StreamingMediaEntity mediaEntity = streamingMediaService.getOrCreateStreamingMedia(
                         driveFile.getId(),
@@ -1,23 +1,25 @@
 package com.javaweb.converter;
 
-import com.google.api.services.drive.model.File;
 import com.javaweb.entity.ArtistEntity;
 import com.javaweb.entity.StreamingMediaEntity;
 import com.javaweb.model.dto.ArtistDTO;
+import com.javaweb.model.dto.StoredFileDTO;
 import com.javaweb.model.request.ArtistRequestDTO;
+import com.javaweb.service.MediaStorage;
 import com.javaweb.service.StreamingMediaService;
-import com.javaweb.service.impl.GoogleDriveService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.modelmapper.ModelMapper;
 import org.springframework.stereotype.Component;
 
+import java.util.Map;
+
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class ArtistConverter implements EntityConverter<ArtistEntity, ArtistRequestDTO, ArtistDTO> {
     private final ModelMapper modelMapper;
-    private final GoogleDriveService googleDriveService;
+    private final MediaStorage mediaStorage;
     private final StreamingMediaService streamingMediaService;
 
     @Override
@@ -30,6 +32,7 @@ public class ArtistConverter implements EntityConverter<ArtistEntity, ArtistRequ
 
         if (entity.getProfilePic() != null) {
             artistDTO.setProfilePictureId(entity.getProfilePic().getGoogleDriveId());
+            artistDTO.setProfilePictureRenditions(Map.copyOf(entity.getProfilePic().getRenditions()));
         }
 
         if (entity.getFollowers() != null) {
@@ -52,7 +55,7 @@ public class ArtistConverter implements EntityConverter<ArtistEntity, ArtistRequ
         // Handle profile picture
         if (request.getGoogleDriveFileId() != null) {
             try {
-                File driveFile = googleDriveService.getFileMetadata(request.getGoogleDriveFileId());
+                StoredFileDTO driveFile = mediaStorage.getMetadata(request.getGoogleDriveFileId());
 
                 StreamingMediaEntity mediaEntity = streamingMediaService.getOrCreateStreamingMedia(
                         driveFile.getId(),
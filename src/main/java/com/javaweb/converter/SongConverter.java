@@ -1,15 +1,18 @@
 package com.javaweb.converter;
 
-import com.google.api.services.drive.model.File;
 import com.javaweb.entity.*;
 import com.javaweb.model.dto.SongDTO;
+import com.javaweb.model.dto.StoredFileDTO;
 import com.javaweb.model.request.SongRequestDTO;
 import com.javaweb.repository.AlbumRepository;
 import com.javaweb.repository.ArtistRepository;
+import com.javaweb.service.MediaStorage;
 import com.javaweb.service.StreamingMediaService;
-import com.javaweb.service.impl.GoogleDriveService;
+import com.javaweb.utils.FileUtil;
+import com.javaweb.utils.Mp3SeekIndex;
 import com.javaweb.utils.SecurityUtils;
 import com.javaweb.utils.StreamingAudioPlayer;
+import com.javaweb.utils.StringUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.modelmapper.ModelMapper;
@@ -17,6 +20,7 @@ import org.springframework.stereotype.Component;
 
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.stream.Collectors;
 
@@ -29,7 +33,7 @@ public class SongConverter implements EntityConverter<SongEntity, SongRequestDTO
     private final ModelMapper modelMapper;
     private final AlbumRepository albumRepository;
     private final ArtistRepository artistRepository;
-    private final GoogleDriveService googleDriveService;
+    private final MediaStorage mediaStorage;
     private final StreamingAudioPlayer streamingPlayer;
     private final StreamingMediaService streamingMediaService;
     private final ArtistConverter artistConverter;
@@ -53,6 +57,7 @@ public class SongConverter implements EntityConverter<SongEntity, SongRequestDTO
             StreamingMediaEntity coverArt = entity.getAlbum().getCoverArt();
             if (entity.getAlbum().getCoverArt() != null) {
                 dto.setAlbumArtId(coverArt.getGoogleDriveId());
+                dto.setAlbumArtRenditions(Map.copyOf(coverArt.getRenditions()));
             }
         }
 
@@ -87,6 +92,14 @@ public class SongConverter implements EntityConverter<SongEntity, SongRequestDTO
 
     @Override
     public SongEntity toEntity(SongRequestDTO request) {
+        return toEntity(request, true);
+    }
+
+    /**
+     * @param readAudioMetadata false to skip reading the audio file; the title is then taken from the
+     *                          file name and the rest can be filled in later with {@link #fillAudioMetadata}
+     */
+    public SongEntity toEntity(SongRequestDTO request, boolean readAudioMetadata) {
         if (request == null) {
             return null;
         }
@@ -96,7 +109,7 @@ public class SongConverter implements EntityConverter<SongEntity, SongRequestDTO
 
             if (request.getGoogleDriveFileId() != null) {
 
-                File driveFile = googleDriveService.getFileMetadata(request.getGoogleDriveFileId());
+                StoredFileDTO driveFile = mediaStorage.getMetadata(request.getGoogleDriveFileId());
 
                 StreamingMediaEntity mediaEntity = streamingMediaService.getOrCreateStreamingMedia(
                         driveFile.getId(),
@@ -108,27 +121,10 @@ public class SongConverter implements EntityConverter<SongEntity, SongRequestDTO
 
                 entity.setStreamingMedia(mediaEntity);
 
-                SongDTO tempSongDTO = new SongDTO();
-                tempSongDTO.setDriveFileId(driveFile.getId());
-
-                try {
-                    streamingPlayer.extractMetadata(tempSongDTO);
-
-                    entity.setTitle(tempSongDTO.getTitle());
-
-                    if (tempSongDTO.getSongLyrics() != null && !tempSongDTO.getSongLyrics().isEmpty()) {
-                        entity.setLyrics(new LyricsEntity(tempSongDTO.getSongLyrics()));
-                    } else {
-                        entity.setLyrics(new LyricsEntity(""));
-                    }
-
-                    entity.setDuration(tempSongDTO.getDuration());
-                    entity.setReleaseYear(tempSongDTO.getReleaseYear());
-                    entity.setBitrate(tempSongDTO.getBitrate());
-                    entity.setFrame(tempSongDTO.getFrame());
-                } catch (Exception e) {
-                    log.warn("Could not extract full metadata from Google Drive file", e);
-                    entity.setTitle(driveFile.getName());
+                if (readAudioMetadata) {
+                    fillAudioMetadata(entity);
+                } else {
+                    entity.setTitle(FileUtil.removeExtension(driveFile.getName()));
                     entity.setDuration(0);
                 }
             }
@@ -143,7 +139,7 @@ public class SongConverter implements EntityConverter<SongEntity, SongRequestDTO
             AlbumEntity album = albumRepository.findById(request.getAlbumId())
                     .orElseGet(
                             () -> AlbumEntity.builder()
-                                    .title(entity.getTitle() + " - Single")
+                                    .title(singleAlbumTitle(entity.getTitle()))
                                     .artist(artistRepository
                                             .findByUserId(Objects.requireNonNull(SecurityUtils.getPrincipal().getId()))
                                             .orElseGet(null))
@@ -161,6 +157,59 @@ public class SongConverter implements EntityConverter<SongEntity, SongRequestDTO
         }
     }
 
+    /**
+     * Title of the album created for a song uploaded without one.
+     */
+    public static String singleAlbumTitle(String songTitle) {
+        return songTitle + " - Single";
+    }
+
+    /**
+     * Reads title, lyrics, duration, bitrate, frame count and the seek index from the song's audio file.
+     * Falls back to the file name and a zero duration when the file can't be parsed.
+     *
+     * @return false when the fallbacks were used
+     */
+    public boolean fillAudioMetadata(SongEntity entity) {
+        StreamingMediaEntity mediaEntity = entity.getStreamingMedia();
+        SongDTO tempSongDTO = new SongDTO();
+        tempSongDTO.setDriveFileId(mediaEntity.getGoogleDriveId());
+
+        try {
+            streamingPlayer.extractMetadata(tempSongDTO);
+
+            // Untagged files keep their file name, without the extension
+            entity.setTitle(StringUtils.isBlank(tempSongDTO.getTitle())
+                    ? FileUtil.removeExtension(mediaEntity.getName())
+                    : tempSongDTO.getTitle());
+
+            if (tempSongDTO.getSongLyrics() != null && !tempSongDTO.getSongLyrics().isEmpty()) {
+                entity.setLyrics(new LyricsEntity(tempSongDTO.getSongLyrics()));
+            } else {
+                entity.setLyrics(new LyricsEntity(""));
+            }
+
+            entity.setDuration(tempSongDTO.getDuration());
+            entity.setReleaseYear(tempSongDTO.getReleaseYear());
+            entity.setBitrate(tempSongDTO.getBitrate());
+            entity.setFrame(tempSongDTO.getFrame());
+
+            Mp3SeekIndex seekIndex = tempSongDTO.getSeekIndex();
+            if (seekIndex != null) {
+                mediaEntity.setSeekIndex(new SeekIndexEntity(
+                        seekIndex.toBytes(),
+                        seekIndex.getTotalFrames(),
+                        seekIndex.getFrameInterval()));
+            }
+            return true;
+        } catch (Exception e) {
+            log.warn("Could not extract full metadata from Google Drive file", e);
+            entity.setTitle(FileUtil.removeExtension(mediaEntity.getName()));
+            entity.setDuration(0);
+            return false;
+        }
+    }
+
     private String formatDuration(SongDTO songDTO) {
         long minutes = songDTO.getDuration() / 60;
         long remainingSeconds = songDTO.getDuration() % 60;
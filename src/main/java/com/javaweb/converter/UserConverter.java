@@ -1,17 +1,17 @@
 package com.javaweb.converter;
 
-import com.google.api.services.drive.model.File;
 import com.javaweb.entity.RoleEntity;
 import com.javaweb.entity.StreamingMediaEntity;
 import com.javaweb.entity.UserEntity;
 import com.javaweb.enums.AccountStatus;
 import com.javaweb.enums.RoleType;
+import com.javaweb.model.dto.StoredFileDTO;
 import com.javaweb.model.dto.UserDTO;
 import com.javaweb.model.request.UserRequestDTO;
 import com.javaweb.repository.RoleRepository;
 import com.javaweb.repository.StreamingMediaRepository;
+import com.javaweb.service.MediaStorage;
 import com.javaweb.service.StreamingMediaService;
-import com.javaweb.service.impl.GoogleDriveService;
 import com.javaweb.utils.DateUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -29,7 +29,7 @@ public class UserConverter implements EntityConverter<UserEntity, UserRequestDTO
     private final ModelMapper modelMapper;
     private final RoleRepository roleRepository;
     private final StreamingMediaRepository mediaRepository;
-    private final GoogleDriveService googleDriveService;
+    private final MediaStorage mediaStorage;
     private final StreamingMediaService streamingMediaService;
 
     public UserDTO toDTO(UserEntity entity) {
@@ -58,7 +58,7 @@ public class UserConverter implements EntityConverter<UserEntity, UserRequestDTO
 
         if (request.getGoogleDriveFileId() != null) {
             try {
-                File driveFile = googleDriveService.getFileMetadata(request.getGoogleDriveFileId());
+                StoredFileDTO driveFile = mediaStorage.getMetadata(request.getGoogleDriveFileId());
 
                 StreamingMediaEntity mediaEntity = streamingMediaService.getOrCreateStreamingMedia(
                         driveFile.getId(),
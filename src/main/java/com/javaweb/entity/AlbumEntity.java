@@ -28,7 +28,8 @@ public class AlbumEntity {
     @Column(name = "release_year")
     private Integer releaseYear;
 
-    @ManyToOne(fetch = FetchType.EAGER, cascade = CascadeType.ALL)
+    // Identical covers are stored once, so removing an album must not remove its cover
+    @ManyToOne(fetch = FetchType.EAGER, cascade = {CascadeType.PERSIST, CascadeType.MERGE, CascadeType.REFRESH, CascadeType.DETACH})
     @JoinColumn(name = "cover_art_id")
     private StreamingMediaEntity coverArt;
 
@@ -0,0 +1,32 @@
+package com.javaweb.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+@Entity
+@Table(name = "seek_index")
+@Getter
+@Setter
+public class SeekIndexEntity extends BaseEntity {
+
+    // Serialized Mp3SeekIndex: frame interval, frame count, ms per frame and delta-encoded byte offsets
+    @Lob
+    @Column(name = "data", nullable = false, columnDefinition = "MEDIUMBLOB")
+    private byte[] data;
+
+    @Column(name = "total_frames")
+    private Integer totalFrames;
+
+    @Column(name = "frame_interval")
+    private Integer frameInterval;
+
+    public SeekIndexEntity() {
+    }
+
+    public SeekIndexEntity(byte[] data, Integer totalFrames, Integer frameInterval) {
+        this.data = data;
+        this.totalFrames = totalFrames;
+        this.frameInterval = frameInterval;
+    }
+}
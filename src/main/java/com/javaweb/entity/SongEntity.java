@@ -33,7 +33,8 @@ public class SongEntity extends BaseEntity {
     @Column(name = "release_year")
     private Integer releaseYear;
 
-    @ManyToOne(fetch = FetchType.EAGER, cascade = CascadeType.ALL)
+    // No REMOVE: deduplicated media can be shared, see StreamingMediaRepository.countReferences
+    @ManyToOne(fetch = FetchType.EAGER, cascade = {CascadeType.PERSIST, CascadeType.MERGE, CascadeType.REFRESH, CascadeType.DETACH})
     @JoinColumn(name = "audio_file_id", nullable = false)
     private StreamingMediaEntity streamingMedia;
 
@@ -66,6 +67,18 @@ public class SongEntity extends BaseEntity {
     @Column(name = "average_rating")
     private Double averageRating;
 
+    // Integrated loudness (EBU R128), null until the loudness analysis job has run
+    @Column(name = "loudness_lufs")
+    private Double loudnessLufs;
+
+    // Sample peak, linear 0..1
+    @Column(name = "peak_amplitude")
+    private Double peakAmplitude;
+
+    // Min/max pairs for the seek bar waveform, see WaveformBuilder
+    @Column(name = "waveform_peaks", length = 2000)
+    private byte[] waveformPeaks;
+
 
     @Builder(toBuilder = true)
     public SongEntity(AlbumEntity album, String title, Integer duration,
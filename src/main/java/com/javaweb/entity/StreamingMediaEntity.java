@@ -4,11 +4,15 @@ package com.javaweb.entity;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.BatchSize;
 
 import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
 
 @Entity
-@Table(name = "streaming_media")
+@Table(name = "streaming_media",
+        uniqueConstraints = @UniqueConstraint(name = "uk_streaming_media_content_hash", columnNames = "content_hash"))
 @Getter
 @Setter
 public class StreamingMediaEntity {
@@ -32,10 +36,27 @@ public class StreamingMediaEntity {
     @Column(name = "web_content_link")
     private String webContentLink;
 
+    // Hex SHA-256 of the file content, null for media stored before hashing was added
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
+    // Downscaled copies of an image, keyed by their longest side in pixels; empty for other media.
+    // Loaded on first access, for up to 50 media per query when a page of DTOs is converted
+    @ElementCollection(fetch = FetchType.LAZY)
+    @BatchSize(size = 50)
+    @CollectionTable(name = "streaming_media_rendition", joinColumns = @JoinColumn(name = "streaming_media_id"))
+    @MapKeyColumn(name = "size_px")
+    @Column(name = "file_id", nullable = false)
+    private Map<Integer, String> renditions = new HashMap<>();
+
 
     @Column(name = "uploaded_at")
     private LocalDateTime uploadedAt;
 
+    @OneToOne(fetch = FetchType.LAZY, cascade = CascadeType.ALL, orphanRemoval = true)
+    @JoinColumn(name = "seek_index_id")
+    private SeekIndexEntity seekIndex;
+
     public StreamingMediaEntity() {
     }
 
@@ -30,7 +30,8 @@ public class UserEntity extends BaseEntity {
     @Column(name = "date_of_birth")
     private LocalDateTime dateOfBirth;
 
-    @ManyToOne(fetch = FetchType.EAGER, cascade = CascadeType.ALL)
+    // A replaced avatar is deleted by UserServiceImpl once nothing else references it
+    @ManyToOne(fetch = FetchType.EAGER, cascade = {CascadeType.PERSIST, CascadeType.MERGE, CascadeType.REFRESH, CascadeType.DETACH})
     @JoinColumn(name = "avatar_id")
     private StreamingMediaEntity avatar;
 
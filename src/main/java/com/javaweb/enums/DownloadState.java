@@ -0,0 +1,9 @@
+package com.javaweb.enums;
+
+public enum DownloadState {
+    QUEUED,
+    DOWNLOADING,
+    COMPLETED,
+    FAILED,
+    CANCELLED
+}
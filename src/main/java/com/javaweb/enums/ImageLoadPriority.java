@@ -0,0 +1,9 @@
+package com.javaweb.enums;
+
+// Declared from most to least urgent; queued image loads run in this order
+public enum ImageLoadPriority {
+    NOW_PLAYING,
+    VISIBLE,
+    // Not on screen yet, or scrolled out of view
+    PREFETCH
+}
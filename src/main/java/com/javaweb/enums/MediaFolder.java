@@ -0,0 +1,13 @@
+package com.javaweb.enums;
+
+public enum MediaFolder {
+    MUSIC,
+    IMAGES,
+    ALBUM_COVER,
+    ARTIST_PROFILE,
+    AVATAR,
+    BACKGROUND,
+    ICON,
+    LOGO,
+    MISC
+}
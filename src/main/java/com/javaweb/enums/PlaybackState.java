@@ -0,0 +1,9 @@
+package com.javaweb.enums;
+
+public enum PlaybackState {
+    IDLE,
+    LOADING,
+    PLAYING,
+    PAUSED,
+    FINISHED
+}
@@ -0,0 +1,17 @@
+package com.javaweb.enums;
+
+public enum UploadState {
+    QUEUED,
+    UPLOADING,
+    // Bytes stored and song saved; metadata and tags are still being filled in
+    UPLOADED,
+    COMPLETED,
+    // Song saved and playable under its file name, but its audio metadata could not be read or saved
+    METADATA_FAILED,
+    FAILED;
+
+    // Nothing more happens to the file once it reaches one of these
+    public boolean isFinished() {
+        return this == COMPLETED || this == METADATA_FAILED || this == FAILED;
+    }
+}
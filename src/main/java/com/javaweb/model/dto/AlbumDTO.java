@@ -9,6 +9,7 @@ import lombok.experimental.SuperBuilder;
 
 import java.awt.image.BufferedImage;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 
@@ -26,6 +27,7 @@ public class AlbumDTO extends AbstractDTO {
     @JsonIgnore
     private BufferedImage albumImage;
     private String imageId;
+    private Map<Integer, String> imageRenditions;
     private String artistName;
     private Long artistId;
     private String albumLength;
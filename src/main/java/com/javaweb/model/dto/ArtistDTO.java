@@ -8,6 +8,7 @@ import lombok.Setter;
 import lombok.experimental.SuperBuilder;
 
 import java.awt.image.BufferedImage;
+import java.util.Map;
 import java.util.Set;
 
 
@@ -21,6 +22,7 @@ public class ArtistDTO extends AbstractDTO {
     private String stageName;
     private String bio;
     private String profilePictureId;
+    private Map<Integer, String> profilePictureRenditions;
     private Set<AlbumDTO> albumDTOS;
     private Set<SongDTO> songDTOSet;
     @JsonIgnore
@@ -0,0 +1,24 @@
+package com.javaweb.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * What the stream endpoint needs to answer Range and conditional requests for a song's audio.
+ */
+@Getter
+@AllArgsConstructor
+public class AudioStreamDTO {
+
+    private String driveFileId;
+
+    private String mimeType;
+
+    private long contentLength;
+
+    // Quoted strong validator, changes whenever the stored file changes
+    private String eTag;
+
+    // Epoch millis, -1 when unknown
+    private long lastModified;
+}
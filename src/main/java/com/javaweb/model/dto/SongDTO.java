@@ -1,15 +1,20 @@
 package com.javaweb.model.dto;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.javaweb.utils.Mp3SeekIndex;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.experimental.SuperBuilder;
 
+import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 @Getter
@@ -26,6 +31,9 @@ public class SongDTO extends AbstractDTO {
     private Integer duration;
     private Long frame;
     private Long bitrate;
+    private Double loudnessLufs;
+    private Double peakAmplitude;
+    private byte[] waveformPeaks;
     private String genre;
     private Integer releaseYear;
     private String songLyrics;
@@ -41,17 +49,36 @@ public class SongDTO extends AbstractDTO {
     private String webContentLink;
 
     private String albumArtId;
+    // Longest side in pixels -> file ID of a smaller copy of the album art
+    private Map<Integer, String> albumArtRenditions;
 
     private String localFilePath;
     private Boolean isLocalFile = false;
     private Date downloadDate;
     @JsonIgnore
     private BufferedImage songImage;
+    // Image bytes that getSongImage decodes on first use, e.g. the cover thumbnail of a local song
+    @JsonIgnore
+    private byte[] encodedSongImage;
+    @JsonIgnore
+    private Mp3SeekIndex seekIndex;
     private Long albumId;
     private List<Long> artistIds;
     private List<ArtistDTO> artistDTOs;
 
 
+    public BufferedImage getSongImage() {
+        if (songImage == null && encodedSongImage != null) {
+            try {
+                songImage = ImageIO.read(new ByteArrayInputStream(encodedSongImage));
+            } catch (IOException ignored) {
+                // Shown like a song without a cover
+            }
+            encodedSongImage = null;
+        }
+        return songImage;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -0,0 +1,33 @@
+package com.javaweb.model.dto;
+
+import com.javaweb.enums.UploadState;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Progress of one file in a multi-song upload. Updated from the upload threads while it runs, and
+ * polled by the uploading client under the upload's ID.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class SongUploadProgressDTO {
+
+    private String fileName;
+
+    private long totalBytes;
+
+    private volatile long bytesUploaded;
+
+    private volatile UploadState state = UploadState.QUEUED;
+
+    private volatile Long songId;
+
+    private volatile String error;
+
+    public SongUploadProgressDTO(String fileName, long totalBytes) {
+        this.fileName = fileName;
+        this.totalBytes = totalBytes;
+    }
+}
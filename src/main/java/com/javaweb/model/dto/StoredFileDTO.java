@@ -0,0 +1,23 @@
+package com.javaweb.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Backend-neutral description of a file held by a {@link com.javaweb.service.MediaStorage}.
+ */
+@Getter
+@AllArgsConstructor
+public class StoredFileDTO {
+
+    private String id;
+
+    private String name;
+
+    private String mimeType;
+
+    // Null when the backend does not report it
+    private Long size;
+
+    private String webContentLink;
+}
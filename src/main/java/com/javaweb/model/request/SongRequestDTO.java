@@ -24,5 +24,8 @@ public class SongRequestDTO extends AbstractDTO {
     private List<Long> artistIds;
     private List<MultipartFile> mp3Files;
 
+    // Chosen by the client so it can poll a multi-song upload's progress while the request runs
+    private String uploadId;
+
 
 }
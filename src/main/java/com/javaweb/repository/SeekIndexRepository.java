@@ -0,0 +1,9 @@
+package com.javaweb.repository;
+
+import com.javaweb.entity.SeekIndexEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface SeekIndexRepository extends JpaRepository<SeekIndexEntity, Long> {
+}
@@ -1,10 +1,13 @@
 package com.javaweb.repository;
 
 import com.javaweb.entity.SongEntity;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -59,6 +62,25 @@ public interface SongRepository extends JpaRepository<SongEntity, Long> {
     @Query("SELECT s FROM SongEntity s JOIN PlaylistSongEntity ps ON s.id = ps.song.id WHERE ps.playlist.id IN :playlistIds")
     List<SongEntity> findByPlaylistIds(@Param("playlistIds") List<Long> playlistIds);
 
+    @Query("""
+            SELECT s FROM SongEntity s JOIN FETCH s.streamingMedia
+            WHERE (s.loudnessLufs IS NULL OR s.waveformPeaks IS NULL) AND s.id > :afterId
+            ORDER BY s.id
+            """)
+    List<SongEntity> findSongsPendingAnalysis(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Modifying
+    @Transactional
+    @Query("""
+            UPDATE SongEntity s
+            SET s.loudnessLufs = :loudnessLufs, s.peakAmplitude = :peakAmplitude, s.waveformPeaks = :waveformPeaks
+            WHERE s.id = :songId
+            """)
+    int updateAnalysis(@Param("songId") Long songId,
+                       @Param("loudnessLufs") Double loudnessLufs,
+                       @Param("peakAmplitude") Double peakAmplitude,
+                       @Param("waveformPeaks") byte[] waveformPeaks);
+
     @Query(value = "select s.* from song s join song_artist sa on s.id = sa.song_id where sa.artist_id = :artistId order by play_count desc limit :limit ", nativeQuery = true)
     List<SongEntity> fetchPopularTracksByArtistId(Long artistId, int limit);
 
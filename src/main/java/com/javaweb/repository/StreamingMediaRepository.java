@@ -1,12 +1,71 @@
 package com.javaweb.repository;
 
+import com.javaweb.entity.SeekIndexEntity;
 import com.javaweb.entity.StreamingMediaEntity;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 @Repository
 public interface StreamingMediaRepository extends JpaRepository<StreamingMediaEntity, Long> {
     Optional<StreamingMediaEntity> findByGoogleDriveId(String id);
+
+    // Renditions come along, storeImage checks them after the lookup's session is closed
+    @EntityGraph(attributePaths = "renditions")
+    Optional<StreamingMediaEntity> findFirstByContentHash(String contentHash);
+
+    // A locking read, so it sees a row committed by another transaction after this one's snapshot
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @EntityGraph(attributePaths = "renditions")
+    @Query("SELECT m FROM StreamingMediaEntity m WHERE m.contentHash = :contentHash")
+    Optional<StreamingMediaEntity> findCommittedByContentHash(@Param("contentHash") String contentHash);
+
+    // Does nothing when the content hash is already stored; the unique index decides which upload wins
+    @Modifying
+    @Transactional
+    @Query(value = """
+            INSERT INTO streaming_media
+                (google_drive_id, name, mime_type, size_bytes, web_content_link, content_hash, uploaded_at)
+            VALUES (:googleDriveId, :name, :mimeType, :sizeBytes, :webContentLink, :contentHash, :uploadedAt)
+            ON DUPLICATE KEY UPDATE id = id
+            """, nativeQuery = true)
+    void insertIfContentNew(@Param("googleDriveId") String googleDriveId,
+                            @Param("name") String name,
+                            @Param("mimeType") String mimeType,
+                            @Param("sizeBytes") Long sizeBytes,
+                            @Param("webContentLink") String webContentLink,
+                            @Param("contentHash") String contentHash,
+                            @Param("uploadedAt") LocalDateTime uploadedAt);
+
+    boolean existsByIdAndSeekIndexIsNotNull(Long id);
+
+    // Only fills an empty slot, so a concurrent build can't replace an index that is already stored
+    @Modifying
+    @Transactional
+    @Query("""
+            UPDATE StreamingMediaEntity m
+            SET m.seekIndex = :seekIndex
+            WHERE m.id = :mediaId AND m.seekIndex IS NULL
+            """)
+    int attachSeekIndex(@Param("mediaId") Long mediaId, @Param("seekIndex") SeekIndexEntity seekIndex);
+
+    // How many songs, albums, artists, users and playlists use this media
+    @Query("""
+            SELECT (SELECT COUNT(s) FROM SongEntity s WHERE s.streamingMedia = :media)
+                 + (SELECT COUNT(a) FROM AlbumEntity a WHERE a.coverArt = :media)
+                 + (SELECT COUNT(ar) FROM ArtistEntity ar WHERE ar.profilePic = :media)
+                 + (SELECT COUNT(u) FROM UserEntity u WHERE u.avatar = :media)
+                 + (SELECT COUNT(p) FROM PlaylistEntity p WHERE p.coverImage = :media)
+            FROM StreamingMediaEntity m WHERE m = :media
+            """)
+    long countReferences(@Param("media") StreamingMediaEntity media);
 }
@@ -0,0 +1,12 @@
+package com.javaweb.service;
+
+import com.javaweb.model.dto.AudioStreamDTO;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface AudioStreamService {
+    AudioStreamDTO findAudioStream(Long songId);
+
+    void writeAudio(AudioStreamDTO audioStream, long start, long count, OutputStream outputStream) throws IOException;
+}
@@ -0,0 +1,116 @@
+package com.javaweb.service;
+
+import com.javaweb.enums.MediaFolder;
+import com.javaweb.model.dto.StoredFileDTO;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Where song audio and images are stored. File IDs are opaque to callers and are what
+ * {@code StreamingMediaEntity.googleDriveId} holds, whichever backend issued them.
+ * <p>
+ * The backend is chosen with {@code app.media.storage} ({@code drive} by default, or {@code local}).
+ */
+public interface MediaStorage {
+
+    /**
+     * @param length number of bytes in {@code content}, or -1 when unknown
+     */
+    StoredFileDTO upload(MediaFolder folder, String fileName, String mimeType, InputStream content, long length) throws IOException;
+
+    default StoredFileDTO upload(MediaFolder folder, String fileName, MultipartFile file) throws IOException {
+        try (InputStream content = file.getInputStream()) {
+            return upload(folder, fileName, file.getContentType(), content, file.getSize());
+        }
+    }
+
+    InputStream getContent(String fileId) throws IOException;
+
+    /**
+     * Opens the content starting at {@code offset}. An offset at or past the end gives an empty stream.
+     */
+    InputStream getContent(String fileId, long offset) throws IOException;
+
+    InputStream getContent(String fileId, long start, long endInclusive) throws IOException;
+
+    /**
+     * Like {@link #getContent(String, long, long)}, and also reports the total size of the file,
+     * which remote backends read from the Content-Range header of the same response instead of
+     * asking for the metadata separately.
+     */
+    default RangedContent getContentRange(String fileId, long start, long endInclusive) throws IOException {
+        Long size = getMetadata(fileId).getSize();
+        return new RangedContent(getContent(fileId, start, endInclusive), size != null ? size : -1);
+    }
+
+    /**
+     * An image scaled to about {@code sizePx} on its longest side, for views that never show it
+     * larger. Backends without smaller renditions return the original.
+     */
+    default InputStream getImageContent(String fileId, int sizePx) throws IOException {
+        return getContent(fileId);
+    }
+
+    StoredFileDTO getMetadata(String fileId) throws IOException;
+
+    /**
+     * Metadata for many files at once, keyed by file ID. Files that cannot be read are left out.
+     */
+    default Map<String, StoredFileDTO> getMetadata(Collection<String> fileIds) {
+        Map<String, StoredFileDTO> result = new HashMap<>();
+        for (String fileId : fileIds) {
+            try {
+                result.put(fileId, getMetadata(fileId));
+            } catch (IOException e) {
+                // Left out, as documented
+            }
+        }
+        return result;
+    }
+
+    List<StoredFileDTO> list(MediaFolder folder) throws IOException;
+
+    boolean delete(String fileId);
+
+    /**
+     * Writes {@code count} bytes starting at {@code position} to {@code target} and returns how many
+     * were written. Backends that can hand bytes to the channel without copying them through the
+     * heap override this.
+     */
+    default long transferTo(String fileId, long position, long count, WritableByteChannel target) throws IOException {
+        long written = 0;
+        try (InputStream in = getContent(fileId, position, position + count - 1)) {
+            byte[] buffer = new byte[64 * 1024];
+            int n;
+            while (written < count && (n = in.read(buffer, 0, (int) Math.min(buffer.length, count - written))) != -1) {
+                ByteBuffer chunk = ByteBuffer.wrap(buffer, 0, n);
+                while (chunk.hasRemaining()) {
+                    target.write(chunk);
+                }
+                written += n;
+            }
+        }
+        return written;
+    }
+
+    /**
+     * Whether reads go over the network, in which case callers should put a cache in front.
+     */
+    default boolean isRemote() {
+        return true;
+    }
+
+    /**
+     * @param totalSize size of the whole file in bytes, or -1 when the backend didn't say
+     */
+    record RangedContent(InputStream content, long totalSize) {
+    }
+}
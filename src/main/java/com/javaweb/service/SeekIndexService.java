@@ -0,0 +1,13 @@
+package com.javaweb.service;
+
+/**
+ * Builds the per-file MP3 seek index in the background and stores it on the media record.
+ */
+public interface SeekIndexService {
+
+    /**
+     * Queues the index for a stored audio file unless it already has one or is already queued.
+     * Inside a transaction the build starts after commit, so it sees the new media row.
+     */
+    void scheduleBuild(Long mediaId, String fileId);
+}
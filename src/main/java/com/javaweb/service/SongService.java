@@ -2,6 +2,7 @@ package com.javaweb.service;
 
 
 import com.javaweb.model.dto.SongDTO;
+import com.javaweb.model.dto.SongUploadProgressDTO;
 import com.javaweb.model.request.SongRequestDTO;
 
 import java.util.List;
@@ -28,6 +29,12 @@ public interface SongService {
 
     Map<String, Object> createMultipleSongs(SongRequestDTO songRequestDTO);
 
+    /**
+     * Per-file progress of a multi-song upload started with {@code uploadId}, or null when no such
+     * upload is known.
+     */
+    List<SongUploadProgressDTO> findUploadProgress(String uploadId);
+
     SongDTO findByGoogleDriveId(String driveId);
 
     List<SongDTO> searchSongs(String query, int limit);
@@ -40,4 +47,6 @@ public interface SongService {
 
     List<SongDTO> findFilteredSongs(Integer year, String genre, Long artistId);
 
+    byte[] findSeekIndex(Long songId);
+
 }
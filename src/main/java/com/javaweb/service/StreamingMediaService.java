@@ -1,9 +1,40 @@
 package com.javaweb.service;
 
 import com.javaweb.entity.StreamingMediaEntity;
+import com.javaweb.enums.MediaFolder;
+import org.springframework.core.io.InputStreamSource;
+
+import java.io.IOException;
+import java.util.function.LongConsumer;
 
 public interface StreamingMediaService {
     StreamingMediaEntity getOrCreateStreamingMedia(String fileId, String name,
                                                    String mimeType, Long size,
                                                    String webContentLink);
+
+    /**
+     * Stores the content unless identical content is already stored, in which case the existing
+     * record is returned and nothing is uploaded.
+     *
+     * @param length number of bytes in the content, or -1 when unknown
+     */
+    default StreamingMediaEntity storeMedia(MediaFolder folder, String fileName, String mimeType,
+                                            InputStreamSource content, long length) throws IOException {
+        return storeMedia(folder, fileName, mimeType, content, length, bytes -> {
+        });
+    }
+
+    /**
+     * @param progress receives the number of bytes uploaded so far; not called for duplicates
+     */
+    StreamingMediaEntity storeMedia(MediaFolder folder, String fileName, String mimeType,
+                                    InputStreamSource content, long length, LongConsumer progress) throws IOException;
+
+    /**
+     * Stores an image like {@link #storeMedia} and adds downscaled renditions for the sizes in
+     * {@code AppConstant.IMAGE_THUMBNAIL_SIZES} that are smaller than the image, unless the stored
+     * record already has them.
+     */
+    StreamingMediaEntity storeImage(MediaFolder folder, String fileName, String mimeType,
+                                    InputStreamSource content, long length) throws IOException;
 }
@@ -0,0 +1,97 @@
+package com.javaweb.service.impl;
+
+import com.google.api.services.drive.model.File;
+import com.javaweb.utils.FileUtil;
+
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * In-memory lookup of album art by song name, built from one paginated listing per image folder,
+ * so matching art for a whole import costs no per-song Drive queries.
+ * <p>
+ * Folders are searched in the order they were added. Within a folder a song name is tried as an
+ * exact {@code .jpg} then {@code .png} file name, then as a base name with any extension, then as
+ * a substring of a file name. Names are compared case-insensitively.
+ */
+public class AlbumArtIndex {
+
+    private final List<FolderIndex> folders = new ArrayList<>();
+
+    /**
+     * Adds a folder below the ones already added. Thumbnail renditions stored next to the originals
+     * are left out, so a substring match never picks one.
+     */
+    public void addFolder(Stream<File> images) {
+        FolderIndex folder = new FolderIndex();
+        images.filter(file -> !FileUtil.isRenditionFilename(file.getName())).forEach(folder::add);
+        folders.add(folder);
+    }
+
+    public int size() {
+        return folders.stream().mapToInt(folder -> folder.files.size()).sum();
+    }
+
+    /**
+     * @param songName file name of the song, with or without extension
+     * @return the best matching image, or null
+     */
+    public File find(String songName) {
+        String baseName = normalize(stripExtension(songName));
+        if (baseName.isEmpty()) {
+            return null;
+        }
+        for (FolderIndex folder : folders) {
+            File match = folder.find(baseName);
+            if (match != null) {
+                return match;
+            }
+        }
+        return null;
+    }
+
+    private static String stripExtension(String name) {
+        int dot = name.lastIndexOf('.');
+        return dot > 0 ? name.substring(0, dot) : name;
+    }
+
+    private static String normalize(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static class FolderIndex {
+        private final Map<String, File> byName = new HashMap<>();
+        private final Map<String, File> byBaseName = new HashMap<>();
+        private final List<Map.Entry<String, File>> files = new ArrayList<>();
+
+        void add(File file) {
+            if (file.getName() == null) {
+                return;
+            }
+            String name = normalize(file.getName());
+            // First one wins, as the first query result did before
+            byName.putIfAbsent(name, file);
+            byBaseName.putIfAbsent(normalize(stripExtension(file.getName())), file);
+            files.add(Map.entry(name, file));
+        }
+
+        File find(String baseName) {
+            File match = byName.get(baseName + ".jpg");
+            if (match == null) {
+                match = byName.get(baseName + ".png");
+            }
+            if (match == null) {
+                match = byBaseName.get(baseName);
+            }
+            if (match != null) {
+                return match;
+            }
+            for (Map.Entry<String, File> entry : files) {
+                if (entry.getKey().contains(baseName)) {
+                    return entry.getValue();
+                }
+            }
+            return null;
+        }
+    }
+}
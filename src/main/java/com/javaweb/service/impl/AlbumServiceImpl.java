@@ -2,18 +2,22 @@ package com.javaweb.service.impl;
 
 import com.javaweb.converter.AlbumConverter;
 import com.javaweb.entity.AlbumEntity;
+import com.javaweb.enums.MediaFolder;
 import com.javaweb.model.dto.AlbumDTO;
 import com.javaweb.model.request.AlbumRequestDTO;
 import com.javaweb.repository.AlbumRepository;
 import com.javaweb.service.AlbumService;
 import com.javaweb.service.ArtistService;
 import com.javaweb.service.PlayHistoryService;
+import com.javaweb.service.StreamingMediaService;
+import com.javaweb.utils.FileUtil;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import jakarta.persistence.Query;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.*;
 import java.util.stream.Collectors;
@@ -25,7 +29,7 @@ public class AlbumServiceImpl implements AlbumService {
 
     private final AlbumRepository albumRepository;
     private final AlbumConverter albumConverter;
-    private final GoogleDriveService googleDriveService;
+    private final StreamingMediaService streamingMediaService;
     private final SharedSearchService sharedSearchService;
     private final PlayHistoryService playHistoryService;
     private final ArtistService artistService;
@@ -34,6 +38,7 @@ public class AlbumServiceImpl implements AlbumService {
 
 
     @Override
+    @Transactional(readOnly = true)
     public AlbumDTO getAlbumContainsThisSong(Long songId) {
         return albumConverter.toDTO(albumRepository.findAlbumEntitiesBySongsIsIn(songId));
     }
@@ -42,12 +47,15 @@ public class AlbumServiceImpl implements AlbumService {
     public AlbumDTO createAlbum(AlbumRequestDTO albumRequestDTO) {
         try {
             if (albumRequestDTO.getAlbumCover() != null && !albumRequestDTO.getAlbumCover().isEmpty()) {
-                String driveFileId = googleDriveService.uploadImageFile(
+                String driveFileId = streamingMediaService.storeImage(
+                        MediaFolder.ALBUM_COVER,
+                        FileUtil.generateUniqueFilename(albumRequestDTO.getAlbumCover().getOriginalFilename()),
+                        albumRequestDTO.getAlbumCover().getContentType(),
                         albumRequestDTO.getAlbumCover(),
-                        GoogleDriveService.ALBUM_COVER_FOLDER_ID
-                );
+                        albumRequestDTO.getAlbumCover().getSize()
+                ).getGoogleDriveId();
                 albumRequestDTO.setGoogleDriveFileId(driveFileId);
-                log.info("Uploaded album cover image to Google Drive with ID: {}", driveFileId);
+                log.info("Uploaded album cover image to media storage with ID: {}", driveFileId);
             }
             AlbumDTO res = albumConverter.toDTO(albumRepository.save(albumConverter.toEntity(albumRequestDTO)));
             return res;
@@ -58,6 +66,7 @@ public class AlbumServiceImpl implements AlbumService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<AlbumDTO> getAlbumsByArtistId(Long artistId) {
         try {
             return albumRepository.findAlbumEntitiesByArtist_Id(artistId)
@@ -70,6 +79,7 @@ public class AlbumServiceImpl implements AlbumService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<AlbumDTO> getRecommendedAlbums(int limit) {
         try {
 
@@ -155,6 +165,7 @@ public class AlbumServiceImpl implements AlbumService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public AlbumDTO fetchAlbumById(Long albumId) {
         return albumRepository.findById(albumId)
                 .map(albumConverter::toDTO)
@@ -162,6 +173,7 @@ public class AlbumServiceImpl implements AlbumService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<AlbumDTO> findAllAlbums() {
         try {
             return albumRepository.findAll()
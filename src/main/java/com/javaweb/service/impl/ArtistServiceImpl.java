@@ -5,6 +5,7 @@ import com.javaweb.entity.ArtistEntity;
 import com.javaweb.entity.RoleEntity;
 import com.javaweb.entity.UserEntity;
 import com.javaweb.enums.AccountStatus;
+import com.javaweb.enums.MediaFolder;
 import com.javaweb.enums.RoleType;
 import com.javaweb.model.dto.ArtistDTO;
 import com.javaweb.model.request.ArtistRequestDTO;
@@ -14,6 +15,8 @@ import com.javaweb.repository.UserArtistFollowRepository;
 import com.javaweb.repository.UserRepository;
 import com.javaweb.service.ArtistService;
 import com.javaweb.service.PasswordService;
+import com.javaweb.service.StreamingMediaService;
+import com.javaweb.utils.FileUtil;
 import com.javaweb.utils.SecurityUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -34,7 +37,7 @@ public class ArtistServiceImpl implements ArtistService {
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
 
-    private final GoogleDriveService googleDriveService;
+    private final StreamingMediaService streamingMediaService;
     private final PasswordService passwordService;
 
 
@@ -77,12 +80,15 @@ public class ArtistServiceImpl implements ArtistService {
         try {
             // Step 1: Upload artist profile picture if provided
             if (artistRequestDTO.getArtistProfilePicture() != null && !artistRequestDTO.getArtistProfilePicture().isEmpty()) {
-                String driveFileId = googleDriveService.uploadImageFile(
+                String driveFileId = streamingMediaService.storeImage(
+                        MediaFolder.ARTIST_PROFILE,
+                        FileUtil.generateUniqueFilename(artistRequestDTO.getArtistProfilePicture().getOriginalFilename()),
+                        artistRequestDTO.getArtistProfilePicture().getContentType(),
                         artistRequestDTO.getArtistProfilePicture(),
-                        GoogleDriveService.ARTIST_PROFILE_FOLDER_ID
-                );
+                        artistRequestDTO.getArtistProfilePicture().getSize()
+                ).getGoogleDriveId();
                 artistRequestDTO.setGoogleDriveFileId(driveFileId);
-                log.info("Uploaded artist profile image to Google Drive with ID: {}", driveFileId);
+                log.info("Uploaded artist profile image to media storage with ID: {}", driveFileId);
             }
 
             // Step 2: Check if user already exists by ID
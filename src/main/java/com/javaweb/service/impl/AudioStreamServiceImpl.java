@@ -0,0 +1,98 @@
+package com.javaweb.service.impl;
+
+import com.javaweb.entity.SongEntity;
+import com.javaweb.entity.StreamingMediaEntity;
+import com.javaweb.exception.EntityNotFoundException;
+import com.javaweb.model.dto.AudioStreamDTO;
+import com.javaweb.repository.SongRepository;
+import com.javaweb.service.AudioStreamService;
+import com.javaweb.service.MediaStorage;
+import com.javaweb.utils.AudioChunkCache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.time.ZoneId;
+
+/**
+ * Serves song audio from the server-side chunk cache, so each remote file is downloaded once no matter
+ * how many clients play it. Local storage skips the cache and hands the range straight to the response.
+ */
+@Service
+@Slf4j
+public class AudioStreamServiceImpl implements AudioStreamService {
+
+    private static final String DEFAULT_MIME_TYPE = "audio/mpeg";
+
+    private final SongRepository songRepository;
+    private final MediaStorage mediaStorage;
+    private final AudioChunkCache serverAudioCache;
+
+    public AudioStreamServiceImpl(SongRepository songRepository,
+                                  MediaStorage mediaStorage,
+                                  @Qualifier("serverAudioCache") AudioChunkCache serverAudioCache) {
+        this.songRepository = songRepository;
+        this.mediaStorage = mediaStorage;
+        this.serverAudioCache = serverAudioCache;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public AudioStreamDTO findAudioStream(Long songId) {
+        SongEntity song = songRepository.findById(songId)
+                .orElseThrow(() -> new EntityNotFoundException("Song not found!"));
+        StreamingMediaEntity media = song.getStreamingMedia();
+        if (media == null || media.getGoogleDriveId() == null) {
+            throw new EntityNotFoundException("No audio for song " + songId);
+        }
+
+        String fileId = media.getGoogleDriveId();
+        long length = resolveLength(media);
+        String mimeType = media.getMimeType() != null ? media.getMimeType() : DEFAULT_MIME_TYPE;
+        long lastModified = media.getUploadedAt() != null
+                ? media.getUploadedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                : -1;
+
+        // The content hash is the strongest validator; older media fall back to ID and length
+        String eTag = media.getContentHash() != null
+                ? "\"" + media.getContentHash() + "\""
+                : "\"" + fileId + "-" + length + "\"";
+        return new AudioStreamDTO(fileId, mimeType, length, eTag, lastModified);
+    }
+
+    @Override
+    public void writeAudio(AudioStreamDTO audioStream, long start, long count, OutputStream outputStream) throws IOException {
+        if (!mediaStorage.isRemote()) {
+            mediaStorage.transferTo(audioStream.getDriveFileId(), start, count, Channels.newChannel(outputStream));
+            return;
+        }
+        try (InputStream inputStream = serverAudioCache.openStream(audioStream.getDriveFileId(), start)) {
+            StreamUtils.copyRange(inputStream, outputStream, 0, count - 1);
+        }
+    }
+
+    private long resolveLength(StreamingMediaEntity media) {
+        if (media.getSizeBytes() != null && media.getSizeBytes() > 0) {
+            return media.getSizeBytes();
+        }
+        long cached = serverAudioCache.getKnownLength(media.getGoogleDriveId());
+        if (cached > 0) {
+            return cached;
+        }
+        try {
+            Long size = mediaStorage.getMetadata(media.getGoogleDriveId()).getSize();
+            if (size != null) {
+                return size;
+            }
+        } catch (IOException e) {
+            log.warn("Could not read size of {}: {}", media.getGoogleDriveId(), e.getMessage());
+        }
+        throw new EntityNotFoundException("Unknown size for file " + media.getGoogleDriveId());
+    }
+}
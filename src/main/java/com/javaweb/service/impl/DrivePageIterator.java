@@ -0,0 +1,86 @@
+package com.javaweb.service.impl;
+
+import com.google.api.services.drive.model.File;
+import com.google.api.services.drive.model.FileList;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Walks a Drive {@code files.list} result page by page, following {@code nextPageToken}.
+ * <p>
+ * The first page is requested on the first call to {@link #hasNext()} or {@link #next()}, so an
+ * iterator that is never consumed costs nothing. As soon as a page is handed out the request for
+ * the one after it is started on the executor, so the caller works on one page while the next is on
+ * its way. Request failures surface from {@link #next()} as {@link UncheckedIOException}.
+ */
+public class DrivePageIterator implements Iterator<List<File>> {
+
+    @FunctionalInterface
+    public interface PageFetcher {
+        /**
+         * @param pageToken null for the first page
+         */
+        FileList fetch(String pageToken) throws IOException;
+    }
+
+    private final PageFetcher fetcher;
+    private final Executor executor;
+    private CompletableFuture<FileList> nextPage;
+    private boolean started = false;
+
+    public DrivePageIterator(PageFetcher fetcher, Executor executor) {
+        this.fetcher = fetcher;
+        this.executor = executor;
+    }
+
+    @Override
+    public boolean hasNext() {
+        start();
+        return nextPage != null;
+    }
+
+    @Override
+    public List<File> next() {
+        start();
+        if (nextPage == null) {
+            throw new NoSuchElementException();
+        }
+        FileList page;
+        try {
+            page = nextPage.join();
+        } catch (CompletionException e) {
+            nextPage = null;
+            throw e.getCause() instanceof UncheckedIOException unchecked
+                    ? unchecked
+                    : new UncheckedIOException(new IOException(e.getCause()));
+        }
+
+        String token = page.getNextPageToken();
+        nextPage = token != null && !token.isEmpty() ? request(token) : null;
+        return page.getFiles() != null ? page.getFiles() : List.of();
+    }
+
+    private void start() {
+        if (!started) {
+            started = true;
+            nextPage = request(null);
+        }
+    }
+
+    private CompletableFuture<FileList> request(String pageToken) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return fetcher.fetch(pageToken);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, executor);
+    }
+}
@@ -0,0 +1,109 @@
+package com.javaweb.service.impl;
+
+import com.google.api.services.drive.model.File;
+import com.javaweb.enums.MediaFolder;
+import com.javaweb.model.dto.StoredFileDTO;
+import com.javaweb.service.MediaStorage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.media.storage", havingValue = "drive", matchIfMissing = true)
+public class GoogleDriveMediaStorage implements MediaStorage {
+
+    private final GoogleDriveService googleDriveService;
+
+    @Override
+    public StoredFileDTO upload(MediaFolder folder, String fileName, String mimeType, InputStream content, long length) throws IOException {
+        return toStoredFile(googleDriveService.uploadFile(fileName, mimeType, folderId(folder), content, length));
+    }
+
+    @Override
+    public InputStream getContent(String fileId) throws IOException {
+        return googleDriveService.getFileContent(fileId);
+    }
+
+    @Override
+    public InputStream getContent(String fileId, long offset) throws IOException {
+        return googleDriveService.getFileContent(fileId, offset);
+    }
+
+    @Override
+    public InputStream getContent(String fileId, long start, long endInclusive) throws IOException {
+        return googleDriveService.getFileContent(fileId, start, endInclusive);
+    }
+
+    @Override
+    public RangedContent getContentRange(String fileId, long start, long endInclusive) throws IOException {
+        return googleDriveService.getFileContentRange(fileId, start, endInclusive);
+    }
+
+    /**
+     * Serves Drive's own thumbnail at the requested size, and the original when Drive has none.
+     */
+    @Override
+    public InputStream getImageContent(String fileId, int sizePx) throws IOException {
+        try {
+            InputStream thumbnail = googleDriveService.getThumbnailContent(fileId, sizePx);
+            if (thumbnail != null) {
+                return thumbnail;
+            }
+        } catch (IOException e) {
+            log.debug("No thumbnail for {}, loading the original: {}", fileId, e.getMessage());
+        }
+        return getContent(fileId);
+    }
+
+    @Override
+    public StoredFileDTO getMetadata(String fileId) throws IOException {
+        return toStoredFile(googleDriveService.getFileMetadata(fileId));
+    }
+
+    @Override
+    public Map<String, StoredFileDTO> getMetadata(Collection<String> fileIds) {
+        Map<String, StoredFileDTO> result = new HashMap<>();
+        googleDriveService.getFilesMetadata(fileIds).forEach((id, file) -> result.put(id, toStoredFile(file)));
+        return result;
+    }
+
+    @Override
+    public List<StoredFileDTO> list(MediaFolder folder) throws IOException {
+        return googleDriveService.listFilesFromFolder(folderId(folder)).stream()
+                .map(this::toStoredFile)
+                .toList();
+    }
+
+    @Override
+    public boolean delete(String fileId) {
+        return googleDriveService.deleteFile(fileId);
+    }
+
+    private StoredFileDTO toStoredFile(File file) {
+        return new StoredFileDTO(file.getId(), file.getName(), file.getMimeType(), file.getSize(), file.getWebContentLink());
+    }
+
+    private static String folderId(MediaFolder folder) {
+        return switch (folder) {
+            case MUSIC -> GoogleDriveService.MUSIC_FOLDER_ID;
+            case IMAGES -> GoogleDriveService.IMAGE_FOLDER_ID;
+            case ALBUM_COVER -> GoogleDriveService.ALBUM_COVER_FOLDER_ID;
+            case ARTIST_PROFILE -> GoogleDriveService.ARTIST_PROFILE_FOLDER_ID;
+            case AVATAR -> GoogleDriveService.AVATAR_FOLDER_ID;
+            case BACKGROUND -> GoogleDriveService.BACKGROUND_FOLDER_ID;
+            case ICON -> GoogleDriveService.ICON_FOLDER_ID;
+            case LOGO -> GoogleDriveService.LOGO_FOLDER_ID;
+            case MISC -> GoogleDriveService.MISC_FOLDER_ID;
+        };
+    }
+}
@@ -5,9 +5,16 @@ import com.google.api.client.extensions.java6.auth.oauth2.AuthorizationCodeInsta
 import com.google.api.client.extensions.jetty.auth.oauth2.LocalServerReceiver;
 import com.google.api.client.googleapis.auth.oauth2.GoogleAuthorizationCodeFlow;
 import com.google.api.client.googleapis.auth.oauth2.GoogleClientSecrets;
+import com.google.api.client.googleapis.batch.BatchRequest;
+import com.google.api.client.googleapis.batch.json.JsonBatchCallback;
 import com.google.api.client.googleapis.javanet.GoogleNetHttpTransport;
-import com.google.api.client.http.FileContent;
+import com.google.api.client.googleapis.json.GoogleJsonError;
+import com.google.api.client.http.GenericUrl;
+import com.google.api.client.http.HttpHeaders;
+import com.google.api.client.http.HttpResponse;
+import com.google.api.client.http.HttpResponseException;
 import com.google.api.client.http.HttpTransport;
+import com.google.api.client.http.InputStreamContent;
 import com.google.api.client.json.JsonFactory;
 import com.google.api.client.json.gson.GsonFactory;
 import com.google.api.client.util.store.FileDataStoreFactory;
@@ -16,21 +23,30 @@ import com.google.api.services.drive.DriveScopes;
 import com.google.api.services.drive.model.File;
 import com.google.api.services.drive.model.FileList;
 import com.javaweb.constant.AppConstant;
-import com.javaweb.utils.DateUtil;
+import com.javaweb.service.MediaStorage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.compress.utils.IOUtils;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Component;
-import org.springframework.web.multipart.MultipartFile;
 
 import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
 import java.io.*;
 import java.security.GeneralSecurityException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 @Slf4j
+@Lazy
 @Component
 @RequiredArgsConstructor
 public class GoogleDriveService {
@@ -39,6 +55,7 @@ public class GoogleDriveService {
     private static final String TOKENS_DIRECTORY_PATH = AppConstant.TOKENS_DIRECTORY_PATH;
     private static final List<String> SCOPES = Collections.singletonList(DriveScopes.DRIVE);
     private static final String CREDENTIALS_FILE_PATH = AppConstant.CREDENTIALS_FILE_PATH;
+    private static final int HTTP_RANGE_NOT_SATISFIABLE = 416;
 
     // Define your folder IDs as constants
     public static final String MUSIC_FOLDER_ID = "1dpEn3AUPZbA9Yn1c5Hs6Dfz429GoP8lV";
@@ -54,8 +71,44 @@ public class GoogleDriveService {
     public static final String MISC_FOLDER_ID = "1cG_2LxVDNGK3KeMgg2nzoUUKBTvepERI";
 
 
+    private static final String MUSIC_FILE_FIELDS = "id, name, mimeType, size, webContentLink, description, properties";
+    private static final String IMAGE_FILE_FIELDS = "id, name, mimeType, size, webContentLink, thumbnailLink";
+    private static final String METADATA_FIELDS = "id, name, mimeType, size, webContentLink";
+    private static final Pattern THUMBNAIL_SIZE_SUFFIX = Pattern.compile("=s\\d+$");
+
+    // Search order of findImageAcrossAllFolders
+    private static final List<String> IMAGE_LOOKUP_FOLDERS = List.of(
+            ALBUM_COVER_FOLDER_ID, ARTIST_PROFILE_FOLDER_ID, AVATAR_FOLDER_ID, BACKGROUND_FOLDER_ID,
+            ICON_FOLDER_ID, LOGO_FOLDER_ID, MISC_FOLDER_ID, IMAGE_FOLDER_ID);
+
     private final Drive driveService;
 
+    // Image name -> file, or null for a cached miss
+    private final Map<String, ImageLookup> imageLookupCache = new ConcurrentHashMap<>();
+
+    private record ImageLookup(File file, long expiresAt) {
+    }
+
+    // File ID -> Drive thumbnail URL, as seen in listings and metadata responses
+    private final Map<String, ThumbnailLink> thumbnailLinks = new ConcurrentHashMap<>();
+
+    private record ThumbnailLink(String url, long expiresAt) {
+    }
+
+    // Fetches the next listing page while the caller works through the current one
+    private final ExecutorService listPrefetchExecutor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "DriveListPrefetch");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Bounds how many metadata batches run at once
+    private final ExecutorService batchExecutor = Executors.newFixedThreadPool(AppConstant.DRIVE_BATCH_CONCURRENCY, runnable -> {
+        Thread thread = new Thread(runnable, "DriveBatch");
+        thread.setDaemon(true);
+        return thread;
+    });
+
 
     public GoogleDriveService() throws IOException, GeneralSecurityException {
         final HttpTransport HTTP_TRANSPORT = GoogleNetHttpTransport.newTrustedTransport();
@@ -78,58 +131,321 @@ public class GoogleDriveService {
         return new AuthorizationCodeInstalledApp(flow, receiver).authorize("user");
     }
 
-    public List<File> listMusicFilesFromFolder() {
-        try {
-            String query = String.format(
-                    "'%s' in parents and mimeType contains 'audio/' and trashed=false",
-                    MUSIC_FOLDER_ID);
+    /**
+     * Pages through a folder listing. Nothing is requested until the stream is consumed, and only
+     * the current page and the one being prefetched are held in memory.
+     *
+     * @param fileFields fields to return for each file, e.g. {@code "id, name"}
+     * @param pageSize   files per request, at most 1000
+     */
+    public Stream<File> streamFiles(String query, String fileFields, int pageSize) {
+        return StreamSupport.stream(
+                        Spliterators.spliteratorUnknownSize(listPages(query, fileFields, pageSize), Spliterator.ORDERED),
+                        false)
+                .flatMap(List::stream);
+    }
 
-            FileList result = driveService.files().list()
+    public DrivePageIterator listPages(String query, String fileFields, int pageSize) {
+        return new DrivePageIterator(pageToken -> {
+            FileList page = driveService.files().list()
                     .setQ(query)
                     .setSpaces("drive")
-                    .setFields("files(id, name, mimeType, size, webContentLink, description, properties)")
+                    .setPageSize(pageSize)
+                    .setPageToken(pageToken)
+                    .setFields("nextPageToken, files(" + fileFields + ")")
                     .execute();
+            rememberThumbnailLinks(page.getFiles());
+            return page;
+        }, listPrefetchExecutor);
+    }
 
-            log.info("Found {} music files in the specified folder", result.getFiles().size());
-            return result.getFiles();
-        } catch (IOException e) {
-            log.error("Failed to list music files from folder: {}", MUSIC_FOLDER_ID, e);
+    /**
+     * Music files in the music folder, fetched page by page as the stream is consumed.
+     *
+     * @throws UncheckedIOException from the stream when a page request fails
+     */
+    public Stream<File> streamMusicFilesFromFolder() {
+        String query = String.format(
+                "'%s' in parents and mimeType contains 'audio/' and trashed=false",
+                MUSIC_FOLDER_ID);
+        return streamFiles(query, MUSIC_FILE_FIELDS, AppConstant.DRIVE_LIST_PAGE_SIZE);
+    }
+
+    public List<File> listMusicFilesFromFolder() {
+        try {
+            List<File> files = streamMusicFilesFromFolder().toList();
+            log.info("Found {} music files in the specified folder", files.size());
+            return files;
+        } catch (UncheckedIOException e) {
+            log.error("Failed to list music files from folder: {}", MUSIC_FOLDER_ID, e.getCause());
             return Collections.emptyList();
         }
     }
 
     public List<File> listImageFilesFromFolder() {
+        return listImageFilesFromSpecificFolder(IMAGE_FOLDER_ID);
+    }
+
+
+    public InputStream getFileContent(String fileId) throws IOException {
+        return driveService.files().get(fileId)
+                .executeMediaAsInputStream();
+    }
+
+    /**
+     * Opens the file content starting at the given byte offset using an HTTP Range request. An
+     * offset at or past the end of the file gives an empty stream, as a local file would.
+     */
+    public InputStream getFileContent(String fileId, long offset) throws IOException {
+        if (offset <= 0) {
+            return getFileContent(fileId);
+        }
+        Drive.Files.Get request = driveService.files().get(fileId);
+        request.getRequestHeaders().setRange("bytes=" + offset + "-");
         try {
-            String query = String.format(
-                    "'%s' in parents and (mimeType contains 'image/' or mimeType contains 'jpeg' or mimeType contains 'png') and trashed=false",
-                    IMAGE_FOLDER_ID);
+            return request.executeMediaAsInputStream();
+        } catch (HttpResponseException e) {
+            if (e.getStatusCode() == HTTP_RANGE_NOT_SATISFIABLE) {
+                return InputStream.nullInputStream();
+            }
+            throw e;
+        }
+    }
 
-            FileList result = driveService.files().list()
-                    .setQ(query)
-                    .setSpaces("drive")
-                    .setFields("files(id, name, mimeType, size, webContentLink, thumbnailLink)")
-                    .execute();
+    /**
+     * Opens only the bytes between {@code start} and {@code endInclusive}.
+     */
+    public InputStream getFileContent(String fileId, long start, long endInclusive) throws IOException {
+        Drive.Files.Get request = driveService.files().get(fileId);
+        request.getRequestHeaders().setRange("bytes=" + start + "-" + endInclusive);
+        return request.executeMediaAsInputStream();
+    }
 
-            log.info("Found {} image files in the specified folder", result.getFiles().size());
-            return result.getFiles();
-        } catch (IOException e) {
-            log.error("Failed to list image files from folder: {}", IMAGE_FOLDER_ID, e);
-            return Collections.emptyList();
+    /**
+     * Opens the bytes between {@code start} and {@code endInclusive} and reads the file size from the
+     * response's Content-Range ({@code bytes 0-1023/4096}), or its Content-Length when Drive answered
+     * with the whole file.
+     */
+    public MediaStorage.RangedContent getFileContentRange(String fileId, long start, long endInclusive) throws IOException {
+        Drive.Files.Get request = driveService.files().get(fileId);
+        request.getRequestHeaders().setRange("bytes=" + start + "-" + endInclusive);
+        HttpResponse response = request.executeMedia();
+        long totalSize = -1;
+        String contentRange = response.getHeaders().getContentRange();
+        if (contentRange != null && contentRange.indexOf('/') >= 0) {
+            String total = contentRange.substring(contentRange.indexOf('/') + 1).trim();
+            if (!total.equals("*")) {
+                totalSize = Long.parseLong(total);
+            }
+        } else if (response.getStatusCode() == 200 && response.getHeaders().getContentLength() != null) {
+            totalSize = response.getHeaders().getContentLength();
         }
+        return new MediaStorage.RangedContent(response.getContent(), totalSize);
     }
 
+    /**
+     * Lists every file in a folder, whatever its type.
+     */
+    public List<File> listFilesFromFolder(String folderId) throws IOException {
+        String query = String.format("'%s' in parents and trashed=false", folderId);
+        try {
+            return streamFiles(query, "id, name, mimeType, size, webContentLink", AppConstant.DRIVE_LIST_PAGE_SIZE).toList();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
 
-    public InputStream getFileContent(String fileId) throws IOException {
-        return driveService.files().get(fileId)
-                .executeMediaAsInputStream();
+    /**
+     * Uploads straight from a stream instead of spooling to a temp file first, through a resumable
+     * upload session.
+     *
+     * @param length number of bytes in {@code content}, or -1 when unknown
+     */
+    public File uploadFile(String fileName, String mimeType, String folderId, InputStream content, long length) throws IOException {
+        File fileMetadata = new File();
+        fileMetadata.setName(fileName);
+        fileMetadata.setParents(Collections.singletonList(folderId));
+
+        InputStreamContent mediaContent = new InputStreamContent(mimeType, content);
+        if (length >= 0) {
+            mediaContent.setLength(length);
+        }
+
+        Drive.Files.Create request = driveService.files().create(fileMetadata, mediaContent)
+                .setFields("id, name, mimeType, size, webContentLink");
+        // Resumable session sent in chunks; a failed chunk is resent from the last byte Drive confirmed
+        request.getMediaHttpUploader()
+                .setDirectUploadEnabled(false)
+                .setChunkSize(AppConstant.DRIVE_UPLOAD_CHUNK_SIZE);
+
+        File uploadedFile = request.execute();
+        imageLookupCache.remove(fileName);
+        log.info("File uploaded to Google Drive: {}", uploadedFile.getName());
+        return uploadedFile;
+    }
+
+    /**
+     * Opens Drive's generated thumbnail of an image or video, scaled to {@code sizePx} on the
+     * longest side. The thumbnail link comes from an earlier listing of the file when there was one,
+     * so only images never listed cost an extra {@code files.get}.
+     *
+     * @return null when Drive has no thumbnail for the file
+     */
+    public InputStream getThumbnailContent(String fileId, int sizePx) throws IOException {
+        ThumbnailLink known = thumbnailLinks.get(fileId);
+        if (known != null && known.expiresAt() > System.currentTimeMillis()) {
+            try {
+                return openThumbnail(known.url(), sizePx);
+            } catch (HttpResponseException e) {
+                // Links stop working after a while; ask Drive for a fresh one
+                thumbnailLinks.remove(fileId, known);
+            }
+        }
+
+        File file = driveService.files().get(fileId)
+                .setFields("id, thumbnailLink")
+                .execute();
+        if (file.getThumbnailLink() == null) {
+            return null;
+        }
+        rememberThumbnailLinks(List.of(file));
+        return openThumbnail(file.getThumbnailLink(), sizePx);
+    }
+
+    private InputStream openThumbnail(String thumbnailLink, int sizePx) throws IOException {
+        // Links end in a size parameter such as "=s220"
+        String sizedLink = THUMBNAIL_SIZE_SUFFIX.matcher(thumbnailLink).replaceFirst("=s" + sizePx);
+        return driveService.getRequestFactory()
+                .buildGetRequest(new GenericUrl(sizedLink))
+                .execute()
+                .getContent();
+    }
+
+    private void rememberThumbnailLinks(List<File> files) {
+        if (files == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        for (File file : files) {
+            if (file.getId() == null || file.getThumbnailLink() == null) {
+                continue;
+            }
+            if (thumbnailLinks.size() >= AppConstant.DRIVE_IMAGE_LOOKUP_CACHE_SIZE) {
+                thumbnailLinks.values().removeIf(link -> link.expiresAt() <= now);
+            }
+            if (thumbnailLinks.size() < AppConstant.DRIVE_IMAGE_LOOKUP_CACHE_SIZE) {
+                thumbnailLinks.put(file.getId(), new ThumbnailLink(file.getThumbnailLink(),
+                        now + AppConstant.DRIVE_THUMBNAIL_LINK_TTL_MS));
+            }
+        }
     }
 
     public File getFileMetadata(String fileId) throws IOException {
         return driveService.files().get(fileId)
-                .setFields("id, name, mimeType, size, webContentLink")
+                .setFields(METADATA_FIELDS)
                 .execute();
     }
 
+    /**
+     * Fetches metadata for many files with Drive batch requests of up to
+     * {@link AppConstant#DRIVE_BATCH_SIZE} calls each, with at most
+     * {@link AppConstant#DRIVE_BATCH_CONCURRENCY} batches in flight. Calls that were rate limited or hit
+     * a server error are sent again in a smaller batch with exponential backoff.
+     *
+     * @return metadata keyed by file ID; files that could not be fetched are left out and logged
+     */
+    public Map<String, File> getFilesMetadata(Collection<String> fileIds) {
+        List<String> ids = fileIds.stream().filter(Objects::nonNull).distinct().toList();
+        Map<String, File> result = new ConcurrentHashMap<>();
+        if (ids.isEmpty()) {
+            return result;
+        }
+
+        long started = System.nanoTime();
+        List<CompletableFuture<Void>> batches = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += AppConstant.DRIVE_BATCH_SIZE) {
+            List<String> chunk = ids.subList(from, Math.min(from + AppConstant.DRIVE_BATCH_SIZE, ids.size()));
+            batches.add(CompletableFuture.runAsync(() -> fetchMetadataBatch(chunk, result), batchExecutor));
+        }
+        CompletableFuture.allOf(batches.toArray(CompletableFuture[]::new)).join();
+
+        long elapsedMillis = Math.max(1, (System.nanoTime() - started) / 1_000_000);
+        log.info("Fetched metadata for {} of {} files in {} batches, {} ms ({} files/s)",
+                result.size(), ids.size(), batches.size(), elapsedMillis, result.size() * 1000L / elapsedMillis);
+        return result;
+    }
+
+    private void fetchMetadataBatch(List<String> fileIds, Map<String, File> result) {
+        List<String> pending = fileIds;
+        for (int attempt = 0; ; attempt++) {
+            pending = executeMetadataBatch(pending, result);
+            if (pending.isEmpty()) {
+                return;
+            }
+            if (attempt == AppConstant.DRIVE_BATCH_MAX_RETRIES) {
+                log.warn("Giving up on metadata for {} files after {} retries", pending.size(), attempt);
+                return;
+            }
+            long delayMillis = AppConstant.DRIVE_BATCH_RETRY_BASE_DELAY_MS << attempt;
+            // Jitter, so batches throttled together don't all come back at the same moment
+            delayMillis += ThreadLocalRandom.current().nextLong(delayMillis / 2 + 1);
+            log.info("Retrying metadata for {} files in {} ms", pending.size(), delayMillis);
+            try {
+                Thread.sleep(delayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return the IDs worth sending again: every one when the batch request itself failed, otherwise
+     * those whose call was rate limited or hit a server error
+     */
+    private List<String> executeMetadataBatch(List<String> fileIds, Map<String, File> result) {
+        // Callbacks run on this thread while the batch executes
+        List<String> retry = new ArrayList<>();
+        BatchRequest batch = driveService.batch();
+        try {
+            for (String fileId : fileIds) {
+                driveService.files().get(fileId)
+                        .setFields(METADATA_FIELDS)
+                        .queue(batch, new JsonBatchCallback<>() {
+                            @Override
+                            public void onSuccess(File file, HttpHeaders responseHeaders) {
+                                result.put(fileId, file);
+                            }
+
+                            @Override
+                            public void onFailure(GoogleJsonError error, HttpHeaders responseHeaders) {
+                                if (isRetryable(error)) {
+                                    retry.add(fileId);
+                                } else {
+                                    log.warn("Could not fetch metadata for {}: {}", fileId, error.getMessage());
+                                }
+                            }
+                        });
+            }
+            batch.execute();
+        } catch (IOException e) {
+            log.warn("Metadata batch of {} files failed: {}", fileIds.size(), e.getMessage());
+            return fileIds.stream().filter(fileId -> !result.containsKey(fileId)).toList();
+        }
+        return retry;
+    }
+
+    // Drive reports rate limits as 429, or as 403 with a rate limit reason
+    private static boolean isRetryable(GoogleJsonError error) {
+        int code = error.getCode();
+        if (code == 429 || code >= 500) {
+            return true;
+        }
+        return code == 403 && error.getErrors() != null && error.getErrors().stream()
+                .anyMatch(info -> "rateLimitExceeded".equals(info.getReason())
+                        || "userRateLimitExceeded".equals(info.getReason()));
+    }
+
     public File getImageByName(String imageName) {
         try {
             String query = String.format(
@@ -141,6 +457,7 @@ public class GoogleDriveService {
                     .setSpaces("drive")
                     .setFields("files(id, name, mimeType, size, webContentLink, thumbnailLink)")
                     .execute();
+            rememberThumbnailLinks(result.getFiles());
 
             List<File> files = result.getFiles();
             if (files != null && !files.isEmpty()) {
@@ -177,87 +494,41 @@ public class GoogleDriveService {
         }
     }
 
-    public File findMatchingAlbumArt(String songName) {
-        try {
-            // First, try exact match without extension
-            String nameWithoutExt = songName;
-            if (nameWithoutExt.lastIndexOf('.') > 0) {
-                nameWithoutExt = nameWithoutExt.substring(0, nameWithoutExt.lastIndexOf('.'));
-            }
-
-            // 1. Try exact match first in album covers folder (priority)
-            File exactMatch = getAlbumCoverByName(nameWithoutExt + ".jpg");
-            if (exactMatch != null) return exactMatch;
-
-            exactMatch = getAlbumCoverByName(nameWithoutExt + ".png");
-            if (exactMatch != null) return exactMatch;
-
-            // 2. Try to find any image containing the song name in album covers folder
-            String query = String.format(
-                    "'%s' in parents and name contains '%s' and (mimeType contains 'image/' or mimeType contains 'jpeg' or mimeType contains 'png' or mimeType contains 'jpg') and trashed=false",
-                    ALBUM_COVER_FOLDER_ID, nameWithoutExt.replace("'", "\\'"));
-
-            FileList result = driveService.files().list()
-                    .setQ(query)
-                    .setSpaces("drive")
-                    .setFields("files(id, name, mimeType, size, webContentLink, thumbnailLink)")
-                    .execute();
-
-            List<File> files = result.getFiles();
-            if (files != null && !files.isEmpty()) {
-                return files.get(0);
-            }
-
-            // 3. If not found in album covers, look in the general images folder
-            exactMatch = getImageByName(nameWithoutExt + ".jpg");
-            if (exactMatch != null) return exactMatch;
-
-            exactMatch = getImageByName(nameWithoutExt + ".png");
-            if (exactMatch != null) return exactMatch;
-
-            // 4. Try to find any image containing the song name in general folder
-            query = String.format(
-                    "'%s' in parents and name contains '%s' and (mimeType contains 'image/' or mimeType contains 'jpeg' or mimeType contains 'png' or mimeType contains 'jpg') and trashed=false",
-                    IMAGE_FOLDER_ID, nameWithoutExt.replace("'", "\\'"));
-
-            result = driveService.files().list()
-                    .setQ(query)
-                    .setSpaces("drive")
-                    .setFields("files(id, name, mimeType, size, webContentLink, thumbnailLink)")
-                    .execute();
-
-            files = result.getFiles();
-            if (files != null && !files.isEmpty()) {
-                return files.get(0);
-            }
-
-            // If no match, return null
-            return null;
-        } catch (IOException e) {
-            log.error("Failed to find matching album art for song: {}", songName, e);
-            return null;
-        }
+    /**
+     * Indexes the album cover folder, then the general images folder, with one paginated listing
+     * each. Covers in the album cover folder take precedence over same-named images.
+     *
+     * @throws UncheckedIOException when a listing fails
+     */
+    public AlbumArtIndex buildAlbumArtIndex() {
+        AlbumArtIndex index = new AlbumArtIndex();
+        index.addFolder(streamImageFilesFromSpecificFolder(ALBUM_COVER_FOLDER_ID));
+        index.addFolder(streamImageFilesFromSpecificFolder(IMAGE_FOLDER_ID));
+        log.info("Indexed {} images for album art matching", index.size());
+        return index;
     }
 
-    public List<DriveFileBundle> loadAllSongsWithMetadata() {
-        // Get all music files
-        List<File> musicFiles = listMusicFilesFromFolder();
-
-        // Create a list of bundles (song + album art)
-        return musicFiles.stream()
+    /**
+     * Songs paired with their album art, resolved as each listing page arrives. Art is matched
+     * against an {@link AlbumArtIndex} built once up front instead of querying Drive per song.
+     *
+     * @throws UncheckedIOException when a listing fails
+     */
+    public Stream<DriveFileBundle> streamSongsWithMetadata() {
+        AlbumArtIndex albumArtIndex = buildAlbumArtIndex();
+        return streamMusicFilesFromFolder()
                 .map(musicFile -> {
                     DriveFileBundle bundle = new DriveFileBundle();
                     bundle.setSongFile(musicFile);
 
                     // Find matching album art
-                    File albumArt = findMatchingAlbumArt(musicFile.getName());
+                    File albumArt = albumArtIndex.find(musicFile.getName());
                     if (albumArt != null) {
                         bundle.setAlbumArtFile(albumArt);
                     }
 
                     return bundle;
-                })
-                .collect(Collectors.toList());
+                });
     }
 
     public boolean deleteFile(String fileId) {
@@ -347,24 +618,27 @@ public class GoogleDriveService {
      */
     private List<File> listImageFilesFromSpecificFolder(String folderId) {
         try {
-            String query = String.format(
-                    "'%s' in parents and (mimeType contains 'image/' or mimeType contains 'jpeg' or mimeType contains 'png' or mimeType contains 'jpg') and trashed=false",
-                    folderId);
-
-            FileList result = driveService.files().list()
-                    .setQ(query)
-                    .setSpaces("drive")
-                    .setFields("files(id, name, mimeType, size, webContentLink, thumbnailLink)")
-                    .execute();
-
-            log.info("Found {} image files in folder: {}", result.getFiles().size(), folderId);
-            return result.getFiles();
-        } catch (IOException e) {
-            log.error("Failed to list image files from folder: {}", folderId, e);
+            List<File> files = streamImageFilesFromSpecificFolder(folderId).toList();
+            log.info("Found {} image files in folder: {}", files.size(), folderId);
+            return files;
+        } catch (UncheckedIOException e) {
+            log.error("Failed to list image files from folder: {}", folderId, e.getCause());
             return Collections.emptyList();
         }
     }
 
+    /**
+     * Image files in a folder, fetched page by page as the stream is consumed.
+     *
+     * @throws UncheckedIOException from the stream when a page request fails
+     */
+    public Stream<File> streamImageFilesFromSpecificFolder(String folderId) {
+        String query = String.format(
+                "'%s' in parents and (mimeType contains 'image/' or mimeType contains 'jpeg' or mimeType contains 'png' or mimeType contains 'jpg') and trashed=false",
+                folderId);
+        return streamFiles(query, IMAGE_FILE_FIELDS, AppConstant.DRIVE_LIST_PAGE_SIZE);
+    }
+
     /**
      * Gets an album cover image by name
      *
@@ -425,45 +699,6 @@ public class GoogleDriveService {
         return getImageFromSpecificFolder(MISC_FOLDER_ID, imageName);
     }
 
-    public String uploadImageFile(MultipartFile file, String folderId) throws IOException {
-        // Create file metadata
-        File fileMetadata = new File();
-        fileMetadata.setName(generateUniqueFilename(file.getOriginalFilename()));
-        fileMetadata.setParents(Collections.singletonList(folderId));
-
-        // Convert MultipartFile to InputStreamContent
-        java.io.File tempFile = java.io.File.createTempFile("upload-", ".tmp");
-        file.transferTo(tempFile);
-        FileContent mediaContent = new FileContent(file.getContentType(), tempFile);
-
-        try {
-            File uploadedFile = driveService.files().create(fileMetadata, mediaContent)
-                    .setFields("id, name, mimeType, size, webContentLink")
-                    .execute();
-            log.info("File uploaded to Google Drive: {}", uploadedFile.getName());
-            return uploadedFile.getId();
-        } finally {
-            // Clean up temporary file
-            if (tempFile != null && tempFile.exists()) {
-                tempFile.delete();
-            }
-        }
-    }
-
-
-    private String generateUniqueFilename(String originalFilename) {
-        String timestamp = DateUtil.formatDate(new Date(), "yyyyMMdd-HHmmss");
-        String extension = "";
-
-        if (originalFilename != null && originalFilename.contains(".")) {
-            extension = originalFilename.substring(originalFilename.lastIndexOf("."));
-            originalFilename = originalFilename.substring(0, originalFilename.lastIndexOf("."));
-        }
-
-        return timestamp + "-" + originalFilename + extension;
-    }
-
-
     private File getImageFromSpecificFolder(String folderId, String imageName) {
         try {
             String query = String.format(
@@ -475,6 +710,7 @@ public class GoogleDriveService {
                     .setSpaces("drive")
                     .setFields("files(id, name, mimeType, size, webContentLink, thumbnailLink)")
                     .execute();
+            rememberThumbnailLinks(result.getFiles());
 
             List<File> files = result.getFiles();
             if (files != null && !files.isEmpty()) {
@@ -488,30 +724,74 @@ public class GoogleDriveService {
     }
 
 
+    /**
+     * Finds an image by exact name in any image folder with a single query over all of them. When
+     * several folders hold the name, the first in {@link #IMAGE_LOOKUP_FOLDERS} wins, which is the
+     * order the folders used to be searched one by one.
+     * <p>
+     * Results, misses included, are cached per name for {@link AppConstant#DRIVE_IMAGE_LOOKUP_TTL_MS}
+     * (misses for {@link AppConstant#DRIVE_IMAGE_MISS_TTL_MS}). Uploads clear the entry for their name.
+     */
     public File findImageAcrossAllFolders(String imageName) {
-        File image = getAlbumCoverByName(imageName);
-        if (image != null) return image;
-
-        image = getArtistProfileByName(imageName);
-        if (image != null) return image;
-
-        image = getAvatarByName(imageName);
-        if (image != null) return image;
+        long now = System.currentTimeMillis();
+        ImageLookup cached = imageLookupCache.get(imageName);
+        if (cached != null && cached.expiresAt() > now) {
+            return cached.file();
+        }
 
-        image = getBackgroundByName(imageName);
-        if (image != null) return image;
+        File image;
+        try {
+            image = queryImageAcrossAllFolders(imageName);
+        } catch (IOException e) {
+            // Not cached, so the next lookup asks Drive again
+            log.error("Failed to find image '{}' across folders", imageName, e);
+            return null;
+        }
 
-        image = getIconByName(imageName);
-        if (image != null) return image;
+        long ttl = image != null ? AppConstant.DRIVE_IMAGE_LOOKUP_TTL_MS : AppConstant.DRIVE_IMAGE_MISS_TTL_MS;
+        if (imageLookupCache.size() >= AppConstant.DRIVE_IMAGE_LOOKUP_CACHE_SIZE) {
+            imageLookupCache.values().removeIf(entry -> entry.expiresAt() <= now);
+        }
+        if (imageLookupCache.size() < AppConstant.DRIVE_IMAGE_LOOKUP_CACHE_SIZE) {
+            imageLookupCache.put(imageName, new ImageLookup(image, now + ttl));
+        }
+        return image;
+    }
 
-        image = getLogoByName(imageName);
-        if (image != null) return image;
+    private File queryImageAcrossAllFolders(String imageName) throws IOException {
+        String parents = IMAGE_LOOKUP_FOLDERS.stream()
+                .map(folderId -> "'" + folderId + "' in parents")
+                .collect(Collectors.joining(" or "));
+        String query = String.format("name = '%s' and (%s) and trashed=false",
+                imageName.replace("'", "\\'"), parents);
 
-        image = getMiscImageByName(imageName);
-        if (image != null) return image;
+        FileList result = driveService.files().list()
+                .setQ(query)
+                .setSpaces("drive")
+                .setFields("files(id, name, mimeType, size, webContentLink, thumbnailLink, parents)")
+                .execute();
+        rememberThumbnailLinks(result.getFiles());
 
-        // Check main images folder as last resort
-        return getImageByName(imageName);
+        List<File> files = result.getFiles();
+        if (files == null || files.isEmpty()) {
+            return null;
+        }
+        return files.stream()
+                .min(Comparator.comparingInt(GoogleDriveService::imageFolderRank))
+                .orElse(null);
+    }
+
+    private static int imageFolderRank(File file) {
+        int rank = Integer.MAX_VALUE;
+        if (file.getParents() != null) {
+            for (String parent : file.getParents()) {
+                int index = IMAGE_LOOKUP_FOLDERS.indexOf(parent);
+                if (index >= 0) {
+                    rank = Math.min(rank, index);
+                }
+            }
+        }
+        return rank;
     }
 
     public Map<String, List<File>> getAllImagesAcrossFolders() {
@@ -529,98 +809,5 @@ public class GoogleDriveService {
         return allImages;
     }
 
-    public String uploadSongFile(MultipartFile file) throws IOException {
-        File fileMetadata = new File();
-        fileMetadata.setName(file.getOriginalFilename());
-        fileMetadata.setParents(Collections.singletonList(MUSIC_FOLDER_ID));
-
-        java.io.File tempFile = java.io.File.createTempFile("upload-", ".tmp");
-        file.transferTo(tempFile);
-        FileContent mediaContent = new FileContent(file.getContentType(), tempFile);
-
-        try {
-            File uploadedFile = driveService.files().create(fileMetadata, mediaContent)
-                    .setFields("id, name, mimeType, size, webContentLink")
-                    .execute();
-
-            log.info("File uploaded to Google Drive: {}", uploadedFile.getName());
-            return uploadedFile.getId();
-        } finally {
-            if (tempFile != null && tempFile.exists()) {
-                tempFile.delete();
-            }
-        }
-    }
-
-    public List<Map<String, String>> uploadMultipleSongFiles(List<MultipartFile> files) {
-        List<Map<String, String>> results = new ArrayList<>();
-
-        for (MultipartFile file : files) {
-            try {
-                File fileMetadata = new File();
-                fileMetadata.setName(file.getOriginalFilename());
-                fileMetadata.setParents(Collections.singletonList(MUSIC_FOLDER_ID));
-
-                java.io.File tempFile = java.io.File.createTempFile("upload-", ".tmp");
-                file.transferTo(tempFile);
-                FileContent mediaContent = new FileContent(file.getContentType(), tempFile);
-
-                File uploadedFile = driveService.files().create(fileMetadata, mediaContent)
-                        .setFields("id, name, mimeType, size, webContentLink")
-                        .execute();
-
-                log.info("File uploaded to Google Drive: {}", uploadedFile.getName());
-
-                Map<String, String> fileResult = new HashMap<>();
-                fileResult.put("fileName", file.getOriginalFilename());
-                fileResult.put("fileId", uploadedFile.getId());
-                fileResult.put("webContentLink", uploadedFile.getWebContentLink());
-                results.add(fileResult);
-
-                // Clean up temporary file
-                if (tempFile.exists()) {
-                    tempFile.delete();
-                }
-            } catch (Exception e) {
-                log.error("Failed to upload file {}: {}", file.getOriginalFilename(), e.getMessage(), e);
-                Map<String, String> errorResult = new HashMap<>();
-                errorResult.put("fileName", file.getOriginalFilename());
-                errorResult.put("error", e.getMessage());
-                results.add(errorResult);
-            }
-        }
-
-        return results;
-    }
-
-    public File uploadAlbumArtwork(java.io.File artworkFile, String albumName) throws IOException {
-        if (artworkFile == null || !artworkFile.exists()) {
-            log.warn("No artwork file provided for album: {}", albumName);
-            return null;
-        }
-
-        // Generate a unique filename for the album cover
-        String timestamp = DateUtil.formatDate(new Date(), "yyyyMMdd-HHmmss");
-        String sanitizedAlbumName = albumName.replaceAll("[^a-zA-Z0-9\\s-]", "_").trim();
-        String fileName = sanitizedAlbumName + "-cover-" + timestamp + ".jpg";
-
-        // Create file metadata
-        File fileMetadata = new File();
-        fileMetadata.setName(fileName);
-        fileMetadata.setParents(Collections.singletonList(ALBUM_COVER_FOLDER_ID));
-
-        // Create FileContent
-        FileContent mediaContent = new FileContent("image/jpeg", artworkFile);
-
-        // Upload the file to Google Drive
-        File uploadedFile = driveService
-                .files()
-                .create(fileMetadata, mediaContent)
-                .setFields("id, name, mimeType, size, webContentLink")
-                .execute();
-
-        log.info("Uploaded album artwork for '{}' to Google Drive: {}", albumName, uploadedFile.getId());
-        return uploadedFile;
-    }
 
 }
\ No newline at end of file
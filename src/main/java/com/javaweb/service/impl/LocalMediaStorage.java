@@ -0,0 +1,268 @@
+package com.javaweb.service.impl;
+
+import com.javaweb.enums.MediaFolder;
+import com.javaweb.model.dto.StoredFileDTO;
+import com.javaweb.service.MediaStorage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.*;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * Keeps media under a local directory, one subdirectory per {@link MediaFolder}. File IDs are paths
+ * relative to the root ({@code music/song.mp3}).
+ * <p>
+ * Ranged reads are positional reads on a {@link FileChannel}, and {@link #transferTo} uses
+ * {@link FileChannel#transferTo}, which the OS can turn into a zero-copy send when the target is a
+ * socket.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "app.media.storage", havingValue = "local")
+public class LocalMediaStorage implements MediaStorage {
+
+    private static final String DEFAULT_MIME_TYPE = "application/octet-stream";
+
+    private final Path root;
+
+    public LocalMediaStorage(@Value("${app.media.local.dir}") String rootDir) throws IOException {
+        this.root = Paths.get(rootDir).toAbsolutePath().normalize();
+        Files.createDirectories(root);
+        log.info("Media storage: local directory {}", root);
+    }
+
+    @Override
+    public StoredFileDTO upload(MediaFolder folder, String fileName, String mimeType, InputStream content, long length) throws IOException {
+        Path directory = root.resolve(directoryName(folder));
+        Files.createDirectories(directory);
+
+        String safeName = Paths.get(fileName).getFileName().toString();
+        Path target = directory.resolve(safeName);
+
+        // Write beside the target and publish it complete, so readers never see a half-written file
+        Path temp = Files.createTempFile(directory, ".upload-", ".tmp");
+        try {
+            Files.copy(content, temp, StandardCopyOption.REPLACE_EXISTING);
+            for (int copy = 1; ; copy++) {
+                try {
+                    publish(temp, target);
+                    break;
+                } catch (FileAlreadyExistsException e) {
+                    // Taken, possibly by a concurrent upload of the same name
+                    target = directory.resolve(withSuffix(safeName, copy));
+                }
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        log.info("File stored locally: {}", target);
+        return toStoredFile(target, mimeType);
+    }
+
+    /**
+     * Makes {@code temp} visible as {@code target}, failing with FileAlreadyExistsException instead of
+     * replacing a file that is already there. A hard link does that atomically; a rename would
+     * overwrite on most platforms.
+     */
+    private static void publish(Path temp, Path target) throws IOException {
+        try {
+            Files.createLink(target, temp);
+        } catch (FileAlreadyExistsException e) {
+            throw e;
+        } catch (UnsupportedOperationException | IOException e) {
+            // No hard links here (unsupported, cross-device or refused by the file system); a plain
+            // move checks for the target first and copies when it has to
+            Files.move(temp, target);
+        }
+    }
+
+    @Override
+    public InputStream getContent(String fileId) throws IOException {
+        return Files.newInputStream(resolve(fileId));
+    }
+
+    @Override
+    public InputStream getContent(String fileId, long offset) throws IOException {
+        return getContent(fileId, offset, Long.MAX_VALUE - 1);
+    }
+
+    @Override
+    public InputStream getContent(String fileId, long start, long endInclusive) throws IOException {
+        FileChannel channel = FileChannel.open(resolve(fileId), StandardOpenOption.READ);
+        long end = Math.min(endInclusive + 1, channel.size());
+        return new RangeInputStream(channel, Math.max(0, start), end);
+    }
+
+    @Override
+    public RangedContent getContentRange(String fileId, long start, long endInclusive) throws IOException {
+        FileChannel channel = FileChannel.open(resolve(fileId), StandardOpenOption.READ);
+        long size = channel.size();
+        return new RangedContent(new RangeInputStream(channel, Math.max(0, start), Math.min(endInclusive + 1, size)), size);
+    }
+
+    @Override
+    public StoredFileDTO getMetadata(String fileId) throws IOException {
+        return toStoredFile(resolve(fileId), null);
+    }
+
+    @Override
+    public List<StoredFileDTO> list(MediaFolder folder) throws IOException {
+        Path directory = root.resolve(directoryName(folder));
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(Files::isRegularFile)
+                    .filter(path -> !path.getFileName().toString().startsWith(".upload-"))
+                    .map(path -> {
+                        try {
+                            return toStoredFile(path, null);
+                        } catch (IOException e) {
+                            log.warn("Skipping unreadable file {}: {}", path, e.getMessage());
+                            return null;
+                        }
+                    })
+                    .filter(file -> file != null)
+                    .toList();
+        }
+    }
+
+    @Override
+    public boolean delete(String fileId) {
+        if (fileId == null || fileId.isEmpty()) {
+            log.warn("Attempted to delete a file with null or empty ID");
+            return false;
+        }
+        try {
+            return Files.deleteIfExists(resolve(fileId));
+        } catch (IOException e) {
+            log.error("Failed to delete file with ID: {}", fileId, e);
+            return false;
+        }
+    }
+
+    @Override
+    public long transferTo(String fileId, long position, long count, WritableByteChannel target) throws IOException {
+        try (FileChannel channel = FileChannel.open(resolve(fileId), StandardOpenOption.READ)) {
+            long end = Math.min(position + count, channel.size());
+            long current = position;
+            while (current < end) {
+                long sent = channel.transferTo(current, end - current, target);
+                if (sent <= 0) {
+                    break;
+                }
+                current += sent;
+            }
+            return current - position;
+        }
+    }
+
+    @Override
+    public boolean isRemote() {
+        return false;
+    }
+
+    private Path resolve(String fileId) throws IOException {
+        if (fileId == null || fileId.isEmpty()) {
+            throw new FileNotFoundException("Empty file ID");
+        }
+        Path path = root.resolve(fileId).normalize();
+        // IDs come from the database and from request parameters; never leave the root
+        if (!path.startsWith(root) || !Files.isRegularFile(path)) {
+            throw new FileNotFoundException("No stored file " + fileId);
+        }
+        return path;
+    }
+
+    private StoredFileDTO toStoredFile(Path path, String mimeType) throws IOException {
+        String id = root.relativize(path).toString().replace('\\', '/');
+        if (mimeType == null) {
+            mimeType = Files.probeContentType(path);
+        }
+        if (mimeType == null) {
+            mimeType = guessMimeType(path.getFileName().toString());
+        }
+        return new StoredFileDTO(id, path.getFileName().toString(), mimeType, Files.size(path), path.toUri().toString());
+    }
+
+    private static String guessMimeType(String fileName) {
+        String lower = fileName.toLowerCase(Locale.ROOT);
+        if (lower.endsWith(".mp3")) return "audio/mpeg";
+        if (lower.endsWith(".jpg") || lower.endsWith(".jpeg")) return "image/jpeg";
+        if (lower.endsWith(".png")) return "image/png";
+        return DEFAULT_MIME_TYPE;
+    }
+
+    private static String directoryName(MediaFolder folder) {
+        return folder.name().toLowerCase(Locale.ROOT);
+    }
+
+    private static String withSuffix(String fileName, int copy) {
+        int dot = fileName.lastIndexOf('.');
+        return dot > 0
+                ? fileName.substring(0, dot) + " (" + copy + ")" + fileName.substring(dot)
+                : fileName + " (" + copy + ")";
+    }
+
+    /**
+     * Reads {@code [position, end)} of a channel with positional reads and closes it when done.
+     */
+    private static class RangeInputStream extends InputStream {
+        private final FileChannel channel;
+        private final long end;
+        private long position;
+
+        RangeInputStream(FileChannel channel, long start, long end) {
+            this.channel = channel;
+            this.position = start;
+            this.end = end;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) == -1 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (position >= end) {
+                return -1;
+            }
+            int toRead = (int) Math.min(len, end - position);
+            int n = channel.read(ByteBuffer.wrap(b, off, toRead), position);
+            if (n > 0) {
+                position += n;
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) {
+            long skipped = Math.max(0, Math.min(n, end - position));
+            position += skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return (int) Math.min(Integer.MAX_VALUE, Math.max(0, end - position));
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.javaweb.service.impl;
+
+import com.javaweb.constant.AppConstant;
+import com.javaweb.entity.SeekIndexEntity;
+import com.javaweb.repository.SeekIndexRepository;
+import com.javaweb.repository.StreamingMediaRepository;
+import com.javaweb.service.MediaStorage;
+import com.javaweb.service.SeekIndexService;
+import com.javaweb.utils.AudioChunkCache;
+import com.javaweb.utils.Mp3SeekIndex;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reads the whole file through the server audio cache on a small background pool, so building an
+ * index never holds a request thread or a database transaction, and the download doubles as a cache
+ * warm-up for the first play.
+ */
+@Service
+@Slf4j
+public class SeekIndexServiceImpl implements SeekIndexService {
+
+    private final StreamingMediaRepository streamingMediaRepository;
+    private final SeekIndexRepository seekIndexRepository;
+    private final MediaStorage mediaStorage;
+    private final AudioChunkCache serverAudioCache;
+
+    // Media queued or being indexed, so concurrent first plays build a single index
+    private final Set<Long> pendingMediaIds = ConcurrentHashMap.newKeySet();
+
+    private final ExecutorService buildExecutor;
+
+    public SeekIndexServiceImpl(StreamingMediaRepository streamingMediaRepository,
+                                SeekIndexRepository seekIndexRepository,
+                                MediaStorage mediaStorage,
+                                @Qualifier("serverAudioCache") AudioChunkCache serverAudioCache) {
+        this.streamingMediaRepository = streamingMediaRepository;
+        this.seekIndexRepository = seekIndexRepository;
+        this.mediaStorage = mediaStorage;
+        this.serverAudioCache = serverAudioCache;
+
+        AtomicInteger counter = new AtomicInteger();
+        this.buildExecutor = Executors.newFixedThreadPool(AppConstant.SEEK_INDEX_BUILD_PARALLELISM, runnable -> {
+            Thread thread = new Thread(runnable, "SeekIndexBuild-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void scheduleBuild(Long mediaId, String fileId) {
+        if (mediaId == null || fileId == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    submit(mediaId, fileId);
+                }
+            });
+        } else {
+            submit(mediaId, fileId);
+        }
+    }
+
+    private void submit(Long mediaId, String fileId) {
+        if (!pendingMediaIds.add(mediaId)) {
+            return;
+        }
+        try {
+            buildExecutor.execute(() -> {
+                try {
+                    build(mediaId, fileId);
+                } finally {
+                    pendingMediaIds.remove(mediaId);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pendingMediaIds.remove(mediaId);
+        }
+    }
+
+    private void build(Long mediaId, String fileId) {
+        if (streamingMediaRepository.existsByIdAndSeekIndexIsNotNull(mediaId)) {
+            return;
+        }
+
+        long startNanos = System.nanoTime();
+        Mp3SeekIndex seekIndex;
+        try (InputStream inputStream = new BufferedInputStream(openAudio(fileId))) {
+            seekIndex = Mp3SeekIndex.build(inputStream, AppConstant.SEEK_INDEX_FRAME_INTERVAL);
+        } catch (IOException e) {
+            log.warn("Could not build seek index for {}: {}", fileId, e.getMessage());
+            return;
+        }
+        if (seekIndex.getTotalFrames() == 0) {
+            log.warn("No MPEG frames found in {}, no seek index stored", fileId);
+            return;
+        }
+
+        SeekIndexEntity entity = seekIndexRepository.save(new SeekIndexEntity(
+                seekIndex.toBytes(), seekIndex.getTotalFrames(), seekIndex.getFrameInterval()));
+        if (streamingMediaRepository.attachSeekIndex(mediaId, entity) == 0) {
+            // Filled in meanwhile, e.g. by the full-download metadata fallback
+            seekIndexRepository.delete(entity);
+            return;
+        }
+        log.info("Built seek index for {} ({} frames) in {} ms", fileId, seekIndex.getTotalFrames(),
+                (System.nanoTime() - startNanos) / 1_000_000);
+    }
+
+    private InputStream openAudio(String fileId) throws IOException {
+        return mediaStorage.isRemote() ? serverAudioCache.openStream(fileId) : mediaStorage.getContent(fileId);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        buildExecutor.shutdownNow();
+    }
+}
@@ -1,23 +1,46 @@
 package com.javaweb.service.impl;
 
 
+import com.javaweb.constant.AppConstant;
 import com.javaweb.converter.SongConverter;
+import com.javaweb.entity.AlbumEntity;
 import com.javaweb.entity.SongEntity;
+import com.javaweb.entity.StreamingMediaEntity;
+import com.javaweb.enums.MediaFolder;
+import com.javaweb.enums.UploadState;
 import com.javaweb.exception.EntityNotFoundException;
 import com.javaweb.model.dto.SongDTO;
+import com.javaweb.model.dto.SongUploadProgressDTO;
 import com.javaweb.model.request.SongRequestDTO;
+import com.javaweb.repository.AlbumRepository;
 import com.javaweb.repository.SongRepository;
+import com.javaweb.service.SeekIndexService;
 import com.javaweb.service.SongService;
+import com.javaweb.service.StreamingMediaService;
 import com.javaweb.service.TagService;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.multipart.MultipartFile;
 
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 @Service
@@ -29,16 +52,34 @@ public class SongServiceImpl implements SongService {
 
     private final SongRepository songRepository;
 
+    private final AlbumRepository albumRepository;
+
     private final SongConverter songConverter;
 
 
     private final TagService tagService;
 
-    private final GoogleDriveService googleDriveService;
+    private final StreamingMediaService streamingMediaService;
+
+    private final SeekIndexService seekIndexService;
+
+    // Only the Drive import needs it; resolved on use so local storage never triggers the OAuth flow
+    private final ObjectProvider<GoogleDriveService> googleDriveServiceProvider;
 
 
     private final SharedSearchService sharedSearchService;
 
+    // Runs as the uploading user, so the album fallback in SongConverter still sees the principal
+    private final ExecutorService uploadExecutor = new DelegatingSecurityContextExecutorService(
+            Executors.newFixedThreadPool(AppConstant.SONG_UPLOAD_PARALLELISM, daemonFactory("SongUpload")));
+
+    // Reads audio metadata and generates tags once a song's bytes are stored
+    private final ExecutorService songMetadataExecutor = Executors.newFixedThreadPool(
+            AppConstant.SONG_METADATA_PARALLELISM, daemonFactory("SongMetadata"));
+
+    // Multi-song uploads the client can poll, keyed by the upload ID it sent
+    private final Map<String, UploadProgress> uploadProgress = new ConcurrentHashMap<>();
+
     @Override
     public SongDTO findOneByTitle(String title) {
         SongDTO song = songConverter.toDTO(
@@ -91,53 +132,171 @@ public class SongServiceImpl implements SongService {
         }
     }
 
+    /**
+     * Streams up to {@link AppConstant#SONG_UPLOAD_PARALLELISM} files at a time into storage and saves
+     * each song as soon as its bytes land, titled after the file. Audio metadata and tags are filled
+     * in afterwards on a separate pool, so the call returns once every upload has finished.
+     * <p>
+     * The result lists a {@link SongUploadProgressDTO} per file under {@code "files"}. When the request
+     * carries an upload ID the same DTOs can be polled through {@link #findUploadProgress} while the
+     * files upload and until their metadata is filled in.
+     */
     @Override
-    @Transactional
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Map<String, Object> createMultipleSongs(SongRequestDTO songRequestDTO) {
-        List<String> successfulUploads = new ArrayList<>();
-        List<String> failedUploads = new ArrayList<>();
-
-        if (songRequestDTO.getMp3Files() == null || songRequestDTO.getMp3Files().isEmpty()) {
+        List<MultipartFile> files = songRequestDTO.getMp3Files();
+        if (files == null || files.isEmpty()) {
             return Map.of(
                     "success", false,
                     "message", "No files provided for upload"
             );
         }
 
-        try {
-            List<Map<String, String>> uploadResults = googleDriveService.uploadMultipleSongFiles(songRequestDTO.getMp3Files());
-
-            for (Map<String, String> uploadResult : uploadResults) {
-                String fileName = uploadResult.get("fileName");
-                String fileId = uploadResult.get("fileId");
-                if (uploadResult.containsKey("error")) {
-                    failedUploads.add(fileName + " (Error: " + uploadResult.get("error") + ")");
-                    continue;
-                }
-                songRequestDTO.setGoogleDriveFileId(fileId);
-                SongEntity song = songConverter.toEntity(songRequestDTO);
-                song.setTags(tagService.generateTagsForSong(song));
-                songRepository.save(song);
-                successfulUploads.add(fileName);
+        List<SongUploadProgressDTO> progress = new ArrayList<>();
+        for (MultipartFile file : files) {
+            progress.add(new SongUploadProgressDTO(file.getOriginalFilename(), file.getSize()));
+        }
+        if (songRequestDTO.getUploadId() != null) {
+            pruneUploadProgress();
+            uploadProgress.put(songRequestDTO.getUploadId(),
+                    new UploadProgress(List.copyOf(progress), System.currentTimeMillis()));
+        }
+
+        List<CompletableFuture<Void>> uploads = new ArrayList<>();
+        for (int i = 0; i < files.size(); i++) {
+            MultipartFile file = files.get(i);
+            SongUploadProgressDTO fileProgress = progress.get(i);
+            uploads.add(CompletableFuture.runAsync(
+                    () -> uploadSong(file, songRequestDTO, fileProgress), uploadExecutor));
+        }
+        CompletableFuture.allOf(uploads.toArray(CompletableFuture[]::new)).join();
+
+        List<String> successfulUploads = new ArrayList<>();
+        List<String> failedUploads = new ArrayList<>();
+        for (SongUploadProgressDTO fileProgress : progress) {
+            if (fileProgress.getState() == UploadState.FAILED) {
+                failedUploads.add(fileProgress.getFileName() + " (Error: " + fileProgress.getError() + ")");
+            } else {
+                successfulUploads.add(fileProgress.getFileName());
             }
-        } catch (Exception e) {
-            log.error("Error in batch upload process: {}", e.getMessage(), e);
-            return Map.of(
-                    "success", false,
-                    "message", "Error processing batch upload: " + e.getMessage()
-            );
         }
 
         return Map.of(
                 "success", !successfulUploads.isEmpty(),
-                "totalFiles", songRequestDTO.getMp3Files().size(),
+                "totalFiles", files.size(),
                 "successful", successfulUploads,
                 "failed", failedUploads,
                 "successCount", successfulUploads.size(),
-                "failureCount", failedUploads.size()
+                "failureCount", failedUploads.size(),
+                "files", progress
         );
     }
 
+    @Override
+    public List<SongUploadProgressDTO> findUploadProgress(String uploadId) {
+        UploadProgress upload = uploadProgress.get(uploadId);
+        return upload != null ? upload.files() : null;
+    }
+
+    // Forgets finished uploads once their client has had time to read the outcome
+    private void pruneUploadProgress() {
+        long cutoff = System.currentTimeMillis() - AppConstant.SONG_UPLOAD_PROGRESS_RETENTION_MS;
+        uploadProgress.values().removeIf(upload -> upload.startedAtMillis() < cutoff
+                && upload.files().stream().allMatch(file -> file.getState().isFinished()));
+    }
+
+    private record UploadProgress(List<SongUploadProgressDTO> files, long startedAtMillis) {
+    }
+
+    private void uploadSong(MultipartFile file, SongRequestDTO songRequestDTO, SongUploadProgressDTO progress) {
+        String fileName = file.getOriginalFilename();
+        try {
+            progress.setState(UploadState.UPLOADING);
+            StreamingMediaEntity media = streamingMediaService.storeMedia(MediaFolder.MUSIC, fileName,
+                    file.getContentType(), file, file.getSize(), progress::setBytesUploaded);
+            progress.setBytesUploaded(file.getSize());
+
+            // Identical audio comes back as the stored media; its song is the upload's result
+            Optional<SongEntity> existing = songRepository.findByStreamingMediaId(media.getId());
+            if (existing.isPresent()) {
+                progress.setSongId(existing.get().getId());
+                progress.setState(UploadState.COMPLETED);
+                log.info("'{}' is already in the library as song {}", fileName, existing.get().getId());
+                return;
+            }
+            String fileId = media.getGoogleDriveId();
+
+            // Each file gets its own request copy; the shared one is read by the other uploads
+            SongRequestDTO request = new SongRequestDTO();
+            request.setGoogleDriveFileId(fileId);
+            request.setArtistIds(songRequestDTO.getArtistIds());
+            request.setAlbumId(songRequestDTO.getAlbumId());
+
+            SongEntity song = songRepository.save(songConverter.toEntity(request, false));
+            progress.setSongId(song.getId());
+            progress.setState(UploadState.UPLOADED);
+            log.info("Uploaded '{}' as song {}", fileName, song.getId());
+
+            songMetadataExecutor.execute(() -> completeSongMetadata(song, progress));
+        } catch (Exception e) {
+            log.error("Failed to upload file {}: {}", fileName, e.getMessage(), e);
+            progress.setError(e.getMessage());
+            progress.setState(UploadState.FAILED);
+        }
+    }
+
+    private void completeSongMetadata(SongEntity song, SongUploadProgressDTO progress) {
+        String fileTitle = song.getTitle();
+        try {
+            if (!songConverter.fillAudioMetadata(song)) {
+                // The song stays playable under its file name
+                song.setTitle(fileTitle);
+                progress.setError("Could not read the audio metadata");
+                progress.setState(UploadState.METADATA_FAILED);
+                return;
+            }
+            try {
+                song.setTags(tagService.generateTagsForSong(song));
+            } catch (Exception e) {
+                log.warn("Failed to generate tags for song {}: {}", song.getTitle(), e.getMessage());
+            }
+
+            // An album made for this song was named after the file before the real title was known
+            AlbumEntity album = song.getAlbum();
+            if (album != null && SongConverter.singleAlbumTitle(fileTitle).equals(album.getTitle())) {
+                album.setTitle(SongConverter.singleAlbumTitle(song.getTitle()));
+                album.setReleaseYear(song.getReleaseYear());
+                albumRepository.save(album);
+            }
+
+            songRepository.save(song);
+            // After the metadata save, which would otherwise write the media back without the index
+            scheduleSeekIndex(song);
+            progress.setState(UploadState.COMPLETED);
+            log.info("Filled in metadata for song {} '{}'", song.getId(), song.getTitle());
+        } catch (Exception e) {
+            // The song stays playable under its file name
+            log.error("Failed to fill in metadata for song {}: {}", song.getId(), e.getMessage(), e);
+            progress.setError(e.getMessage());
+            progress.setState(UploadState.METADATA_FAILED);
+        }
+    }
+
+    private static ThreadFactory daemonFactory(String name) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @PreDestroy
+    public void shutdownExecutors() {
+        uploadExecutor.shutdown();
+        songMetadataExecutor.shutdown();
+    }
+
     @Override
     public SongDTO findByGoogleDriveId(String driveId) {
         try {
@@ -155,12 +314,20 @@ public class SongServiceImpl implements SongService {
     public boolean createSong(SongRequestDTO songRequestDTO) {
         try {
 
-            songRequestDTO.setGoogleDriveFileId(
-                    googleDriveService.uploadSongFile(songRequestDTO.getMp3Files().getFirst()));
+            MultipartFile file = songRequestDTO.getMp3Files().getFirst();
+            StreamingMediaEntity media = streamingMediaService.storeMedia(MediaFolder.MUSIC,
+                    file.getOriginalFilename(), file.getContentType(), file, file.getSize());
+            Optional<SongEntity> existing = songRepository.findByStreamingMediaId(media.getId());
+            if (existing.isPresent()) {
+                log.warn("'{}' is already in the library as song {}, not creating another",
+                        file.getOriginalFilename(), existing.get().getId());
+                return false;
+            }
+            songRequestDTO.setGoogleDriveFileId(media.getGoogleDriveId());
 
             SongEntity song = songConverter.toEntity(songRequestDTO);
             song.setTags(tagService.generateTagsForSong(song));
-            songRepository.save(song);
+            scheduleSeekIndex(songRepository.save(song));
             return true;
         } catch (Exception e) {
             return false;
@@ -168,38 +335,47 @@ public class SongServiceImpl implements SongService {
     }
 
     public int importSongsFromGoogleDrive() {
-        List<GoogleDriveService.DriveFileBundle> songBundles = googleDriveService.loadAllSongsWithMetadata();
-
         int importedCount = 0;
+        int foundCount = 0;
 
-        for (GoogleDriveService.DriveFileBundle bundle : songBundles) {
-            try {
-                // Create song request DTO
-                SongRequestDTO songRequestDTO = new SongRequestDTO();
+        try {
+            // Songs are imported as listing pages arrive instead of after the whole folder is listed
+            Iterator<GoogleDriveService.DriveFileBundle> songBundles =
+                    googleDriveServiceProvider.getObject().streamSongsWithMetadata().iterator();
+            while (songBundles.hasNext()) {
+                GoogleDriveService.DriveFileBundle bundle = songBundles.next();
+                foundCount++;
+                try {
+                    // Create song request DTO
+                    SongRequestDTO songRequestDTO = new SongRequestDTO();
 
-                // Set Google Drive file ID
-                songRequestDTO.setGoogleDriveFileId(bundle.getSongFile().getId());
+                    // Set Google Drive file ID
+                    songRequestDTO.setGoogleDriveFileId(bundle.getSongFile().getId());
 
-                // Create song entity
-                SongEntity song = songConverter.toEntity(songRequestDTO);
+                    // Create song entity
+                    SongEntity song = songConverter.toEntity(songRequestDTO);
 
-                // Save song
-                SongEntity savedSong = songRepository.save(song);
+                    // Save song
+                    SongEntity savedSong = songRepository.save(song);
 
-                try {
-                    tagService.generateTagsForSong(savedSong);
-                } catch (Exception e) {
-                    log.warn("Failed to generate tags for song {}: {}", savedSong.getTitle(), e.getMessage());
-                }
+                    try {
+                        tagService.generateTagsForSong(savedSong);
+                    } catch (Exception e) {
+                        log.warn("Failed to generate tags for song {}: {}", savedSong.getTitle(), e.getMessage());
+                    }
+                    scheduleSeekIndex(savedSong);
 
-                importedCount++;
+                    importedCount++;
 
-            } catch (Exception e) {
-                log.error("Failed to import song {}: {}", bundle.getSongFile().getName(), e.getMessage(), e);
+                } catch (Exception e) {
+                    log.error("Failed to import song {}: {}", bundle.getSongFile().getName(), e.getMessage(), e);
+                }
             }
+        } catch (UncheckedIOException e) {
+            log.error("Listing the Google Drive music folder failed after {} songs", foundCount, e.getCause());
         }
 
-        log.info("Imported {} songs from Google Drive out of {} found", importedCount, songBundles.size());
+        log.info("Imported {} songs from Google Drive out of {} found", importedCount, foundCount);
         return importedCount;
     }
 
@@ -242,5 +418,29 @@ public class SongServiceImpl implements SongService {
                 .map(songConverter::toDTO)
                 .collect(Collectors.toList());
     }
+
+    @Override
+    @Transactional(readOnly = true)
+    public byte[] findSeekIndex(Long songId) {
+        SongEntity song = songRepository.findById(songId)
+                .orElseThrow(() -> new EntityNotFoundException("Song not found!"));
+        StreamingMediaEntity media = song.getStreamingMedia();
+        if (media == null || media.getGoogleDriveId() == null) {
+            throw new EntityNotFoundException("Seek index not available for song " + songId);
+        }
+        if (media.getSeekIndex() == null) {
+            // Songs stored before indexes were built on upload; the player estimates until it's ready
+            seekIndexService.scheduleBuild(media.getId(), media.getGoogleDriveId());
+            throw new EntityNotFoundException("Seek index for song " + songId + " is being built");
+        }
+        return media.getSeekIndex().getData();
+    }
+
+    private void scheduleSeekIndex(SongEntity song) {
+        StreamingMediaEntity media = song.getStreamingMedia();
+        if (media != null && media.getSeekIndex() == null) {
+            seekIndexService.scheduleBuild(media.getId(), media.getGoogleDriveId());
+        }
+    }
 }
 
@@ -1,17 +1,41 @@
 package com.javaweb.service.impl;
 
+import com.javaweb.constant.AppConstant;
 import com.javaweb.entity.StreamingMediaEntity;
+import com.javaweb.enums.MediaFolder;
+import com.javaweb.model.dto.StoredFileDTO;
 import com.javaweb.repository.StreamingMediaRepository;
+import com.javaweb.service.MediaStorage;
 import com.javaweb.service.StreamingMediaService;
+import com.javaweb.utils.FileUtil;
+import com.javaweb.utils.ProgressInputStream;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import net.coobird.thumbnailator.Thumbnails;
+import net.coobird.thumbnailator.resizers.configurations.Antialiasing;
+import org.springframework.core.io.InputStreamSource;
 import org.springframework.stereotype.Service;
 
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.function.LongConsumer;
+
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class StreamingMediaServiceImpl implements StreamingMediaService {
     private final StreamingMediaRepository streamingMediaRepository;
+    private final MediaStorage mediaStorage;
 
     public StreamingMediaEntity getOrCreateStreamingMedia(String fileId, String name,
                                                           String mimeType, Long size,
@@ -25,4 +49,131 @@ public class StreamingMediaServiceImpl implements StreamingMediaService {
                         webContentLink
                 ));
     }
+
+    /**
+     * Content is hashed with a local pass first (uploads arrive as multipart temp files or local
+     * files), so a duplicate costs no upload at all. The upload itself is hashed again as it streams,
+     * which catches a source that changed between the two reads.
+     * <p>
+     * Two uploads of the same content can both miss the first lookup. The unique content hash lets
+     * only one row in, and the other upload returns that row and deletes its own copy.
+     */
+    @Override
+    public StreamingMediaEntity storeMedia(MediaFolder folder, String fileName, String mimeType,
+                                           InputStreamSource content, long length, LongConsumer progress) throws IOException {
+        String contentHash;
+        try (InputStream in = content.getInputStream()) {
+            contentHash = sha256(in);
+        }
+
+        Optional<StreamingMediaEntity> existing = streamingMediaRepository.findFirstByContentHash(contentHash);
+        if (existing.isPresent()) {
+            log.info("'{}' is already stored as {}, reusing it", fileName, existing.get().getGoogleDriveId());
+            return existing.get();
+        }
+
+        MessageDigest digest = newDigest();
+        StoredFileDTO stored;
+        try (InputStream in = new ProgressInputStream(new DigestInputStream(content.getInputStream(), digest), progress)) {
+            stored = mediaStorage.upload(folder, fileName, mimeType, in, length);
+        }
+        if (!contentHash.equals(HexFormat.of().formatHex(digest.digest()))) {
+            mediaStorage.delete(stored.getId());
+            throw new IOException("Content of '" + fileName + "' changed during upload");
+        }
+
+        streamingMediaRepository.insertIfContentNew(
+                stored.getId(),
+                stored.getName(),
+                stored.getMimeType(),
+                stored.getSize(),
+                stored.getWebContentLink(),
+                contentHash,
+                LocalDateTime.now()
+        );
+        StreamingMediaEntity mediaEntity = streamingMediaRepository.findCommittedByContentHash(contentHash)
+                .orElseThrow(() -> new IOException("Stored media for '" + fileName + "' could not be read back"));
+        if (!stored.getId().equals(mediaEntity.getGoogleDriveId())) {
+            log.info("'{}' was stored concurrently as {}, deleting the duplicate upload", fileName,
+                    mediaEntity.getGoogleDriveId());
+            mediaStorage.delete(stored.getId());
+        }
+        return mediaEntity;
+    }
+
+    @Override
+    public StreamingMediaEntity storeImage(MediaFolder folder, String fileName, String mimeType,
+                                           InputStreamSource content, long length) throws IOException {
+        StreamingMediaEntity mediaEntity = storeMedia(folder, fileName, mimeType, content, length);
+        if (!mediaEntity.getRenditions().isEmpty()) {
+            return mediaEntity;
+        }
+
+        BufferedImage original;
+        try (InputStream in = content.getInputStream()) {
+            original = ImageIO.read(in);
+        }
+        if (original == null) {
+            log.warn("'{}' is not a readable image, no renditions generated", fileName);
+            return mediaEntity;
+        }
+
+        // A rendition that fails is skipped: clients fall back to the original for that size
+        for (int size : AppConstant.IMAGE_THUMBNAIL_SIZES) {
+            if (Math.max(original.getWidth(), original.getHeight()) <= size) {
+                continue;
+            }
+            try {
+                StoredFileDTO rendition = storeRendition(folder, fileName, original, size);
+                mediaEntity.getRenditions().put(size, rendition.getId());
+            } catch (IOException | RuntimeException e) {
+                log.warn("Failed to store {} px rendition of '{}': {}", size, fileName, e.getMessage());
+            }
+        }
+        if (mediaEntity.getRenditions().isEmpty()) {
+            return mediaEntity;
+        }
+        log.info("Stored renditions {} of '{}'", mediaEntity.getRenditions().keySet(), fileName);
+        return streamingMediaRepository.save(mediaEntity);
+    }
+
+    private StoredFileDTO storeRendition(MediaFolder folder, String fileName, BufferedImage original, int size) throws IOException {
+        // PNG keeps transparency, everything else becomes a JPEG
+        boolean alpha = original.getColorModel().hasAlpha();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Thumbnails.Builder<BufferedImage> builder = Thumbnails.of(original)
+                .size(size, size)
+                .keepAspectRatio(true)
+                .antialiasing(Antialiasing.ON)
+                .outputFormat(alpha ? "png" : "jpg");
+        if (!alpha) {
+            builder.outputQuality(AppConstant.IMAGE_RENDITION_JPEG_QUALITY);
+        }
+        builder.toOutputStream(out);
+
+        byte[] bytes = out.toByteArray();
+        return mediaStorage.upload(folder,
+                FileUtil.generateRenditionFilename(fileName, size, alpha ? "png" : "jpg"),
+                alpha ? "image/png" : "image/jpeg",
+                new ByteArrayInputStream(bytes), bytes.length);
+    }
+
+    private static String sha256(InputStream in) throws IOException {
+        MessageDigest digest = newDigest();
+        byte[] buffer = new byte[64 * 1024];
+        int n;
+        while ((n = in.read(buffer)) != -1) {
+            digest.update(buffer, 0, n);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // Every JRE ships SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
 }
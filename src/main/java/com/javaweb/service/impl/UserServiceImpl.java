@@ -1,27 +1,31 @@
 package com.javaweb.service.impl;
 
-import com.google.api.services.drive.model.File;
 import com.javaweb.converter.UserConverter;
 import com.javaweb.entity.RoleEntity;
 import com.javaweb.entity.StreamingMediaEntity;
 import com.javaweb.entity.UserEntity;
 import com.javaweb.enums.AccountStatus;
+import com.javaweb.enums.MediaFolder;
 import com.javaweb.enums.RoleType;
 import com.javaweb.exception.EntityNotFoundException;
 import com.javaweb.model.dto.PasswordDTO;
 import com.javaweb.model.dto.UserDTO;
 import com.javaweb.model.request.UserRequestDTO;
 import com.javaweb.repository.RoleRepository;
+import com.javaweb.repository.StreamingMediaRepository;
 import com.javaweb.repository.UserRepository;
+import com.javaweb.service.MediaStorage;
 import com.javaweb.service.PasswordService;
 import com.javaweb.service.StreamingMediaService;
 import com.javaweb.service.UserService;
+import com.javaweb.utils.FileUtil;
 import com.javaweb.utils.SecurityUtils;
 import com.javaweb.utils.StringUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.multipart.MultipartFile;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -40,8 +44,9 @@ public class UserServiceImpl implements UserService {
     private final RoleRepository roleRepository;
     private final PasswordService passwordService;
     private final UserConverter userConverter;
-    private final GoogleDriveService googleDriveService;
+    private final MediaStorage mediaStorage;
     private final StreamingMediaService streamingMediaService;
+    private final StreamingMediaRepository streamingMediaRepository;
 
     @Override
     public boolean upgradeUser(UserRequestDTO userRequestDTO) {
@@ -133,12 +138,16 @@ public class UserServiceImpl implements UserService {
     public Boolean saveSignUpUser(UserRequestDTO userRequestDTO) {
         try {
             if (userRequestDTO.getUserAvatar() != null && !userRequestDTO.getUserAvatar().isEmpty()) {
-                String driveFileId = googleDriveService.uploadImageFile(
-                        userRequestDTO.getUserAvatar(),
-                        GoogleDriveService.AVATAR_FOLDER_ID
-                );
+                MultipartFile avatar = userRequestDTO.getUserAvatar();
+                String driveFileId = streamingMediaService.storeImage(
+                        MediaFolder.AVATAR,
+                        FileUtil.generateUniqueFilename(avatar.getOriginalFilename()),
+                        avatar.getContentType(),
+                        avatar,
+                        avatar.getSize()
+                ).getGoogleDriveId();
                 userRequestDTO.setGoogleDriveFileId(driveFileId);
-                log.info("Uploaded artist profile image to Google Drive with ID: {}", driveFileId);
+                log.info("Uploaded artist profile image to media storage with ID: {}", driveFileId);
             }
 
             userRequestDTO.setPassword(passwordService.encodePassword(userRequestDTO.getPassword()));
@@ -174,56 +183,27 @@ public class UserServiceImpl implements UserService {
             }
 
             if (userRequestDTO.getUserAvatar() != null && !userRequestDTO.getUserAvatar().isEmpty()) {
-                String currentAvatarId = userEntity.getAvatar().getGoogleDriveId();
-                boolean shouldUpdateAvatar = true;
-
-                if (StringUtils.isNotBlank(currentAvatarId)) {
-                    try {
-                        long newFileSize = userRequestDTO.getUserAvatar().getSize();
-                        String newFileName = userRequestDTO.getUserAvatar().getOriginalFilename();
-
-                        File existingFile = googleDriveService.getFileMetadata(currentAvatarId);
-
-                        if (existingFile != null &&
-                                existingFile.getSize() != null &&
-                                existingFile.getSize() == newFileSize &&
-                                existingFile.getName().equals(newFileName)) {
-                            shouldUpdateAvatar = false;
-                            log.info("Avatar file appears unchanged, skipping upload");
-                        }
-                    } catch (Exception e) {
-                        log.warn("Could not compare avatar files, will upload new one", e);
-                    }
-                }
-
-                if (shouldUpdateAvatar) {
-                    String newDriveFileId = googleDriveService.uploadImageFile(
-                            userRequestDTO.getUserAvatar(),
-                            GoogleDriveService.AVATAR_FOLDER_ID
-                    );
+                MultipartFile avatar = userRequestDTO.getUserAvatar();
+                StreamingMediaEntity currentAvatar = userEntity.getAvatar();
+                // Identical content comes back as the existing record without another upload
+                StreamingMediaEntity newAvatar = streamingMediaService.storeImage(
+                        MediaFolder.AVATAR,
+                        FileUtil.generateUniqueFilename(avatar.getOriginalFilename()),
+                        avatar.getContentType(),
+                        avatar,
+                        avatar.getSize()
+                );
 
+                if (currentAvatar != null && Objects.equals(currentAvatar.getId(), newAvatar.getId())) {
+                    log.info("Avatar file unchanged, skipping update");
+                } else {
+                    userEntity.setAvatar(newAvatar);
+                    updated = true;
+                    log.info("Updated user avatar with new stored file ID: {}", newAvatar.getGoogleDriveId());
 
-                    if (StringUtils.isNotBlank(currentAvatarId)) {
-                        if (googleDriveService.deleteFile(currentAvatarId)) {
-                            log.info("Deleted old avatar file with ID: {}", currentAvatarId);
-                        } else {
-                            log.warn("Failed to delete old avatar file with ID: {}", currentAvatarId);
-                            throw new Exception("Failed to delete old avatar file with ID: " + currentAvatarId);
-                        }
+                    if (currentAvatar != null) {
+                        deleteIfUnreferenced(currentAvatar);
                     }
-
-                    File driveFile = googleDriveService.getFileMetadata(newDriveFileId);
-                    StreamingMediaEntity mediaEntity = streamingMediaService.getOrCreateStreamingMedia(
-                            driveFile.getId(),
-                            driveFile.getName(),
-                            driveFile.getMimeType(),
-                            driveFile.getSize(),
-                            driveFile.getWebContentLink()
-                    );
-
-                    userEntity.setAvatar(mediaEntity);
-                    updated = true;
-                    log.info("Updated user avatar with new Google Drive file ID: {}", newDriveFileId);
                 }
             }
 
@@ -240,6 +220,22 @@ public class UserServiceImpl implements UserService {
     }
 
 
+    /**
+     * Deduplicated media can be shared by several users, artists, albums or playlists, so a replaced
+     * file is only removed once nothing points at it.
+     */
+    private void deleteIfUnreferenced(StreamingMediaEntity media) {
+        if (streamingMediaRepository.countReferences(media) > 0) {
+            return;
+        }
+        if (StringUtils.isNotBlank(media.getGoogleDriveId()) && !mediaStorage.delete(media.getGoogleDriveId())) {
+            log.warn("Failed to delete old avatar file with ID: {}", media.getGoogleDriveId());
+            return;
+        }
+        streamingMediaRepository.delete(media);
+        log.info("Deleted old avatar file with ID: {}", media.getGoogleDriveId());
+    }
+
     @Override
     public void saveUser(UserRequestDTO userRequestDTO) {
         UserEntity UserEntity = userConverter.toEntity(userRequestDTO);
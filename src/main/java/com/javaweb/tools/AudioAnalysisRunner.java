@@ -0,0 +1,13 @@
+package com.javaweb.tools;
+
+import org.springframework.boot.SpringApplication;
+
+/**
+ * Runner for the AudioAnalysisTool. Optional argument: maximum number of songs to analyse.
+ */
+public class AudioAnalysisRunner {
+    public static void main(String[] args) {
+        System.setProperty("spring.profiles.active", "audio-analysis-tool");
+        SpringApplication.run(AudioAnalysisTool.AudioAnalysisApplication.class, args);
+    }
+}
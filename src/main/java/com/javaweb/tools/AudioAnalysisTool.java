@@ -0,0 +1,177 @@
+package com.javaweb.tools;
+
+import com.javaweb.constant.AppConstant;
+import com.javaweb.entity.SongEntity;
+import com.javaweb.repository.SongRepository;
+import com.javaweb.service.MediaStorage;
+import com.javaweb.utils.LoudnessAnalyzer;
+import com.javaweb.utils.Mp3PcmDecoder;
+import com.javaweb.utils.WaveformBuilder;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Decodes every song that has not been analysed yet once and stores what the client would otherwise
+ * have to compute while playing: integrated loudness and peak for levelling, and the waveform peaks
+ * drawn on the seek bar.
+ * <p>
+ * Songs are taken in batches of {@link AppConstant#AUDIO_ANALYSIS_BATCH_SIZE}. Each batch is decoded
+ * in parallel on a fork-join pool sized to the CPU count and saved before the next one starts, so
+ * stopping the job loses at most one batch and the next run picks up where it stopped.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AudioAnalysisTool {
+
+    // Silence has no loudness; stored as the absolute gate so the song is not picked up again
+    private static final double SILENCE_LUFS = -70.0;
+
+    private final SongRepository songRepository;
+    private final MediaStorage mediaStorage;
+
+    public void analyzeSongs(int maxSongs) {
+        ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        long started = System.nanoTime();
+        int analyzed = 0;
+        int failed = 0;
+        long afterId = 0;
+
+        try {
+            while (maxSongs <= 0 || analyzed + failed < maxSongs) {
+                int limit = AppConstant.AUDIO_ANALYSIS_BATCH_SIZE;
+                if (maxSongs > 0) {
+                    limit = Math.min(limit, maxSongs - analyzed - failed);
+                }
+                List<SongEntity> batch = songRepository.findSongsPendingAnalysis(afterId, PageRequest.of(0, limit));
+                if (batch.isEmpty()) {
+                    break;
+                }
+                // Songs that fail stay unanalysed and are retried on the next run, not in this one
+                afterId = batch.getLast().getId();
+
+                Analysis[] results = new Analysis[batch.size()];
+                pool.invoke(new AnalyzeTask(batch, results, 0, batch.size()));
+
+                for (int i = 0; i < batch.size(); i++) {
+                    Analysis result = results[i];
+                    if (result == null) {
+                        failed++;
+                        continue;
+                    }
+                    double loudness = Double.isInfinite(result.loudness().loudnessLufs())
+                            ? SILENCE_LUFS : result.loudness().loudnessLufs();
+                    songRepository.updateAnalysis(batch.get(i).getId(), loudness,
+                            result.loudness().peakAmplitude(), result.waveformPeaks());
+                    analyzed++;
+                }
+                log.info("Audio analysis: {} songs done, {} failed", analyzed, failed);
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        log.info("Audio analysis finished: {} songs analysed, {} failed in {} s",
+                analyzed, failed, (System.nanoTime() - started) / 1_000_000_000);
+    }
+
+    private Analysis analyze(SongEntity song) {
+        String fileId = song.getStreamingMedia().getGoogleDriveId();
+        try (InputStream in = new BufferedInputStream(mediaStorage.getContent(fileId), 64 * 1024)) {
+            AnalysisSink sink = new AnalysisSink();
+            Mp3PcmDecoder.decode(in, sink);
+            Analysis result = new Analysis(sink.loudness.result(), sink.waveform.build(AppConstant.WAVEFORM_PEAK_PAIRS));
+            log.debug("{}: {} LUFS, peak {}", song.getTitle(),
+                    String.format("%.1f", result.loudness().loudnessLufs()),
+                    String.format("%.3f", result.loudness().peakAmplitude()));
+            return result;
+        } catch (Exception e) {
+            log.warn("Could not analyse {} ({}): {}", song.getTitle(), fileId, e.getMessage());
+            return null;
+        }
+    }
+
+    private record Analysis(LoudnessAnalyzer.Result loudness, byte[] waveformPeaks) {
+    }
+
+    /**
+     * Feeds one decode to both analyses.
+     */
+    private static class AnalysisSink implements Mp3PcmDecoder.Sink {
+        private LoudnessAnalyzer loudness;
+        private WaveformBuilder waveform;
+
+        @Override
+        public void start(int sampleRate, int channels) {
+            loudness = new LoudnessAnalyzer(sampleRate, channels);
+            waveform = new WaveformBuilder(channels);
+        }
+
+        @Override
+        public void accept(short[] samples, int offset, int length) {
+            loudness.accept(samples, offset, length);
+            waveform.accept(samples, offset, length);
+        }
+    }
+
+    /**
+     * Splits the batch in halves until each task holds one song.
+     */
+    private class AnalyzeTask extends RecursiveAction {
+        private final List<SongEntity> songs;
+        private final Analysis[] results;
+        private final int start;
+        private final int end;
+
+        AnalyzeTask(List<SongEntity> songs, Analysis[] results, int start, int end) {
+            this.songs = songs;
+            this.results = results;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start == 1) {
+                results[start] = analyze(songs.get(start));
+                return;
+            }
+            int middle = (start + end) >>> 1;
+            invokeAll(new AnalyzeTask(songs, results, start, middle),
+                    new AnalyzeTask(songs, results, middle, end));
+        }
+    }
+
+    /**
+     * Runner class that can be used to execute this tool
+     */
+    @Profile("audio-analysis-tool")
+    @SpringBootApplication
+    @EnableJpaRepositories(basePackages = "com.javaweb.repository")
+    @ComponentScan(basePackages = {"com.javaweb"})
+    public static class AudioAnalysisApplication {
+
+        @Bean
+        public CommandLineRunner commandLineRunner(AudioAnalysisTool tool) {
+            return args -> {
+                int maxSongs = args.length > 0 ? Integer.parseInt(args[0]) : 0;
+                tool.analyzeSongs(maxSongs);
+                System.exit(0);
+            };
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.javaweb.tools;
+
+import org.springframework.boot.SpringApplication;
+
+/**
+ * Runner for the MetadataReadBenchmarkTool. Optional argument: maximum number of files to measure.
+ */
+public class MetadataReadBenchmarkRunner {
+    public static void main(String[] args) {
+        System.setProperty("spring.profiles.active", "metadata-benchmark-tool");
+        SpringApplication.run(MetadataReadBenchmarkTool.MetadataReadBenchmarkApplication.class, args);
+    }
+}
@@ -0,0 +1,137 @@
+package com.javaweb.tools;
+
+import com.google.api.services.drive.model.File;
+import com.javaweb.model.dto.SongDTO;
+import com.javaweb.service.impl.GoogleDriveService;
+import com.javaweb.utils.RangeMetadataReader;
+import com.javaweb.utils.StreamingAudioPlayer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * Compares range-read metadata extraction against the full-download path on the songs in the
+ * Drive music folder: time, bytes transferred and whether duration and bitrate agree.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MetadataReadBenchmarkTool {
+
+    // Durations within this many seconds count as matching (encoder delay/padding, rounding)
+    private static final int DURATION_TOLERANCE_SECONDS = 1;
+
+    private final GoogleDriveService googleDriveService;
+    private final RangeMetadataReader rangeMetadataReader;
+    private final StreamingAudioPlayer streamingAudioPlayer;
+
+    public void runBenchmark(int maxFiles) {
+        // Limiting the stream stops the listing after the pages that are needed
+        Stream<File> listing = googleDriveService.streamMusicFilesFromFolder();
+        if (maxFiles > 0) {
+            listing = listing.limit(maxFiles);
+        }
+        List<File> files = listing.toList();
+        log.info("Benchmarking metadata extraction on {} files", files.size());
+
+        long rangeNanos = 0;
+        long fullNanos = 0;
+        long rangeBytes = 0;
+        long fullBytes = 0;
+        int durationMatches = 0;
+        int bitrateMatches = 0;
+        int measured = 0;
+
+        for (File file : files) {
+            try {
+                long fileSize = file.getSize() != null ? file.getSize() : -1;
+
+                long start = System.nanoTime();
+                RangeMetadataReader.Mp3Metadata rangeMetadata = rangeMetadataReader.read(file.getId(), fileSize);
+                long rangeElapsed = System.nanoTime() - start;
+
+                SongDTO fullMetadata = new SongDTO();
+                fullMetadata.setDriveFileId(file.getId());
+                start = System.nanoTime();
+                // Without the seek index, so both sides time metadata extraction only
+                streamingAudioPlayer.extractMetadataFromFullDownload(fullMetadata, false);
+                long fullElapsed = System.nanoTime() - start;
+
+                int rangeSeconds = (int) Math.round(rangeMetadata.getDurationMillis() / 1000.0);
+                boolean durationMatch = fullMetadata.getDuration() != null
+                        && Math.abs(fullMetadata.getDuration() - rangeSeconds) <= DURATION_TOLERANCE_SECONDS;
+                boolean bitrateMatch = fullMetadata.getBitrate() != null
+                        && Math.abs(fullMetadata.getBitrate() - rangeMetadata.getBitrateKbps()) <= 1;
+
+                rangeNanos += rangeElapsed;
+                fullNanos += fullElapsed;
+                rangeBytes += rangeMetadata.getBytesFetched();
+                fullBytes += Math.max(fileSize, 0);
+                if (durationMatch) durationMatches++;
+                if (bitrateMatch) bitrateMatches++;
+                measured++;
+
+                log.info("{}: range {} ms / {} KB, full {} ms / {} KB, duration {}s vs {}s, bitrate {} vs {}{}",
+                        file.getName(),
+                        rangeElapsed / 1_000_000, rangeMetadata.getBytesFetched() / 1024,
+                        fullElapsed / 1_000_000, fileSize / 1024,
+                        rangeSeconds, fullMetadata.getDuration(),
+                        rangeMetadata.getBitrateKbps(), fullMetadata.getBitrate(),
+                        durationMatch && bitrateMatch ? "" : "  <-- MISMATCH");
+            } catch (Exception e) {
+                log.error("Error benchmarking {}: {}", file.getName(), e.getMessage());
+            }
+        }
+
+        if (measured == 0) {
+            log.warn("No files could be measured");
+            return;
+        }
+        log.info("Range reads:   {} ms total, {} KB fetched", rangeNanos / 1_000_000, rangeBytes / 1024);
+        log.info("Full download: {} ms total, {} KB fetched", fullNanos / 1_000_000, fullBytes / 1024);
+        log.info("Speedup x{}, duration agreement {}/{}, bitrate agreement {}/{}",
+                String.format("%.1f", (double) fullNanos / Math.max(1, rangeNanos)),
+                durationMatches, measured, bitrateMatches, measured);
+    }
+
+    /**
+     * Runner class that can be used to execute this tool
+     */
+    @Profile("metadata-benchmark-tool")
+    @SpringBootApplication
+    @EnableJpaRepositories(basePackages = "com.javaweb.repository")
+    @ComponentScan(basePackages = {"com.javaweb"})
+    public static class MetadataReadBenchmarkApplication {
+
+        @Bean
+        public CommandLineRunner commandLineRunner(MetadataReadBenchmarkTool tool) {
+            return args -> {
+                disableJaudiotaggerLogging();
+                int maxFiles = args.length > 0 ? Integer.parseInt(args[0]) : 0;
+                tool.runBenchmark(maxFiles);
+                System.exit(0);
+            };
+        }
+
+        private static void disableJaudiotaggerLogging() {
+            Logger rootLogger = Logger.getLogger("");
+            rootLogger.setLevel(Level.WARNING);
+            for (Handler handler : rootLogger.getHandlers()) {
+                handler.setLevel(Level.WARNING);
+            }
+            Logger.getLogger("org.jaudiotagger").setLevel(Level.SEVERE);
+        }
+    }
+}
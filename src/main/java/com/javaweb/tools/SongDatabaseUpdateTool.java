@@ -3,21 +3,17 @@ package com.javaweb.tools;
 import com.google.api.services.drive.model.File;
 import com.javaweb.entity.*;
 import com.javaweb.enums.AccountStatus;
+import com.javaweb.enums.MediaFolder;
 import com.javaweb.enums.RoleType;
 import com.javaweb.repository.*;
 import com.javaweb.service.StreamingMediaService;
 import com.javaweb.service.impl.GoogleDriveService;
+import com.javaweb.utils.FileUtil;
+import com.javaweb.utils.RangeMetadataReader;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.io.FilenameUtils;
-import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
-import org.jaudiotagger.audio.AudioFile;
-import org.jaudiotagger.audio.AudioFileIO;
-import org.jaudiotagger.audio.mp3.MP3AudioHeader;
-import org.jaudiotagger.tag.FieldKey;
-import org.jaudiotagger.tag.Tag;
-import org.jaudiotagger.tag.datatype.Artwork;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
@@ -25,16 +21,15 @@ import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.FileSystemResource;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.io.FileOutputStream;
-import java.io.InputStream;
-import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
-import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.logging.Handler;
@@ -57,6 +52,7 @@ public class SongDatabaseUpdateTool {
     private final RoleRepository roleRepository;
     private final LyricsRepository lyricsRepository;
     private final BCryptPasswordEncoder passwordEncoder;
+    private final RangeMetadataReader rangeMetadataReader;
 
     private static final int CURRENT_YEAR = Calendar.getInstance().get(Calendar.YEAR);
     private static final String[] COMMON_ARTIST_PREFIXES = {"by ", "- ", "_ "};
@@ -67,9 +63,9 @@ public class SongDatabaseUpdateTool {
         log.info("Starting enhanced song database update process");
 
 
-        // Step 1: Get all files from the Google Drive music folder
-        List<File> driveFiles = googleDriveService.listMusicFilesFromFolder();
-        log.info("Found {} files in Google Drive music folder", driveFiles.size());
+        // Step 1: List the Google Drive music folder; files are processed as listing pages arrive
+        Iterator<File> driveFiles = googleDriveService.streamMusicFilesFromFolder().iterator();
+        int foundCount = 0;
 
         // Map to track which files have been processed
         Map<String, Boolean> processedFiles = new HashMap<>();
@@ -82,29 +78,36 @@ public class SongDatabaseUpdateTool {
         // Step 2: Process all files and extract metadata
         List<SongMetadata> songMetadataList = new ArrayList<>();
 
-        for (File file : driveFiles) {
-            String fileId = file.getId();
-            String fileName = file.getName();
+        try {
+            while (driveFiles.hasNext()) {
+                File file = driveFiles.next();
+                foundCount++;
+                String fileId = file.getId();
+                String fileName = file.getName();
 
-            try {
-                // Extract metadata from the file
-                SongMetadata metadata = extractMetadata(fileId, file);
-                metadata.driveFile = file;
-
-                // Group by album info for later processing
-                if (StringUtils.isNotBlank(metadata.albumName) && StringUtils.isNotBlank(metadata.artistName)) {
-                    String albumKey = (metadata.artistName + ":" + metadata.albumName).toLowerCase();
-                    albumGroups.computeIfAbsent(albumKey, k -> new ArrayList<>()).add(metadata);
-                }
+                try {
+                    // Extract metadata from the file
+                    SongMetadata metadata = extractMetadata(fileId, file);
+                    metadata.driveFile = file;
+
+                    // Group by album info for later processing
+                    if (StringUtils.isNotBlank(metadata.albumName) && StringUtils.isNotBlank(metadata.artistName)) {
+                        String albumKey = (metadata.artistName + ":" + metadata.albumName).toLowerCase();
+                        albumGroups.computeIfAbsent(albumKey, k -> new ArrayList<>()).add(metadata);
+                    }
 
-                songMetadataList.add(metadata);
-                processedFiles.put(fileId, true);
+                    songMetadataList.add(metadata);
+                    processedFiles.put(fileId, true);
 
-            } catch (Exception e) {
-                log.error("Error extracting metadata from file '{}': {}", fileName, e.getMessage());
+                } catch (Exception e) {
+                    log.error("Error extracting metadata from file '{}': {}", fileName, e.getMessage());
+                }
             }
+        } catch (UncheckedIOException e) {
+            log.error("Listing the Google Drive music folder failed after {} files", foundCount, e.getCause());
         }
 
+        log.info("Found {} files in Google Drive music folder", foundCount);
         log.info("Extracted metadata from {} files", songMetadataList.size());
 
         // Step 3: Create albums for groups of songs
@@ -241,64 +244,33 @@ public class SongDatabaseUpdateTool {
     private SongMetadata extractMetadata(String fileId, File driveFile) throws Exception {
         SongMetadata metadata = new SongMetadata();
 
-        // Create a temporary file to analyze with JAudioTagger
-        Path tempFile = Files.createTempFile("song-", ".mp3");
-
-        try (InputStream inputStream = googleDriveService.getFileContent(fileId);
-             OutputStream outputStream = new FileOutputStream(tempFile.toFile())) {
-
-            // Download to temp file
-            IOUtils.copy(inputStream, outputStream);
-
-            // Extract metadata with JAudioTagger
-            AudioFile audioFile = AudioFileIO.read(tempFile.toFile());
-
-            // Extract audio properties
-            MP3AudioHeader audioHeader = (MP3AudioHeader) audioFile.getAudioHeader();
-            int duration = audioHeader.getTrackLength();
-            metadata.duration = duration;
-            metadata.frameCount = audioHeader.getNumberOfFrames();
-
-            // Get ID3 tag information
-            Tag tag = audioFile.getTag();
-
-            if (tag != null) {
-                // Core metadata
-                metadata.title = cleanupString(tag.getFirst(FieldKey.TITLE));
-                metadata.artistName = cleanupString(tag.getFirst(FieldKey.ARTIST));
-                metadata.albumName = cleanupString(tag.getFirst(FieldKey.ALBUM));
-                metadata.genre = cleanupString(tag.getFirst(FieldKey.GENRE));
-                metadata.lyrics = tag.getFirst(FieldKey.LYRICS);
-
-                // Try to parse year
-                try {
-                    String yearStr = tag.getFirst(FieldKey.YEAR);
-                    if (StringUtils.isNotBlank(yearStr)) {
-                        metadata.releaseYear = Integer.parseInt(yearStr);
-                    }
-                } catch (NumberFormatException e) {
-                    // Ignore parsing errors
-                }
-
-                // Extract artwork
-                Artwork artwork = tag.getFirstArtwork();
-                if (artwork != null) {
-                    byte[] imageData = artwork.getBinaryData();
-                    metadata.artworkFile = Files.createTempFile("artwork-", ".jpg").toFile();
-                    try (FileOutputStream fos = new FileOutputStream(metadata.artworkFile)) {
-                        fos.write(imageData);
-                    }
-                }
-            }
-
-            // If no metadata was found or title is missing, try to extract from filename
-            if (StringUtils.isBlank(metadata.title)) {
-                extractMetadataFromFilename(driveFile.getName(), metadata);
+        // Only the tag at the head, the first frame and the tail are fetched
+        RangeMetadataReader.Mp3Metadata fileMetadata = rangeMetadataReader.read(
+                fileId, driveFile.getSize() != null ? driveFile.getSize() : -1);
+
+        metadata.duration = (int) Math.round(fileMetadata.getDurationMillis() / 1000.0);
+        metadata.frameCount = fileMetadata.getFrameCount();
+
+        // Core metadata
+        metadata.title = cleanupString(fileMetadata.getTitle());
+        metadata.artistName = cleanupString(fileMetadata.getArtist());
+        metadata.albumName = cleanupString(fileMetadata.getAlbum());
+        metadata.genre = cleanupString(fileMetadata.getGenre());
+        metadata.lyrics = fileMetadata.getLyrics();
+        metadata.releaseYear = fileMetadata.getReleaseYear();
+
+        // Extract artwork
+        byte[] imageData = fileMetadata.getArtwork();
+        if (imageData != null) {
+            metadata.artworkFile = Files.createTempFile("artwork-", ".jpg").toFile();
+            try (FileOutputStream fos = new FileOutputStream(metadata.artworkFile)) {
+                fos.write(imageData);
             }
+        }
 
-        } finally {
-            // Clean up the temporary file
-            Files.deleteIfExists(tempFile);
+        // If no metadata was found or title is missing, try to extract from filename
+        if (StringUtils.isBlank(metadata.title)) {
+            extractMetadataFromFilename(driveFile.getName(), metadata);
         }
 
         return metadata;
@@ -548,30 +520,21 @@ public class SongDatabaseUpdateTool {
     }
 
     /**
-     * Uploads album artwork to Google Drive
+     * Stores album artwork, reusing the existing media when the same image is already stored
      */
     private StreamingMediaEntity uploadAlbumArtwork(java.io.File artworkFile, String albumName) {
+        if (artworkFile == null || !artworkFile.exists()) {
+            log.warn("No artwork file provided for album: {}", albumName);
+            return null;
+        }
         try {
-            // Call the service to upload the file
-            com.google.api.services.drive.model.File uploadedFile =
-                    googleDriveService.uploadAlbumArtwork(artworkFile, albumName);
-
-            if (uploadedFile == null) {
-                return null;
-            }
-
-            // Create and save StreamingMediaEntity
-            StreamingMediaEntity mediaEntity = streamingMediaService.getOrCreateStreamingMedia(
-                    uploadedFile.getId(),
-                    uploadedFile.getName(),
-                    uploadedFile.getMimeType(),
-                    uploadedFile.getSize(),
-                    uploadedFile.getWebContentLink()
+            return streamingMediaService.storeImage(
+                    MediaFolder.ALBUM_COVER,
+                    FileUtil.generateAlbumCoverFilename(albumName),
+                    "image/jpeg",
+                    new FileSystemResource(artworkFile),
+                    artworkFile.length()
             );
-
-            // Save the media entity
-            return streamingMediaRepository.save(mediaEntity);
-
         } catch (Exception e) {
             log.error("Error uploading artwork for album '{}': {}", albumName, e.getMessage(), e);
             return null;
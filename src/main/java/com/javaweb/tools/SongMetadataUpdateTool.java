@@ -4,14 +4,11 @@ import com.google.api.services.drive.model.File;
 import com.javaweb.entity.SongEntity;
 import com.javaweb.repository.SongRepository;
 import com.javaweb.service.impl.GoogleDriveService;
+import com.javaweb.utils.RangeMetadataReader;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.io.IOUtils;
-import org.jaudiotagger.audio.AudioFile;
-import org.jaudiotagger.audio.AudioFileIO;
-import org.jaudiotagger.audio.mp3.MP3AudioHeader;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
@@ -24,12 +21,8 @@ import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.io.FileOutputStream;
-import java.io.InputStream;
-import java.io.OutputStream;
-import java.nio.file.Files;
-import java.nio.file.Path;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Handler;
 import java.util.logging.Level;
@@ -45,6 +38,7 @@ public class SongMetadataUpdateTool {
 
     private final SongRepository songRepository;
     private final GoogleDriveService googleDriveService;
+    private final RangeMetadataReader rangeMetadataReader;
 
     @PersistenceContext
     private EntityManager entityManager;
@@ -63,9 +57,17 @@ public class SongMetadataUpdateTool {
         log.info("Found {} songs with audio files to process", songsToProcess.size());
 
         // Track statistics
+        long started = System.nanoTime();
         AtomicInteger updatedCount = new AtomicInteger(0);
         AtomicInteger errorCount = new AtomicInteger(0);
 
+        // Drive metadata for the whole library up front, so several batch requests run at once
+        Map<String, File> driveFiles = googleDriveService.getFilesMetadata(songsToProcess.stream()
+                .filter(song -> song.getFrame() == null || song.getBitrate() == null)
+                .filter(song -> song.getStreamingMedia() != null)
+                .map(song -> song.getStreamingMedia().getGoogleDriveId())
+                .toList());
+
         // Process songs in batches to improve memory usage
         for (int i = 0; i < songsToProcess.size(); i += BATCH_SIZE) {
             int endIndex = Math.min(i + BATCH_SIZE, songsToProcess.size());
@@ -80,7 +82,7 @@ public class SongMetadataUpdateTool {
             // Process each song in the batch
             batch.forEach(song -> {
                 try {
-                    boolean updated = processSingleSong(song);
+                    boolean updated = processSingleSong(song, driveFiles);
                     if (updated) {
                         updatedCount.incrementAndGet();
                     }
@@ -96,15 +98,19 @@ public class SongMetadataUpdateTool {
             clearSession();
         }
 
-        log.info("Song metadata update completed: {} songs updated, {} errors",
-                updatedCount.get(), errorCount.get());
+        long elapsedSeconds = Math.max(1, (System.nanoTime() - started) / 1_000_000_000);
+        log.info("Song metadata update completed: {} songs updated, {} errors, {} songs checked in {} s ({} songs/s)",
+                updatedCount.get(), errorCount.get(), songsToProcess.size(), elapsedSeconds,
+                songsToProcess.size() / elapsedSeconds);
     }
 
     /**
      * Process a single song to update its frame count and bitrate
+     *
+     * @param driveFiles Drive metadata fetched for the library, keyed by file ID
      */
     @Transactional
-    public boolean processSingleSong(SongEntity song) {
+    public boolean processSingleSong(SongEntity song, Map<String, File> driveFiles) {
         if (song == null || song.getId() == null) {
             return false;
         }
@@ -124,8 +130,7 @@ public class SongMetadataUpdateTool {
         String songTitle = song.getTitle();
 
         try {
-            // Get file metadata from Google Drive
-            File driveFile = googleDriveService.getFileMetadata(driveFileId);
+            File driveFile = driveFiles.get(driveFileId);
             if (driveFile == null) {
                 log.warn("Could not find drive file for song '{}' (ID: {}), skipping",
                         songTitle, song.getId());
@@ -133,7 +138,8 @@ public class SongMetadataUpdateTool {
             }
 
             // Extract technical metadata from the file
-            AudioMetadata metadata = extractTechnicalMetadata(driveFileId);
+            AudioMetadata metadata = extractTechnicalMetadata(
+                    driveFileId, driveFile.getSize() != null ? driveFile.getSize() : -1);
             boolean updated = false;
 
             // Update frame count if needed
@@ -174,31 +180,14 @@ public class SongMetadataUpdateTool {
     /**
      * Extract technical metadata from an MP3 file in Google Drive
      */
-    private AudioMetadata extractTechnicalMetadata(String fileId) throws Exception {
+    private AudioMetadata extractTechnicalMetadata(String fileId, long fileSize) throws Exception {
         AudioMetadata metadata = new AudioMetadata();
 
-        // Create a temporary file to analyze with JAudioTagger
-        Path tempFile = Files.createTempFile("song-", ".mp3");
-
-        try (InputStream inputStream = googleDriveService.getFileContent(fileId);
-             OutputStream outputStream = new FileOutputStream(tempFile.toFile())) {
-
-            // Download to temp file
-            IOUtils.copy(inputStream, outputStream);
-
-            // Extract metadata with JAudioTagger
-            AudioFile audioFile = AudioFileIO.read(tempFile.toFile());
-
-            // Extract audio properties
-            MP3AudioHeader audioHeader = (MP3AudioHeader) audioFile.getAudioHeader();
-            metadata.duration = audioHeader.getTrackLength();
-            metadata.frameCount = audioHeader.getNumberOfFrames();
-            metadata.bitrate = audioHeader.getBitRateAsNumber();
-
-        } finally {
-            // Clean up the temporary file
-            Files.deleteIfExists(tempFile);
-        }
+        // Frame count and bitrate come from the first frame's Xing/VBRI header, no full download needed
+        RangeMetadataReader.Mp3Metadata fileMetadata = rangeMetadataReader.read(fileId, fileSize);
+        metadata.duration = (int) Math.round(fileMetadata.getDurationMillis() / 1000.0);
+        metadata.frameCount = fileMetadata.getFrameCount();
+        metadata.bitrate = fileMetadata.getBitrateKbps();
 
         return metadata;
     }
@@ -3,24 +3,20 @@ package com.javaweb.tools;
 import com.google.api.services.drive.model.File;
 import com.javaweb.entity.*;
 import com.javaweb.enums.AccountStatus;
+import com.javaweb.enums.MediaFolder;
 import com.javaweb.enums.RoleType;
 import com.javaweb.repository.*;
 import com.javaweb.service.PasswordService;
 import com.javaweb.service.StreamingMediaService;
 import com.javaweb.service.impl.GoogleDriveService;
+import com.javaweb.utils.FileUtil;
+import com.javaweb.utils.RangeMetadataReader;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.io.FilenameUtils;
-import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
-import org.jaudiotagger.audio.AudioFile;
-import org.jaudiotagger.audio.AudioFileIO;
-import org.jaudiotagger.audio.mp3.MP3AudioHeader;
-import org.jaudiotagger.tag.FieldKey;
-import org.jaudiotagger.tag.Tag;
-import org.jaudiotagger.tag.datatype.Artwork;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
@@ -28,6 +24,7 @@ import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.FileSystemResource;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Component;
@@ -35,10 +32,7 @@ import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.io.FileOutputStream;
-import java.io.InputStream;
-import java.io.OutputStream;
 import java.nio.file.Files;
-import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.logging.Handler;
@@ -64,6 +58,7 @@ public class SongRelationshipUpdateTool {
     private final RoleRepository roleRepository;
     private final LyricsRepository lyricsRepository;
     private final PasswordService passwordService;
+    private final RangeMetadataReader rangeMetadataReader;
 
     @PersistenceContext
     private EntityManager entityManager;
@@ -130,6 +125,12 @@ public class SongRelationshipUpdateTool {
      * Extract metadata from all songs in the database
      */
     private void extractMetadataFromAllSongs(List<SongEntity> songs) {
+        // One batched metadata fetch for the whole library instead of a request per song
+        Map<String, File> driveFiles = googleDriveService.getFilesMetadata(songs.stream()
+                .filter(song -> song.getStreamingMedia() != null)
+                .map(song -> song.getStreamingMedia().getGoogleDriveId())
+                .toList());
+
         for (SongEntity song : songs) {
             try {
                 if (song.getStreamingMedia() == null || song.getStreamingMedia().getGoogleDriveId() == null) {
@@ -139,8 +140,7 @@ public class SongRelationshipUpdateTool {
 
                 String driveFileId = song.getStreamingMedia().getGoogleDriveId();
 
-                // Get file metadata from Google Drive
-                File driveFile = googleDriveService.getFileMetadata(driveFileId);
+                File driveFile = driveFiles.get(driveFileId);
                 if (driveFile == null) {
                     log.warn("Could not find drive file for song ID {}, skipping", song.getId());
                     continue;
@@ -339,64 +339,34 @@ public class SongRelationshipUpdateTool {
     private SongMetadata extractMetadata(String fileId, File driveFile) throws Exception {
         SongMetadata metadata = new SongMetadata();
 
-        // Create a temporary file to analyze with JAudioTagger
-        Path tempFile = Files.createTempFile("song-", ".mp3");
-
-        try (InputStream inputStream = googleDriveService.getFileContent(fileId);
-             OutputStream outputStream = new FileOutputStream(tempFile.toFile())) {
-
-            // Download to temp file
-            IOUtils.copy(inputStream, outputStream);
-
-            // Extract metadata with JAudioTagger
-            AudioFile audioFile = AudioFileIO.read(tempFile.toFile());
-
-            // Extract audio properties
-            MP3AudioHeader audioHeader = (MP3AudioHeader) audioFile.getAudioHeader();
-            int duration = audioHeader.getTrackLength();
-            metadata.duration = duration;
-            metadata.frame = audioHeader.getNumberOfFrames();
-            metadata.bitrate = audioHeader.getBitRateAsNumber();
-            // Get ID3 tag information
-            Tag tag = audioFile.getTag();
-
-            if (tag != null) {
-                // Core metadata
-                metadata.title = cleanupString(tag.getFirst(FieldKey.TITLE));
-                metadata.artistName = cleanupString(tag.getFirst(FieldKey.ARTIST));
-                metadata.albumName = cleanupString(tag.getFirst(FieldKey.ALBUM));
-                metadata.genre = cleanupString(tag.getFirst(FieldKey.GENRE));
-                metadata.lyrics = tag.getFirst(FieldKey.LYRICS);
-
-                // Try to parse year
-                try {
-                    String yearStr = tag.getFirst(FieldKey.YEAR);
-                    if (StringUtils.isNotBlank(yearStr)) {
-                        metadata.releaseYear = Integer.parseInt(yearStr);
-                    }
-                } catch (NumberFormatException e) {
-                    // Ignore parsing errors
-                }
-
-                // Extract artwork
-                Artwork artwork = tag.getFirstArtwork();
-                if (artwork != null) {
-                    byte[] imageData = artwork.getBinaryData();
-                    metadata.artworkFile = Files.createTempFile("artwork-", ".jpg").toFile();
-                    try (FileOutputStream fos = new FileOutputStream(metadata.artworkFile)) {
-                        fos.write(imageData);
-                    }
-                }
-            }
-
-            // If no metadata was found or title is missing, try to extract from filename
-            if (StringUtils.isBlank(metadata.title)) {
-                extractMetadataFromFilename(driveFile.getName(), metadata);
+        // Only the tag at the head, the first frame and the tail are fetched
+        RangeMetadataReader.Mp3Metadata fileMetadata = rangeMetadataReader.read(
+                fileId, driveFile.getSize() != null ? driveFile.getSize() : -1);
+
+        metadata.duration = (int) Math.round(fileMetadata.getDurationMillis() / 1000.0);
+        metadata.frame = fileMetadata.getFrameCount();
+        metadata.bitrate = (long) fileMetadata.getBitrateKbps();
+
+        // Core metadata
+        metadata.title = cleanupString(fileMetadata.getTitle());
+        metadata.artistName = cleanupString(fileMetadata.getArtist());
+        metadata.albumName = cleanupString(fileMetadata.getAlbum());
+        metadata.genre = cleanupString(fileMetadata.getGenre());
+        metadata.lyrics = fileMetadata.getLyrics();
+        metadata.releaseYear = fileMetadata.getReleaseYear();
+
+        // Extract artwork
+        byte[] imageData = fileMetadata.getArtwork();
+        if (imageData != null) {
+            metadata.artworkFile = Files.createTempFile("artwork-", ".jpg").toFile();
+            try (FileOutputStream fos = new FileOutputStream(metadata.artworkFile)) {
+                fos.write(imageData);
             }
+        }
 
-        } finally {
-            // Clean up the temporary file
-            Files.deleteIfExists(tempFile);
+        // If no metadata was found or title is missing, try to extract from filename
+        if (StringUtils.isBlank(metadata.title)) {
+            extractMetadataFromFilename(driveFile.getName(), metadata);
         }
 
         return metadata;
@@ -636,30 +606,27 @@ public class SongRelationshipUpdateTool {
         List<ArtistEntity> artists = artistRepository.findAll();
         log.info("Found {} artists to check for profile pictures", artists.size());
 
-        // Step 2: Get all profile pictures from Google Drive
-        List<File> profilePictures;
+        // Step 2 & 3: Map profile pictures by name (without extension) as listing pages arrive
+        Map<String, File> profilePictureMap = new HashMap<>();
         try {
-            profilePictures = googleDriveService.listArtistProfileImages();
-            log.info("Found {} profile pictures in Google Drive", profilePictures.size());
+            googleDriveService.streamImageFilesFromSpecificFolder(GoogleDriveService.ARTIST_PROFILE_FOLDER_ID)
+                    .forEach(picture -> {
+                        // Extract filename without extension
+                        String filename = picture.getName();
+                        String filenameWithoutExt = filename;
+                        if (filename.contains(".")) {
+                            filenameWithoutExt = filename.substring(0, filename.lastIndexOf('.'));
+                        }
+
+                        // Store profile picture in map (lowercase for case-insensitive matching)
+                        profilePictureMap.put(filenameWithoutExt.toLowerCase(), picture);
+                    });
+            log.info("Found {} profile pictures in Google Drive", profilePictureMap.size());
         } catch (Exception e) {
             log.error("Failed to retrieve artist profile pictures from Google Drive: {}", e.getMessage());
             return;
         }
 
-        // Step 3: Create a map of profile pictures by name (without extension) for faster lookup
-        Map<String, File> profilePictureMap = new HashMap<>();
-        for (File picture : profilePictures) {
-            // Extract filename without extension
-            String filename = picture.getName();
-            String filenameWithoutExt = filename;
-            if (filename.contains(".")) {
-                filenameWithoutExt = filename.substring(0, filename.lastIndexOf('.'));
-            }
-
-            // Store profile picture in map (lowercase for case-insensitive matching)
-            profilePictureMap.put(filenameWithoutExt.toLowerCase(), picture);
-        }
-
         // Step 4: Process each artist to find and associate matching profile picture
         int updatedCount = 0;
         for (ArtistEntity artist : artists) {
@@ -968,30 +935,21 @@ public class SongRelationshipUpdateTool {
     }
 
     /**
-     * Uploads album artwork to Google Drive
+     * Stores album artwork, reusing the existing media when the same image is already stored
      */
     private StreamingMediaEntity uploadAlbumArtwork(java.io.File artworkFile, String albumName) {
+        if (artworkFile == null || !artworkFile.exists()) {
+            log.warn("No artwork file provided for album: {}", albumName);
+            return null;
+        }
         try {
-            // Call the service to upload the file
-            com.google.api.services.drive.model.File uploadedFile =
-                    googleDriveService.uploadAlbumArtwork(artworkFile, albumName);
-
-            if (uploadedFile == null) {
-                return null;
-            }
-
-            // Create and save StreamingMediaEntity
-            StreamingMediaEntity mediaEntity = streamingMediaService.getOrCreateStreamingMedia(
-                    uploadedFile.getId(),
-                    uploadedFile.getName(),
-                    uploadedFile.getMimeType(),
-                    uploadedFile.getSize(),
-                    uploadedFile.getWebContentLink()
+            return streamingMediaService.storeImage(
+                    MediaFolder.ALBUM_COVER,
+                    FileUtil.generateAlbumCoverFilename(albumName),
+                    "image/jpeg",
+                    new FileSystemResource(artworkFile),
+                    artworkFile.length()
             );
-
-            // Save the media entity
-            return streamingMediaRepository.save(mediaEntity);
-
         } catch (Exception e) {
             log.error("Error uploading artwork for album '{}': {}", albumName, e.getMessage(), e);
             return null;
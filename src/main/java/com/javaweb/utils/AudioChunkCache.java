@@ -0,0 +1,535 @@
+package com.javaweb.utils;
+
+import com.javaweb.constant.AppConstant;
+import com.javaweb.service.MediaStorage;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Size-bounded on-disk cache of audio bytes keyed by media storage file ID (usually Google Drive).
+ * <p>
+ * Each file is stored as fixed-size chunks ({@code <root>/<fileId>/<index>.chunk}) prefixed with a CRC32
+ * of the payload, so a partly downloaded song can be served from disk while the remaining chunks are
+ * streamed (and cached) from storage. Whole files are evicted in least-recently-used order once the total
+ * size exceeds {@link AppConstant#AUDIO_CACHE_MAX_BYTES}.
+ */
+@Slf4j
+@Primary
+@Component
+public class AudioChunkCache {
+
+    private static final String CHUNK_SUFFIX = ".chunk";
+    private static final String LENGTH_FILE = "length";
+    private static final int CRC_HEADER_SIZE = Integer.BYTES;
+
+    private final MediaStorage mediaStorage;
+    private final Path cacheRoot;
+    private final long maxBytes;
+    private final int chunkSize;
+
+    // Access-ordered so iteration starts with the least recently used file. Chunk files are replaced
+    // and deleted under this lock too, so the sizes always match what is on disk
+    private final LinkedHashMap<String, Long> cachedFileSizes = new LinkedHashMap<>(16, 0.75f, true);
+    private long currentBytes = 0;
+
+    // Length markers already read, -1 for files whose end hasn't been seen; read at every chunk boundary
+    private final Map<String, Long> knownLengths = new ConcurrentHashMap<>();
+
+    // Files with open streams are never evicted
+    private final Map<String, AtomicInteger> pinnedFiles = new ConcurrentHashMap<>();
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+    private final AtomicLong corruptedChunkCount = new AtomicLong();
+
+    @Autowired
+    public AudioChunkCache(MediaStorage mediaStorage) {
+        this(mediaStorage, Paths.get(AppConstant.AUDIO_CACHE_DIR),
+                AppConstant.AUDIO_CACHE_MAX_BYTES, AppConstant.AUDIO_CACHE_CHUNK_SIZE);
+    }
+
+    public AudioChunkCache(MediaStorage mediaStorage, Path cacheRoot, long maxBytes, int chunkSize) {
+        this.mediaStorage = mediaStorage;
+        this.cacheRoot = cacheRoot;
+        this.maxBytes = maxBytes;
+        this.chunkSize = chunkSize;
+    }
+
+    @PostConstruct
+    public void loadExistingEntries() {
+        try {
+            Files.createDirectories(cacheRoot);
+        } catch (IOException e) {
+            log.error("Failed to create audio cache directory {}: {}", cacheRoot, e.getMessage());
+            return;
+        }
+
+        // Rebuild the LRU order from directory modification times
+        File[] fileDirs = cacheRoot.toFile().listFiles(File::isDirectory);
+        if (fileDirs == null) {
+            return;
+        }
+        Arrays.sort(fileDirs, Comparator.comparingLong(File::lastModified));
+
+        synchronized (cachedFileSizes) {
+            for (File dir : fileDirs) {
+                long size = directorySize(dir.toPath());
+                cachedFileSizes.put(dir.getName(), size);
+                currentBytes += size;
+            }
+        }
+        log.info("Audio cache loaded: {} files, {} bytes in {}", fileDirs.length, currentBytes, cacheRoot);
+        evictIfNeeded();
+    }
+
+    /**
+     * Opens a read-through stream for the given stored file. Cached chunks are served from disk, missing
+     * chunks are fetched from storage starting at the first missing byte and written back to the cache.
+     */
+    public InputStream openStream(String fileId) {
+        return openStream(fileId, 0);
+    }
+
+    public InputStream openStream(String fileId, long offset) {
+        return new ReadThroughInputStream(fileId, offset);
+    }
+
+    /**
+     * Returns the total length of the file when it has been observed completely, or -1 if unknown.
+     */
+    public long getKnownLength(String fileId) {
+        return knownLengths.computeIfAbsent(fileId, this::readLength);
+    }
+
+    private long readLength(String fileId) {
+        Path lengthFile = fileDirectory(fileId).resolve(LENGTH_FILE);
+        try {
+            if (Files.exists(lengthFile)) {
+                return Long.parseLong(Files.readString(lengthFile, StandardCharsets.UTF_8).trim());
+            }
+        } catch (IOException | NumberFormatException e) {
+            log.debug("Unreadable length marker for {}: {}", fileId, e.getMessage());
+        }
+        return -1;
+    }
+
+    /**
+     * Reads the first {@code chunkCount} chunks of a file through the cache so a later play starts
+     * from disk. Chunks that are already cached cost no network traffic.
+     */
+    public void prefetch(String fileId, int chunkCount) {
+        byte[] buffer = new byte[chunkSize];
+        long remaining = (long) chunkCount * chunkSize;
+        try (InputStream in = openStream(fileId)) {
+            while (remaining > 0) {
+                int n = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+                if (n < 0) {
+                    break;
+                }
+                remaining -= n;
+            }
+        } catch (IOException e) {
+            log.debug("Prefetch of {} stopped early: {}", fileId, e.getMessage());
+        }
+    }
+
+    public boolean isFullyCached(String fileId) {
+        long length = getKnownLength(fileId);
+        if (length < 0) {
+            return false;
+        }
+        long chunkCount = (length + chunkSize - 1) / chunkSize;
+        for (long i = 0; i < chunkCount; i++) {
+            if (!Files.exists(chunkPath(fileId, i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void invalidate(String fileId) {
+        synchronized (cachedFileSizes) {
+            Long size = cachedFileSizes.remove(fileId);
+            if (size != null) {
+                currentBytes -= size;
+            }
+            knownLengths.remove(fileId);
+            deleteDirectory(fileDirectory(fileId));
+        }
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    public long getCorruptedChunkCount() {
+        return corruptedChunkCount.get();
+    }
+
+    public long getCurrentBytes() {
+        synchronized (cachedFileSizes) {
+            return currentBytes;
+        }
+    }
+
+    public double getHitRatio() {
+        long hits = hitCount.get();
+        long total = hits + missCount.get();
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
+    public void logStats() {
+        log.info("Audio cache stats: hits={}, misses={}, hitRatio={}, evictions={}, corrupted={}, size={}/{} bytes",
+                getHitCount(), getMissCount(), String.format("%.2f", getHitRatio()),
+                getEvictionCount(), getCorruptedChunkCount(), getCurrentBytes(), maxBytes);
+    }
+
+    private byte[] readChunk(String fileId, long chunkIndex) {
+        Path path = chunkPath(fileId, chunkIndex);
+        if (!Files.exists(path)) {
+            return null;
+        }
+        try {
+            byte[] raw = Files.readAllBytes(path);
+            if (raw.length < CRC_HEADER_SIZE) {
+                throw new IOException("Chunk shorter than its header");
+            }
+            int expectedCrc = ByteBuffer.wrap(raw, 0, CRC_HEADER_SIZE).getInt();
+            CRC32 crc = new CRC32();
+            crc.update(raw, CRC_HEADER_SIZE, raw.length - CRC_HEADER_SIZE);
+            if ((int) crc.getValue() != expectedCrc) {
+                throw new IOException("CRC mismatch");
+            }
+            touch(fileId);
+            return Arrays.copyOfRange(raw, CRC_HEADER_SIZE, raw.length);
+        } catch (IOException e) {
+            corruptedChunkCount.incrementAndGet();
+            log.warn("Dropping corrupted audio chunk {} of {}: {}", chunkIndex, fileId, e.getMessage());
+            deleteChunk(fileId, path);
+            return null;
+        }
+    }
+
+    private void writeChunk(String fileId, long chunkIndex, byte[] data, int length) {
+        Path dir = fileDirectory(fileId);
+        Path target = chunkPath(fileId, chunkIndex);
+        try {
+            Files.createDirectories(dir);
+            CRC32 crc = new CRC32();
+            crc.update(data, 0, length);
+
+            ByteBuffer buffer = ByteBuffer.allocate(CRC_HEADER_SIZE + length);
+            buffer.putInt((int) crc.getValue());
+            buffer.put(data, 0, length);
+
+            // Write to a temp file first so readers never observe a half-written chunk
+            Path temp = Files.createTempFile(dir, "chunk-", ".tmp");
+            Files.write(temp, buffer.array());
+
+            synchronized (cachedFileSizes) {
+                // Another stream of the same file may have written this chunk meanwhile
+                long previousSize = Files.exists(target) ? Files.size(target) : 0;
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                long delta = buffer.capacity() - previousSize;
+                cachedFileSizes.merge(fileId, delta, Long::sum);
+                currentBytes += delta;
+            }
+            evictIfNeeded();
+        } catch (IOException e) {
+            log.warn("Failed to cache chunk {} of {}: {}", chunkIndex, fileId, e.getMessage());
+        }
+    }
+
+    private void writeLength(String fileId, long length) {
+        try {
+            Path dir = fileDirectory(fileId);
+            Files.createDirectories(dir);
+            Files.writeString(dir.resolve(LENGTH_FILE), Long.toString(length), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            log.debug("Failed to record length for {}: {}", fileId, e.getMessage());
+        }
+        knownLengths.put(fileId, length);
+    }
+
+    private void evictIfNeeded() {
+        synchronized (cachedFileSizes) {
+            Iterator<Map.Entry<String, Long>> iterator = cachedFileSizes.entrySet().iterator();
+            while (currentBytes > maxBytes && iterator.hasNext()) {
+                Map.Entry<String, Long> entry = iterator.next();
+                String fileId = entry.getKey();
+                if (pinnedFiles.containsKey(fileId)) {
+                    continue;
+                }
+                // Deleted before the lock is released, so a stream opened meanwhile can't write a
+                // chunk that is counted and then removed with the directory
+                currentBytes -= entry.getValue();
+                iterator.remove();
+                knownLengths.remove(fileId);
+                deleteDirectory(fileDirectory(fileId));
+                evictionCount.incrementAndGet();
+                log.debug("Evicted {} from audio cache", fileId);
+            }
+        }
+    }
+
+    private void touch(String fileId) {
+        synchronized (cachedFileSizes) {
+            cachedFileSizes.get(fileId);
+        }
+        fileDirectory(fileId).toFile().setLastModified(System.currentTimeMillis());
+    }
+
+    private void pin(String fileId) {
+        pinnedFiles.computeIfAbsent(fileId, id -> new AtomicInteger()).incrementAndGet();
+    }
+
+    private void unpin(String fileId) {
+        pinnedFiles.computeIfPresent(fileId, (id, count) -> count.decrementAndGet() <= 0 ? null : count);
+    }
+
+    private void deleteChunk(String fileId, Path path) {
+        synchronized (cachedFileSizes) {
+            try {
+                if (!Files.exists(path)) {
+                    return;
+                }
+                long size = Files.size(path);
+                Files.delete(path);
+                // Only files still tracked count towards the total
+                cachedFileSizes.computeIfPresent(fileId, (id, total) -> {
+                    currentBytes -= size;
+                    return total - size;
+                });
+            } catch (IOException e) {
+                log.debug("Failed to delete chunk {}: {}", path, e.getMessage());
+            }
+        }
+    }
+
+    private void deleteDirectory(Path dir) {
+        if (!Files.exists(dir)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        } catch (IOException e) {
+            log.warn("Failed to delete cache directory {}: {}", dir, e.getMessage());
+        }
+    }
+
+    private long directorySize(Path dir) {
+        try (Stream<Path> paths = Files.list(dir)) {
+            return paths.mapToLong(path -> path.toFile().length()).sum();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private Path fileDirectory(String fileId) {
+        return cacheRoot.resolve(fileId.replaceAll("[^A-Za-z0-9_-]", "_"));
+    }
+
+    private Path chunkPath(String fileId, long chunkIndex) {
+        return fileDirectory(fileId).resolve(chunkIndex + CHUNK_SUFFIX);
+    }
+
+    /**
+     * Serves bytes chunk by chunk: from disk when the chunk is cached, otherwise from a Drive stream
+     * opened at the chunk boundary. Fetched chunks are written back before they are handed out.
+     */
+    private class ReadThroughInputStream extends InputStream {
+        private final String fileId;
+        private long position;
+        private byte[] chunk;
+        private long chunkStart = -1;
+        private final byte[] single = new byte[1];
+        // Guards upstream and closed: close() may run on another thread while a chunk is being fetched
+        private final Object upstreamLock = new Object();
+        private InputStream upstream;
+        private long upstreamPosition = -1;
+        private volatile boolean closed = false;
+
+        ReadThroughInputStream(String fileId, long offset) {
+            this.fileId = fileId;
+            this.position = Math.max(0, offset);
+            pin(fileId);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int n = read(single, 0, 1);
+            return n == -1 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            ensureOpen();
+            if (len == 0) {
+                return 0;
+            }
+            if (!ensureChunk()) {
+                return -1;
+            }
+            int chunkOffset = (int) (position - chunkStart);
+            int n = Math.min(len, chunk.length - chunkOffset);
+            System.arraycopy(chunk, chunkOffset, b, off, n);
+            position += n;
+            return n;
+        }
+
+        @Override
+        public long skip(long n) {
+            if (n <= 0) {
+                return 0;
+            }
+            position += n;
+            return n;
+        }
+
+        @Override
+        public int available() {
+            if (chunk == null || position < chunkStart || position >= chunkStart + chunk.length) {
+                return 0;
+            }
+            return (int) (chunkStart + chunk.length - position);
+        }
+
+        @Override
+        public void close() throws IOException {
+            synchronized (upstreamLock) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                // Also unblocks a fetch that is waiting on the network
+                closeUpstream();
+            }
+            unpin(fileId);
+        }
+
+        private boolean ensureChunk() throws IOException {
+            if (chunk != null && position >= chunkStart && position < chunkStart + chunk.length) {
+                return true;
+            }
+
+            long knownLength = getKnownLength(fileId);
+            if (knownLength >= 0 && position >= knownLength) {
+                return false;
+            }
+
+            long chunkIndex = position / chunkSize;
+            byte[] cached = readChunk(fileId, chunkIndex);
+            if (cached != null && cached.length > position - chunkIndex * chunkSize) {
+                hitCount.incrementAndGet();
+                chunk = cached;
+                chunkStart = chunkIndex * chunkSize;
+                // The open Drive stream no longer lines up with what we serve
+                closeUpstream();
+                return true;
+            }
+
+            missCount.incrementAndGet();
+            return fetchChunk(chunkIndex);
+        }
+
+        private boolean fetchChunk(long chunkIndex) throws IOException {
+            long start = chunkIndex * chunkSize;
+            InputStream source = null;
+            synchronized (upstreamLock) {
+                ensureOpen();
+                if (upstream != null && upstreamPosition == start) {
+                    source = upstream;
+                } else {
+                    closeUpstream();
+                }
+            }
+            if (source == null) {
+                // Empty when start is at or past the end, which the short read below records
+                source = mediaStorage.getContent(fileId, start);
+                synchronized (upstreamLock) {
+                    if (closed) {
+                        source.close();
+                        throw new IOException("Stream closed");
+                    }
+                    upstream = source;
+                    upstreamPosition = start;
+                }
+            }
+
+            byte[] buffer = new byte[chunkSize];
+            int filled = 0;
+            while (filled < chunkSize) {
+                int n = source.read(buffer, filled, chunkSize - filled);
+                if (n == -1) {
+                    break;
+                }
+                filled += n;
+            }
+
+            synchronized (upstreamLock) {
+                // A stream closed under us may report a short read that is not the end of the file
+                ensureOpen();
+                upstreamPosition += filled;
+                if (filled < chunkSize) {
+                    closeUpstream();
+                }
+            }
+            if (filled < chunkSize) {
+                // Short read means we reached the end of the file
+                writeLength(fileId, start + filled);
+            }
+            if (filled == 0) {
+                return false;
+            }
+
+            writeChunk(fileId, chunkIndex, buffer, filled);
+            chunk = filled == chunkSize ? buffer : Arrays.copyOf(buffer, filled);
+            chunkStart = start;
+            return position < chunkStart + chunk.length;
+        }
+
+        private void ensureOpen() throws IOException {
+            if (closed) {
+                throw new IOException("Stream closed");
+            }
+        }
+
+        private void closeUpstream() {
+            synchronized (upstreamLock) {
+                if (upstream != null) {
+                    try {
+                        upstream.close();
+                    } catch (IOException ignored) {
+                    }
+                    upstream = null;
+                    upstreamPosition = -1;
+                }
+            }
+        }
+    }
+}
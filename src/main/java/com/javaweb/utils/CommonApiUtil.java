@@ -9,6 +9,8 @@ import com.javaweb.model.request.AlbumRequestDTO;
 import com.javaweb.model.request.SongRequestDTO;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
@@ -169,6 +171,10 @@ public class CommonApiUtil {
         return getSongApiClient().createSongs(songRequestDTO);
     }
 
+    public static List<SongUploadProgressDTO> fetchSongUploadProgress(String uploadId) {
+        return getSongApiClient().fetchUploadProgress(uploadId);
+    }
+
     public static boolean createSong(SongRequestDTO songRequestDTO) {
         return getSongApiClient().createSong(songRequestDTO);
     }
@@ -227,6 +233,14 @@ public class CommonApiUtil {
     public static SongDTO fetchSongById(Long id) {
         return getSongApiClient().fetchSongById(id);
     }
+
+    public static Mp3SeekIndex fetchSeekIndex(Long songId) {
+        return Mp3SeekIndex.fromBytes(getSongApiClient().fetchSeekIndex(songId));
+    }
+
+    public static InputStream openSongStream(Long songId, long offset) throws IOException {
+        return getSongApiClient().openSongStream(songId, offset);
+    }
     //SongLikes
 
     public static boolean createSongLikes(Long songId) {
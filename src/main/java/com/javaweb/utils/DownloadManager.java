@@ -0,0 +1,504 @@
+package com.javaweb.utils;
+
+import com.javaweb.constant.AppConstant;
+import com.javaweb.enums.DownloadState;
+import com.javaweb.model.dto.SongDTO;
+import com.javaweb.service.MediaStorage;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.swing.*;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Stream;
+
+/**
+ * Queue of song downloads with bounded concurrency.
+ * <p>
+ * The file size comes from the response to the first segment's range request, whose body becomes
+ * that segment's data. The target is preallocated as {@code <name>.part} and split into segments of
+ * {@link AppConstant#DOWNLOAD_SEGMENT_SIZE} that are fetched in parallel and written at their offsets.
+ * Progress per segment is checkpointed to {@code <name>.part.ckpt}; a download interrupted by a dropped
+ * connection or a crash continues from there instead of starting over. Listeners are called on the EDT,
+ * progress at most every {@link AppConstant#DOWNLOAD_PROGRESS_INTERVAL_MS}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DownloadManager {
+
+    private static final String PART_SUFFIX = ".part";
+    private static final String CHECKPOINT_SUFFIX = ".part.ckpt";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final MediaStorage mediaStorage;
+
+    private final ExecutorService downloadExecutor = Executors.newFixedThreadPool(
+            AppConstant.DOWNLOAD_MAX_CONCURRENT, daemonFactory("Download"));
+    private final ExecutorService segmentExecutor = Executors.newFixedThreadPool(
+            AppConstant.DOWNLOAD_SEGMENT_THREADS, daemonFactory("DownloadSegment"));
+    private final Map<Path, DownloadTask> activeTasks = new ConcurrentHashMap<>();
+
+    public interface DownloadListener {
+        default void onProgress(DownloadTask task) {
+        }
+
+        default void onCompleted(DownloadTask task) {
+        }
+
+        default void onFailed(DownloadTask task, Exception e) {
+        }
+
+        default void onCancelled(DownloadTask task) {
+        }
+    }
+
+    public static class DownloadTask {
+        @Getter
+        private final SongDTO song;
+        @Getter
+        private final File targetFile;
+        // Everyone who asked for this target; guarded by itself together with the final state
+        private final List<DownloadListener> listeners = new ArrayList<>();
+        @Getter
+        private volatile DownloadState state = DownloadState.QUEUED;
+        private volatile Exception failure;
+        private volatile boolean cancelRequested;
+        @Getter
+        private volatile long totalBytes = -1;
+        private final AtomicLong downloadedBytes = new AtomicLong();
+
+        private final AtomicBoolean progressPending = new AtomicBoolean();
+        private volatile long lastProgressReport = 0;
+        private long segmentSize;
+        private AtomicLongArray segmentDone;
+        private long lastCheckpointBytes = 0;
+
+        DownloadTask(SongDTO song, File targetFile) {
+            this.song = song;
+            this.targetFile = targetFile;
+        }
+
+        /**
+         * Registers another listener. One added after the download ended hears about the outcome
+         * right away, so joining a task never leaves a caller waiting.
+         */
+        void addListener(DownloadListener listener) {
+            if (listener == null) {
+                return;
+            }
+            synchronized (listeners) {
+                if (!isFinished()) {
+                    if (!listeners.contains(listener)) {
+                        listeners.add(listener);
+                    }
+                    return;
+                }
+            }
+            SwingUtilities.invokeLater(() -> notifyOutcome(listener, this));
+        }
+
+        private boolean isFinished() {
+            return state == DownloadState.COMPLETED || state == DownloadState.FAILED || state == DownloadState.CANCELLED;
+        }
+
+        public long getDownloadedBytes() {
+            return downloadedBytes.get();
+        }
+
+        public int getProgressPercent() {
+            long total = totalBytes;
+            return total > 0 ? (int) (downloadedBytes.get() * 100 / total) : 0;
+        }
+
+        /**
+         * Asks the download to stop. Listeners get {@code onCancelled} once its files are cleaned up.
+         */
+        public void cancel() {
+            cancelRequested = true;
+        }
+
+        boolean isCancelled() {
+            return cancelRequested;
+        }
+    }
+
+    /**
+     * Queues a download. A download already running for the same target is returned instead of
+     * starting a second one, with the listener attached to it as well.
+     */
+    public DownloadTask submit(SongDTO song, File targetFile, DownloadListener listener) {
+        Path key = targetFile.toPath().toAbsolutePath();
+        DownloadTask task = new DownloadTask(song, targetFile);
+        DownloadTask existing = activeTasks.putIfAbsent(key, task);
+        if (existing != null) {
+            existing.addListener(listener);
+            return existing;
+        }
+        task.addListener(listener);
+        downloadExecutor.execute(() -> run(task, key));
+        return task;
+    }
+
+    /**
+     * Queues every song once; songs that map to the same target file share one task.
+     */
+    public List<DownloadTask> submitAll(List<SongDTO> songs, Path directory, DownloadListener listener) {
+        List<DownloadTask> tasks = new ArrayList<>();
+        Set<Path> targets = new HashSet<>();
+        for (SongDTO song : songs) {
+            if (song.getDriveFileId() == null) {
+                continue;
+            }
+            Path target = directory.resolve(SongDownloadUtil.sanitizeFileName(song.getTitle()) + ".mp3");
+            if (targets.add(target.toAbsolutePath())) {
+                tasks.add(submit(song, target.toFile(), listener));
+            }
+        }
+        return tasks;
+    }
+
+    /**
+     * Re-queues the downloads that left a checkpoint behind in the given directory.
+     */
+    public List<DownloadTask> resumeInterrupted(Path directory, DownloadListener listener) {
+        List<DownloadTask> tasks = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return tasks;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path checkpoint : files.filter(path -> path.toString().endsWith(CHECKPOINT_SUFFIX)).toList()) {
+                Properties properties = readCheckpoint(checkpoint);
+                if (properties == null || properties.getProperty("fileId") == null) {
+                    continue;
+                }
+                String name = checkpoint.getFileName().toString();
+                File target = checkpoint.resolveSibling(name.substring(0, name.length() - CHECKPOINT_SUFFIX.length())).toFile();
+
+                SongDTO song = new SongDTO();
+                song.setDriveFileId(properties.getProperty("fileId"));
+                song.setTitle(properties.getProperty("title", target.getName()));
+                log.info("Resuming interrupted download of {}", target.getName());
+                tasks.add(submit(song, target, listener));
+            }
+        } catch (IOException e) {
+            log.warn("Could not look for interrupted downloads in {}: {}", directory, e.getMessage());
+        }
+        return tasks;
+    }
+
+    private void run(DownloadTask task, Path key) {
+        Path target = task.targetFile.toPath();
+        Path part = Paths.get(target + PART_SUFFIX);
+        Path checkpoint = Paths.get(target + CHECKPOINT_SUFFIX);
+        try {
+            if (task.isCancelled()) {
+                throw new CancellationException();
+            }
+            task.state = DownloadState.DOWNLOADING;
+            download(task, part, checkpoint);
+
+            Files.move(part, target, StandardCopyOption.REPLACE_EXISTING);
+            Files.deleteIfExists(checkpoint);
+            LocalSongManager.indexFile(target);
+            log.info("Downloaded {} ({} bytes)", target.getFileName(), task.totalBytes);
+            finish(task, DownloadState.COMPLETED, null);
+        } catch (CancellationException e) {
+            deleteQuietly(part);
+            deleteQuietly(checkpoint);
+            log.info("Download of {} cancelled", target.getFileName());
+            finish(task, DownloadState.CANCELLED, null);
+        } catch (Exception e) {
+            // The .part file and checkpoint stay, so the next attempt resumes
+            log.error("Error downloading {}: {}", target.getFileName(), e.getMessage());
+            finish(task, DownloadState.FAILED, e);
+        } finally {
+            activeTasks.remove(key);
+        }
+    }
+
+    // Sets the final state and tells every listener registered up to now, on the EDT
+    private static void finish(DownloadTask task, DownloadState state, Exception failure) {
+        List<DownloadListener> listeners;
+        synchronized (task.listeners) {
+            task.failure = failure;
+            task.state = state;
+            listeners = List.copyOf(task.listeners);
+            task.listeners.clear();
+        }
+        SwingUtilities.invokeLater(() -> listeners.forEach(listener -> notifyOutcome(listener, task)));
+    }
+
+    private static void notifyOutcome(DownloadListener listener, DownloadTask task) {
+        switch (task.state) {
+            case COMPLETED -> listener.onCompleted(task);
+            case FAILED -> listener.onFailed(task, task.failure);
+            case CANCELLED -> listener.onCancelled(task);
+            default -> {
+            }
+        }
+    }
+
+    private void download(DownloadTask task, Path part, Path checkpoint) throws Exception {
+        String fileId = task.song.getDriveFileId();
+        boolean resumed = restoreCheckpoint(task, part, checkpoint);
+
+        // Body of the request that told us the size, handed to the first segment
+        InputStream firstSegment = null;
+        if (!resumed) {
+            MediaStorage.RangedContent first = mediaStorage.getContentRange(fileId, 0, AppConstant.DOWNLOAD_SEGMENT_SIZE - 1);
+            firstSegment = first.content();
+            long total = first.totalSize();
+            try {
+                if (total < 0) {
+                    throw new IOException("Could not determine size of " + fileId);
+                }
+                task.totalBytes = total;
+                task.segmentSize = AppConstant.DOWNLOAD_SEGMENT_SIZE;
+                task.segmentDone = new AtomicLongArray(segmentCount(task));
+
+                try (RandomAccessFile file = new RandomAccessFile(part.toFile(), "rw")) {
+                    file.setLength(total);
+                }
+                writeCheckpoint(task, checkpoint);
+            } catch (IOException e) {
+                firstSegment.close();
+                throw e;
+            }
+        }
+
+        try (FileChannel channel = FileChannel.open(part, StandardOpenOption.WRITE)) {
+            List<Future<?>> segments = new ArrayList<>();
+            for (int i = 0; i < segmentCount(task); i++) {
+                if (task.segmentDone.get(i) < segmentLength(task, i)) {
+                    int segment = i;
+                    InputStream initial = segment == 0 ? firstSegment : null;
+                    if (segment == 0) {
+                        firstSegment = null;
+                    }
+                    segments.add(segmentExecutor.submit(() -> {
+                        fetchSegment(task, channel, segment, checkpoint, initial);
+                        return null;
+                    }));
+                }
+            }
+            if (firstSegment != null) {
+                // An empty file has nothing to read from it
+                firstSegment.close();
+            }
+            for (Future<?> segment : segments) {
+                try {
+                    segment.get();
+                } catch (ExecutionException e) {
+                    segments.forEach(other -> other.cancel(true));
+                    Throwable cause = e.getCause();
+                    throw cause instanceof Exception exception ? exception : new IOException(cause);
+                }
+            }
+            channel.force(false);
+        }
+    }
+
+    /**
+     * Streams one segment into its slice of the file. A broken connection is retried from the last
+     * byte written, up to {@link AppConstant#DOWNLOAD_MAX_RETRIES} times.
+     *
+     * @param initial an already open response for the segment's remaining range, or null to request it
+     */
+    private void fetchSegment(DownloadTask task, FileChannel channel, int segment, Path checkpoint, InputStream initial)
+            throws IOException, InterruptedException {
+        long segmentStart = segment * task.segmentSize;
+        long segmentLength = segmentLength(task, segment);
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int attempt = 0;
+
+        while (task.segmentDone.get(segment) < segmentLength) {
+            if (task.isCancelled()) {
+                if (initial != null) {
+                    initial.close();
+                }
+                throw new CancellationException();
+            }
+            long position = segmentStart + task.segmentDone.get(segment);
+            InputStream response = initial != null ? initial
+                    : mediaStorage.getContent(task.song.getDriveFileId(), position, segmentStart + segmentLength - 1);
+            initial = null;
+            try (InputStream in = response) {
+                int read;
+                while (task.segmentDone.get(segment) < segmentLength && (read = in.read(buffer)) != -1) {
+                    if (task.isCancelled()) {
+                        throw new CancellationException();
+                    }
+                    int length = (int) Math.min(read, segmentLength - task.segmentDone.get(segment));
+                    ByteBuffer data = ByteBuffer.wrap(buffer, 0, length);
+                    while (data.hasRemaining()) {
+                        channel.write(data, position + (length - data.remaining()));
+                    }
+                    position += length;
+                    task.segmentDone.addAndGet(segment, length);
+                    task.downloadedBytes.addAndGet(length);
+                    maybeCheckpoint(task, checkpoint);
+                    reportProgress(task);
+                }
+                if (task.segmentDone.get(segment) < segmentLength) {
+                    throw new EOFException("Connection closed before the end of segment " + segment);
+                }
+            } catch (IOException e) {
+                if (++attempt > AppConstant.DOWNLOAD_MAX_RETRIES) {
+                    writeCheckpoint(task, checkpoint);
+                    throw e;
+                }
+                log.warn("Segment {} of {} failed ({}), retrying from byte {}", segment,
+                        task.targetFile.getName(), e.getMessage(), segmentStart + task.segmentDone.get(segment));
+                Thread.sleep(500L * attempt);
+            }
+        }
+    }
+
+    private void reportProgress(DownloadTask task) {
+        long now = System.currentTimeMillis();
+        if (now - task.lastProgressReport < AppConstant.DOWNLOAD_PROGRESS_INTERVAL_MS) {
+            return;
+        }
+        task.lastProgressReport = now;
+        // At most one progress update queued on the EDT per task
+        if (task.progressPending.compareAndSet(false, true)) {
+            SwingUtilities.invokeLater(() -> {
+                task.progressPending.set(false);
+                List<DownloadListener> listeners;
+                synchronized (task.listeners) {
+                    listeners = List.copyOf(task.listeners);
+                }
+                listeners.forEach(listener -> listener.onProgress(task));
+            });
+        }
+    }
+
+    // ---- Checkpoints ----
+
+    private void maybeCheckpoint(DownloadTask task, Path checkpoint) throws IOException {
+        synchronized (task) {
+            if (task.downloadedBytes.get() - task.lastCheckpointBytes >= AppConstant.DOWNLOAD_CHECKPOINT_INTERVAL_BYTES) {
+                writeCheckpoint(task, checkpoint);
+            }
+        }
+    }
+
+    private void writeCheckpoint(DownloadTask task, Path checkpoint) throws IOException {
+        synchronized (task) {
+            Properties properties = new Properties();
+            properties.setProperty("fileId", task.song.getDriveFileId());
+            if (task.song.getTitle() != null) {
+                properties.setProperty("title", task.song.getTitle());
+            }
+            properties.setProperty("totalBytes", String.valueOf(task.totalBytes));
+            properties.setProperty("segmentSize", String.valueOf(task.segmentSize));
+            for (int i = 0; i < task.segmentDone.length(); i++) {
+                properties.setProperty("segment." + i, String.valueOf(task.segmentDone.get(i)));
+            }
+
+            Path temp = Paths.get(checkpoint + ".tmp");
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                properties.store(out, null);
+            }
+            Files.move(temp, checkpoint, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            task.lastCheckpointBytes = task.downloadedBytes.get();
+        }
+    }
+
+    /**
+     * Picks up a previous attempt when its checkpoint belongs to the same Drive file and the
+     * preallocated part file is still there.
+     */
+    private boolean restoreCheckpoint(DownloadTask task, Path part, Path checkpoint) {
+        if (!Files.exists(checkpoint) || !Files.exists(part)) {
+            return false;
+        }
+        Properties properties = readCheckpoint(checkpoint);
+        try {
+            if (properties == null || !task.song.getDriveFileId().equals(properties.getProperty("fileId"))) {
+                return false;
+            }
+            long total = Long.parseLong(properties.getProperty("totalBytes"));
+            if (Files.size(part) != total) {
+                return false;
+            }
+            task.totalBytes = total;
+            task.segmentSize = Long.parseLong(properties.getProperty("segmentSize"));
+            task.segmentDone = new AtomicLongArray(segmentCount(task));
+            long done = 0;
+            for (int i = 0; i < task.segmentDone.length(); i++) {
+                long segmentDone = Long.parseLong(properties.getProperty("segment." + i, "0"));
+                task.segmentDone.set(i, segmentDone);
+                done += segmentDone;
+            }
+            task.downloadedBytes.set(done);
+            task.lastCheckpointBytes = done;
+            log.info("Resuming {} at {}/{} bytes", task.targetFile.getName(), done, total);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Ignoring unreadable checkpoint {}: {}", checkpoint, e.getMessage());
+            return false;
+        }
+    }
+
+    private Properties readCheckpoint(Path checkpoint) {
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(checkpoint)) {
+            properties.load(in);
+            return properties;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    // ---- Helpers ----
+
+    private static int segmentCount(DownloadTask task) {
+        return (int) Math.max(1, (task.totalBytes + task.segmentSize - 1) / task.segmentSize);
+    }
+
+    private static long segmentLength(DownloadTask task, int segment) {
+        long start = segment * task.segmentSize;
+        return Math.min(task.segmentSize, task.totalBytes - start);
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Could not delete {}: {}", path, e.getMessage());
+        }
+    }
+
+    private static ThreadFactory daemonFactory(String name) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        downloadExecutor.shutdownNow();
+        segmentExecutor.shutdownNow();
+    }
+}
@@ -3,8 +3,12 @@ package com.javaweb.utils;
 import java.io.File;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Date;
+import java.util.regex.Pattern;
 
 public class FileUtil {
+    private static final Pattern RENDITION_NAME = Pattern.compile("_\\d+px$");
+
     public static int getFileSize(String url) {
         File file = new File(url);
         return getFileSizeInBytes(file);
@@ -54,6 +58,46 @@ public class FileUtil {
         }
     }
 
+    /**
+     * Prefixes the name with a timestamp so repeated uploads of the same file don't collide.
+     */
+    public static String generateUniqueFilename(String originalFilename) {
+        String timestamp = DateUtil.formatDate(new Date(), "yyyyMMdd-HHmmss");
+        String extension = "";
+
+        if (originalFilename != null && originalFilename.contains(".")) {
+            extension = originalFilename.substring(originalFilename.lastIndexOf("."));
+            originalFilename = originalFilename.substring(0, originalFilename.lastIndexOf("."));
+        }
+
+        return timestamp + "-" + originalFilename + extension;
+    }
+
+    public static String generateAlbumCoverFilename(String albumName) {
+        String timestamp = DateUtil.formatDate(new Date(), "yyyyMMdd-HHmmss");
+        String sanitizedAlbumName = albumName.replaceAll("[^a-zA-Z0-9\\s-]", "_").trim();
+        return sanitizedAlbumName + "-cover-" + timestamp + ".jpg";
+    }
+
+    /**
+     * Name of the {@code sizePx} rendition of an image, e.g. {@code cover_160px.jpg}.
+     */
+    public static String generateRenditionFilename(String originalFilename, int sizePx, String extension) {
+        return removeExtension(originalFilename) + "_" + sizePx + "px." + extension;
+    }
+
+    public static boolean isRenditionFilename(String fileName) {
+        return fileName != null && RENDITION_NAME.matcher(removeExtension(fileName)).find();
+    }
+
+    public static String removeExtension(String fileName) {
+        if (fileName == null) {
+            return null;
+        }
+        int dot = fileName.lastIndexOf('.');
+        return dot > 0 ? fileName.substring(0, dot) : fileName;
+    }
+
     private static String normalizePath(String path) {
         return path.replace('\\', '/');
     }
@@ -1,36 +1,312 @@
 package com.javaweb.utils;
 
+import com.javaweb.constant.AppConstant;
 import lombok.extern.slf4j.Slf4j;
 
+import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Two-tier image cache.
+ * <p>
+ * Decoded images are kept in memory in least-recently-used order and weighted by their decoded size
+ * (width x height x 4 bytes), up to {@link AppConstant#IMAGE_CACHE_MEMORY_BYTES}. The encoded bytes
+ * they were decoded from go to disk under {@link AppConstant#IMAGE_CACHE_DIR}, bounded by
+ * {@link AppConstant#IMAGE_CACHE_DISK_BYTES}, so an image evicted from memory is decoded again from
+ * local disk instead of being downloaded.
+ * <p>
+ * {@link #getImage} and {@link #containsImage} only look at memory and are safe on the EDT;
+ * {@link #loadFromDisk} does file I/O and belongs on a background thread.
+ */
 @Slf4j
 public class ImageCache {
-    private static final Map<String, BufferedImage> cache = new ConcurrentHashMap<>();
-    private static final int MAX_CACHE_SIZE = 200;
+    private static final String FILE_SUFFIX = ".img";
+    // One image never takes more than this share of the memory budget
+    private static final int MAX_ENTRY_FRACTION = 8;
+
+    // Access-ordered so iteration starts with the least recently used image
+    private static final LinkedHashMap<String, BufferedImage> memory = new LinkedHashMap<>(64, 0.75f, true);
+    private static long memoryBytes = 0;
+
+    // File name -> size, access-ordered like the memory tier; filled from the directory on first use
+    private static final LinkedHashMap<String, Long> diskEntries = new LinkedHashMap<>(64, 0.75f, true);
+    private static long diskBytes = 0;
+    private static boolean diskLoaded = false;
+
+    private static final AtomicLong memoryHits = new AtomicLong();
+    private static final AtomicLong diskHits = new AtomicLong();
+    private static final AtomicLong misses = new AtomicLong();
+    private static final AtomicLong evictions = new AtomicLong();
+
+    private ImageCache() {
+    }
 
     public static BufferedImage getImage(String imageId) {
-        return cache.get(imageId);
+        synchronized (memory) {
+            BufferedImage image = memory.get(imageId);
+            if (image != null) {
+                memoryHits.incrementAndGet();
+            }
+            return image;
+        }
+    }
+
+    public static boolean containsImage(String imageId) {
+        synchronized (memory) {
+            return memory.containsKey(imageId);
+        }
     }
 
     public static void putImage(String imageId, BufferedImage image) {
-        if (cache.size() >= MAX_CACHE_SIZE) {
-            if (!cache.isEmpty()) {
-                String keyToRemove = cache.keySet().iterator().next();
-                cache.remove(keyToRemove);
-                log.debug("Cache full, removed image: {}", keyToRemove);
+        if (imageId == null || image == null) {
+            return;
+        }
+        long weight = weight(image);
+        if (weight > AppConstant.IMAGE_CACHE_MEMORY_BYTES / MAX_ENTRY_FRACTION) {
+            log.debug("Image {} ({} bytes decoded) is too large to keep in memory", imageId, weight);
+            return;
+        }
+        synchronized (memory) {
+            BufferedImage previous = memory.put(imageId, image);
+            if (previous != null) {
+                memoryBytes -= weight(previous);
+            }
+            memoryBytes += weight;
+            Iterator<Map.Entry<String, BufferedImage>> iterator = memory.entrySet().iterator();
+            while (memoryBytes > AppConstant.IMAGE_CACHE_MEMORY_BYTES && iterator.hasNext()) {
+                Map.Entry<String, BufferedImage> eldest = iterator.next();
+                if (eldest.getKey().equals(imageId)) {
+                    continue;
+                }
+                memoryBytes -= weight(eldest.getValue());
+                iterator.remove();
+                evictions.incrementAndGet();
             }
         }
-        cache.put(imageId, image);
     }
 
-    public static boolean containsImage(String imageId) {
-        return cache.containsKey(imageId);
+    /**
+     * Caches a decoded image together with the bytes it was decoded from; the bytes are written to disk.
+     */
+    public static void putImage(String imageId, BufferedImage image, byte[] encoded) {
+        putImage(imageId, image);
+        if (imageId != null && encoded != null && encoded.length > 0) {
+            writeToDisk(imageId, encoded);
+        }
+    }
+
+    /**
+     * Decodes an image from the disk tier and moves it back into memory.
+     *
+     * @return the image, or null when it is not on disk (counted as a miss)
+     */
+    public static BufferedImage loadFromDisk(String imageId) {
+        ensureDiskLoaded();
+        String fileName = fileName(imageId);
+        synchronized (diskEntries) {
+            if (!diskEntries.containsKey(fileName)) {
+                misses.incrementAndGet();
+                return null;
+            }
+        }
+        Path path = diskPath(fileName);
+        try {
+            BufferedImage image = ImageIO.read(new ByteArrayInputStream(Files.readAllBytes(path)));
+            if (image == null) {
+                throw new IOException("Unreadable image data");
+            }
+            synchronized (diskEntries) {
+                diskEntries.get(fileName);
+            }
+            path.toFile().setLastModified(System.currentTimeMillis());
+            diskHits.incrementAndGet();
+            putImage(imageId, image);
+            return image;
+        } catch (IOException e) {
+            log.debug("Dropping unreadable cached image {}: {}", imageId, e.getMessage());
+            removeFromDisk(fileName);
+            misses.incrementAndGet();
+            return null;
+        }
     }
 
     public static void clearCache() {
-        cache.clear();
+        synchronized (memory) {
+            memory.clear();
+            memoryBytes = 0;
+        }
+    }
+
+    public static long getMemoryBytes() {
+        synchronized (memory) {
+            return memoryBytes;
+        }
+    }
+
+    public static int getMemoryEntryCount() {
+        synchronized (memory) {
+            return memory.size();
+        }
+    }
+
+    public static long getDiskBytes() {
+        synchronized (diskEntries) {
+            return diskBytes;
+        }
+    }
+
+    public static long getMemoryHitCount() {
+        return memoryHits.get();
+    }
+
+    public static long getDiskHitCount() {
+        return diskHits.get();
+    }
+
+    public static long getMissCount() {
+        return misses.get();
+    }
+
+    public static long getEvictionCount() {
+        return evictions.get();
+    }
+
+    /**
+     * Share of lookups served without going to storage, from either tier.
+     */
+    public static double getHitRatio() {
+        long hits = memoryHits.get() + diskHits.get();
+        long total = hits + misses.get();
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
+    public static void logStats() {
+        log.info("Image cache stats: memoryHits={}, diskHits={}, misses={}, hitRatio={}, evictions={}, " +
+                        "memory={} images/{}/{} bytes, disk={}/{} bytes",
+                getMemoryHitCount(), getDiskHitCount(), getMissCount(), String.format("%.2f", getHitRatio()),
+                getEvictionCount(), getMemoryEntryCount(), getMemoryBytes(), AppConstant.IMAGE_CACHE_MEMORY_BYTES,
+                getDiskBytes(), AppConstant.IMAGE_CACHE_DISK_BYTES);
+    }
+
+    private static long weight(BufferedImage image) {
+        return (long) image.getWidth() * image.getHeight() * 4;
+    }
+
+    private static void writeToDisk(String imageId, byte[] encoded) {
+        ensureDiskLoaded();
+        String fileName = fileName(imageId);
+        Path target = diskPath(fileName);
+        try {
+            Path directory = target.getParent();
+            Files.createDirectories(directory);
+            // Write beside the target and move it in, so a reader never decodes a half-written file
+            Path temp = Files.createTempFile(directory, ".write-", ".tmp");
+            try {
+                Files.write(temp, encoded);
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            log.debug("Failed to write image {} to disk cache: {}", imageId, e.getMessage());
+            return;
+        }
+        synchronized (diskEntries) {
+            Long previous = diskEntries.put(fileName, (long) encoded.length);
+            if (previous != null) {
+                diskBytes -= previous;
+            }
+            diskBytes += encoded.length;
+        }
+        pruneDisk();
+    }
+
+    private static void pruneDisk() {
+        List<String> victims = new ArrayList<>();
+        synchronized (diskEntries) {
+            if (diskBytes <= AppConstant.IMAGE_CACHE_DISK_BYTES) {
+                return;
+            }
+            // Prune below the limit so every new image doesn't trigger another pass
+            long target = AppConstant.IMAGE_CACHE_DISK_BYTES / 10 * 9;
+            Iterator<Map.Entry<String, Long>> iterator = diskEntries.entrySet().iterator();
+            while (diskBytes > target && iterator.hasNext()) {
+                Map.Entry<String, Long> eldest = iterator.next();
+                diskBytes -= eldest.getValue();
+                victims.add(eldest.getKey());
+                iterator.remove();
+            }
+        }
+        for (String fileName : victims) {
+            try {
+                Files.deleteIfExists(diskPath(fileName));
+            } catch (IOException e) {
+                log.debug("Failed to delete cached image {}: {}", fileName, e.getMessage());
+            }
+        }
+        log.debug("Pruned {} images from disk cache", victims.size());
+    }
+
+    private static void removeFromDisk(String fileName) {
+        synchronized (diskEntries) {
+            Long size = diskEntries.remove(fileName);
+            if (size != null) {
+                diskBytes -= size;
+            }
+        }
+        try {
+            Files.deleteIfExists(diskPath(fileName));
+        } catch (IOException e) {
+            log.debug("Failed to delete cached image {}: {}", fileName, e.getMessage());
+        }
+    }
+
+    // Rebuilds the LRU order from file modification times
+    private static void ensureDiskLoaded() {
+        synchronized (diskEntries) {
+            if (diskLoaded) {
+                return;
+            }
+            diskLoaded = true;
+            File[] files = Paths.get(AppConstant.IMAGE_CACHE_DIR).toFile()
+                    .listFiles(file -> file.isFile() && file.getName().endsWith(FILE_SUFFIX));
+            if (files == null) {
+                return;
+            }
+            Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+            for (File file : files) {
+                diskEntries.put(file.getName(), file.length());
+                diskBytes += file.length();
+            }
+            log.info("Image disk cache loaded: {} files, {} bytes in {}", files.length, diskBytes, AppConstant.IMAGE_CACHE_DIR);
+        }
+        pruneDisk();
+    }
+
+    // Image IDs are storage IDs or relative paths, so they are hashed into a flat file name
+    private static String fileName(String imageId) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(imageId.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash) + FILE_SUFFIX;
+        } catch (NoSuchAlgorithmException e) {
+            // Every JRE ships SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Path diskPath(String fileName) {
+        return Paths.get(AppConstant.IMAGE_CACHE_DIR, fileName);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,229 @@
+package com.javaweb.utils;
+
+import com.javaweb.enums.ImageLoadPriority;
+import lombok.extern.slf4j.Slf4j;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Runs image loads on a fixed number of threads, most urgent {@link ImageLoadPriority} first and in
+ * submission order within a priority.
+ * <p>
+ * Requests for a key that is already queued or loading join that load instead of starting another
+ * one, and the load takes the most urgent priority of the requests waiting on it. A queued load whose
+ * requests are all cancelled is dropped; a running one finishes so its result still reaches the cache.
+ */
+@Slf4j
+public class ImageLoadScheduler {
+
+    private final ThreadPoolExecutor executor;
+    private final PriorityBlockingQueue<Runnable> queue = new PriorityBlockingQueue<>();
+    private final Map<String, LoadTask> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    // Guards task state, request lists and queue membership together
+    private final Object lock = new Object();
+
+    private final AtomicLong cancelledCount = new AtomicLong();
+
+    public ImageLoadScheduler(int parallelism) {
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(parallelism, parallelism, 0L, TimeUnit.MILLISECONDS, queue, runnable -> {
+            Thread thread = new Thread(runnable, "ImageLoader-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Re-prioritized tasks go straight back into the queue, which needs the workers to be polling it
+        executor.prestartAllCoreThreads();
+    }
+
+    /**
+     * @param loader   reads the image, returning null when it can't be loaded; only called once per
+     *                 in-flight key
+     * @param callback receives the image on a loader thread, or null when loading failed; may be null
+     */
+    public Handle submit(String key, ImageLoadPriority priority, Supplier<BufferedImage> loader,
+                         Consumer<BufferedImage> callback) {
+        synchronized (lock) {
+            LoadTask task = inFlight.get(key);
+            boolean created = task == null;
+            if (created) {
+                task = new LoadTask(key, loader);
+                inFlight.put(key, task);
+            }
+            Handle handle = new Handle(task, priority, callback, task.future);
+            task.requests.add(handle);
+            if (created) {
+                task.priority = priority;
+                task.sequence = sequence.incrementAndGet();
+                executor.execute(task);
+            } else {
+                reprioritize(task);
+            }
+            return handle;
+        }
+    }
+
+    /**
+     * A handle for an image that needed no load, e.g. one served from the cache.
+     */
+    public Handle completed(BufferedImage image) {
+        return new Handle(null, null, null, CompletableFuture.completedFuture(image));
+    }
+
+    public int getQueuedCount() {
+        return queue.size();
+    }
+
+    public long getCancelledCount() {
+        return cancelledCount.get();
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // Caller holds the lock
+    private void reprioritize(LoadTask task) {
+        if (task.state != TaskState.QUEUED) {
+            return;
+        }
+        ImageLoadPriority wanted = null;
+        for (Handle request : task.requests) {
+            if (wanted == null || request.priority.ordinal() < wanted.ordinal()) {
+                wanted = request.priority;
+            }
+        }
+        if (wanted == null) {
+            // Every request was cancelled before the load started
+            if (queue.remove(task)) {
+                task.state = TaskState.CANCELLED;
+                inFlight.remove(task.key, task);
+                task.future.cancel(false);
+                cancelledCount.incrementAndGet();
+            }
+            return;
+        }
+        if (wanted != task.priority && queue.remove(task)) {
+            // The queue orders on priority, so it can only change while the task is out of it
+            task.priority = wanted;
+            queue.offer(task);
+        }
+    }
+
+    private enum TaskState {
+        QUEUED,
+        RUNNING,
+        DONE,
+        CANCELLED
+    }
+
+    private class LoadTask implements Runnable, Comparable<LoadTask> {
+        private final String key;
+        private final Supplier<BufferedImage> loader;
+        private final List<Handle> requests = new ArrayList<>();
+        private final CompletableFuture<BufferedImage> future = new CompletableFuture<>();
+        private ImageLoadPriority priority;
+        private long sequence;
+        private TaskState state = TaskState.QUEUED;
+
+        LoadTask(String key, Supplier<BufferedImage> loader) {
+            this.key = key;
+            this.loader = loader;
+        }
+
+        @Override
+        public void run() {
+            synchronized (lock) {
+                if (state != TaskState.QUEUED) {
+                    return;
+                }
+                state = TaskState.RUNNING;
+            }
+
+            BufferedImage image = null;
+            try {
+                image = loader.get();
+            } catch (RuntimeException e) {
+                log.warn("Image load for {} failed: {}", key, e.getMessage());
+            }
+
+            List<Handle> listeners;
+            synchronized (lock) {
+                state = TaskState.DONE;
+                inFlight.remove(key, this);
+                listeners = new ArrayList<>(requests);
+                requests.clear();
+            }
+            future.complete(image);
+            for (Handle listener : listeners) {
+                if (listener.callback != null) {
+                    listener.callback.accept(image);
+                }
+            }
+        }
+
+        @Override
+        public int compareTo(LoadTask other) {
+            int byPriority = Integer.compare(priority.ordinal(), other.priority.ordinal());
+            return byPriority != 0 ? byPriority : Long.compare(sequence, other.sequence);
+        }
+    }
+
+    /**
+     * One caller's interest in a load. Cancelling it only drops this caller's callback.
+     */
+    public class Handle {
+        private final LoadTask task;
+        private final Consumer<BufferedImage> callback;
+        private final CompletableFuture<BufferedImage> future;
+        private ImageLoadPriority priority;
+
+        private Handle(LoadTask task, ImageLoadPriority priority, Consumer<BufferedImage> callback,
+                       CompletableFuture<BufferedImage> future) {
+            this.task = task;
+            this.priority = priority;
+            this.callback = callback;
+            this.future = future;
+        }
+
+        public void cancel() {
+            if (task == null) {
+                return;
+            }
+            synchronized (lock) {
+                if (task.requests.remove(this)) {
+                    reprioritize(task);
+                }
+            }
+        }
+
+        public void setPriority(ImageLoadPriority priority) {
+            if (task == null) {
+                return;
+            }
+            synchronized (lock) {
+                if (this.priority == priority) {
+                    return;
+                }
+                this.priority = priority;
+                reprioritize(task);
+            }
+        }
+
+        /**
+         * Completes with the image (or null) for every caller of this load, and is cancelled when the
+         * load is dropped before it started.
+         */
+        public CompletableFuture<BufferedImage> future() {
+            return future;
+        }
+    }
+}
@@ -1,31 +1,38 @@
 package com.javaweb.utils;
 
+import com.javaweb.constant.AppConstant;
+import com.javaweb.enums.ImageLoadPriority;
 import com.javaweb.model.dto.AlbumDTO;
 import com.javaweb.model.dto.ArtistDTO;
 import com.javaweb.model.dto.SongDTO;
 import com.javaweb.model.dto.UserDTO;
-import com.javaweb.service.impl.GoogleDriveService;
+import com.javaweb.service.MediaStorage;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
+import javax.imageio.ImageIO;
 import javax.swing.*;
 import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 @Component
 @Slf4j
 @RequiredArgsConstructor
 public class ImageMediaUtil {
-    private final GoogleDriveService googleDriveService;
+    private final MediaStorage mediaStorage;
 
-    // Track ongoing image loading tasks to prevent duplicate requests
-    private final Map<String, CompletableFuture<BufferedImage>> ongoingImageLoads = new ConcurrentHashMap<>();
+    // Bounded and prioritized; also joins requests for an image that is already queued or loading
+    private final ImageLoadScheduler imageLoadScheduler = new ImageLoadScheduler(AppConstant.IMAGE_LOAD_PARALLELISM);
 
     // Track failed image IDs to avoid excessive retries
     private final Set<String> failedImageIds = ConcurrentHashMap.newKeySet();
@@ -35,35 +42,31 @@ public class ImageMediaUtil {
     /**
      * Populates a song's image asynchronously
      */
-    public void populateSongImage(SongDTO song) {
-        populateSongImage(song, null);
+    public ImageLoadScheduler.Handle populateSongImage(SongDTO song) {
+        return populateSongImage(song, null);
     }
 
     /**
      * Populates a song's image asynchronously with callback when complete
      */
-    public void populateSongImage(SongDTO song, Consumer<BufferedImage> callback) {
-        if (song == null || song.getAlbumArtId() == null) {
-            return;
-        }
+    public ImageLoadScheduler.Handle populateSongImage(SongDTO song, Consumer<BufferedImage> callback) {
+        return populateSongImage(song, 0, callback);
+    }
 
-        if (song.getSongImage() != null) {
-            // Image is already loaded, just call the callback
-            if (callback != null) {
-                SwingUtilities.invokeLater(() -> callback.accept(song.getSongImage()));
-            }
-            return;
-        }
+    /**
+     * @param sizePx longest side the image is shown at, or 0 for the original
+     */
+    public ImageLoadScheduler.Handle populateSongImage(SongDTO song, int sizePx, Consumer<BufferedImage> callback) {
+        return populateSongImage(song, sizePx, ImageLoadPriority.VISIBLE, callback);
+    }
 
-        String imageId = song.getAlbumArtId();
-        loadImageAsync(imageId, image -> {
-            if (image != null) {
-                song.setSongImage(image);
-                if (callback != null) {
-                    SwingUtilities.invokeLater(() -> callback.accept(image));
-                }
-            }
-        });
+    public ImageLoadScheduler.Handle populateSongImage(SongDTO song, int sizePx, ImageLoadPriority priority,
+                                                       Consumer<BufferedImage> callback) {
+        if (song == null || song.getAlbumArtId() == null) {
+            return imageLoadScheduler.completed(null);
+        }
+        return populateImage(song.getAlbumArtId(), song.getAlbumArtRenditions(), sizePx, priority,
+                song::getSongImage, song::setSongImage, callback);
     }
 
     /**
@@ -92,79 +95,72 @@ public class ImageMediaUtil {
     /**
      * Populates an album's image asynchronously with callback when complete
      */
-    public void populateAlbumImage(AlbumDTO album, Consumer<BufferedImage> callback) {
-        if (album == null || album.getImageId() == null) {
-            return;
-        }
+    public ImageLoadScheduler.Handle populateAlbumImage(AlbumDTO album, Consumer<BufferedImage> callback) {
+        return populateAlbumImage(album, 0, callback);
+    }
 
-        if (album.getAlbumImage() != null) {
-            // Image is already loaded, just call the callback
-            if (callback != null) {
-                SwingUtilities.invokeLater(() -> callback.accept(album.getAlbumImage()));
-            }
-            return;
+    public ImageLoadScheduler.Handle populateAlbumImage(AlbumDTO album, int sizePx, Consumer<BufferedImage> callback) {
+        if (album == null || album.getImageId() == null) {
+            return imageLoadScheduler.completed(null);
         }
+        return populateImage(album.getImageId(), album.getImageRenditions(), sizePx, ImageLoadPriority.VISIBLE,
+                album::getAlbumImage, album::setAlbumImage, callback);
+    }
 
-        String imageId = album.getImageId();
-        loadImageAsync(imageId, image -> {
-            if (image != null) {
-                album.setAlbumImage(image);
-                if (callback != null) {
-                    SwingUtilities.invokeLater(() -> callback.accept(image));
-                }
-            }
-        });
+    public ImageLoadScheduler.Handle populateArtistProfile(ArtistDTO artist) {
+        return populateArtistProfile(artist, null);
     }
 
-    public void populateArtistProfile(ArtistDTO artist) {
-        populateArtistProfile(artist, null);
+    public ImageLoadScheduler.Handle populateArtistProfile(ArtistDTO artist, Consumer<BufferedImage> callback) {
+        return populateArtistProfile(artist, 0, callback);
     }
 
-    public void populateArtistProfile(ArtistDTO artist, Consumer<BufferedImage> callback) {
+    public ImageLoadScheduler.Handle populateArtistProfile(ArtistDTO artist, int sizePx, Consumer<BufferedImage> callback) {
         if (artist == null || artist.getProfilePictureId() == null) {
-            return;
-        }
-
-        if (artist.getProfileImage() != null) {
-            // Image is already loaded, just call the callback
-            if (callback != null) {
-                SwingUtilities.invokeLater(() -> callback.accept(artist.getProfileImage()));
-            }
-            return;
+            return imageLoadScheduler.completed(null);
         }
+        return populateImage(artist.getProfilePictureId(), artist.getProfilePictureRenditions(), sizePx, ImageLoadPriority.VISIBLE,
+                artist::getProfileImage, artist::setProfileImage, callback);
+    }
 
-        String imageId = artist.getProfilePictureId();
-        loadImageAsync(imageId, image -> {
-            if (image != null) {
-                artist.setProfileImage(image);
-                if (callback != null) {
-                    SwingUtilities.invokeLater(() -> callback.accept(image));
-                }
-            }
-        });
+    public ImageLoadScheduler.Handle populateUserProfile(UserDTO user) {
+        return populateUserProfile(user, null);
     }
 
-    public void populateUserProfile(UserDTO user) {
-        populateUserProfile(user, null);
+    public ImageLoadScheduler.Handle populateUserProfile(UserDTO user, Consumer<BufferedImage> callback) {
+        return populateUserProfile(user, 0, callback);
     }
 
-    public void populateUserProfile(UserDTO user, Consumer<BufferedImage> callback) {
+    public ImageLoadScheduler.Handle populateUserProfile(UserDTO user, int sizePx, Consumer<BufferedImage> callback) {
         if (user == null || user.getAvatarId() == null) {
-            return;
+            return imageLoadScheduler.completed(null);
         }
+        return populateImage(user.getAvatarId(), null, sizePx, ImageLoadPriority.VISIBLE,
+                user::getAvatarImage, user::setAvatarImage, callback);
+    }
 
-        if (user.getAvatarImage() != null) {
+    /**
+     * Only the original is stored on the DTO: views of any size can use it, while a thumbnail
+     * stored there would end up stretched in a large view.
+     */
+    private ImageLoadScheduler.Handle populateImage(String imageId, Map<Integer, String> renditions, int sizePx,
+                                                    ImageLoadPriority priority, Supplier<BufferedImage> loadedImage,
+                                                    Consumer<BufferedImage> storeImage, Consumer<BufferedImage> callback) {
+        BufferedImage existing = loadedImage.get();
+        if (existing != null) {
             // Image is already loaded, just call the callback
             if (callback != null) {
-                SwingUtilities.invokeLater(() -> callback.accept(user.getAvatarImage()));
+                SwingUtilities.invokeLater(() -> callback.accept(existing));
             }
-            return;
+            return imageLoadScheduler.completed(existing);
         }
 
-        String imageId = user.getAvatarId();
-        loadImageAsync(imageId, image -> {
+        boolean original = thumbnailSize(sizePx) == 0;
+        return loadImageAsync(imageId, renditions, sizePx, priority, image -> {
             if (image != null) {
-                user.setAvatarImage(image);
+                if (original) {
+                    storeImage.accept(image);
+                }
                 if (callback != null) {
                     SwingUtilities.invokeLater(() -> callback.accept(image));
                 }
@@ -182,74 +178,70 @@ public class ImageMediaUtil {
     /**
      * Core method for loading images asynchronously with consistent behavior
      */
-    public void loadImageAsync(String imageId, Consumer<BufferedImage> callback) {
+    public ImageLoadScheduler.Handle loadImageAsync(String imageId, Consumer<BufferedImage> callback) {
+        return loadImageAsync(imageId, 0, callback);
+    }
+
+    /**
+     * @param sizePx longest side the image is shown at; views up to the largest of
+     *               {@link AppConstant#IMAGE_THUMBNAIL_SIZES} get a thumbnail, 0 or larger sizes the original
+     */
+    public ImageLoadScheduler.Handle loadImageAsync(String imageId, int sizePx, Consumer<BufferedImage> callback) {
+        return loadImageAsync(imageId, null, sizePx, ImageLoadPriority.VISIBLE, callback);
+    }
+
+    /**
+     * @param renditions smaller copies stored at upload time, keyed by longest side; when present they
+     *                   are read directly instead of asking storage to scale the original
+     * @return a handle the caller cancels once it no longer needs the image, or re-prioritizes when it
+     * scrolls in or out of view
+     */
+    public ImageLoadScheduler.Handle loadImageAsync(String imageId, Map<Integer, String> renditions, int sizePx,
+                                                    ImageLoadPriority priority, Consumer<BufferedImage> callback) {
         if (imageId == null) {
-            return;
+            return imageLoadScheduler.completed(null);
         }
+        int thumbnailSize = thumbnailSize(sizePx);
+        String cacheKey = cacheKey(imageId, thumbnailSize);
 
         // Check for excessive failures
-        if (failedImageIds.contains(imageId)) {
-            log.debug("Skipping previously failed image: {}", imageId);
-            return;
+        if (failedImageIds.contains(cacheKey)) {
+            log.debug("Skipping previously failed image: {}", cacheKey);
+            return imageLoadScheduler.completed(null);
         }
 
         // Check cache first
-        if (ImageCache.containsImage(imageId)) {
-            BufferedImage cachedImage = ImageCache.getImage(imageId);
+        if (ImageCache.containsImage(cacheKey)) {
+            BufferedImage cachedImage = ImageCache.getImage(cacheKey);
             if (callback != null) {
                 callback.accept(cachedImage);
             }
-            return;
-        }
-
-        // Check if this image is already being loaded
-        CompletableFuture<BufferedImage> existingFuture = ongoingImageLoads.get(imageId);
-        if (existingFuture != null && !existingFuture.isDone()) {
-            // This image is already being loaded, just add our callback
-            existingFuture.thenAcceptAsync(image -> {
-                if (image != null && callback != null) {
-                    callback.accept(image);
-                }
-            });
-            return;
+            return imageLoadScheduler.completed(cachedImage);
         }
 
-        // Start a new loading task
-        CompletableFuture<BufferedImage> future = CompletableFuture.supplyAsync(() -> {
+        return imageLoadScheduler.submit(cacheKey, priority, () -> {
             try {
-                return googleDriveService.getBufferImage(imageId);
+                BufferedImage image = readImage(cacheKey, imageId, renditions, thumbnailSize);
+                // Success - readImage already cached it, clear any failure records
+                failedImageIds.remove(cacheKey);
+                retryCount.remove(cacheKey);
+                return image;
             } catch (Exception e) {
                 // Track failure for retry logic
-                int attempts = retryCount.getOrDefault(imageId, 0) + 1;
-                retryCount.put(imageId, attempts);
+                int attempts = retryCount.getOrDefault(cacheKey, 0) + 1;
+                retryCount.put(cacheKey, attempts);
 
                 if (attempts >= MAX_RETRIES) {
-                    failedImageIds.add(imageId);
-                    log.error("Failed to load image after {} attempts: {}", attempts, imageId);
+                    failedImageIds.add(cacheKey);
+                    log.error("Failed to load image after {} attempts: {}", attempts, cacheKey);
                 } else {
-                    log.warn("Error loading image {}, attempt #{}: {}", imageId, attempts, e.getMessage());
+                    log.warn("Error loading image {}, attempt #{}: {}", cacheKey, attempts, e.getMessage());
                 }
                 return null;
             }
-        });
-
-        // Store this task so we don't start duplicate requests
-        ongoingImageLoads.put(imageId, future);
-
-        future.thenAcceptAsync(image -> {
-            // Task completed, remove from tracking
-            ongoingImageLoads.remove(imageId);
-
-            if (image != null) {
-                // Success - cache and return the image
-                ImageCache.putImage(imageId, image);
-                if (callback != null) {
-                    callback.accept(image);
-                }
-
-                // Clear any failure records
-                failedImageIds.remove(imageId);
-                retryCount.remove(imageId);
+        }, image -> {
+            if (image != null && callback != null) {
+                callback.accept(image);
             }
         });
     }
@@ -269,47 +261,14 @@ public class ImageMediaUtil {
             return ImageCache.getImage(imageId);
         }
 
-        // Check if this image is already being loaded
-        CompletableFuture<BufferedImage> existingFuture = ongoingImageLoads.get(imageId);
-        if (existingFuture != null && !existingFuture.isDone()) {
-            try {
-                // Wait for the existing loading task
-                return existingFuture.get(timeoutMillis, TimeUnit.MILLISECONDS);
-            } catch (Exception e) {
-                log.debug("Waiting for existing image load timed out: {}", imageId);
-                return null;
-            }
-        }
-
-        // Start a new loading task
-        CompletableFuture<BufferedImage> future = CompletableFuture.supplyAsync(() -> {
-            try {
-                return googleDriveService.getBufferImage(imageId);
-            } catch (Exception e) {
-                log.error("Error loading image synchronously: {}", e.getMessage());
-                return null;
-            }
-        });
-
-        // Track this task
-        ongoingImageLoads.put(imageId, future);
-
+        // A caller is blocked on it, so it goes ahead of everything else
+        ImageLoadScheduler.Handle handle = loadImageAsync(imageId, null, 0, ImageLoadPriority.NOW_PLAYING, null);
         try {
-            // Wait for the result with timeout
-            BufferedImage image = future.get(timeoutMillis, TimeUnit.MILLISECONDS);
-            if (image != null) {
-                ImageCache.putImage(imageId, image);
-            }
-            return image;
+            return handle.future().get(timeoutMillis, TimeUnit.MILLISECONDS);
         } catch (Exception e) {
             log.debug("Synchronous image loading timed out: {}", imageId);
-            // Don't cancel the future - let it complete in the background
+            // Not cancelled - let it complete in the background and reach the cache
             return null;
-        } finally {
-            // Only remove from tracking if the task is done
-            if (future.isDone()) {
-                ongoingImageLoads.remove(imageId);
-            }
         }
     }
 
@@ -322,15 +281,69 @@ public class ImageMediaUtil {
             return;
         }
 
-        CompletableFuture.runAsync(() -> {
-            for (String imageId : imageIds) {
-                if (!ImageCache.containsImage(imageId) &&
-                        !failedImageIds.contains(imageId) &&
-                        !ongoingImageLoads.containsKey(imageId)) {
-                    loadImageAsync(imageId, null);
-                }
+        // Queued behind anything on screen; loads already in flight are joined, not repeated
+        for (String imageId : imageIds) {
+            loadImageAsync(imageId, null, 0, ImageLoadPriority.PREFETCH, null);
+        }
+    }
+
+    /**
+     * Reads through the disk tier of {@link ImageCache}: storage is only asked when the encoded image
+     * isn't on local disk, and what it returns is cached in both tiers.
+     */
+    private BufferedImage readImage(String cacheKey, String imageId, Map<Integer, String> renditions,
+                                    int thumbnailSize) throws IOException {
+        BufferedImage cached = ImageCache.loadFromDisk(cacheKey);
+        if (cached != null) {
+            return cached;
+        }
+        byte[] encoded;
+        try (InputStream inputStream = openImage(imageId, renditions, thumbnailSize)) {
+            encoded = inputStream.readAllBytes();
+        }
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(encoded));
+        if (image == null) {
+            throw new IOException("Unsupported image format: " + imageId);
+        }
+        ImageCache.putImage(cacheKey, image, encoded);
+        return image;
+    }
+
+    private InputStream openImage(String imageId, Map<Integer, String> renditions, int thumbnailSize) throws IOException {
+        if (thumbnailSize == 0) {
+            return mediaStorage.getContent(imageId);
+        }
+        if (renditions == null || renditions.isEmpty()) {
+            return mediaStorage.getImageContent(imageId, thumbnailSize);
+        }
+        // Renditions are only generated for sizes below the original, so a missing one means the original is small enough
+        String renditionId = renditions.get(thumbnailSize);
+        return mediaStorage.getContent(renditionId != null ? renditionId : imageId);
+    }
+
+    /**
+     * Smallest thumbnail size that covers {@code sizePx}, or 0 when the view needs the original.
+     */
+    private static int thumbnailSize(int sizePx) {
+        if (sizePx <= 0) {
+            return 0;
+        }
+        for (int size : AppConstant.IMAGE_THUMBNAIL_SIZES) {
+            if (sizePx <= size) {
+                return size;
             }
-        });
+        }
+        return 0;
+    }
+
+    // Originals keep the bare ID as their key, so existing cache users still find them
+    private static String cacheKey(String imageId, int thumbnailSize) {
+        return thumbnailSize > 0 ? imageId + "@" + thumbnailSize : imageId;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        imageLoadScheduler.shutdown();
     }
 
     /**
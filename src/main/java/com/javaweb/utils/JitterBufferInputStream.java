@@ -0,0 +1,204 @@
+package com.javaweb.utils;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Decouples network reads from decoding. A dedicated reader thread copies the upstream stream into
+ * a bounded ring buffer while the decoder drains it through {@link #read}, so a network stall only
+ * eats into the buffered audio instead of stopping output.
+ * <p>
+ * The reader fills up to the high watermark, then idles until the level falls to the low watermark.
+ * Reads block until the pre-roll is buffered; if the buffer later runs dry the stream counts an
+ * underrun and buffers the pre-roll again before handing out data, rather than stuttering frame by frame.
+ */
+@Slf4j
+public class JitterBufferInputStream extends InputStream {
+
+    private final InputStream upstream;
+    private final byte[] ring;
+    private final int lowWatermark;
+    private final int highWatermark;
+    private final int prerollBytes;
+    private final PlaybackMetrics metrics;
+    private final Thread readerThread;
+
+    private final Object lock = new Object();
+    private int readPos = 0;
+    private int writePos = 0;
+    private int count = 0;
+    private boolean endOfStream = false;
+    private boolean closed = false;
+    private boolean buffering = true;
+    private IOException failure;
+
+    public JitterBufferInputStream(InputStream upstream, int capacity, int lowWatermark, int highWatermark,
+                                   int prerollBytes, PlaybackMetrics metrics, String name) {
+        if (lowWatermark > highWatermark || highWatermark > capacity || prerollBytes > capacity) {
+            throw new IllegalArgumentException("Watermarks must satisfy low <= high <= capacity");
+        }
+        this.upstream = upstream;
+        this.ring = new byte[capacity];
+        this.lowWatermark = lowWatermark;
+        this.highWatermark = highWatermark;
+        this.prerollBytes = prerollBytes;
+        this.metrics = metrics;
+
+        this.readerThread = new Thread(this::fill, "JitterBuffer-" + name);
+        this.readerThread.setDaemon(true);
+        this.readerThread.start();
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] single = new byte[1];
+        int n = read(single, 0, 1);
+        return n < 0 ? -1 : single[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        synchronized (lock) {
+            if (!awaitData()) {
+                return -1;
+            }
+
+            int n = Math.min(len, count);
+            int first = Math.min(n, ring.length - readPos);
+            System.arraycopy(ring, readPos, b, off, first);
+            if (n > first) {
+                System.arraycopy(ring, 0, b, off + first, n - first);
+            }
+            readPos = (readPos + n) % ring.length;
+            count -= n;
+
+            if (count <= lowWatermark) {
+                // Wake the reader if it was idling at the high watermark
+                lock.notifyAll();
+            }
+            return n;
+        }
+    }
+
+    @Override
+    public int available() {
+        synchronized (lock) {
+            return buffering ? 0 : count;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            lock.notifyAll();
+        }
+        readerThread.interrupt();
+        upstream.close();
+    }
+
+    public int getBufferedBytes() {
+        synchronized (lock) {
+            return count;
+        }
+    }
+
+    /**
+     * Blocks until data can be handed out. Returns false at end of stream.
+     */
+    private boolean awaitData() throws IOException {
+        boolean initial = buffering;
+        if (!buffering && count == 0 && !endOfStream && failure == null) {
+            // Ran dry mid-playback
+            buffering = true;
+        }
+
+        if (buffering) {
+            long waitStart = System.nanoTime();
+            try {
+                while (!closed && count < Math.max(1, prerollBytes) && !endOfStream && failure == null) {
+                    lock.wait();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while buffering audio", e);
+            }
+            buffering = false;
+
+            long waitedMillis = (System.nanoTime() - waitStart) / 1_000_000;
+            if (initial) {
+                metrics.recordPreroll(waitedMillis);
+            } else {
+                metrics.recordUnderrun(waitedMillis);
+                log.debug("Audio buffer underrun, re-buffered for {} ms", waitedMillis);
+            }
+        }
+
+        if (closed) {
+            return false;
+        }
+        if (count > 0) {
+            return true;
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return false;
+    }
+
+    private void fill() {
+        byte[] chunk = new byte[16 * 1024];
+        try {
+            while (true) {
+                int space;
+                synchronized (lock) {
+                    if (count >= highWatermark) {
+                        // Full enough, let the decoder drain to the low watermark before fetching again
+                        while (!closed && count > lowWatermark) {
+                            lock.wait();
+                        }
+                    }
+                    if (closed) {
+                        return;
+                    }
+                    space = ring.length - count;
+                }
+
+                int n = upstream.read(chunk, 0, Math.min(chunk.length, space));
+                synchronized (lock) {
+                    if (n < 0) {
+                        endOfStream = true;
+                        lock.notifyAll();
+                        return;
+                    }
+                    int first = Math.min(n, ring.length - writePos);
+                    System.arraycopy(chunk, 0, ring, writePos, first);
+                    if (n > first) {
+                        System.arraycopy(chunk, first, ring, 0, n - first);
+                    }
+                    writePos = (writePos + n) % ring.length;
+                    count += n;
+                    lock.notifyAll();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException | RuntimeException e) {
+            synchronized (lock) {
+                if (!closed) {
+                    log.warn("Audio network read failed: {}", e.getMessage());
+                    failure = e instanceof IOException io ? io : new IOException(e);
+                }
+                lock.notifyAll();
+            }
+        }
+    }
+}
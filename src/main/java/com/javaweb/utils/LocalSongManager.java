@@ -10,142 +10,303 @@ import org.jaudiotagger.tag.Tag;
 import org.jaudiotagger.tag.datatype.Artwork;
 
 import javax.imageio.ImageIO;
+import java.awt.*;
 import java.awt.image.BufferedImage;
-import java.io.ByteArrayInputStream;
-import java.io.File;
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.*;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
-
+import java.util.stream.Stream;
+
+/**
+ * Index of the songs in the download directory.
+ * <p>
+ * Entries are keyed by path and remember the size and modification time they were parsed at. The index
+ * is persisted to {@link AppConstant#LOCAL_INDEX_FILE}, so a restart only stats the files and re-parses
+ * the ones that changed. Afterwards a {@link WatchService} keeps it current: changed files are re-parsed
+ * on a small bounded pool once they have been quiet for {@link AppConstant#LOCAL_INDEX_DEBOUNCE_MS}.
+ * Covers are kept as thumbnails rather than full-size images, and only decoded once a view shows them.
+ * <p>
+ * The first call answers from the persisted index; the first reconcile runs in the background and
+ * tells the {@link #addLibraryListener library listeners} when it changed anything.
+ */
 @Slf4j
 public class LocalSongManager {
 
-    private static final Map<String, SongDTO> localSongCache = new HashMap<>();
-    private static long lastScanTime = 0;
-    private static final long SCAN_INTERVAL = 30000; // 30 seconds between rescans
+    private static final int INDEX_FORMAT_VERSION = 1;
 
+    private static final Map<Path, IndexedSong> localSongCache = new ConcurrentHashMap<>();
+    private static final Map<Path, ScheduledFuture<?>> pendingChanges = new ConcurrentHashMap<>();
+    private static final Object initLock = new Object();
+    private static volatile boolean initialized = false;
 
-    public static List<SongDTO> getDownloadedSongs() {
-        long now = System.currentTimeMillis();
+    private static final ExecutorService parsePool = createParsePool();
+    private static final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            daemonFactory("LocalLibraryScheduler"));
+    private static ScheduledFuture<?> pendingSave;
+    private static final List<Runnable> libraryListeners = new CopyOnWriteArrayList<>();
 
-        // Only rescan if needed (first time or after interval)
-        if (localSongCache.isEmpty() || now - lastScanTime > SCAN_INTERVAL) {
-            scanDownloadDirectory();
-            lastScanTime = now;
+    private record IndexEntry(String path, long size, long lastModified, String title, String artist,
+                              String album, String genre, String lyrics, Integer releaseYear, int duration,
+                              long bitrate, long frame, byte[] thumbnail) {
+
+        boolean matches(BasicFileAttributes attributes) {
+            return size == attributes.size() && lastModified == attributes.lastModifiedTime().toMillis();
         }
+    }
+
+    private record IndexedSong(IndexEntry entry, SongDTO song) {
+    }
+
+
+    public static List<SongDTO> getDownloadedSongs() {
+        ensureInitialized();
 
         return localSongCache.values().stream()
+                .map(IndexedSong::song)
                 .sorted(Comparator.comparing(SongDTO::getDownloadDate, Comparator.nullsLast(Comparator.reverseOrder())))
                 .collect(Collectors.toList());
     }
 
 
     public static SongDTO getSongByFilename(String filename) {
-        return localSongCache.get(filename);
+        ensureInitialized();
+        IndexedSong indexed = localSongCache.get(downloadDirectory().resolve(filename).toAbsolutePath());
+        if (indexed == null) {
+            indexed = localSongCache.entrySet().stream()
+                    .filter(entry -> entry.getKey().getFileName().toString().equals(filename))
+                    .map(Map.Entry::getValue)
+                    .findFirst()
+                    .orElse(null);
+        }
+        return indexed != null ? indexed.song() : null;
+    }
+
+
+    /**
+     * Called on a background thread whenever the index gains, changes or loses songs: after a scan of
+     * the download directory, e.g. the first one after startup, and for each file the watcher or
+     * {@link #indexFile} picks up.
+     */
+    public static void addLibraryListener(Runnable listener) {
+        libraryListeners.add(listener);
     }
 
+    public static void removeLibraryListener(Runnable listener) {
+        libraryListeners.remove(listener);
+    }
 
     public static boolean songExists(String title) {
-        String sanitizedTitle = sanitizeFileName(title) + ".mp3";
-        return localSongCache.containsKey(sanitizedTitle);
+        return getSongByFilename(sanitizeFileName(title) + ".mp3") != null;
     }
 
+    /**
+     * Indexes a single file right away, e.g. after a download finished, instead of waiting for the watcher.
+     */
+    public static void indexFile(Path path) {
+        ensureInitialized();
+        refreshFile(path.toAbsolutePath());
+    }
 
-    private static void scanDownloadDirectory() {
-        log.info("Scanning download directory for local songs");
-        localSongCache.clear();
 
-        Path downloadDir = Paths.get(AppConstant.DEFAULT_DOWNLOAD_DIR);
-        if (!Files.exists(downloadDir)) {
-            try {
-                Files.createDirectories(downloadDir);
-                log.info("Created download directory at {}", downloadDir);
-            } catch (IOException e) {
-                log.error("Failed to create download directory: {}", e.getMessage());
+    private static void ensureInitialized() {
+        if (initialized) {
+            return;
+        }
+        synchronized (initLock) {
+            if (initialized) {
                 return;
             }
+            Path downloadDir = downloadDirectory();
+            if (!Files.exists(downloadDir)) {
+                try {
+                    Files.createDirectories(downloadDir);
+                    log.info("Created download directory at {}", downloadDir);
+                } catch (IOException e) {
+                    log.error("Failed to create download directory: {}", e.getMessage());
+                    return;
+                }
+            }
+
+            loadIndex();
+            initialized = true;
+            // Stats every file and parses new ones, which can take a while on a large library
+            scheduler.execute(() -> {
+                reconcile();
+                startWatcher(downloadDir);
+            });
         }
+    }
 
-        try {
-            // Find all MP3 files in the directory
-            List<File> mp3Files = Files.walk(downloadDir)
-                    .filter(path -> path.toString().toLowerCase().endsWith(".mp3"))
-                    .map(Path::toFile)
-                    .collect(Collectors.toList());
-
-            // Process each MP3 file
-            for (File file : mp3Files) {
+    /**
+     * Brings the index in line with the directory: drops vanished files and parses new or changed ones
+     * in parallel. Unchanged files cost one stat each.
+     */
+    private static void reconcile() {
+        long start = System.currentTimeMillis();
+        Set<Path> seen = new HashSet<>();
+        List<Callable<Void>> parseTasks = new ArrayList<>();
+
+        try (Stream<Path> paths = Files.walk(downloadDirectory())) {
+            paths.filter(LocalSongManager::isMp3).forEach(path -> {
+                Path absolute = path.toAbsolutePath();
+                seen.add(absolute);
                 try {
-                    SongDTO song = createSongFromFile(file);
-                    if (song != null) {
-                        localSongCache.put(file.getName(), song);
+                    BasicFileAttributes attributes = Files.readAttributes(absolute, BasicFileAttributes.class);
+                    IndexedSong indexed = localSongCache.get(absolute);
+                    if (indexed == null || !indexed.entry().matches(attributes)) {
+                        parseTasks.add(() -> {
+                            parseAndStore(absolute, attributes);
+                            return null;
+                        });
                     }
-                } catch (Exception e) {
-                    log.error("Error processing file {}: {}", file.getName(), e.getMessage());
+                } catch (IOException e) {
+                    log.warn("Could not read attributes of {}: {}", absolute, e.getMessage());
                 }
+            });
+        } catch (IOException e) {
+            log.error("Error scanning download directory: {}", e.getMessage());
+            return;
+        }
+
+        int removed = 0;
+        for (Path path : new ArrayList<>(localSongCache.keySet())) {
+            if (!seen.contains(path)) {
+                localSongCache.remove(path);
+                removed++;
             }
+        }
 
-            log.info("Found {} local songs in download directory", localSongCache.size());
+        try {
+            parsePool.invokeAll(parseTasks);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
 
+        log.info("Local library: {} songs, {} parsed, {} removed in {} ms",
+                localSongCache.size(), parseTasks.size(), removed, System.currentTimeMillis() - start);
+        if (!parseTasks.isEmpty() || removed > 0) {
+            scheduleSave();
+            fireLibraryChanged();
+        }
+    }
+
+    private static void refreshFile(Path path) {
+        pendingChanges.remove(path);
+        if (!Files.exists(path)) {
+            if (localSongCache.remove(path) != null) {
+                log.info("Removed {} from local library", path.getFileName());
+                scheduleSave();
+                fireLibraryChanged();
+            }
+            return;
+        }
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            IndexedSong indexed = localSongCache.get(path);
+            if (indexed == null || !indexed.entry().matches(attributes)) {
+                parseAndStore(path, attributes);
+                scheduleSave();
+                fireLibraryChanged();
+            }
         } catch (IOException e) {
-            log.error("Error scanning download directory: {}", e.getMessage());
+            log.warn("Could not refresh {}: {}", path, e.getMessage());
+        }
+    }
+
+    private static void fireLibraryChanged() {
+        for (Runnable listener : libraryListeners) {
+            try {
+                listener.run();
+            } catch (RuntimeException e) {
+                log.warn("Library listener failed: {}", e.getMessage());
+            }
         }
     }
 
+    private static void parseAndStore(Path path, BasicFileAttributes attributes) {
+        IndexEntry entry = parseFile(path.toFile(), attributes);
+        if (entry != null) {
+            localSongCache.put(path, new IndexedSong(entry, createSongDTO(entry)));
+        } else {
+            localSongCache.remove(path);
+        }
+    }
 
-    private static SongDTO createSongFromFile(File file) {
+
+    private static IndexEntry parseFile(File file, BasicFileAttributes attributes) {
         try {
             // Extract metadata with JAudioTagger
             org.jaudiotagger.audio.AudioFile audioFile = AudioFileIO.read(file);
 
             // Extract audio properties
             MP3AudioHeader audioHeader = (MP3AudioHeader) audioFile.getAudioHeader();
-            SongDTO songDTO = new SongDTO();
-            //Bit rate
-            songDTO.setBitrate(audioHeader.getBitRateAsNumber());
-
-            // Set basic audio properties
-            int duration = audioHeader.getTrackLength();
-            songDTO.setDuration(duration);
-            songDTO.setLengthInMilliseconds(duration * 1000);
 
-
-            // Calculate frame rate (estimation)
-            double frameRate = audioHeader.getNumberOfFrames() / (duration * 1000.0);
-            songDTO.setFrameRatePerMilliseconds(frameRate);
-            songDTO.setFrame(audioHeader.getNumberOfFrames());
+            String title = null;
+            String artist = null;
+            String album = null;
+            String genre = null;
+            String lyrics = null;
+            Integer releaseYear = null;
+            byte[] thumbnail = null;
 
             // Get ID3 tag information
             Tag tag = audioFile.getTag();
             if (tag != null) {
-                songDTO.setTitle(tag.getFirst(FieldKey.TITLE));
-                songDTO.setSongArtist(tag.getFirst(FieldKey.ARTIST));
-                songDTO.setSongAlbum(tag.getFirst(FieldKey.ALBUM));
-                songDTO.setGenre(tag.getFirst(FieldKey.GENRE));
-                songDTO.setSongLyrics(tag.getFirst(FieldKey.LYRICS));
+                title = tag.getFirst(FieldKey.TITLE);
+                artist = tag.getFirst(FieldKey.ARTIST);
+                album = tag.getFirst(FieldKey.ALBUM);
+                genre = tag.getFirst(FieldKey.GENRE);
+                lyrics = tag.getFirst(FieldKey.LYRICS);
                 if (!StringUtils.isBlank(tag.getFirst(FieldKey.YEAR))) {
-                    songDTO.setReleaseYear(Integer.valueOf(tag.getFirst(FieldKey.YEAR)));
+                    try {
+                        releaseYear = Integer.valueOf(tag.getFirst(FieldKey.YEAR).trim());
+                    } catch (NumberFormatException ignored) {
+                    }
                 }
+                thumbnail = extractCoverThumbnail(tag);
             }
-            songDTO.setId(Long.valueOf(-Math.abs(file.getName().hashCode())));
-            songDTO.setDownloadDate(new Date(file.lastModified()));
 
-            songDTO.setLocalFilePath(file.getAbsolutePath());
-            songDTO.setIsLocalFile(true);
-            extractCoverArt(tag, songDTO);
-            songDTO.setSongLength(formatDuration(songDTO));
-            songDTO.setFrameRatePerMilliseconds(getFrameRatePerMilliseconds(songDTO));
-
-            return songDTO;
+            return new IndexEntry(file.getAbsolutePath(), attributes.size(), attributes.lastModifiedTime().toMillis(),
+                    title, artist, album, genre, lyrics, releaseYear, audioHeader.getTrackLength(),
+                    audioHeader.getBitRateAsNumber(), audioHeader.getNumberOfFrames(), thumbnail);
         } catch (Exception e) {
             log.error("Error creating song from file {}: {}", file.getName(), e.getMessage());
             return null;
         }
     }
 
+    private static SongDTO createSongDTO(IndexEntry entry) {
+        File file = new File(entry.path());
+        SongDTO songDTO = new SongDTO();
+        songDTO.setBitrate(entry.bitrate());
+        songDTO.setDuration(entry.duration());
+        songDTO.setLengthInMilliseconds(entry.duration() * 1000);
+        songDTO.setFrame(entry.frame());
+
+        songDTO.setTitle(entry.title());
+        songDTO.setSongArtist(entry.artist());
+        songDTO.setSongAlbum(entry.album());
+        songDTO.setGenre(entry.genre());
+        songDTO.setSongLyrics(entry.lyrics());
+        songDTO.setReleaseYear(entry.releaseYear());
+
+        songDTO.setId(Long.valueOf(-Math.abs(file.getName().hashCode())));
+        songDTO.setDownloadDate(new Date(entry.lastModified()));
+        songDTO.setLocalFilePath(entry.path());
+        songDTO.setIsLocalFile(true);
+        songDTO.setEncodedSongImage(entry.thumbnail());
+
+        songDTO.setSongLength(formatDuration(songDTO));
+        songDTO.setFrameRatePerMilliseconds(getFrameRatePerMilliseconds(songDTO));
+        return songDTO;
+    }
+
     public static String formatDuration(SongDTO songDTO) {
         long minutes = songDTO.getDuration() / 60;
         long remainingSeconds = songDTO.getDuration() % 60;
@@ -157,29 +318,241 @@ public class LocalSongManager {
     }
 
     /**
-     * Gets a tag value with fallback
+     * Scales the embedded cover down to {@link AppConstant#LOCAL_INDEX_THUMBNAIL_SIZE} and returns it as JPEG.
      */
-    private static String getTagValue(Tag tag, FieldKey key, String defaultValue) {
+    private static byte[] extractCoverThumbnail(Tag tag) {
         try {
-            String value = tag.getFirst(key);
-            return value != null && !value.isEmpty() ? value : defaultValue;
+            Artwork artwork = tag.getFirstArtwork();
+            if (artwork == null) {
+                return null;
+            }
+            BufferedImage cover = ImageIO.read(new ByteArrayInputStream(artwork.getBinaryData()));
+            if (cover == null) {
+                return null;
+            }
+            int maxSize = AppConstant.LOCAL_INDEX_THUMBNAIL_SIZE;
+            double scale = Math.min(1.0, (double) maxSize / Math.max(cover.getWidth(), cover.getHeight()));
+            int width = Math.max(1, (int) Math.round(cover.getWidth() * scale));
+            int height = Math.max(1, (int) Math.round(cover.getHeight() * scale));
+
+            BufferedImage thumbnail = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g2d = thumbnail.createGraphics();
+            g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g2d.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g2d.drawImage(cover, 0, 0, width, height, null);
+            g2d.dispose();
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            ImageIO.write(thumbnail, "jpg", out);
+            return out.toByteArray();
         } catch (Exception e) {
-            return defaultValue;
+            log.warn("Could not extract cover art: {}", e.getMessage());
+            return null;
         }
     }
 
+    // ---- Watching ----
 
-    private static void extractCoverArt(Tag tag, SongDTO song) {
+    private static void startWatcher(Path downloadDir) {
+        WatchService watchService;
         try {
-            if (tag.getFirstArtwork() != null) {
-                Artwork artwork = tag.getFirstArtwork();
-                byte[] imageData = artwork.getBinaryData();
-                BufferedImage image = ImageIO.read(new ByteArrayInputStream(imageData));
-                song.setSongImage(image);
+            watchService = FileSystems.getDefault().newWatchService();
+            registerTree(watchService, downloadDir);
+        } catch (IOException e) {
+            log.warn("Could not watch download directory, changes will not be picked up: {}", e.getMessage());
+            return;
+        }
+
+        Thread watcher = daemonFactory("LocalLibraryWatcher").newThread(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                WatchKey key;
+                try {
+                    key = watchService.take();
+                } catch (InterruptedException | ClosedWatchServiceException e) {
+                    return;
+                }
+                Path directory = (Path) key.watchable();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        // Events were lost, fall back to a full comparison
+                        scheduler.execute(LocalSongManager::reconcile);
+                        continue;
+                    }
+                    Path changed = directory.resolve((Path) event.context()).toAbsolutePath();
+                    if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(changed)) {
+                        try {
+                            registerTree(watchService, changed);
+                        } catch (IOException e) {
+                            log.warn("Could not watch {}: {}", changed, e.getMessage());
+                        }
+                        scheduler.execute(LocalSongManager::reconcile);
+                    } else if (isMp3(changed)) {
+                        scheduleChange(changed);
+                    }
+                }
+                key.reset();
             }
-        } catch (Exception e) {
-            log.warn("Could not extract cover art: {}", e.getMessage());
+        });
+        watcher.start();
+    }
+
+    private static void registerTree(WatchService watchService, Path root) throws IOException {
+        try (Stream<Path> paths = Files.walk(root)) {
+            for (Path directory : paths.filter(Files::isDirectory).toList()) {
+                directory.register(watchService,
+                        StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY,
+                        StandardWatchEventKinds.ENTRY_DELETE);
+            }
+        }
+    }
+
+    /**
+     * A download in progress fires a modify event per write; only parse once the file has been quiet.
+     */
+    private static void scheduleChange(Path path) {
+        pendingChanges.compute(path, (key, previous) -> {
+            if (previous != null) {
+                previous.cancel(false);
+            }
+            return scheduler.schedule(() -> parsePool.execute(() -> refreshFile(path)),
+                    AppConstant.LOCAL_INDEX_DEBOUNCE_MS, TimeUnit.MILLISECONDS);
+        });
+    }
+
+    // ---- Persistence ----
+
+    private static synchronized void scheduleSave() {
+        if (pendingSave != null && !pendingSave.isDone()) {
+            return;
+        }
+        pendingSave = scheduler.schedule(LocalSongManager::saveIndex,
+                AppConstant.LOCAL_INDEX_DEBOUNCE_MS, TimeUnit.MILLISECONDS);
+    }
+
+    private static void loadIndex() {
+        Path indexFile = Paths.get(AppConstant.LOCAL_INDEX_FILE);
+        if (!Files.exists(indexFile)) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexFile)))) {
+            if (in.readInt() != INDEX_FORMAT_VERSION) {
+                log.info("Local library index has an old format, rebuilding");
+                return;
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String path = readString(in);
+                long size = in.readLong();
+                long lastModified = in.readLong();
+                String title = readString(in);
+                String artist = readString(in);
+                String album = readString(in);
+                String genre = readString(in);
+                String lyrics = readString(in);
+                int year = in.readInt();
+                int duration = in.readInt();
+                long bitrate = in.readLong();
+                long frame = in.readLong();
+                int thumbnailLength = in.readInt();
+                byte[] thumbnail = thumbnailLength >= 0 ? in.readNBytes(thumbnailLength) : null;
+
+                IndexEntry entry = new IndexEntry(path, size, lastModified, title, artist, album, genre, lyrics,
+                        year >= 0 ? year : null, duration, bitrate, frame, thumbnail);
+                localSongCache.put(Paths.get(path), new IndexedSong(entry, createSongDTO(entry)));
+            }
+            log.info("Loaded {} songs from local library index", count);
+        } catch (IOException e) {
+            log.warn("Could not read local library index, rebuilding: {}", e.getMessage());
+            localSongCache.clear();
+        }
+    }
+
+    private static void saveIndex() {
+        Path indexFile = Paths.get(AppConstant.LOCAL_INDEX_FILE);
+        Path tempFile = indexFile.resolveSibling(indexFile.getFileName() + ".tmp");
+        List<IndexEntry> entries = localSongCache.values().stream().map(IndexedSong::entry).toList();
+
+        try {
+            Files.createDirectories(indexFile.getParent());
+        } catch (IOException e) {
+            log.warn("Could not create directory for local library index: {}", e.getMessage());
+            return;
+        }
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+            out.writeInt(INDEX_FORMAT_VERSION);
+            out.writeInt(entries.size());
+            for (IndexEntry entry : entries) {
+                writeString(out, entry.path());
+                out.writeLong(entry.size());
+                out.writeLong(entry.lastModified());
+                writeString(out, entry.title());
+                writeString(out, entry.artist());
+                writeString(out, entry.album());
+                writeString(out, entry.genre());
+                writeString(out, entry.lyrics());
+                out.writeInt(entry.releaseYear() != null ? entry.releaseYear() : -1);
+                out.writeInt(entry.duration());
+                out.writeLong(entry.bitrate());
+                out.writeLong(entry.frame());
+                out.writeInt(entry.thumbnail() != null ? entry.thumbnail().length : -1);
+                if (entry.thumbnail() != null) {
+                    out.write(entry.thumbnail());
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Could not write local library index: {}", e.getMessage());
+            return;
+        }
+
+        try {
+            Files.move(tempFile, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Could not replace local library index: {}", e.getMessage());
+        }
+    }
+
+    // Length-prefixed UTF-8, since lyrics can exceed the 64 KB limit of writeUTF
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
         }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        return length >= 0 ? new String(in.readNBytes(length), StandardCharsets.UTF_8) : null;
+    }
+
+    // ---- Helpers ----
+
+    private static Path downloadDirectory() {
+        return Paths.get(AppConstant.DEFAULT_DOWNLOAD_DIR).toAbsolutePath();
+    }
+
+    private static boolean isMp3(Path path) {
+        return path.toString().toLowerCase().endsWith(".mp3");
+    }
+
+    private static ExecutorService createParsePool() {
+        int threads = AppConstant.LOCAL_INDEX_PARSE_THREADS;
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), daemonFactory("LocalLibraryParser"));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private static ThreadFactory daemonFactory(String name) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
     }
 
     /**
@@ -188,4 +561,4 @@ public class LocalSongManager {
     public static String sanitizeFileName(String input) {
         return input.replaceAll("[\\\\/:*?\"<>|]", "_");
     }
-}
\ No newline at end of file
+}
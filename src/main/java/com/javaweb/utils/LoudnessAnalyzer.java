@@ -0,0 +1,198 @@
+package com.javaweb.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Integrated loudness (EBU R128 / ITU-R BS.1770) and sample peak of decoded PCM.
+ * <p>
+ * Samples go through the K-weighting filter (a high shelf followed by a high pass), their mean square
+ * is collected per 100 ms, and 400 ms blocks overlapping by 75% are gated: first at -70 LUFS, then at
+ * 10 LU below the loudness of the blocks that passed. The result is the loudness of what is left.
+ */
+public class LoudnessAnalyzer {
+
+    private static final double ABSOLUTE_GATE_LUFS = -70.0;
+    private static final double RELATIVE_GATE_LU = -10.0;
+    private static final int SUBBLOCKS_PER_BLOCK = 4;
+    // Largest boost applied to quiet tracks, so near-silent ones don't get amplified noise
+    private static final double MAX_BOOST_DB = 12.0;
+
+    public record Result(double loudnessLufs, double peakAmplitude) {
+    }
+
+    private final int channels;
+    private final int samplesPerSubblock;
+    private final Biquad[] shelf;
+    private final Biquad[] highPass;
+
+    private final double[] subblockSums;
+    private int subblockFill;
+    // Per-channel energy of the last subblocks, summed into each 400 ms block
+    private final double[][] recentSubblocks = new double[SUBBLOCKS_PER_BLOCK][];
+    private int recentCount;
+    private final List<Double> blockPowers = new ArrayList<>();
+
+    private int peak;
+
+    public LoudnessAnalyzer(int sampleRate, int channels) {
+        this.channels = channels;
+        this.samplesPerSubblock = sampleRate / 10;
+        this.subblockSums = new double[channels];
+        this.shelf = new Biquad[channels];
+        this.highPass = new Biquad[channels];
+        for (int c = 0; c < channels; c++) {
+            shelf[c] = Biquad.highShelf(sampleRate);
+            highPass[c] = Biquad.highPass(sampleRate);
+        }
+    }
+
+    /**
+     * Gain in dB that brings a track to {@code targetLufs}, lowered when needed so its peak stays
+     * at or below full scale.
+     */
+    public static double trackGainDb(double loudnessLufs, double peakAmplitude, double targetLufs) {
+        if (Double.isInfinite(loudnessLufs) || Double.isNaN(loudnessLufs)) {
+            return 0;
+        }
+        double gain = Math.min(targetLufs - loudnessLufs, MAX_BOOST_DB);
+        if (peakAmplitude > 0) {
+            gain = Math.min(gain, -20 * Math.log10(peakAmplitude));
+        }
+        return gain;
+    }
+
+    /**
+     * @param samples interleaved 16-bit samples
+     */
+    public void accept(short[] samples, int offset, int length) {
+        int frames = length / channels;
+        for (int frame = 0; frame < frames; frame++) {
+            int base = offset + frame * channels;
+            for (int c = 0; c < channels; c++) {
+                short sample = samples[base + c];
+                int magnitude = Math.abs((int) sample);
+                if (magnitude > peak) {
+                    peak = magnitude;
+                }
+                double filtered = highPass[c].process(shelf[c].process(sample / 32768.0));
+                subblockSums[c] += filtered * filtered;
+            }
+            if (++subblockFill == samplesPerSubblock) {
+                finishSubblock();
+            }
+        }
+    }
+
+    public Result result() {
+        return new Result(integratedLoudness(), samplePeak());
+    }
+
+    public double integratedLoudness() {
+        double absoluteSum = 0;
+        int absoluteCount = 0;
+        for (double power : blockPowers) {
+            if (loudness(power) > ABSOLUTE_GATE_LUFS) {
+                absoluteSum += power;
+                absoluteCount++;
+            }
+        }
+        if (absoluteCount == 0) {
+            return Double.NEGATIVE_INFINITY;
+        }
+
+        double relativeGate = loudness(absoluteSum / absoluteCount) + RELATIVE_GATE_LU;
+        double gatedSum = 0;
+        int gatedCount = 0;
+        for (double power : blockPowers) {
+            double blockLoudness = loudness(power);
+            if (blockLoudness > ABSOLUTE_GATE_LUFS && blockLoudness > relativeGate) {
+                gatedSum += power;
+                gatedCount++;
+            }
+        }
+        return gatedCount == 0 ? Double.NEGATIVE_INFINITY : loudness(gatedSum / gatedCount);
+    }
+
+    // Linear 0..1
+    public double samplePeak() {
+        return peak / 32768.0;
+    }
+
+    private void finishSubblock() {
+        double[] meanSquares = new double[channels];
+        for (int c = 0; c < channels; c++) {
+            meanSquares[c] = subblockSums[c] / samplesPerSubblock;
+            subblockSums[c] = 0;
+        }
+        subblockFill = 0;
+
+        System.arraycopy(recentSubblocks, 1, recentSubblocks, 0, SUBBLOCKS_PER_BLOCK - 1);
+        recentSubblocks[SUBBLOCKS_PER_BLOCK - 1] = meanSquares;
+        if (++recentCount < SUBBLOCKS_PER_BLOCK) {
+            return;
+        }
+
+        // Every channel is weighted 1.0 (no surround channels in MP3)
+        double power = 0;
+        for (double[] subblock : recentSubblocks) {
+            for (double meanSquare : subblock) {
+                power += meanSquare;
+            }
+        }
+        blockPowers.add(power / SUBBLOCKS_PER_BLOCK);
+    }
+
+    private static double loudness(double power) {
+        return -0.691 + 10 * Math.log10(power);
+    }
+
+    /**
+     * Direct form I biquad. Coefficients follow BS.1770 and are recomputed for the actual sample rate.
+     */
+    private static final class Biquad {
+        private final double b0, b1, b2, a1, a2;
+        private double x1, x2, y1, y2;
+
+        private Biquad(double b0, double b1, double b2, double a1, double a2) {
+            this.b0 = b0;
+            this.b1 = b1;
+            this.b2 = b2;
+            this.a1 = a1;
+            this.a2 = a2;
+        }
+
+        static Biquad highShelf(int sampleRate) {
+            double f0 = 1681.974450955533;
+            double gainDb = 3.999843853973347;
+            double q = 0.7071752369554196;
+            double k = Math.tan(Math.PI * f0 / sampleRate);
+            double vh = Math.pow(10, gainDb / 20);
+            double vb = Math.pow(vh, 0.4996667741545416);
+            double a0 = 1 + k / q + k * k;
+            return new Biquad(
+                    (vh + vb * k / q + k * k) / a0,
+                    2 * (k * k - vh) / a0,
+                    (vh - vb * k / q + k * k) / a0,
+                    2 * (k * k - 1) / a0,
+                    (1 - k / q + k * k) / a0);
+        }
+
+        static Biquad highPass(int sampleRate) {
+            double f0 = 38.13547087602444;
+            double q = 0.5003270373238773;
+            double k = Math.tan(Math.PI * f0 / sampleRate);
+            double a0 = 1 + k / q + k * k;
+            return new Biquad(1, -2, 1, 2 * (k * k - 1) / a0, (1 - k / q + k * k) / a0);
+        }
+
+        double process(double x) {
+            double y = b0 * x + b1 * x1 + b2 * x2 - a1 * y1 - a2 * y2;
+            x2 = x1;
+            x1 = x;
+            y2 = y1;
+            y1 = y;
+            return y;
+        }
+    }
+}
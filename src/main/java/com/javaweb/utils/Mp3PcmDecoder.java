@@ -0,0 +1,65 @@
+package com.javaweb.utils;
+
+import javazoom.jl.decoder.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Decodes a whole MP3 stream to 16-bit PCM and hands every frame to a {@link Sink}, so several
+ * analyses can share one decode.
+ */
+public final class Mp3PcmDecoder {
+
+    public interface Sink {
+        /**
+         * Called once, before the first samples, with the format of the stream.
+         */
+        void start(int sampleRate, int channels);
+
+        /**
+         * @param samples interleaved 16-bit samples
+         */
+        void accept(short[] samples, int offset, int length);
+    }
+
+    private Mp3PcmDecoder() {
+    }
+
+    /**
+     * Frames that fail to decode are skipped.
+     *
+     * @throws IOException when the stream is unreadable or has no MPEG audio frames
+     */
+    public static void decode(InputStream mp3, Sink sink) throws IOException {
+        Bitstream bitstream = new Bitstream(mp3);
+        Decoder decoder = new Decoder();
+        boolean started = false;
+        try {
+            Header header;
+            while ((header = bitstream.readFrame()) != null) {
+                try {
+                    SampleBuffer output = (SampleBuffer) decoder.decodeFrame(header, bitstream);
+                    if (!started) {
+                        sink.start(decoder.getOutputFrequency(), decoder.getOutputChannels());
+                        started = true;
+                    }
+                    sink.accept(output.getBuffer(), 0, output.getBufferLength());
+                } catch (DecoderException e) {
+                    // Corrupt frame, the rest of the file is usually fine
+                }
+                bitstream.closeFrame();
+            }
+        } catch (BitstreamException e) {
+            throw new IOException("Unreadable MP3 stream", e);
+        } finally {
+            try {
+                bitstream.close();
+            } catch (BitstreamException ignored) {
+            }
+        }
+        if (!started) {
+            throw new IOException("No MPEG audio frames found");
+        }
+    }
+}
@@ -0,0 +1,298 @@
+package com.javaweb.utils;
+
+import lombok.Getter;
+
+import java.io.*;
+import java.util.Arrays;
+
+/**
+ * Compact frame-to-byte-offset table for an MP3 file.
+ * <p>
+ * Every {@code frameInterval}-th frame's byte offset is recorded while walking the frame headers once,
+ * which is exact for VBR files where bytes per frame vary. Time per frame is constant for a given
+ * sample rate, so a position in milliseconds maps to a frame number directly and to a byte offset
+ * through the table. The serialized form stores offsets as varint deltas (a few hundred bytes per song).
+ */
+public class Mp3SeekIndex {
+
+    private static final byte FORMAT_VERSION = 1;
+
+    // Bitrates in kbps indexed by [MPEG-1 ? 0 : 1][layer - 1][bitrate index]
+    private static final int[][][] BITRATES = {
+            {
+                    {0, 32, 64, 96, 128, 160, 192, 224, 256, 288, 320, 352, 384, 416, 448},
+                    {0, 32, 48, 56, 64, 80, 96, 112, 128, 160, 192, 224, 256, 320, 384},
+                    {0, 32, 40, 48, 56, 64, 80, 96, 112, 128, 160, 192, 224, 256, 320}
+            },
+            {
+                    {0, 32, 48, 56, 64, 80, 96, 112, 128, 144, 160, 176, 192, 224, 256},
+                    {0, 8, 16, 24, 32, 40, 48, 56, 64, 80, 96, 112, 128, 144, 160},
+                    {0, 8, 16, 24, 32, 40, 48, 56, 64, 80, 96, 112, 128, 144, 160}
+            }
+    };
+
+    // Sample rates indexed by [version bits][sample rate index]; version bits 1 is reserved
+    private static final int[][] SAMPLE_RATES = {
+            {11025, 12000, 8000},
+            {0, 0, 0},
+            {22050, 24000, 16000},
+            {44100, 48000, 32000}
+    };
+
+    @Getter
+    private final int frameInterval;
+    @Getter
+    private final int totalFrames;
+    @Getter
+    private final float millisPerFrame;
+    private final long[] offsets;
+
+    public record SeekPoint(long byteOffset, int framesToSkip, long frame) {
+    }
+
+    private Mp3SeekIndex(int frameInterval, int totalFrames, float millisPerFrame, long[] offsets) {
+        this.frameInterval = frameInterval;
+        this.totalFrames = totalFrames;
+        this.millisPerFrame = millisPerFrame;
+        this.offsets = offsets;
+    }
+
+    /**
+     * Walks every frame header of the stream once (no decoding) and records the byte offset of every
+     * {@code frameInterval}-th frame.
+     */
+    public static Mp3SeekIndex build(InputStream inputStream, int frameInterval) throws IOException {
+        BufferedInputStream in = inputStream instanceof BufferedInputStream buffered
+                ? buffered
+                : new BufferedInputStream(inputStream);
+
+        long position = 0;
+        in.mark(10);
+        long tagSize = StreamingAudioPlayer.readId3v2Size(in);
+        if (tagSize > 0) {
+            in.skipNBytes(tagSize - 10);
+            position = tagSize;
+        } else {
+            in.reset();
+        }
+
+        long[] entries = new long[256];
+        int entryCount = 0;
+        int frameCount = 0;
+        float millisPerFrame = 0;
+        byte[] headerBytes = new byte[4];
+
+        while (true) {
+            in.mark(4);
+            if (in.readNBytes(headerBytes, 0, 4) < 4) {
+                break;
+            }
+            FrameHeader header = FrameHeader.parse(headerBytes);
+            if (header == null) {
+                if (headerBytes[0] == 'T' && headerBytes[1] == 'A' && headerBytes[2] == 'G') {
+                    // ID3v1 trailer, no more audio
+                    break;
+                }
+                // Junk between frames, resync one byte further
+                in.reset();
+                in.skipNBytes(1);
+                position++;
+                continue;
+            }
+
+            if (frameCount % frameInterval == 0) {
+                if (entryCount == entries.length) {
+                    entries = Arrays.copyOf(entries, entries.length * 2);
+                }
+                entries[entryCount++] = position;
+            }
+            if (millisPerFrame == 0) {
+                millisPerFrame = header.samplesPerFrame() * 1000f / header.sampleRate();
+            }
+
+            try {
+                in.skipNBytes(header.frameLength() - 4);
+            } catch (EOFException e) {
+                // Truncated last frame, the decoder will not play it either
+                break;
+            }
+            position += header.frameLength();
+            frameCount++;
+        }
+
+        return new Mp3SeekIndex(frameInterval, frameCount, millisPerFrame, Arrays.copyOf(entries, entryCount));
+    }
+
+    /**
+     * Skips whole frames by reading their headers, leaving the stream positioned on a frame boundary.
+     *
+     * @return the number of frames actually skipped
+     */
+    public static int skipFrames(BufferedInputStream in, int frameCount) throws IOException {
+        byte[] headerBytes = new byte[4];
+        int skipped = 0;
+        while (skipped < frameCount) {
+            in.mark(4);
+            if (in.readNBytes(headerBytes, 0, 4) < 4) {
+                break;
+            }
+            FrameHeader header = FrameHeader.parse(headerBytes);
+            if (header == null) {
+                in.reset();
+                break;
+            }
+            in.skipNBytes(header.frameLength() - 4);
+            skipped++;
+        }
+        return skipped;
+    }
+
+    public long getDurationMillis() {
+        return (long) (totalFrames * (double) millisPerFrame);
+    }
+
+    public double getFramesPerMillisecond() {
+        return millisPerFrame > 0 ? 1.0 / millisPerFrame : 0;
+    }
+
+    public long frameForMillis(long millis) {
+        if (millisPerFrame <= 0) {
+            return 0;
+        }
+        return Math.max(0, Math.min(totalFrames, (long) (millis / (double) millisPerFrame)));
+    }
+
+    public long millisForFrame(long frame) {
+        return (long) (frame * (double) millisPerFrame);
+    }
+
+    /**
+     * Resolves the nearest indexed frame at or before the target time and how many frames remain to
+     * be skipped from there.
+     */
+    public SeekPoint seekPointForMillis(long millis) {
+        long frame = frameForMillis(millis);
+        if (offsets.length == 0) {
+            return new SeekPoint(0, 0, 0);
+        }
+        int entry = (int) Math.min(frame / frameInterval, offsets.length - 1);
+        return new SeekPoint(offsets[entry], (int) (frame - (long) entry * frameInterval), frame);
+    }
+
+    /**
+     * Returns the first indexed frame at or before the given byte offset (binary search).
+     */
+    public long frameForByteOffset(long byteOffset) {
+        int index = Arrays.binarySearch(offsets, byteOffset);
+        if (index < 0) {
+            index = Math.max(0, -index - 2);
+        }
+        return (long) index * frameInterval;
+    }
+
+    public byte[] toBytes() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(16 + offsets.length * 2);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(FORMAT_VERSION);
+            out.writeInt(frameInterval);
+            out.writeInt(totalFrames);
+            out.writeFloat(millisPerFrame);
+            out.writeInt(offsets.length);
+            long previous = 0;
+            for (long offset : offsets) {
+                writeVarLong(out, offset - previous);
+                previous = offset;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static Mp3SeekIndex fromBytes(byte[] data) {
+        if (data == null || data.length == 0) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            byte version = in.readByte();
+            if (version != FORMAT_VERSION) {
+                return null;
+            }
+            int frameInterval = in.readInt();
+            int totalFrames = in.readInt();
+            float millisPerFrame = in.readFloat();
+            long[] offsets = new long[in.readInt()];
+            long previous = 0;
+            for (int i = 0; i < offsets.length; i++) {
+                previous += readVarLong(in);
+                offsets[i] = previous;
+            }
+            return new Mp3SeekIndex(frameInterval, totalFrames, millisPerFrame, offsets);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    /**
+     * Minimal MPEG audio frame header, enough to know where the next frame starts.
+     */
+    record FrameHeader(int frameLength, int samplesPerFrame, int sampleRate, int bitrateKbps) {
+
+        static FrameHeader parse(byte[] bytes) {
+            int header = ((bytes[0] & 0xFF) << 24) | ((bytes[1] & 0xFF) << 16)
+                    | ((bytes[2] & 0xFF) << 8) | (bytes[3] & 0xFF);
+            if ((header & 0xFFE00000) != 0xFFE00000) {
+                return null;
+            }
+            int versionBits = (header >> 19) & 0x3;
+            int layerBits = (header >> 17) & 0x3;
+            int bitrateIndex = (header >> 12) & 0xF;
+            int sampleRateIndex = (header >> 10) & 0x3;
+            int padding = (header >> 9) & 0x1;
+
+            if (versionBits == 1 || layerBits == 0 || bitrateIndex == 0 || bitrateIndex == 15 || sampleRateIndex == 3) {
+                // Reserved values or free format, which we cannot size
+                return null;
+            }
+
+            int layer = 4 - layerBits;
+            boolean mpeg1 = versionBits == 3;
+            int bitrate = BITRATES[mpeg1 ? 0 : 1][layer - 1][bitrateIndex];
+            int sampleRate = SAMPLE_RATES[versionBits][sampleRateIndex];
+
+            int samplesPerFrame;
+            int frameLength;
+            if (layer == 1) {
+                samplesPerFrame = 384;
+                frameLength = (12 * bitrate * 1000 / sampleRate + padding) * 4;
+            } else {
+                samplesPerFrame = (layer == 3 && !mpeg1) ? 576 : 1152;
+                frameLength = samplesPerFrame / 8 * bitrate * 1000 / sampleRate + padding;
+            }
+            if (frameLength < 4) {
+                return null;
+            }
+            return new FrameHeader(frameLength, samplesPerFrame, sampleRate, bitrate);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.javaweb.utils;
+
+import javazoom.jl.decoder.Decoder;
+import javazoom.jl.decoder.JavaLayerException;
+import javazoom.jl.player.JavaSoundAudioDevice;
+
+/**
+ * JavaSound output device that applies the track's loudness gain to the decoded PCM and hands every
+ * block to the spectrum analyser, so the visualiser sees exactly the audio the player writes.
+ */
+public class PcmTapAudioDevice extends JavaSoundAudioDevice {
+
+    private final SpectrumAnalyzer spectrumAnalyzer;
+    // Linear factor, 1 leaves samples untouched
+    private final float gain;
+
+    public PcmTapAudioDevice(SpectrumAnalyzer spectrumAnalyzer, double gainDb) {
+        this.spectrumAnalyzer = spectrumAnalyzer;
+        this.gain = (float) Math.pow(10, gainDb / 20);
+    }
+
+    @Override
+    protected void writeImpl(short[] samples, int offs, int len) throws JavaLayerException {
+        if (gain != 1f) {
+            applyGain(samples, offs, len);
+        }
+        super.writeImpl(samples, offs, len);
+
+        Decoder decoder = getDecoder();
+        if (len > 0 && decoder != null) {
+            spectrumAnalyzer.accept(samples, offs, len, decoder.getOutputChannels(), decoder.getOutputFrequency());
+        }
+    }
+
+    // The decoder refills this buffer for every frame, so scaling in place is safe
+    private void applyGain(short[] samples, int offs, int len) {
+        for (int i = offs; i < offs + len; i++) {
+            int scaled = Math.round(samples[i] * gain);
+            samples[i] = (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, scaled));
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.javaweb.utils;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters describing how smoothly playback runs on this client.
+ */
+@Slf4j
+@Component
+public class PlaybackMetrics {
+
+    private final AtomicLong trackSwitchCount = new AtomicLong();
+    private final AtomicLong totalTrackSwitchMillis = new AtomicLong();
+    private final AtomicLong maxTrackSwitchMillis = new AtomicLong();
+    private final AtomicLong lastTrackSwitchMillis = new AtomicLong();
+    private final AtomicLong preparedSwitchCount = new AtomicLong();
+    private final AtomicLong prerollCount = new AtomicLong();
+    private final AtomicLong totalPrerollMillis = new AtomicLong();
+    private final AtomicLong underrunCount = new AtomicLong();
+    private final AtomicLong totalUnderrunMillis = new AtomicLong();
+
+    /**
+     * Records the time between a track change being requested (natural end, next, previous...)
+     * and the first audio of the new track being handed to the output device.
+     */
+    public void recordTrackSwitch(long latencyMillis, boolean usedPreparedTrack) {
+        trackSwitchCount.incrementAndGet();
+        totalTrackSwitchMillis.addAndGet(latencyMillis);
+        lastTrackSwitchMillis.set(latencyMillis);
+        maxTrackSwitchMillis.accumulateAndGet(latencyMillis, Math::max);
+        if (usedPreparedTrack) {
+            preparedSwitchCount.incrementAndGet();
+        }
+        log.debug("Track switch took {} ms (prepared: {}, average: {} ms)",
+                latencyMillis, usedPreparedTrack, getAverageTrackSwitchMillis());
+    }
+
+    /**
+     * Records how long a stream waited for its initial pre-roll before the first frame was decoded.
+     */
+    public void recordPreroll(long waitedMillis) {
+        prerollCount.incrementAndGet();
+        totalPrerollMillis.addAndGet(waitedMillis);
+    }
+
+    /**
+     * Records a mid-playback buffer underrun and how long output was starved while re-buffering.
+     */
+    public void recordUnderrun(long stalledMillis) {
+        long count = underrunCount.incrementAndGet();
+        totalUnderrunMillis.addAndGet(stalledMillis);
+        log.info("Audio buffer underrun #{} stalled playback for {} ms", count, stalledMillis);
+    }
+
+    public long getUnderrunCount() {
+        return underrunCount.get();
+    }
+
+    public long getTotalUnderrunMillis() {
+        return totalUnderrunMillis.get();
+    }
+
+    public double getAveragePrerollMillis() {
+        long count = prerollCount.get();
+        return count == 0 ? 0.0 : (double) totalPrerollMillis.get() / count;
+    }
+
+    public long getTrackSwitchCount() {
+        return trackSwitchCount.get();
+    }
+
+    public long getLastTrackSwitchMillis() {
+        return lastTrackSwitchMillis.get();
+    }
+
+    public long getMaxTrackSwitchMillis() {
+        return maxTrackSwitchMillis.get();
+    }
+
+    public long getPreparedSwitchCount() {
+        return preparedSwitchCount.get();
+    }
+
+    public double getAverageTrackSwitchMillis() {
+        long count = trackSwitchCount.get();
+        return count == 0 ? 0.0 : (double) totalTrackSwitchMillis.get() / count;
+    }
+}
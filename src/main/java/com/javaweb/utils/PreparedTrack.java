@@ -0,0 +1,85 @@
+package com.javaweb.utils;
+
+import com.javaweb.model.dto.SongDTO;
+import javazoom.jl.decoder.*;
+import javazoom.jl.player.AudioDevice;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * The head of a song decoded ahead of time, with its output line already open, so playback can
+ * start the moment the previous track ends.
+ */
+@Slf4j
+public class PreparedTrack {
+
+    @Getter
+    private final SongDTO song;
+    final Bitstream bitstream;
+    final Decoder decoder;
+    final AudioDevice device;
+    final Deque<short[]> headFrames = new ArrayDeque<>();
+    private boolean endOfStream = false;
+
+    PreparedTrack(SongDTO song, InputStream stream, AudioDevice device) {
+        this.song = song;
+        this.bitstream = new Bitstream(stream);
+        this.decoder = new Decoder();
+        this.device = device;
+    }
+
+    /**
+     * Decodes up to {@code frameCount} frames into memory and opens the output line.
+     */
+    void decodeHead(int frameCount) throws JavaLayerException {
+        for (int i = 0; i < frameCount && !endOfStream; i++) {
+            Header header = bitstream.readFrame();
+            if (header == null) {
+                endOfStream = true;
+                break;
+            }
+            SampleBuffer output = (SampleBuffer) decoder.decodeFrame(header, bitstream);
+            short[] samples = new short[output.getBufferLength()];
+            System.arraycopy(output.getBuffer(), 0, samples, 0, samples.length);
+            headFrames.add(samples);
+            bitstream.closeFrame();
+        }
+
+        if (!device.isOpen()) {
+            device.open(decoder);
+        }
+        // A zero-length write makes JavaSound create and start the line now rather than on the first frame
+        device.write(new short[0], 0, 0);
+    }
+
+    public boolean isFor(SongDTO other) {
+        return isSameSong(song, other);
+    }
+
+    static boolean isSameSong(SongDTO first, SongDTO second) {
+        if (first == null || second == null) {
+            return false;
+        }
+        if (first.getIsLocalFile() && second.getIsLocalFile()) {
+            return first.getLocalFilePath() != null && first.getLocalFilePath().equals(second.getLocalFilePath());
+        }
+        return first.getDriveFileId() != null && first.getDriveFileId().equals(second.getDriveFileId());
+    }
+
+    void discard() {
+        try {
+            device.close();
+        } catch (Exception e) {
+            log.debug("Failed to close prepared device: {}", e.getMessage());
+        }
+        try {
+            bitstream.close();
+        } catch (BitstreamException e) {
+            log.debug("Failed to close prepared bitstream: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package com.javaweb.utils;
+
+import com.javaweb.service.MediaStorage;
+import com.mpatric.mp3agic.*;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Reads MP3 tags and audio properties from a stored file with a few Range requests instead of
+ * downloading the whole file:
+ * <ul>
+ *     <li>the head of the file, which holds the ID3v2 tag (one more request if the tag is larger);</li>
+ *     <li>the first audio frame, whose Xing/Info or VBRI header gives the exact frame count of VBR files;</li>
+ *     <li>the last 128 bytes, for an ID3v1 trailer.</li>
+ * </ul>
+ * CBR files without a Xing header are sized from the file length and the first frame's bitrate.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RangeMetadataReader {
+
+    // Covers the tag of most files (including a typical cover) plus the first frames
+    private static final int HEAD_PROBE_BYTES = 128 * 1024;
+    // How far past the tag we look for the first frame
+    private static final int FRAME_PROBE_BYTES = 8 * 1024;
+    private static final int ID3V1_SIZE = 128;
+
+    private final MediaStorage mediaStorage;
+
+    @Getter
+    @Setter
+    public static class Mp3Metadata {
+        private String title;
+        private String artist;
+        private String album;
+        private String genre;
+        private String lyrics;
+        private Integer releaseYear;
+        private byte[] artwork;
+        private int bitrateKbps;
+        private int sampleRate;
+        private long frameCount;
+        private long durationMillis;
+        private boolean vbr;
+        private long bytesFetched;
+    }
+
+    /**
+     * For callers that don't know the file size; it comes from the response to the first range
+     * request rather than a separate metadata lookup.
+     */
+    public Mp3Metadata read(String fileId) throws IOException {
+        MediaStorage.RangedContent range = mediaStorage.getContentRange(fileId, 0, HEAD_PROBE_BYTES - 1);
+        byte[] head;
+        try (InputStream in = range.content()) {
+            head = in.readNBytes(HEAD_PROBE_BYTES);
+        }
+        return read(fileId, range.totalSize(), head);
+    }
+
+    /**
+     * @param fileSize total size of the file in bytes, as reported by the storage backend
+     */
+    public Mp3Metadata read(String fileId, long fileSize) throws IOException {
+        return read(fileId, fileSize,
+                fetch(fileId, 0, fileSize > 0 ? Math.min(HEAD_PROBE_BYTES, fileSize) : HEAD_PROBE_BYTES));
+    }
+
+    private Mp3Metadata read(String fileId, long fileSize, byte[] head) throws IOException {
+        Mp3Metadata metadata = new Mp3Metadata();
+        long fetched = head.length;
+
+        // ID3v2 tag at the start
+        int tagSize = (int) StreamingAudioPlayer.readId3v2Size(new ByteArrayInputStream(head));
+        if (tagSize + FRAME_PROBE_BYTES > head.length && (fileSize <= 0 || head.length < fileSize)) {
+            long end = tagSize + FRAME_PROBE_BYTES;
+            if (fileSize > 0) {
+                end = Math.min(end, fileSize);
+            }
+            byte[] rest = fetch(fileId, head.length, end - head.length);
+            fetched += rest.length;
+            head = concat(head, rest);
+        }
+        if (tagSize > 0) {
+            readId3v2(Arrays.copyOf(head, Math.min(tagSize, head.length)), metadata);
+        }
+
+        // ID3v1 trailer at the end
+        int trailerSize = 0;
+        if (fileSize > head.length + ID3V1_SIZE) {
+            byte[] trailer = fetch(fileId, fileSize - ID3V1_SIZE, ID3V1_SIZE);
+            fetched += trailer.length;
+            if (trailer.length == ID3V1_SIZE && trailer[0] == 'T' && trailer[1] == 'A' && trailer[2] == 'G') {
+                trailerSize = ID3V1_SIZE;
+                readId3v1(trailer, metadata);
+            }
+        }
+
+        // First audio frame
+        int frameOffset = findFirstFrame(head, tagSize);
+        if (frameOffset < 0) {
+            throw new IOException("No MPEG audio frame found in the first " + head.length + " bytes of " + fileId);
+        }
+        readAudioProperties(head, frameOffset, fileSize > 0 ? fileSize - trailerSize : -1, metadata);
+
+        metadata.setBytesFetched(fetched);
+        return metadata;
+    }
+
+    private void readAudioProperties(byte[] data, int frameOffset, long audioEnd, Mp3Metadata metadata) throws IOException {
+        Mp3SeekIndex.FrameHeader header = Mp3SeekIndex.FrameHeader.parse(Arrays.copyOfRange(data, frameOffset, frameOffset + 4));
+        if (header == null) {
+            throw new IOException("Invalid frame header at " + frameOffset);
+        }
+        metadata.setSampleRate(header.sampleRate());
+        double millisPerFrame = header.samplesPerFrame() * 1000.0 / header.sampleRate();
+
+        boolean mpeg1 = ((data[frameOffset + 1] >> 3) & 0x3) == 3;
+        boolean mono = ((data[frameOffset + 3] >> 6) & 0x3) == 3;
+        int sideInfoSize = mpeg1 ? (mono ? 17 : 32) : (mono ? 9 : 17);
+
+        long frames = -1;
+        long audioBytes = -1;
+
+        // Xing (VBR) or Info (LAME CBR) header right after the side information
+        int xing = frameOffset + 4 + sideInfoSize;
+        if (matches(data, xing, "Xing") || matches(data, xing, "Info")) {
+            int flags = readInt(data, xing + 4);
+            int position = xing + 8;
+            if ((flags & 0x1) != 0) {
+                frames = readInt(data, position) & 0xFFFFFFFFL;
+                position += 4;
+            }
+            if ((flags & 0x2) != 0) {
+                audioBytes = readInt(data, position) & 0xFFFFFFFFL;
+            }
+            metadata.setVbr(matches(data, xing, "Xing"));
+        } else if (matches(data, frameOffset + 36, "VBRI")) {
+            // Fraunhofer VBRI header at a fixed offset of 32 bytes after the frame header
+            int vbri = frameOffset + 36;
+            audioBytes = readInt(data, vbri + 10) & 0xFFFFFFFFL;
+            frames = readInt(data, vbri + 14) & 0xFFFFFFFFL;
+            metadata.setVbr(true);
+        }
+
+        if (audioBytes <= 0 && audioEnd > 0) {
+            audioBytes = audioEnd - frameOffset;
+        }
+
+        if (frames > 0) {
+            long durationMillis = (long) (frames * millisPerFrame);
+            metadata.setFrameCount(frames);
+            metadata.setDurationMillis(durationMillis);
+            metadata.setBitrateKbps(audioBytes > 0 && durationMillis > 0
+                    ? (int) Math.round(audioBytes * 8.0 / durationMillis)
+                    : header.bitrateKbps());
+        } else {
+            // Constant bitrate: bytes per millisecond are fixed by the header
+            metadata.setBitrateKbps(header.bitrateKbps());
+            if (audioBytes > 0) {
+                long durationMillis = audioBytes * 8 / header.bitrateKbps();
+                metadata.setDurationMillis(durationMillis);
+                metadata.setFrameCount((long) (durationMillis / millisPerFrame));
+            }
+        }
+    }
+
+    /**
+     * Finds the first offset at or after {@code start} holding a frame header that is followed by
+     * another valid header, which rules out sync bytes occurring by chance in leftover tag data.
+     */
+    private int findFirstFrame(byte[] data, int start) {
+        byte[] candidate = new byte[4];
+        for (int i = start; i + 4 <= data.length; i++) {
+            if ((data[i] & 0xFF) != 0xFF || (data[i + 1] & 0xE0) != 0xE0) {
+                continue;
+            }
+            System.arraycopy(data, i, candidate, 0, 4);
+            Mp3SeekIndex.FrameHeader header = Mp3SeekIndex.FrameHeader.parse(candidate);
+            if (header == null) {
+                continue;
+            }
+            int next = i + header.frameLength();
+            if (next + 4 > data.length) {
+                return i;
+            }
+            System.arraycopy(data, next, candidate, 0, 4);
+            if (Mp3SeekIndex.FrameHeader.parse(candidate) != null) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void readId3v2(byte[] tagBytes, Mp3Metadata metadata) {
+        try {
+            ID3v2 tag = ID3v2TagFactory.createTag(tagBytes);
+            metadata.setTitle(tag.getTitle());
+            metadata.setArtist(tag.getArtist());
+            metadata.setAlbum(tag.getAlbum());
+            metadata.setGenre(tag.getGenreDescription());
+            metadata.setLyrics(tag.getLyrics());
+            metadata.setReleaseYear(parseYear(tag.getYear()));
+            metadata.setArtwork(tag.getAlbumImage());
+        } catch (NoSuchTagException | UnsupportedTagException | InvalidDataException e) {
+            log.debug("Unreadable ID3v2 tag: {}", e.getMessage());
+        }
+    }
+
+    // ID3v1 only fills what the ID3v2 tag left empty
+    private void readId3v1(byte[] trailer, Mp3Metadata metadata) {
+        try {
+            ID3v1Tag tag = new ID3v1Tag(trailer);
+            if (isBlank(metadata.getTitle())) metadata.setTitle(tag.getTitle());
+            if (isBlank(metadata.getArtist())) metadata.setArtist(tag.getArtist());
+            if (isBlank(metadata.getAlbum())) metadata.setAlbum(tag.getAlbum());
+            if (isBlank(metadata.getGenre())) metadata.setGenre(tag.getGenreDescription());
+            if (metadata.getReleaseYear() == null) metadata.setReleaseYear(parseYear(tag.getYear()));
+        } catch (NoSuchTagException e) {
+            log.debug("Unreadable ID3v1 tag: {}", e.getMessage());
+        }
+    }
+
+    private byte[] fetch(String fileId, long offset, long length) throws IOException {
+        try (InputStream in = mediaStorage.getContent(fileId, offset, offset + length - 1)) {
+            return in.readNBytes((int) length);
+        }
+    }
+
+    private static byte[] concat(byte[] first, byte[] second) {
+        byte[] result = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, result, first.length, second.length);
+        return result;
+    }
+
+    private static boolean matches(byte[] data, int offset, String id) {
+        if (offset < 0 || offset + 4 > data.length) {
+            return false;
+        }
+        return id.equals(new String(data, offset, 4, StandardCharsets.ISO_8859_1));
+    }
+
+    private static int readInt(byte[] data, int offset) {
+        if (offset + 4 > data.length) {
+            return 0;
+        }
+        return ((data[offset] & 0xFF) << 24) | ((data[offset + 1] & 0xFF) << 16)
+                | ((data[offset + 2] & 0xFF) << 8) | (data[offset + 3] & 0xFF);
+    }
+
+    private static Integer parseYear(String year) {
+        if (year == null || year.length() < 4) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(year.substring(0, 4));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
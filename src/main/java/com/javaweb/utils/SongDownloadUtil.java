@@ -4,7 +4,6 @@ import com.javaweb.App;
 import com.javaweb.constant.AppConstant;
 import com.javaweb.enums.RoleType;
 import com.javaweb.model.dto.SongDTO;
-import com.javaweb.service.impl.GoogleDriveService;
 import com.javaweb.view.HomePage;
 import com.javaweb.view.user.UserSessionManager;
 import lombok.extern.slf4j.Slf4j;
@@ -12,18 +11,18 @@ import lombok.extern.slf4j.Slf4j;
 import javax.swing.*;
 import java.awt.*;
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 
 @Slf4j
 public class SongDownloadUtil {
 
-    private static GoogleDriveService googleDriveService;
+    private static DownloadManager downloadManager;
 
 
     public static boolean hasDownloadPermission() {
@@ -45,12 +44,8 @@ public class SongDownloadUtil {
             return;
         }
 
-        if (googleDriveService == null) {
-            googleDriveService = App.getBean(GoogleDriveService.class);
-            if (googleDriveService == null) {
-                GuiUtil.showToast(parentComponent, "Could not initialize download service");
-                return;
-            }
+        if (!initDownloadManager(parentComponent)) {
+            return;
         }
 
         Path downloadDir = Paths.get(AppConstant.DEFAULT_DOWNLOAD_DIR);
@@ -109,8 +104,6 @@ public class SongDownloadUtil {
         }
 
         downloadSongInBackground(parentComponent, song, targetFile);
-
-        recordDownload(song);
     }
 
     private static void ensureDirectoryExists(Path directory) {
@@ -132,88 +125,184 @@ public class SongDownloadUtil {
 
 
     private static void downloadSongInBackground(Component parentComponent, SongDTO song, File targetFile) {
-        JDialog progressDialog = GuiUtil.createProgressDialog(
-                SwingUtilities.getWindowAncestor(parentComponent),
+        JDialog progressDialog = showProgressDialog(parentComponent,
                 "Downloading Song",
                 "Downloading " + song.getTitle() + "...");
 
-        SwingWorker<Boolean, Integer> worker = new SwingWorker<>() {
+        downloadManager.submit(song, targetFile, new DownloadManager.DownloadListener() {
+            @Override
+            public void onProgress(DownloadManager.DownloadTask task) {
+                int progress = task.getProgressPercent();
+                progressDialog.setTitle("Downloading: " + progress + "%");
+                updateProgressDialog(progressDialog, progress, null);
+            }
+
             @Override
-            protected Boolean doInBackground() {
-                try {
-                    try (InputStream in = googleDriveService.getFileContent(song.getDriveFileId());
-                         FileOutputStream out = new FileOutputStream(targetFile)) {
+            public void onCompleted(DownloadManager.DownloadTask task) {
+                progressDialog.dispose();
+                recordDownload(song);
+                GuiUtil.showToast(parentComponent,
+                        "Song downloaded successfully to:\n" + targetFile.getAbsolutePath(), 5000);
+                refreshDownloadedSongs(parentComponent);
+            }
 
-                        com.google.api.services.drive.model.File fileMetadata =
-                                googleDriveService.getFileMetadata(song.getDriveFileId());
+            @Override
+            public void onFailed(DownloadManager.DownloadTask task, Exception e) {
+                progressDialog.dispose();
+                GuiUtil.showToast(parentComponent,
+                        "Failed to download the song. It will resume from where it stopped next time.");
+            }
 
-                        long fileSize = fileMetadata != null ? fileMetadata.getSize() : -1;
-                        long downloadedSize = 0;
+            @Override
+            public void onCancelled(DownloadManager.DownloadTask task) {
+                progressDialog.dispose();
+                GuiUtil.showToast(parentComponent, "Download of " + song.getTitle() + " cancelled");
+            }
+        });
+    }
 
-                        byte[] buffer = new byte[8192];
-                        int bytesRead;
+    /**
+     * Queues every song for download into the default directory, e.g. a whole album or playlist.
+     */
+    public static void downloadSongs(Component parentComponent, List<SongDTO> songs) {
+        if (!hasDownloadPermission()) {
+            GuiUtil.showToast(parentComponent,
+                    "You need a premium subscription to download songs");
+            return;
+        }
+        if (!initDownloadManager(parentComponent) || songs == null || songs.isEmpty()) {
+            return;
+        }
 
-                        while ((bytesRead = in.read(buffer)) != -1) {
-                            out.write(buffer, 0, bytesRead);
-                            downloadedSize += bytesRead;
+        Path downloadDir = Paths.get(AppConstant.DEFAULT_DOWNLOAD_DIR);
+        ensureDirectoryExists(downloadDir);
 
-                            if (fileSize > 0) {
-                                int progress = (int) ((downloadedSize * 100) / fileSize);
-                                publish(progress);
-                            }
-                        }
-                    }
+        JDialog progressDialog = showProgressDialog(parentComponent,
+                "Downloading Songs",
+                "Downloading " + songs.size() + " songs...");
 
-                    return true;
-                } catch (Exception e) {
-                    log.error("Error downloading song: {}", e.getMessage(), e);
-                    return false;
-                }
+        List<DownloadManager.DownloadTask> tasks = new ArrayList<>();
+        int[] finished = {0, 0, 0}; // completed, failed, cancelled; only touched on the EDT
+        DownloadManager.DownloadListener listener = new DownloadManager.DownloadListener() {
+            @Override
+            public void onProgress(DownloadManager.DownloadTask task) {
+                updateBulkProgress();
             }
 
             @Override
-            protected void process(java.util.List<Integer> chunks) {
-                int latestProgress = chunks.get(chunks.size() - 1);
-                progressDialog.setTitle("Downloading: " + latestProgress + "%");
-
-                JProgressBar progressBar = GuiUtil.findFirstComponentByType(
-                        progressDialog.getContentPane(),
-                        JProgressBar.class,
-                        bar -> true
-                );
-
-                if (progressBar != null) {
-                    progressBar.setValue(latestProgress);
-                }
+            public void onCompleted(DownloadManager.DownloadTask task) {
+                finished[0]++;
+                recordDownload(task.getSong());
+                updateBulkProgress();
             }
 
             @Override
-            protected void done() {
-                progressDialog.dispose();
-                try {
-                    boolean success = get();
-                    if (success) {
-                        GuiUtil.showToast(parentComponent,
-                                "Song downloaded successfully to:\n" + targetFile.getAbsolutePath(), 5000);
-                        LocalSongManager.getDownloadedSongs();
-
-                        if (parentComponent instanceof JComponent component &&
-                                SwingUtilities.getWindowAncestor(component) instanceof HomePage homePage) {
-                            homePage.refreshDownloadedSongsPanel();
-                        }
+            public void onFailed(DownloadManager.DownloadTask task, Exception e) {
+                finished[1]++;
+                updateBulkProgress();
+            }
+
+            @Override
+            public void onCancelled(DownloadManager.DownloadTask task) {
+                finished[2]++;
+                updateBulkProgress();
+            }
+
+            private void updateBulkProgress() {
+                int total = tasks.size();
+                if (total == 0) {
+                    return;
+                }
+                int progressSum = tasks.stream().mapToInt(DownloadManager.DownloadTask::getProgressPercent).sum();
+                updateProgressDialog(progressDialog, progressSum / total,
+                        "Downloaded " + finished[0] + "/" + total + " songs");
+
+                if (finished[0] + finished[1] + finished[2] == total) {
+                    progressDialog.dispose();
+                    String message;
+                    if (finished[0] == total) {
+                        message = "Download complete!";
+                    } else if (finished[1] > 0) {
+                        message = "Downloaded " + finished[0] + " of " + total + " songs. The rest will resume next time.";
                     } else {
-                        GuiUtil.showToast(parentComponent,
-                                "Failed to download the song. Please try again.");
+                        message = "Downloaded " + finished[0] + " of " + total + " songs, the rest were cancelled.";
                     }
-                } catch (Exception e) {
-                    GuiUtil.showToast(parentComponent,
-                            "An error occurred while downloading: " + e.getMessage());
+                    GuiUtil.showSuccessMessageDialog(SwingUtilities.getWindowAncestor(parentComponent), message);
+                    refreshDownloadedSongs(parentComponent);
                 }
             }
         };
+        tasks.addAll(downloadManager.submitAll(songs, downloadDir, listener));
+        if (tasks.isEmpty()) {
+            progressDialog.dispose();
+        }
+    }
+
+    /**
+     * Continues downloads that were interrupted by a crash or by closing the app.
+     */
+    public static void resumeInterruptedDownloads(Component parentComponent) {
+        if (!hasDownloadPermission() || !initDownloadManager(parentComponent)) {
+            return;
+        }
+        downloadManager.resumeInterrupted(Paths.get(AppConstant.DEFAULT_DOWNLOAD_DIR), new DownloadManager.DownloadListener() {
+            @Override
+            public void onCompleted(DownloadManager.DownloadTask task) {
+                GuiUtil.showToast(parentComponent, "Finished downloading " + task.getSong().getTitle());
+                refreshDownloadedSongs(parentComponent);
+            }
+        });
+    }
 
-        worker.execute();
+    private static boolean initDownloadManager(Component parentComponent) {
+        if (downloadManager == null) {
+            downloadManager = App.getBean(DownloadManager.class);
+            if (downloadManager == null) {
+                GuiUtil.showToast(parentComponent, "Could not initialize download service");
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static JDialog showProgressDialog(Component parentComponent, String title, String message) {
+        JDialog progressDialog = GuiUtil.createProgressDialog(
+                SwingUtilities.getWindowAncestor(parentComponent), title, message);
+        // Downloads run in the background, the dialog only reports on them
+        progressDialog.setModalityType(Dialog.ModalityType.MODELESS);
         progressDialog.setVisible(true);
+        return progressDialog;
+    }
+
+    private static void updateProgressDialog(JDialog progressDialog, int progress, String statusMessage) {
+        JProgressBar progressBar = GuiUtil.findFirstComponentByType(
+                progressDialog.getContentPane(),
+                JProgressBar.class,
+                bar -> true
+        );
+        if (progressBar != null) {
+            progressBar.setValue(progress);
+        }
+
+        if (statusMessage != null) {
+            JLabel statusLabel = GuiUtil.findFirstComponentByType(
+                    progressDialog.getContentPane(),
+                    JLabel.class,
+                    label -> true
+            );
+            if (statusLabel != null) {
+                statusLabel.setText(statusMessage);
+            }
+        }
+    }
+
+    private static void refreshDownloadedSongs(Component parentComponent) {
+        if (parentComponent instanceof JComponent component &&
+                SwingUtilities.getWindowAncestor(component) instanceof HomePage homePage) {
+            homePage.refreshDownloadedSongsPanel();
+        } else if (parentComponent instanceof HomePage homePage) {
+            homePage.refreshDownloadedSongsPanel();
+        }
     }
 
     private static void recordDownload(SongDTO song) {
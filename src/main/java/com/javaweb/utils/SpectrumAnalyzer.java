@@ -0,0 +1,255 @@
+package com.javaweb.utils;
+
+import com.javaweb.constant.AppConstant;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Frequency spectrum of the audio being played, computed in-process from the decoded PCM.
+ * <p>
+ * The player's output device hands every block it writes to {@link #accept}. Samples are mixed down
+ * to mono into a sliding window; every half window a Hann-windowed radix-2 FFT runs and the bins are
+ * folded into logarithmically spaced bands, normalised on a dB scale and smoothed. Each visualizer
+ * gets its own {@link Bands}, so several can show different band counts of the same audio. All
+ * buffers are allocated up front, so the audio thread allocates nothing per frame.
+ */
+@Component
+public class SpectrumAnalyzer {
+
+    private final int fftSize;
+    private final int hopSize;
+    private final float[] window;
+    private final float[] history;
+    private final float[] real;
+    private final float[] imag;
+    private final float[] power;
+    private final float[] cosTable;
+    private final float[] sinTable;
+    private final int[] bitReverse;
+
+    // Guards the sample history and FFT buffers; taken before bandLock when both are needed
+    private final Object sampleLock = new Object();
+    private int historyIndex = 0;
+    private int samplesSinceAnalysis = 0;
+
+    // Guards the band edges and levels of every band set
+    private final Object bandLock = new Object();
+    private final List<Bands> bandSets = new CopyOnWriteArrayList<>();
+
+    public SpectrumAnalyzer() {
+        this(AppConstant.SPECTRUM_FFT_SIZE);
+    }
+
+    public SpectrumAnalyzer(int fftSize) {
+        if (Integer.bitCount(fftSize) != 1) {
+            throw new IllegalArgumentException("FFT size must be a power of two: " + fftSize);
+        }
+        this.fftSize = fftSize;
+        this.hopSize = fftSize / 2;
+        this.window = new float[fftSize];
+        this.history = new float[fftSize];
+        this.real = new float[fftSize];
+        this.imag = new float[fftSize];
+        this.power = new float[fftSize / 2];
+        this.cosTable = new float[fftSize / 2];
+        this.sinTable = new float[fftSize / 2];
+        this.bitReverse = new int[fftSize];
+
+        for (int i = 0; i < fftSize; i++) {
+            window[i] = (float) (0.5 - 0.5 * Math.cos(2 * Math.PI * i / (fftSize - 1)));
+        }
+        for (int i = 0; i < fftSize / 2; i++) {
+            cosTable[i] = (float) Math.cos(2 * Math.PI * i / fftSize);
+            sinTable[i] = (float) -Math.sin(2 * Math.PI * i / fftSize);
+        }
+        int bits = Integer.numberOfTrailingZeros(fftSize);
+        for (int i = 0; i < fftSize; i++) {
+            bitReverse[i] = Integer.reverse(i) >>> (32 - bits);
+        }
+    }
+
+    /**
+     * Starts computing {@code bandCount} bands smoothed by {@code smoothing} (0 = no smoothing, close
+     * to 1 = slow decay) until the set is {@link #releaseBands released}.
+     */
+    public Bands createBands(int bandCount, float smoothing) {
+        Bands bands = new Bands(bandCount, smoothing);
+        bandSets.add(bands);
+        return bands;
+    }
+
+    public void releaseBands(Bands bands) {
+        bandSets.remove(bands);
+    }
+
+    /**
+     * Feeds interleaved 16-bit PCM as it is written to the output line.
+     */
+    public void accept(short[] samples, int offset, int length, int channels, int sampleRate) {
+        if (channels < 1 || sampleRate <= 0) {
+            return;
+        }
+        synchronized (sampleLock) {
+            for (int i = offset; i + channels <= offset + length; i += channels) {
+                int sum = 0;
+                for (int c = 0; c < channels; c++) {
+                    sum += samples[i + c];
+                }
+                history[historyIndex] = sum / (channels * 32768f);
+                historyIndex = (historyIndex + 1) & (fftSize - 1);
+
+                if (++samplesSinceAnalysis >= hopSize) {
+                    samplesSinceAnalysis = 0;
+                    analyze(sampleRate);
+                }
+            }
+        }
+    }
+
+    public void reset() {
+        synchronized (sampleLock) {
+            Arrays.fill(history, 0f);
+            historyIndex = 0;
+            samplesSinceAnalysis = 0;
+            synchronized (bandLock) {
+                for (Bands bands : bandSets) {
+                    Arrays.fill(bands.values, 0f);
+                }
+            }
+        }
+    }
+
+    // Caller holds sampleLock
+    private void analyze(int sampleRate) {
+        if (bandSets.isEmpty()) {
+            return;
+        }
+        // Oldest sample first, so the window lines up with time order
+        for (int i = 0; i < fftSize; i++) {
+            int source = (historyIndex + i) & (fftSize - 1);
+            int target = bitReverse[i];
+            real[target] = history[source] * window[i];
+            imag[target] = 0f;
+        }
+        fft();
+        for (int k = 0; k < power.length; k++) {
+            power[k] = real[k] * real[k] + imag[k] * imag[k];
+        }
+
+        synchronized (bandLock) {
+            for (Bands bands : bandSets) {
+                bands.update(sampleRate);
+            }
+        }
+    }
+
+    // In-place iterative radix-2 FFT over real/imag, input already in bit-reversed order
+    private void fft() {
+        for (int size = 2; size <= fftSize; size <<= 1) {
+            int half = size >> 1;
+            int tableStep = fftSize / size;
+            for (int start = 0; start < fftSize; start += size) {
+                for (int j = 0; j < half; j++) {
+                    float wr = cosTable[j * tableStep];
+                    float wi = sinTable[j * tableStep];
+                    int even = start + j;
+                    int odd = even + half;
+                    float tr = wr * real[odd] - wi * imag[odd];
+                    float ti = wr * imag[odd] + wi * real[odd];
+                    real[odd] = real[even] - tr;
+                    imag[odd] = imag[even] - ti;
+                    real[even] += tr;
+                    imag[even] += ti;
+                }
+            }
+        }
+    }
+
+    /**
+     * Band levels for one visualizer. Levels are read with {@link #copyTo} from any thread.
+     */
+    public final class Bands {
+        private final int count;
+        private final int[] start;
+        private final int[] end;
+        private final float[] values;
+        private volatile float smoothing;
+        private int sampleRate = -1;
+
+        private Bands(int count, float smoothing) {
+            this.count = count;
+            this.start = new int[count];
+            this.end = new int[count];
+            this.values = new float[count];
+            setSmoothing(smoothing);
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public void setSmoothing(float smoothing) {
+            this.smoothing = Math.max(0f, Math.min(0.99f, smoothing));
+        }
+
+        /**
+         * Copies the latest band levels (0..1) into {@code target} without allocating.
+         */
+        public void copyTo(float[] target) {
+            synchronized (bandLock) {
+                System.arraycopy(values, 0, target, 0, Math.min(target.length, count));
+            }
+        }
+
+        // Caller holds bandLock
+        private void update(int sampleRate) {
+            if (this.sampleRate != sampleRate) {
+                computeEdges(sampleRate);
+            }
+
+            float floor = AppConstant.SPECTRUM_DB_FLOOR;
+            // A full-scale sine through a Hann window peaks at fftSize / 4
+            float reference = fftSize / 4f;
+            float decay = smoothing;
+            for (int b = 0; b < count; b++) {
+                float peak = 0f;
+                for (int k = start[b]; k < end[b]; k++) {
+                    if (power[k] > peak) {
+                        peak = power[k];
+                    }
+                }
+                float magnitude = (float) Math.sqrt(peak) / reference;
+                float db = magnitude > 0 ? (float) (20 * Math.log10(magnitude)) : floor;
+                float level = Math.max(0f, Math.min(1f, (db - floor) / -floor));
+
+                float previous = values[b];
+                // Rise immediately, fall back according to the smoothing factor
+                values[b] = level >= previous ? level : previous * decay + level * (1 - decay);
+            }
+        }
+
+        /**
+         * Spreads the bands logarithmically between the configured minimum and maximum frequency,
+         * each band covering at least one FFT bin.
+         */
+        private void computeEdges(int sampleRate) {
+            float binHz = (float) sampleRate / fftSize;
+            float minFreq = AppConstant.SPECTRUM_MIN_FREQUENCY;
+            float maxFreq = Math.min(AppConstant.SPECTRUM_MAX_FREQUENCY, sampleRate / 2f);
+            double ratio = Math.log(maxFreq / minFreq);
+
+            int previousEnd = Math.max(1, (int) (minFreq / binHz));
+            for (int b = 0; b < count; b++) {
+                double upper = minFreq * Math.exp(ratio * (b + 1) / count);
+                int bandEnd = Math.min(fftSize / 2, Math.max(previousEnd + 1, (int) Math.ceil(upper / binHz)));
+                start[b] = Math.min(previousEnd, fftSize / 2 - 1);
+                end[b] = Math.max(bandEnd, start[b] + 1);
+                previousEnd = bandEnd;
+            }
+            this.sampleRate = sampleRate;
+        }
+    }
+}
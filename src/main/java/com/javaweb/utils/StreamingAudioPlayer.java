@@ -1,11 +1,11 @@
 package com.javaweb.utils;
 
+import com.javaweb.constant.AppConstant;
 import com.javaweb.model.dto.SongDTO;
-import com.javaweb.service.impl.GoogleDriveService;
+import com.javaweb.service.MediaStorage;
+import jakarta.annotation.PreDestroy;
 import javazoom.jl.decoder.JavaLayerException;
 import javazoom.jl.player.AudioDevice;
-import javazoom.jl.player.FactoryRegistry;
-import javazoom.jl.player.advanced.AdvancedPlayer;
 import javazoom.jl.player.advanced.PlaybackListener;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -15,6 +15,7 @@ import org.jaudiotagger.audio.mp3.MP3AudioHeader;
 import org.jaudiotagger.tag.FieldKey;
 import org.jaudiotagger.tag.Tag;
 import org.jaudiotagger.tag.datatype.Artwork;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.imageio.ImageIO;
@@ -22,27 +23,58 @@ import java.awt.image.BufferedImage;
 import java.io.*;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 @Component
 @Slf4j
 @RequiredArgsConstructor
 public class StreamingAudioPlayer {
 
-    private final GoogleDriveService googleDriveService;
+    private final MediaStorage mediaStorage;
+    private final AudioChunkCache audioChunkCache;
+    private final PlaybackMetrics playbackMetrics;
+    private final SpectrumAnalyzer spectrumAnalyzer;
+    private final RangeMetadataReader rangeMetadataReader;
     private AudioDevice device;
 
+    // See app.audio.stream-via-server in application.properties for the trade-off
+    @Value("${app.audio.stream-via-server:false}")
+    private boolean streamViaServer;
 
-    public AdvancedPlayer createPlayer(SongDTO songDTO, PlaybackListener listener) throws IOException, JavaLayerException {
-        // Get the input stream from Google Drive
-        InputStream inputStream = googleDriveService.getFileContent(songDTO.getDriveFileId());
+    // Decodes the head of the next track while the current one plays
+    private final ExecutorService prefetchExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "TrackPrefetch");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private PreparedTrack preparedTrack;
+    // Song of the last player created, to tell a seek or resume from loading another song
+    private SongDTO playingSong;
 
-        // Create buffered input stream for better performance
-        BufferedInputStream bufferedInputStream = new BufferedInputStream(inputStream);
 
-        // Create the player
-        device = FactoryRegistry.systemRegistry().createAudioDevice();
-        AdvancedPlayer player = new AdvancedPlayer(bufferedInputStream, device);
+    public TrackPlayer createPlayer(SongDTO songDTO, PlaybackListener listener) throws IOException, JavaLayerException {
+        return createPlayer(songDTO, listener, 0);
+    }
+
+    /**
+     * Creates a player whose stream already starts at the given position. The byte offset is
+     * resolved up front and fetched with a Range request, so seek latency does not depend on
+     * how far into the song the target is. When the song was prepared by {@link #prefetch(SongDTO)}
+     * its decoded head and open output line are reused instead.
+     */
+    public TrackPlayer createPlayer(SongDTO songDTO, PlaybackListener listener, long startMillis) throws IOException, JavaLayerException {
+        PreparedTrack prepared = takePreparedTrack(songDTO, startMillis);
+
+        TrackPlayer player;
+        if (prepared != null) {
+            player = new TrackPlayer(prepared);
+        } else {
+            InputStream inputStream = openAudioStream(songDTO, startMillis);
+            player = new TrackPlayer(inputStream, createAudioDevice(songDTO));
+        }
         player.setPlayBackListener(listener);
+        device = player.getDevice();
 
         return player;
     }
@@ -51,12 +83,292 @@ public class StreamingAudioPlayer {
         return this.device;
     }
 
+    /**
+     * Opens the next song in the background and decodes its first couple of seconds, so the
+     * following {@link #createPlayer} for it can start writing audio immediately. Does nothing when
+     * the next song is the one playing.
+     */
+    public void prefetch(SongDTO nextSong) {
+        if (nextSong == null) {
+            return;
+        }
+        synchronized (this) {
+            if (preparedTrack != null && preparedTrack.isFor(nextSong)) {
+                return;
+            }
+            // Repeating one song: preparing it again would open a second line and stream beside the
+            // one still playing, and the replay reads from the chunks this play already cached
+            if (PreparedTrack.isSameSong(playingSong, nextSong)) {
+                return;
+            }
+        }
+
+        prefetchExecutor.submit(() -> {
+            PreparedTrack track = null;
+            try {
+                if (!nextSong.getIsLocalFile() && !streamViaServer) {
+                    audioChunkCache.prefetch(nextSong.getDriveFileId(), AppConstant.PREFETCH_CHUNKS);
+                }
+                track = new PreparedTrack(nextSong, openAudioStream(nextSong, 0),
+                        createAudioDevice(nextSong));
+                track.decodeHead(AppConstant.PREFETCH_HEAD_FRAMES);
+            } catch (Exception e) {
+                log.warn("Could not prepare next track {}: {}", nextSong.getTitle(), e.getMessage());
+                if (track != null) {
+                    track.discard();
+                }
+                return;
+            }
+
+            PreparedTrack replaced;
+            synchronized (this) {
+                replaced = preparedTrack;
+                preparedTrack = track;
+            }
+            if (replaced != null) {
+                replaced.discard();
+            }
+            log.debug("Prepared next track {}", nextSong.getTitle());
+        });
+    }
+
+    /**
+     * Output device whose written PCM also feeds the spectrum analyser. Songs measured by the loudness
+     * analysis job are levelled to {@link AppConstant#LOUDNESS_TARGET_LUFS}.
+     */
+    private AudioDevice createAudioDevice(SongDTO songDTO) {
+        double gainDb = 0;
+        if (AppConstant.LOUDNESS_NORMALIZATION_ENABLED && songDTO.getLoudnessLufs() != null) {
+            double peak = songDTO.getPeakAmplitude() != null ? songDTO.getPeakAmplitude() : 1.0;
+            gainDb = LoudnessAnalyzer.trackGainDb(songDTO.getLoudnessLufs(), peak, AppConstant.LOUDNESS_TARGET_LUFS);
+        }
+        return new PcmTapAudioDevice(spectrumAnalyzer, gainDb);
+    }
+
+    /**
+     * Hands out the prepared track when it is for this song and playback starts at the beginning. A
+     * prepared track is closed, releasing its open output line, when another song is loaded instead or
+     * its own song is started at a later position; a seek within the current song keeps it for later.
+     */
+    private PreparedTrack takePreparedTrack(SongDTO songDTO, long startMillis) {
+        PreparedTrack stale = null;
+        synchronized (this) {
+            boolean newSong = !PreparedTrack.isSameSong(playingSong, songDTO);
+            playingSong = songDTO;
+            if (preparedTrack != null && preparedTrack.isFor(songDTO)) {
+                PreparedTrack track = preparedTrack;
+                preparedTrack = null;
+                if (startMillis <= 0) {
+                    return track;
+                }
+                stale = track;
+            } else if (preparedTrack != null && newSong) {
+                stale = preparedTrack;
+                preparedTrack = null;
+            }
+        }
+        if (stale != null) {
+            log.debug("Discarding prepared track {}", stale.getSong().getTitle());
+            stale.discard();
+        }
+        return null;
+    }
+
+    /**
+     * Opens the song's audio at the given position, from disk for downloaded songs and over the
+     * network for the others.
+     */
+    private InputStream openAudioStream(SongDTO songDTO, long startMillis) throws IOException {
+        if (songDTO.getIsLocalFile() && songDTO.getLocalFilePath() != null) {
+            return openLocalStream(songDTO, startMillis);
+        }
+
+        String fileId = songDTO.getDriveFileId();
+        Mp3SeekIndex seekIndex = songDTO.getSeekIndex();
+
+        long byteOffset = 0;
+        int framesToSkip = 0;
+        if (startMillis > 0 && seekIndex != null) {
+            // Exact frame boundary from the persisted index, then skip the few frames up to the target
+            Mp3SeekIndex.SeekPoint seekPoint = seekIndex.seekPointForMillis(startMillis);
+            byteOffset = seekPoint.byteOffset();
+            framesToSkip = seekPoint.framesToSkip();
+        } else if (startMillis > 0) {
+            // The tag header lives in the first cached chunk, so this costs no extra round trip after the first play
+            try (InputStream head = openRemoteStream(songDTO, 0)) {
+                byteOffset = resolveByteOffset(songDTO, startMillis, readId3v2Size(head));
+            }
+        }
+
+        // A separate reader thread keeps the jitter buffer topped up so network stalls do not reach the decoder
+        InputStream inputStream = new JitterBufferInputStream(
+                openRemoteStream(songDTO, byteOffset),
+                AppConstant.JITTER_BUFFER_CAPACITY,
+                AppConstant.JITTER_BUFFER_LOW_WATERMARK,
+                AppConstant.JITTER_BUFFER_HIGH_WATERMARK,
+                AppConstant.JITTER_BUFFER_PREROLL,
+                playbackMetrics,
+                fileId);
+
+        // Create buffered input stream for better performance
+        BufferedInputStream bufferedInputStream = new BufferedInputStream(inputStream);
+        if (framesToSkip > 0) {
+            Mp3SeekIndex.skipFrames(bufferedInputStream, framesToSkip);
+        }
+        return bufferedInputStream;
+    }
+
+    /**
+     * Streams through the server's shared cache when enabled, otherwise reads through the local chunk
+     * cache where only missing chunks go to Google Drive.
+     */
+    private InputStream openRemoteStream(SongDTO songDTO, long byteOffset) throws IOException {
+        if (streamViaServer && songDTO.getId() != null && songDTO.getId() > 0) {
+            return CommonApiUtil.openSongStream(songDTO.getId(), byteOffset);
+        }
+        return audioChunkCache.openStream(songDTO.getDriveFileId(), byteOffset);
+    }
+
+    /**
+     * Opens a downloaded song positioned at the given time, seeking the file channel rather than
+     * reading through the skipped bytes.
+     */
+    public BufferedInputStream openLocalStream(SongDTO songDTO, long startMillis) throws IOException {
+        FileInputStream fileInputStream = new FileInputStream(songDTO.getLocalFilePath());
+        if (startMillis <= 0) {
+            return new BufferedInputStream(fileInputStream);
+        }
+
+        Mp3SeekIndex seekIndex = songDTO.getSeekIndex();
+        if (seekIndex != null) {
+            Mp3SeekIndex.SeekPoint seekPoint = seekIndex.seekPointForMillis(startMillis);
+            fileInputStream.getChannel().position(seekPoint.byteOffset());
+            BufferedInputStream bufferedInputStream = new BufferedInputStream(fileInputStream);
+            Mp3SeekIndex.skipFrames(bufferedInputStream, seekPoint.framesToSkip());
+            return bufferedInputStream;
+        }
+
+        long audioDataOffset = readId3v2Size(fileInputStream);
+        fileInputStream.getChannel().position(resolveByteOffset(songDTO, startMillis, audioDataOffset));
+        return new BufferedInputStream(fileInputStream);
+    }
+
+    /**
+     * Clears the spectrum once the output stops being fed, so the bars fall to zero instead of
+     * holding their last levels and the next song's first window starts from silence.
+     */
+    public void resetSpectrum() {
+        spectrumAnalyzer.reset();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        prefetchExecutor.shutdownNow();
+        PreparedTrack track;
+        synchronized (this) {
+            track = preparedTrack;
+            preparedTrack = null;
+        }
+        if (track != null) {
+            track.discard();
+        }
+    }
+
+    /**
+     * Replaces the linear frame rate estimate with the exact values from the seek index.
+     */
+    public static void applySeekIndex(SongDTO songDTO, Mp3SeekIndex seekIndex) {
+        songDTO.setSeekIndex(seekIndex);
+        songDTO.setFrame((long) seekIndex.getTotalFrames());
+        songDTO.setFrameRatePerMilliseconds(seekIndex.getFramesPerMillisecond());
+        songDTO.setLengthInMilliseconds((int) seekIndex.getDurationMillis());
+        songDTO.setDuration((int) Math.round(seekIndex.getDurationMillis() / 1000.0));
+    }
+
+    /**
+     * Maps a playback position to a byte offset inside the file. Audio data starts right after the
+     * ID3v2 tag and advances by bitrate / 8 bytes per millisecond; JLayer resyncs on the next frame
+     * header from wherever the offset lands.
+     */
+    public long resolveByteOffset(SongDTO songDTO, long startMillis, long audioDataOffset) {
+        if (startMillis <= 0 || songDTO.getBitrate() == null || songDTO.getBitrate() <= 0) {
+            return 0;
+        }
+        // Bitrate is stored in kbps, which is exactly bytes per millisecond * 8
+        return audioDataOffset + startMillis * songDTO.getBitrate() / 8;
+    }
+
+    /**
+     * Reads the ID3v2 header from the start of the stream and returns the total tag size in bytes,
+     * or 0 when the file has no ID3v2 tag.
+     */
+    public static long readId3v2Size(InputStream inputStream) throws IOException {
+        byte[] header = inputStream.readNBytes(10);
+        if (header.length < 10 || header[0] != 'I' || header[1] != 'D' || header[2] != '3') {
+            return 0;
+        }
+        // Tag size is a 28-bit synchsafe integer that excludes the 10 byte header (and footer)
+        long size = ((header[6] & 0x7F) << 21)
+                | ((header[7] & 0x7F) << 14)
+                | ((header[8] & 0x7F) << 7)
+                | (header[9] & 0x7F);
+        boolean hasFooter = (header[5] & 0x10) != 0;
+        return 10 + size + (hasFooter ? 10 : 0);
+    }
 
+
+    /**
+     * Fills tags and audio properties from a few Range requests (see {@link RangeMetadataReader}).
+     * Falls back to downloading the whole file when the head of the file cannot be parsed.
+     */
     public void extractMetadata(SongDTO songDTO) throws Exception {
+        RangeMetadataReader.Mp3Metadata metadata;
+        try {
+            metadata = rangeMetadataReader.read(songDTO.getDriveFileId());
+        } catch (IOException e) {
+            log.warn("Range metadata read failed for {}, downloading the whole file: {}",
+                    songDTO.getDriveFileId(), e.getMessage());
+            extractMetadataFromFullDownload(songDTO);
+            return;
+        }
+
+        songDTO.setBitrate((long) metadata.getBitrateKbps());
+        songDTO.setFrame(metadata.getFrameCount());
+        songDTO.setLengthInMilliseconds((int) metadata.getDurationMillis());
+        songDTO.setDuration((int) Math.round(metadata.getDurationMillis() / 1000.0));
+        if (metadata.getDurationMillis() > 0) {
+            songDTO.setFrameRatePerMilliseconds((double) metadata.getFrameCount() / metadata.getDurationMillis());
+        }
+
+        songDTO.setTitle(metadata.getTitle());
+        songDTO.setSongArtist(metadata.getArtist());
+        songDTO.setSongAlbum(metadata.getAlbum());
+        songDTO.setGenre(metadata.getGenre());
+        songDTO.setSongLyrics(metadata.getLyrics());
+        songDTO.setReleaseYear(metadata.getReleaseYear());
+
+        if (metadata.getArtwork() != null) {
+            BufferedImage image = ImageIO.read(new ByteArrayInputStream(metadata.getArtwork()));
+            songDTO.setSongImage(image);
+        }
+    }
+
+    /**
+     * Downloads the whole file and reads it with JAudioTagger. Also builds the seek index, which needs
+     * every frame header.
+     */
+    public void extractMetadataFromFullDownload(SongDTO songDTO) throws Exception {
+        extractMetadataFromFullDownload(songDTO, true);
+    }
+
+    /**
+     * @param buildSeekIndex false to only read tags and audio properties, e.g. when timing them
+     */
+    public void extractMetadataFromFullDownload(SongDTO songDTO, boolean buildSeekIndex) throws Exception {
         // Create a temporary file to analyze with JAudioTagger
         Path tempFile = Files.createTempFile("stream-", ".mp3");
 
-        try (InputStream inputStream = googleDriveService.getFileContent(songDTO.getDriveFileId());
+        try (InputStream inputStream = mediaStorage.getContent(songDTO.getDriveFileId());
              OutputStream outputStream = new FileOutputStream(tempFile.toFile())) {
 
             // Download to temp file
@@ -82,6 +394,18 @@ public class StreamingAudioPlayer {
             songDTO.setFrameRatePerMilliseconds(frameRate);
             songDTO.setFrame(audioHeader.getNumberOfFrames());
 
+            // Exact frame count and seek table from the frame headers, correct for VBR as well
+            if (buildSeekIndex) {
+                try (InputStream indexInput = new BufferedInputStream(new FileInputStream(tempFile.toFile()))) {
+                    Mp3SeekIndex seekIndex = Mp3SeekIndex.build(indexInput, AppConstant.SEEK_INDEX_FRAME_INTERVAL);
+                    if (seekIndex.getTotalFrames() > 0) {
+                        applySeekIndex(songDTO, seekIndex);
+                    }
+                } catch (IOException e) {
+                    log.warn("Could not build seek index for {}: {}", songDTO.getDriveFileId(), e.getMessage());
+                }
+            }
+
             // Get ID3 tag information
             Tag tag = audioFile.getTag();
             if (tag != null) {
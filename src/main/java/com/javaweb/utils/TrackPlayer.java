@@ -0,0 +1,200 @@
+package com.javaweb.utils;
+
+import com.javaweb.constant.AppConstant;
+import javazoom.jl.decoder.*;
+import javazoom.jl.player.AudioDevice;
+import javazoom.jl.player.advanced.PlaybackEvent;
+import javazoom.jl.player.advanced.PlaybackListener;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Frame-by-frame MP3 player modelled on JLayer's {@code AdvancedPlayer}, with two differences:
+ * <ul>
+ *     <li>it can start from a {@link PreparedTrack}, writing the pre-decoded head before decoding the rest;</li>
+ *     <li>on natural end it reports completion before draining the output line, so the next track
+ *     starts while the tail of this one is still playing.</li>
+ * </ul>
+ */
+@Slf4j
+public class TrackPlayer {
+
+    private final Bitstream bitstream;
+    private final Decoder decoder;
+    private final AudioDevice audio;
+    private final Deque<short[]> headFrames;
+    private final boolean prepared;
+
+    private PlaybackListener listener;
+    private boolean closed = false;
+    private volatile boolean complete = false;
+    private int lastPosition = 0;
+    private final CountDownLatch drained = new CountDownLatch(1);
+    private TrackPlayer predecessor;
+
+    public TrackPlayer(InputStream stream, AudioDevice device) throws JavaLayerException {
+        this(new Bitstream(stream), new Decoder(), device, new ArrayDeque<>(), false);
+    }
+
+    public TrackPlayer(PreparedTrack preparedTrack) throws JavaLayerException {
+        this(preparedTrack.bitstream, preparedTrack.decoder, preparedTrack.device, preparedTrack.headFrames, true);
+    }
+
+    private TrackPlayer(Bitstream bitstream, Decoder decoder, AudioDevice device,
+                        Deque<short[]> headFrames, boolean prepared) throws JavaLayerException {
+        this.bitstream = bitstream;
+        this.decoder = decoder;
+        this.audio = device;
+        this.headFrames = headFrames;
+        this.prepared = prepared;
+        if (!device.isOpen()) {
+            device.open(decoder);
+        }
+    }
+
+    public void setPlayBackListener(PlaybackListener listener) {
+        this.listener = listener;
+    }
+
+    public AudioDevice getDevice() {
+        return audio;
+    }
+
+    public boolean isPrepared() {
+        return prepared;
+    }
+
+    /**
+     * Makes this player hold its first frame until the previous track has played out its buffered
+     * tail, so the two tracks join without overlapping.
+     */
+    public void handOverFrom(TrackPlayer previous) {
+        this.predecessor = previous;
+    }
+
+    public boolean awaitDrained(long timeoutMillis) throws InterruptedException {
+        return drained.await(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Plays until the stream ends or the player is stopped. Blocks the calling thread.
+     */
+    public void play() throws JavaLayerException {
+        if (predecessor != null) {
+            try {
+                predecessor.awaitDrained(AppConstant.HANDOVER_DRAIN_TIMEOUT_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            predecessor = null;
+        }
+
+        boolean more = true;
+        boolean started = false;
+        while (more && !isClosed()) {
+            short[] head = headFrames.poll();
+            if (head != null) {
+                write(head, head.length);
+            } else {
+                more = decodeFrame();
+            }
+            // Reported once the first frame is on the line, not when the stream was merely opened
+            if (!started && more && listener != null) {
+                started = true;
+                listener.playbackStarted(createEvent(PlaybackEvent.STARTED));
+            }
+        }
+
+        synchronized (this) {
+            if (closed) {
+                // stop() already reported the end of playback
+                return;
+            }
+            complete = true;
+        }
+
+        // Hand over first, then let the line play out what is still buffered
+        if (listener != null) {
+            listener.playbackFinished(createEvent(PlaybackEvent.STOPPED));
+        }
+        audio.flush();
+        close();
+    }
+
+    /**
+     * Stops playback and reports the position reached. A player that already reached the end of its
+     * stream is left to drain its buffered tail.
+     */
+    public void stop() {
+        if (complete || isClosed()) {
+            return;
+        }
+        if (listener != null) {
+            listener.playbackFinished(createEvent(PlaybackEvent.STOPPED));
+        }
+        close();
+    }
+
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        lastPosition = audio.getPosition();
+        audio.close();
+        try {
+            bitstream.close();
+        } catch (BitstreamException e) {
+            log.debug("Error closing bitstream: {}", e.getMessage());
+        }
+        drained.countDown();
+    }
+
+    public synchronized boolean isClosed() {
+        return closed;
+    }
+
+    public boolean isComplete() {
+        return complete;
+    }
+
+    public int getPosition() {
+        return isClosed() ? lastPosition : audio.getPosition();
+    }
+
+    private boolean decodeFrame() throws JavaLayerException {
+        try {
+            Header header = bitstream.readFrame();
+            if (header == null) {
+                return false;
+            }
+            SampleBuffer output = (SampleBuffer) decoder.decodeFrame(header, bitstream);
+            write(output.getBuffer(), output.getBufferLength());
+            bitstream.closeFrame();
+            return true;
+        } catch (BitstreamException e) {
+            if (isClosed()) {
+                // The stream was closed underneath us by stop()
+                return false;
+            }
+            throw e;
+        } catch (RuntimeException e) {
+            throw new JavaLayerException("Exception decoding audio frame", e);
+        }
+    }
+
+    private synchronized void write(short[] samples, int length) throws JavaLayerException {
+        if (!closed) {
+            audio.write(samples, 0, length);
+        }
+    }
+
+    private PlaybackEvent createEvent(int id) {
+        return new PlaybackEvent(null, id, getPosition());
+    }
+}
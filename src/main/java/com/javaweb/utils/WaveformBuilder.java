@@ -0,0 +1,91 @@
+package com.javaweb.utils;
+
+import java.util.Arrays;
+
+/**
+ * Min/max envelope of decoded PCM for drawing a waveform.
+ * <p>
+ * Samples are reduced to the min and max of every {@value #FRAMES_PER_WINDOW} frames (all channels
+ * together) while decoding, and {@link #build(int)} spreads those windows over the requested number
+ * of pairs. The packed form is {@code [min0, max0, min1, max1, ...]}, each the top byte of the 16-bit
+ * sample, so 1,000 pairs take 2,000 bytes.
+ */
+public class WaveformBuilder {
+
+    private static final int FRAMES_PER_WINDOW = 256;
+
+    private final int channels;
+    private short[] minima = new short[4096];
+    private short[] maxima = new short[4096];
+    private int windows;
+
+    private int windowFill;
+    private short windowMin = Short.MAX_VALUE;
+    private short windowMax = Short.MIN_VALUE;
+
+    public WaveformBuilder(int channels) {
+        this.channels = channels;
+    }
+
+    /**
+     * @param samples interleaved 16-bit samples
+     */
+    public void accept(short[] samples, int offset, int length) {
+        int frames = length / channels;
+        for (int frame = 0; frame < frames; frame++) {
+            int base = offset + frame * channels;
+            for (int c = 0; c < channels; c++) {
+                short sample = samples[base + c];
+                if (sample < windowMin) {
+                    windowMin = sample;
+                }
+                if (sample > windowMax) {
+                    windowMax = sample;
+                }
+            }
+            if (++windowFill == FRAMES_PER_WINDOW) {
+                finishWindow();
+            }
+        }
+    }
+
+    /**
+     * @return {@code pairs} min/max pairs packed as signed bytes, or an empty array if nothing was decoded
+     */
+    public byte[] build(int pairs) {
+        if (windowFill > 0) {
+            finishWindow();
+        }
+        if (windows == 0) {
+            return new byte[0];
+        }
+        byte[] packed = new byte[pairs * 2];
+        for (int i = 0; i < pairs; i++) {
+            // Short tracks have fewer windows than pairs; those windows are repeated
+            int from = (int) ((long) i * windows / pairs);
+            int to = Math.max(from + 1, (int) ((long) (i + 1) * windows / pairs));
+            short min = Short.MAX_VALUE;
+            short max = Short.MIN_VALUE;
+            for (int w = from; w < to; w++) {
+                min = (short) Math.min(min, minima[w]);
+                max = (short) Math.max(max, maxima[w]);
+            }
+            packed[2 * i] = (byte) (min >> 8);
+            packed[2 * i + 1] = (byte) (max >> 8);
+        }
+        return packed;
+    }
+
+    private void finishWindow() {
+        if (windows == minima.length) {
+            minima = Arrays.copyOf(minima, windows * 2);
+            maxima = Arrays.copyOf(maxima, windows * 2);
+        }
+        minima[windows] = windowMin;
+        maxima[windows] = windowMax;
+        windows++;
+        windowFill = 0;
+        windowMin = Short.MAX_VALUE;
+        windowMax = Short.MIN_VALUE;
+    }
+}
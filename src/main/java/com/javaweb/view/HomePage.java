@@ -3,6 +3,7 @@ package com.javaweb.view;
 import com.javaweb.App;
 import com.javaweb.constant.AppConstant;
 import com.javaweb.enums.ActivePanel;
+import com.javaweb.enums.ImageLoadPriority;
 import com.javaweb.enums.PlaylistSourceType;
 import com.javaweb.enums.RoleType;
 import com.javaweb.model.dto.*;
@@ -66,6 +67,7 @@ public class HomePage extends JFrame implements PlayerEventListener, ThemeChange
     private JPanel miniMusicPlayerPanel;
 
     private JPanel libraryPanel;
+    private final Runnable libraryListener = () -> SwingUtilities.invokeLater(this::refreshDownloadedSongsPanel);
     private JPanel centerCardPanel;
 
     private EnhancedSpectrumVisualizer visualizerPanel;
@@ -139,6 +141,7 @@ public class HomePage extends JFrame implements PlayerEventListener, ThemeChange
         SwingUtilities.invokeLater(() -> {
             startProgressiveLoading();
             setupGlobalFocusManagement();
+            SongDownloadUtil.resumeInterruptedDownloads(this);
         });
 
     }
@@ -432,6 +435,8 @@ public class HomePage extends JFrame implements PlayerEventListener, ThemeChange
     private JPanel createCombinedPanel() {
         JPanel combinedPanel = GuiUtil.createPanel(new BorderLayout(10, 0));
         libraryPanel = createLibraryPanel();
+        // Songs downloaded while the app was closed show up once the background scan finds them
+        LocalSongManager.addLibraryListener(libraryListener);
         combinedPanel.add(libraryPanel, BorderLayout.WEST);
         combinedPanel.add(createCenterPanel(), BorderLayout.CENTER);
         return combinedPanel;
@@ -817,7 +822,7 @@ public class HomePage extends JFrame implements PlayerEventListener, ThemeChange
     private void loadRecentSearches() {
         try {
             java.util.List<SongDTO> recentSongs = CommonApiUtil.fetchRecentSearchHistory((AppConstant.RECENT_SEARCHED_SONG_LIMIT));
-            recentSongs.forEach(song -> playerFacade.populateSongImage(song, null));
+            recentSongs.forEach(song -> playerFacade.populateSongImage(song, 40, ImageLoadPriority.PREFETCH, null));
             if (!recentSongs.isEmpty()) {
                 if (recentSearchDropdown == null) {
                     recentSearchDropdown = new RecentSearchDropdown(
@@ -1366,7 +1371,7 @@ public class HomePage extends JFrame implements PlayerEventListener, ThemeChange
         AsyncImageLabel coverLabel = new AsyncImageLabel(40, 40, 15);
         coverLabel.startLoading();
         if (!playlist.getSongs().isEmpty()) {
-            playerFacade.populateSongImage(playlist.getFirstSong(), coverLabel::setLoadedImage);
+            coverLabel.bindLoad(playerFacade.populateSongImage(playlist.getFirstSong(), 40, coverLabel::setLoadedImage));
         } else {
             coverLabel.setLoadedImage(GuiUtil.createBufferImage(AppConstant.DEFAULT_COVER_PATH));
         }
@@ -1428,7 +1433,7 @@ public class HomePage extends JFrame implements PlayerEventListener, ThemeChange
         // Create song cover
         AsyncImageLabel coverLabel = new AsyncImageLabel(40, 40, 15);
         coverLabel.startLoading();
-        playerFacade.populateSongImage(song, coverLabel::setLoadedImage);
+        coverLabel.bindLoad(playerFacade.populateSongImage(song, 40, coverLabel::setLoadedImage));
 
 
         // Create song info panel
@@ -1551,7 +1556,7 @@ public class HomePage extends JFrame implements PlayerEventListener, ThemeChange
         // Create artist profile
         AsyncImageLabel artistProfile = new AsyncImageLabel(40, 40, 15, true);
         artistProfile.startLoading();
-        playerFacade.populateArtistProfile(artist, artistProfile::setLoadedImage);
+        artistProfile.bindLoad(playerFacade.populateArtistProfile(artist, 40, artistProfile::setLoadedImage));
 
         // Create artist info panel
         JPanel infoPanel = GuiUtil.createPanel();
@@ -1629,7 +1634,7 @@ public class HomePage extends JFrame implements PlayerEventListener, ThemeChange
 
         // Start loading and populate the image
         avatarLabel.startLoading();
-        playerFacade.populateUserProfile(currentUser, avatarLabel::setLoadedImage);
+        avatarLabel.bindLoad(playerFacade.populateUserProfile(currentUser, 40, avatarLabel::setLoadedImage));
         return avatarLabel;
     }
 
@@ -1951,7 +1956,7 @@ public class HomePage extends JFrame implements PlayerEventListener, ThemeChange
                 case TOGGLE_CAVA -> {
                     if (activePanel == ActivePanel.VISUALIZER && visualizerPanel != null) {
                         boolean isToggle = (boolean) event.data();
-                        visualizerPanel.toggleCAVA(isToggle);
+                        visualizerPanel.toggleAnalyzer(isToggle);
                     }
                 }
 
@@ -1980,6 +1985,7 @@ public class HomePage extends JFrame implements PlayerEventListener, ThemeChange
 
         navigationManager.removeNavigationListener(this);
         ThemeManager.getInstance().removeThemeChangeListener(this);
+        LocalSongManager.removeLibraryListener(libraryListener);
         playerFacade.unsubscribeFromPlayerEvents(this);
         MiniMusicPlayerGUI.clearInstance();
         playerFacade = null;
@@ -2255,7 +2261,7 @@ public class HomePage extends JFrame implements PlayerEventListener, ThemeChange
 
             // Reset and reload the avatar image
             avatarLabel.startLoading();
-            playerFacade.populateUserProfile(currentUser, avatarLabel::setLoadedImage);
+            avatarLabel.bindLoad(playerFacade.populateUserProfile(currentUser, 40, avatarLabel::setLoadedImage));
         }
     }
 }
@@ -2,11 +2,13 @@ package com.javaweb.view;
 
 import com.javaweb.App;
 import com.javaweb.constant.AppConstant;
+import com.javaweb.enums.ImageLoadPriority;
 import com.javaweb.enums.PlaylistSourceType;
 import com.javaweb.enums.RepeatMode;
 import com.javaweb.model.dto.PlaylistDTO;
 import com.javaweb.model.dto.SongDTO;
 import com.javaweb.utils.*;
+import com.javaweb.view.components.WaveformSlider;
 import com.javaweb.view.event.MusicPlayerFacade;
 import com.javaweb.view.event.PlayerEvent;
 import com.javaweb.view.event.PlayerEventListener;
@@ -30,7 +32,7 @@ public class MiniMusicPlayerGUI extends JFrame implements PlayerEventListener, T
     private JPanel playbackBtns;
 
     @Getter
-    private JSlider playbackSlider;
+    private WaveformSlider playbackSlider;
     private JSlider volumeSlider;
     @Getter
     private JLabel labelBeginning;
@@ -411,7 +413,7 @@ public class MiniMusicPlayerGUI extends JFrame implements PlayerEventListener, T
                 // Create and display the PlaylistSelectionPanel
                 playlists.forEach(playlist -> {
                     if (!playlist.isEmptyPlaylist()) {
-                        playerFacade.populateSongImage(playlist.getSongs().getFirst(), null);
+                        playerFacade.populateSongImage(playlist.getSongs().getFirst(), 0, ImageLoadPriority.PREFETCH, null);
                     }
                 });
                 playlistPanel = new PlaylistSelectionPanel(playlists);
@@ -539,6 +541,7 @@ public class MiniMusicPlayerGUI extends JFrame implements PlayerEventListener, T
         // Set slider range based on total frames instead of milliseconds
         long totalFrames = song.getFrame();
         playbackSlider.setMaximum((int) totalFrames);
+        playbackSlider.setWaveformPeaks(song.getWaveformPeaks());
 
         labelEnd.setText(song.getSongLength());
         // Turn on or off this for octagon/ball thumb
@@ -605,7 +608,7 @@ public class MiniMusicPlayerGUI extends JFrame implements PlayerEventListener, T
 
     // Method to update the song image
     public void updateSongImage(SongDTO song) {
-        playerFacade.populateSongImage(song, null);
+        playerFacade.populateSongImage(song, 0, ImageLoadPriority.NOW_PLAYING, null);
         if (song.getSongImage() != null) {
             songImageLabel.setIcon(GuiUtil.createRoundedCornerImageIcon(song.getSongImage(), 10, 300, 300));
         } else {
@@ -641,7 +644,7 @@ public class MiniMusicPlayerGUI extends JFrame implements PlayerEventListener, T
     }
 
     private void configurePlaybackSlider() {
-        playbackSlider = new JSlider(JSlider.HORIZONTAL, 0, 100, 0);
+        playbackSlider = new WaveformSlider(0, 100, 0);
         playbackSlider.setPreferredSize(new Dimension(500, 40));
         playbackSlider.setMaximumSize(new Dimension(Integer.MAX_VALUE, playbackSlider.getPreferredSize().height));
         playbackSlider.setForeground(AppConstant.TEXT_COLOR);
@@ -1,5 +1,8 @@
 package com.javaweb.view;
 
+import com.javaweb.constant.AppConstant;
+import com.javaweb.enums.ImageLoadPriority;
+import com.javaweb.enums.PlaybackState;
 import com.javaweb.enums.PlaylistSourceType;
 import com.javaweb.enums.RepeatMode;
 import com.javaweb.model.dto.PlaylistDTO;
@@ -8,15 +11,16 @@ import com.javaweb.model.dto.UserDTO;
 import com.javaweb.utils.CommonApiUtil;
 import com.javaweb.utils.GuiUtil;
 import com.javaweb.utils.ImageMediaUtil;
+import com.javaweb.utils.Mp3SeekIndex;
+import com.javaweb.utils.PlaybackMetrics;
 import com.javaweb.utils.StreamingAudioPlayer;
+import com.javaweb.utils.TrackPlayer;
 import com.javaweb.view.advertisement.AdvertisementManager;
 import com.javaweb.view.event.MusicPlayerMediator;
 import com.javaweb.view.theme.ThemeManager;
 import com.javaweb.view.user.UserSessionManager;
 import javazoom.jl.player.AudioDevice;
-import javazoom.jl.player.FactoryRegistry;
 import javazoom.jl.player.JavaSoundAudioDevice;
-import javazoom.jl.player.advanced.AdvancedPlayer;
 import javazoom.jl.player.advanced.PlaybackEvent;
 import javazoom.jl.player.advanced.PlaybackListener;
 import lombok.Getter;
@@ -32,22 +36,26 @@ import java.awt.*;
 import java.io.BufferedInputStream;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.lang.reflect.Field;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 @Slf4j
 @Component
 @RequiredArgsConstructor
 
-public class MusicPlayer extends PlaybackListener {
+public class MusicPlayer {
 
     private final StreamingAudioPlayer streamingPlayer;
     private final ImageMediaUtil imageMediaUtil;
     private final MusicPlayerMediator mediator;
     private final AdvertisementManager adManager;
-
-
-    private static final Object playSignal = new Object();
+    private final PlaybackMetrics playbackMetrics;
 
 
     @Getter
@@ -60,23 +68,35 @@ public class MusicPlayer extends PlaybackListener {
 
     private int currentPlaylistIndex;
 
-    // use JLayer library to create an AdvancedPlayer obj which will handle playing
-    // the music
-    private AdvancedPlayer advancedPlayer;
+    // decodes and plays the current song frame by frame (see TrackPlayer)
+    private volatile TrackPlayer trackPlayer;
 
-    // pause boolean flag used to indicate whether the player has been paused
-    @Getter
-    private boolean isPaused;
+    // the previous player while it plays out its buffered tail after a natural end
+    private TrackPlayer drainingPlayer;
+
+    // when the current track change was requested, used for the switch latency metric
+    private long switchRequestedAt;
 
-    // boolean flag used to tell when the song has finished
-    private boolean songFinished;
+    // what the player is doing; every change goes through an atomic transition
+    private final AtomicReference<PlaybackState> state = new AtomicReference<>(PlaybackState.IDLE);
 
-    private boolean pressedNext, pressedPrev;
+    // bumped each time the current player is stopped or replaced, so callbacks and threads of older
+    // players can tell they are stale and step aside
+    private final AtomicLong playbackGeneration = new AtomicLong();
 
-    private boolean pressedShuffle;
+    // held while bumping the generation and while a player's thread acts for its generation (state
+    // transitions, published positions), so once stopSong returns no older player can touch either
+    private final Object generationLock = new Object();
 
-    private boolean pressedReplay;
+    // reads local files and calls the server for seek indexes, one song at a time and off the EDT
+    private final ExecutorService seekIndexExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "SeekIndexLoader");
+        thread.setDaemon(true);
+        return thread;
+    });
 
+    // position the current player's stream was opened at
+    private volatile long playbackStartOffset;
 
     private FloatControl volumeControl;
     private AudioDevice device;
@@ -93,18 +113,14 @@ public class MusicPlayer extends PlaybackListener {
     @Getter
     private int currentTimeInMilli;
 
-    private Thread sliderThread;
-
-
-    private BufferedInputStream bufferedInputStream;
-    private FileInputStream fileInputStream;
+    private volatile Thread sliderThread;
 
 
     @Getter
-    long calculatedFrame;
+    volatile long calculatedFrame;
 
     @Getter
-    private boolean havingAd;
+    private volatile boolean havingAd;
 
     @Getter
     private RepeatMode repeatMode = RepeatMode.NO_REPEAT;
@@ -122,15 +138,11 @@ public class MusicPlayer extends PlaybackListener {
         // Reset state
         resetPlaybackPosition();
         stopSong();
-
-        try {
-            Thread.sleep(50);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
+        enterLoading();
 
         // Set current song and update UI
         currentSong = song;
+        ensureSeekIndex(currentSong);
         havingAd = false;
         mediator.notifyAdOff();
 
@@ -153,12 +165,7 @@ public class MusicPlayer extends PlaybackListener {
         }
         resetPlaybackPosition();
         stopSong();
-
-        try {
-            Thread.sleep(50);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
+        enterLoading();
 
         if (adManager.shouldShowAd(getCurrentUser())) {
             adManager.storeLastSong(song);
@@ -167,8 +174,9 @@ public class MusicPlayer extends PlaybackListener {
             SwingUtilities.invokeLater(() -> {
                 String driveId = adManager.getAdvertisements()[(int) (Math.random() * adManager.getAdvertisements().length)];
                 currentSong = CommonApiUtil.fetchSongByGoogleDriveId(driveId);
+                ensureSeekIndex(currentSong);
 
-                imageMediaUtil.populateSongImage(currentSong, image -> {
+                imageMediaUtil.populateSongImage(currentSong, 0, ImageLoadPriority.NOW_PLAYING, image -> {
                     updateGUI();
                     mediator.notifyAdOn();
                     playCurrentSong();
@@ -177,10 +185,12 @@ public class MusicPlayer extends PlaybackListener {
         } else {
             havingAd = false;
             currentSong = song;
+            ensureSeekIndex(currentSong);
             mediator.notifyAdOff();
 
             if (currentSong != null && !havingAd && !currentSong.getIsLocalFile()) {
-                CommonApiUtil.logPlayHistory(currentSong.getId());
+                Long songId = currentSong.getId();
+                CompletableFuture.runAsync(() -> CommonApiUtil.logPlayHistory(songId));
             }
 
             // play the current song if not null
@@ -202,41 +212,55 @@ public class MusicPlayer extends PlaybackListener {
     }
 
     public void pauseSong() throws IOException {
-        if (advancedPlayer != null) {
-            isPaused = true;
+        TrackPlayer player = trackPlayer;
+        if (player != null && transition(PlaybackState.PAUSED, PlaybackState.PLAYING, PlaybackState.LOADING)) {
+            // Remember where we are, resuming reopens the stream at this position
+            currentTimeInMilli = (int) (playbackStartOffset + player.getPosition());
+            currentFrame = (int) (currentTimeInMilli * currentSong.getFrameRatePerMilliseconds());
             stopSong();
         } else {
-            System.out.println("Cannot pause because advancedPlayer is null.");
+            log.debug("Cannot pause because nothing is playing");
         }
     }
 
-
+    /**
+     * Stops the current player and invalidates its callbacks. The decode thread ends as soon as the
+     * player's stream is closed; nothing waits for it.
+     */
     public void stopSong() {
-        if (sliderThread != null) {
-            sliderThread.interrupt();
-            try {
-                sliderThread.join(100);
-            } catch (InterruptedException ignored) {
+        synchronized (generationLock) {
+            playbackGeneration.incrementAndGet();
+        }
 
-            }
-            sliderThread = null;
+        Thread slider = sliderThread;
+        sliderThread = null;
+        if (slider != null) {
+            slider.interrupt();
         }
 
-        final AdvancedPlayer playerToClose = advancedPlayer;
-        advancedPlayer = null;
+        final TrackPlayer playerToClose = trackPlayer;
+        trackPlayer = null;
 
         if (playerToClose != null) {
             try {
-                if (!songFinished) {
+                if (playerToClose.isComplete()) {
+                    // Reached the end of its stream, let the buffered tail finish under the next track's start
+                    drainingPlayer = playerToClose;
+                } else {
                     playerToClose.stop();
                 }
             } catch (Exception e) {
-                System.out.println("Error closing player: " + e.getMessage());
+                log.warn("Error closing player: {}", e.getMessage());
             }
         } else {
             adManager.getUserPlayCounter().put(getCurrentUser().getId(), 0);
         }
 
+        // Pause, stop, seek and track changes all come through here
+        streamingPlayer.resetSpectrum();
+
+        // Callers that go on to start another track move to LOADING themselves
+        transition(PlaybackState.IDLE, PlaybackState.PLAYING, PlaybackState.FINISHED);
 
         mediator.notifyToggleCava(false);
 
@@ -246,7 +270,7 @@ public class MusicPlayer extends PlaybackListener {
         //Stop any further features when having an ad.
         if (havingAd) return;
 
-        pressedNext = true;
+        switchRequestedAt = System.nanoTime();
 
         if (currentPlaylist == null) {
             if (repeatMode == RepeatMode.REPEAT_ONE) {
@@ -290,6 +314,7 @@ public class MusicPlayer extends PlaybackListener {
                 }
             }
         }
+        countSkippedPlay();
         if (currentPlaylist.getSourceType() == PlaylistSourceType.LOCAL) {
             loadLocalSong(currentSong);
         } else {
@@ -301,7 +326,7 @@ public class MusicPlayer extends PlaybackListener {
         //Stop any further features when having an ad.
         if (havingAd) return;
         // A single song
-        pressedPrev = true;
+        switchRequestedAt = System.nanoTime();
 
         if (currentPlaylist == null) {
             if (repeatMode == RepeatMode.REPEAT_ONE) {
@@ -329,6 +354,7 @@ public class MusicPlayer extends PlaybackListener {
                 }
             }
         }
+        countSkippedPlay();
         if (currentPlaylist.getSourceType() == PlaylistSourceType.LOCAL) {
             loadLocalSong(currentSong);
         } else {
@@ -338,6 +364,10 @@ public class MusicPlayer extends PlaybackListener {
 
     public void playCurrentSong() {
         try {
+            if (trackPlayer != null) {
+                stopSong();
+            }
+            enterLoading();
             volumeControl = null;
 
             // Check if this is a local file
@@ -356,19 +386,19 @@ public class MusicPlayer extends PlaybackListener {
 
     private void playLocalSongInternal() {
         try {
-            fileInputStream = new FileInputStream(currentSong.getLocalFilePath());
-            bufferedInputStream = new BufferedInputStream(fileInputStream);
-
-            device = FactoryRegistry.systemRegistry().createAudioDevice();
-            advancedPlayer = new AdvancedPlayer(bufferedInputStream, device);
-            advancedPlayer.setPlayBackListener(this);
+            // Jump straight to the target byte instead of decoding up to it
+            final long generation = playbackGeneration.get();
+            trackPlayer = createTrackPlayer(generation);
 
             setVolume(currentVolumeGain);
 
             SwingUtilities.invokeLater(() -> {
+                if (playbackGeneration.get() != generation) {
+                    return;
+                }
                 mediator.notifyToggleCava(true);
                 startMusicThread();
-                startPlaybackSliderThread();
+                startPlaybackSliderThread(generation);
             });
         } catch (Exception e) {
             log.error("Error playing local song: {}", e.getMessage(), e);
@@ -377,142 +407,172 @@ public class MusicPlayer extends PlaybackListener {
 
     private void playStreamingSongInternal() {
         try {
-            advancedPlayer = streamingPlayer.createPlayer(currentSong, this);
-            device = streamingPlayer.getDevice();
+            final long generation = playbackGeneration.get();
+            trackPlayer = createTrackPlayer(generation);
 
             setVolume(currentVolumeGain);
 
             mediator.notifyToggleCava(true);
             startMusicThread();
-            startPlaybackSliderThread();
+            startPlaybackSliderThread(generation);
         } catch (Exception e) {
             log.error("Error playing streaming song: {}", e.getMessage(), e);
         }
     }
 
+    private TrackPlayer createTrackPlayer(long generation) throws Exception {
+        playbackStartOffset = currentTimeInMilli;
+        TrackPlayer player = streamingPlayer.createPlayer(currentSong, new GenerationListener(generation), currentTimeInMilli);
+        device = player.getDevice();
+        if (drainingPlayer != null) {
+            player.handOverFrom(drainingPlayer);
+            drainingPlayer = null;
+        }
+        return player;
+    }
+
     // create a thread that will handle playing the music
     private void startMusicThread() {
+        final TrackPlayer player = trackPlayer;
+        if (player == null) {
+            return;
+        }
         new Thread(() -> {
             try {
-                if (isPaused || pressedReplay) {
-                    synchronized (playSignal) {
-                        isPaused = false;
-                        pressedReplay = false;
-                        playSignal.notify();
-                    }
-                    // Play from the current frame
-                    System.out.println(currentFrame);
-                    advancedPlayer.play(currentFrame, Integer.MAX_VALUE);
-
-                } else {
-                    // Play from the beginning
-                    advancedPlayer.play();
-                }
+                // The stream was opened at the resume position, so play it from its first frame
+                player.play();
             } catch (Exception e) {
-                e.printStackTrace();
+                if (!player.isClosed()) {
+                    log.error("Playback failed: {}", e.getMessage(), e);
+                }
             }
-        }).start();
+        }, "MusicPlayerThread").start();
     }
 
 
-    // create a thread that will handle updating the slider
-    private void startPlaybackSliderThread() {
-//        if (sliderThread != null && sliderThread.isAlive()) {
-//            sliderThread.interrupt();
-//            try {
-//                sliderThread.join(200);
-//            } catch (InterruptedException ignored) {
-//                Thread.currentThread().interrupt();
-//            }
-//        }
+    // create a thread that publishes the playback position read from the audio clock
+    private void startPlaybackSliderThread(long generation) {
+        final TrackPlayer player = trackPlayer;
 
-        sliderThread = new Thread(() -> {
+        Thread thread = new Thread(() -> {
             try {
                 SongDTO currentSongCopy = currentSong;
-                if (currentSongCopy == null) return;
+                if (currentSongCopy == null || player == null) return;
 
                 long totalFrames = currentSongCopy.getFrame();
                 double frameRate = currentSongCopy.getFrameRatePerMilliseconds();
                 long songDurationMs = currentSongCopy.getLengthInMilliseconds();
+                Mp3SeekIndex seekIndex = currentSongCopy.getSeekIndex();
 
-                if (isPaused) {
-                    synchronized (playSignal) {
-                        try {
-                            playSignal.wait(5000);
-                        } catch (InterruptedException e) {
-                            return;
-                        }
-                    }
-                }
-
-                // Adjust startTime to account for the currentTimeInMilli
-                long startTime = System.currentTimeMillis() - currentTimeInMilli;
+                // The stream was opened at this offset, the device counts from there
+                final long startOffset = playbackStartOffset;
 
-                // Main update loop
-                while (!Thread.currentThread().isInterrupted()) {
-                    // Check if we should exit the loop
-                    if (isPaused || songFinished || pressedNext || pressedPrev ||
-                            pressedShuffle || pressedReplay || advancedPlayer == null) {
+                // Main update loop, ends as soon as this player is no longer the current one
+                while (!Thread.currentThread().isInterrupted() && playbackGeneration.get() == generation) {
+                    PlaybackState current = state.get();
+                    if (current != PlaybackState.PLAYING && current != PlaybackState.LOADING) {
                         break;
                     }
 
-                    // Calculate elapsed time
-                    long currentTime = System.currentTimeMillis();
-                    long elapsedTime = currentTime - startTime;
-                    currentTimeInMilli = (int) elapsedTime;
+                    // Position of the audio actually played by the output line, so it cannot drift from what is heard
+                    long elapsedTime = startOffset + player.getPosition();
+                    synchronized (generationLock) {
+                        if (playbackGeneration.get() != generation) {
+                            break;
+                        }
+                        currentTimeInMilli = (int) elapsedTime;
+                    }
 
                     // Calculate frame position
-                    calculatedFrame = (int) (elapsedTime * frameRate);
+                    calculatedFrame = seekIndex != null
+                            ? seekIndex.frameForMillis(elapsedTime)
+                            : (long) (elapsedTime * frameRate);
 
                     // Ensure we don't exceed song boundaries
                     if (calculatedFrame > totalFrames) {
                         calculatedFrame = totalFrames;
                     }
 
-                    if (!Thread.currentThread().isInterrupted() && !isPaused &&
-                            !songFinished && advancedPlayer != null) {
-                        SwingUtilities.invokeLater(
-                                () -> mediator.notifyPlaybackProgress((int) calculatedFrame, currentTimeInMilli)
-                        );
-                    }
+                    // Coalesced by the mediator, at most one progress update is queued on the EDT
+                    mediator.notifyPlaybackProgress((int) calculatedFrame, currentTimeInMilli);
 
                     // Exit if we've reached the end
-                    if (calculatedFrame >= totalFrames || elapsedTime >= songDurationMs) {
+                    if (calculatedFrame >= totalFrames || elapsedTime >= songDurationMs || player.isClosed()) {
                         break;
                     }
 
-                    // Sleep for a very short time to reduce CPU usage
                     try {
-                        Thread.sleep(50);
+                        Thread.sleep(AppConstant.PLAYBACK_PROGRESS_INTERVAL_MS);
                     } catch (InterruptedException e) {
                         Thread.currentThread().interrupt();
                         break;
                     }
                 }
             } catch (Exception e) {
-                System.err.println("Playback slider thread error: " + e.getMessage());
-                e.printStackTrace();
+                log.error("Playback slider thread error: {}", e.getMessage(), e);
             }
         }, "PlaybackSliderThread");
 
-        sliderThread.setDaemon(true);
-        sliderThread.start();
+        thread.setDaemon(true);
+        sliderThread = thread;
+        thread.start();
     }
 
-    @Override
-    public void playbackStarted(PlaybackEvent evt) {
+    /**
+     * Routes a player's callbacks to this MusicPlayer only while that player is still the current one.
+     * Skips, seeks and pauses bump the generation before stopping the old player, so its final
+     * playbackFinished is dropped here instead of being mistaken for a natural end.
+     */
+    private class GenerationListener extends PlaybackListener {
 
-        // this method gets called in the beginning of the song
-        System.out.println("Playback Started");
+        private final long generation;
 
-        songFinished = false;
-        pressedNext = false;
-        pressedPrev = false;
-        pressedShuffle = false;
-        pressedReplay = false;
+        GenerationListener(long generation) {
+            this.generation = generation;
+        }
+
+        @Override
+        public void playbackStarted(PlaybackEvent evt) {
+            boolean started;
+            synchronized (generationLock) {
+                started = playbackGeneration.get() == generation
+                        && transition(PlaybackState.PLAYING, PlaybackState.LOADING);
+            }
+            if (started) {
+                onPlaybackStarted();
+            }
+        }
+
+        @Override
+        public void playbackFinished(PlaybackEvent evt) {
+            // Only the current player reaching the end of its stream gets here
+            boolean finished;
+            synchronized (generationLock) {
+                finished = playbackGeneration.get() == generation
+                        && transition(PlaybackState.FINISHED, PlaybackState.PLAYING, PlaybackState.LOADING);
+            }
+            if (finished) {
+                onPlaybackFinished(generation);
+            }
+        }
+    }
+
+    private void onPlaybackStarted() {
+        // this method gets called in the beginning of the song
+        log.debug("Playback started: {}", currentSong != null ? currentSong.getTitle() : null);
 
         mediator.notifyPlaybackStarted(currentSong);
 
+        if (switchRequestedAt != 0) {
+            TrackPlayer player = trackPlayer;
+            playbackMetrics.recordTrackSwitch((System.nanoTime() - switchRequestedAt) / 1_000_000,
+                    player != null && player.isPrepared());
+            switchRequestedAt = 0;
+        }
+
+        // Get the following track ready while this one plays
+        streamingPlayer.prefetch(peekNextSong());
+
         // Reapply current volume
         Timer volumeTimer = new Timer(1, e -> {
             setVolume(currentVolumeGain);
@@ -522,14 +582,18 @@ public class MusicPlayer extends PlaybackListener {
 
     }
 
-    @Override
-    public void playbackFinished(PlaybackEvent evt) {
-        // This method gets called when the song finishes or if the player gets closed
-        System.out.println("Playback Finished!");
+    private void onPlaybackFinished(long generation) {
+        log.debug("Playback finished: {}", currentSong != null ? currentSong.getTitle() : null);
+
+        TrackPlayer player = trackPlayer;
+        if (player != null && player.isComplete()) {
+            drainingPlayer = player;
+        }
+        switchRequestedAt = System.nanoTime();
+
         // Play the previous last song when the ad finished
         if (havingAd) {
             havingAd = false;
-            songFinished = true;
             // This user is initialized through login. So no need to fetch from db again.
             adManager.resetUserCounter(getCurrentUser().getId());
             currentSong = adManager.getLastSongDTO();
@@ -537,44 +601,27 @@ public class MusicPlayer extends PlaybackListener {
             SwingUtilities.invokeLater(() -> {
                 loadSong(currentSong);
             });
-        } else {
-            if (isPaused) {
-                // If paused, update the current frame for resuming later
-                currentFrame += (int) ((double) evt.getFrame() * currentSong.getFrameRatePerMilliseconds());
-                System.out.println(currentFrame);
-                return;
-            }
-            if (pressedReplay) return;
-
+            return;
+        }
 
-            if (pressedNext || pressedPrev || pressedShuffle) {
-                if (currentPlaylist.getSourceType() != PlaylistSourceType.LOCAL) {
-                    adManager.updateUserPlayCounter(getCurrentUser());
-                }
+        mediator.notifyPlaybackPaused(currentSong);
+        //Update play counter
+        if (currentPlaylist != null && currentPlaylist.getSourceType() != PlaylistSourceType.LOCAL) {
+            adManager.updateUserPlayCounter(getCurrentUser());
+        }
+        resetPlaybackPosition();
+        SwingUtilities.invokeLater(() -> {
+            // A skip or a new song chosen in the meantime wins over the automatic advance
+            if (playbackGeneration.get() != generation) {
                 return;
             }
-
-            long totalFrames = currentSong.getFrame();
-            int threshold = (int) (totalFrames * 0.99);
-
-            //Naturally end
-            if (calculatedFrame >= threshold) {
-                mediator.notifyPlaybackPaused(currentSong);
-                //Update play counter
-                if (currentPlaylist.getSourceType() != PlaylistSourceType.LOCAL) {
-                    adManager.updateUserPlayCounter(getCurrentUser());
-                }
-                SwingUtilities.invokeLater(() -> {
-                    if (currentPlaylist == null) {
-                        handleSingleSongCompletion();
-                    } else {
-                        handlePlaylistSongCompletion();
-                    }
-                    resetPlaybackPosition();
-                });
-                resetPlaybackPosition();
+            if (currentPlaylist == null) {
+                handleSingleSongCompletion();
+            } else {
+                handlePlaylistSongCompletion();
             }
-        }
+            resetPlaybackPosition();
+        });
     }
 
     private void handleSingleSongCompletion() {
@@ -583,7 +630,6 @@ public class MusicPlayer extends PlaybackListener {
             playCurrentSong();
         } else {
             mediator.notifyPlaybackPaused(currentSong);
-            songFinished = true;
         }
     }
 
@@ -607,7 +653,6 @@ public class MusicPlayer extends PlaybackListener {
 
             } else {
                 mediator.notifyPlaybackPaused(currentSong);
-                songFinished = true;
             }
         } else {
             if (repeatMode == RepeatMode.REPEAT_ONE) {
@@ -618,16 +663,77 @@ public class MusicPlayer extends PlaybackListener {
                         try {
                             nextSong();
                         } catch (IOException e) {
-                            e.printStackTrace();
+                            log.error("Failed to advance to the next song: {}", e.getMessage(), e);
                         }
                     });
                 } catch (Exception e) {
-                    e.printStackTrace();
+                    log.error("Failed to advance to the next song: {}", e.getMessage(), e);
                 }
             }
         }
     }
 
+    /**
+     * Returns the song that will play after the current one if nothing changes, or null when
+     * playback would stop or the next pick is not known in advance (ads, random playlist).
+     */
+    private SongDTO peekNextSong() {
+        if (havingAd || currentPlaylist == null || currentPlaylist.isEmptyPlaylist()) {
+            return null;
+        }
+        if (currentPlaylist.getSourceType() == PlaylistSourceType.QUEUE) {
+            return currentPlaylist.size() > 1 ? currentPlaylist.getSongs().get(1) : null;
+        }
+        if (repeatMode == RepeatMode.REPEAT_ONE) {
+            return currentSong;
+        }
+        if (currentPlaylistIndex + 1 < currentPlaylist.size()) {
+            return currentPlaylist.getSongAt(currentPlaylistIndex + 1);
+        }
+        return repeatMode == RepeatMode.REPEAT_ALL ? currentPlaylist.getSongAt(0) : null;
+    }
+
+    // A song cut short by next/prev/shuffle still counts towards the ad interval
+    private void countSkippedPlay() {
+        if (trackPlayer != null && currentPlaylist != null
+                && currentPlaylist.getSourceType() != PlaylistSourceType.LOCAL) {
+            adManager.updateUserPlayCounter(getCurrentUser());
+        }
+    }
+
+    public boolean isPaused() {
+        return state.get() == PlaybackState.PAUSED;
+    }
+
+    public PlaybackState getPlaybackState() {
+        return state.get();
+    }
+
+    /**
+     * Claims LOADING for a new track from any stopped state. A track that another thread started
+     * after our stop is stopped too, so the most recent request is the one that plays.
+     */
+    private void enterLoading() {
+        while (!transition(PlaybackState.LOADING,
+                PlaybackState.IDLE, PlaybackState.PAUSED, PlaybackState.FINISHED, PlaybackState.LOADING)) {
+            log.debug("Another track started while loading, stopping it");
+            stopSong();
+        }
+    }
+
+    /**
+     * Moves to {@code to} if the current state is one of {@code from}. Returns false, changing
+     * nothing, when another thread got there first.
+     */
+    private boolean transition(PlaybackState to, PlaybackState... from) {
+        for (PlaybackState expected : from) {
+            if (state.compareAndSet(expected, to)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     public void resetPlaybackPosition() {
         currentTimeInMilli = 0;
         currentFrame = 0;
@@ -637,8 +743,6 @@ public class MusicPlayer extends PlaybackListener {
         if (havingAd) return;
         if (currentSong == null) return;
 
-        pressedReplay = true;
-
         long newPosition = currentTimeInMilli - 5000;
         if (newPosition < 0) {
             newPosition = 0;
@@ -660,11 +764,10 @@ public class MusicPlayer extends PlaybackListener {
             return;
         }
 
-        pressedShuffle = true;
         currentPlaylistIndex = currentPlaylist.getRandomSongIndex();
         currentSong = currentPlaylist.getSongAt(currentPlaylistIndex);
 
-
+        countSkippedPlay();
         loadSong(currentSong);
 
     }
@@ -698,7 +801,7 @@ public class MusicPlayer extends PlaybackListener {
                     try {
                         this.volumeControl = (FloatControl) source.getControl(FloatControl.Type.MASTER_GAIN);
                     } catch (IllegalArgumentException e) {
-                        System.out.println("This audio device doesn't support volume control: " + e.getMessage());
+                        log.warn("This audio device doesn't support volume control: {}", e.getMessage());
                         return;
                     }
                 } else {
@@ -711,7 +814,7 @@ public class MusicPlayer extends PlaybackListener {
                 volumeControl.setValue(newGain);
             }
         } catch (Exception e) {
-            System.err.println("Error setting volume: " + e.getMessage());
+            log.warn("Error setting volume: {}", e.getMessage());
         }
     }
 
@@ -730,12 +833,45 @@ public class MusicPlayer extends PlaybackListener {
     }
 
     private void updateGUI() {
-        imageMediaUtil.populateSongImage(currentSong);
+        imageMediaUtil.populateSongImage(currentSong, 0, ImageLoadPriority.NOW_PLAYING, null);
         updateThemeFromSong(currentSong);
         mediator.notifySongLoaded(currentSong);
         mediator.notifyPlaylistLoaded(currentPlaylist);
     }
 
+    /**
+     * Loads the song's frame/byte seek table in the background so progress and seeks switch from the
+     * linear estimate derived from the tag header to exact frame positions once it arrives. The server
+     * answers 404 while an index is still being built, in which case the estimate stays in use.
+     */
+    private void ensureSeekIndex(SongDTO song) {
+        if (song == null || song.getSeekIndex() != null) {
+            return;
+        }
+        CompletableFuture.supplyAsync(() -> loadSeekIndex(song), seekIndexExecutor)
+                .thenAccept(seekIndex -> {
+                    if (seekIndex != null && seekIndex.getTotalFrames() > 0) {
+                        SwingUtilities.invokeLater(() -> StreamingAudioPlayer.applySeekIndex(song, seekIndex));
+                    }
+                });
+    }
+
+    private Mp3SeekIndex loadSeekIndex(SongDTO song) {
+        try {
+            if (song.getIsLocalFile() && song.getLocalFilePath() != null) {
+                try (InputStream in = new BufferedInputStream(new FileInputStream(song.getLocalFilePath()))) {
+                    return Mp3SeekIndex.build(in, AppConstant.SEEK_INDEX_FRAME_INTERVAL);
+                }
+            } else if (song.getId() != null) {
+                return CommonApiUtil.fetchSeekIndex(song.getId());
+            }
+        } catch (Exception e) {
+            log.warn("Seek index unavailable for {}, falling back to estimated frame rate: {}",
+                    song.getTitle(), e.getMessage());
+        }
+        return null;
+    }
+
     private UserDTO getCurrentUser() {
         return UserSessionManager.getInstance().getCurrentUser();
     }
@@ -752,7 +888,7 @@ public class MusicPlayer extends PlaybackListener {
                         themeColors[2]
                 );
             } catch (Exception e) {
-                e.printStackTrace();
+                log.warn("Failed to apply theme colors for {}: {}", song.getTitle(), e.getMessage());
             }
         }
     }
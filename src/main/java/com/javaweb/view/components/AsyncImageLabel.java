@@ -1,9 +1,13 @@
 package com.javaweb.view.components;
 
 import com.javaweb.constant.AppConstant;
+import com.javaweb.enums.ImageLoadPriority;
 import com.javaweb.utils.GuiUtil;
+import com.javaweb.utils.ImageLoadScheduler;
 
 import javax.swing.*;
+import javax.swing.event.AncestorEvent;
+import javax.swing.event.AncestorListener;
 import java.awt.*;
 import java.awt.image.BufferedImage;
 
@@ -20,6 +24,10 @@ public class AsyncImageLabel extends JLabel {
     private boolean isRounded;
     private boolean isCircular;
 
+    // Load whose result this label is waiting for, if any
+    private ImageLoadScheduler.Handle pendingLoad;
+    private AncestorListener visibilityTracker;
+
     public AsyncImageLabel(int width, int height) {
         this(width, height, 0, false);
     }
@@ -51,7 +59,68 @@ public class AsyncImageLabel extends JLabel {
         animationTimer.start();
     }
 
+    /**
+     * Ties a pending image load to this label: it drops to {@link ImageLoadPriority#PREFETCH} while the
+     * label is out of view and is cancelled when the label is removed.
+     */
+    public void bindLoad(ImageLoadScheduler.Handle handle) {
+        if (pendingLoad != null && pendingLoad != handle) {
+            pendingLoad.cancel();
+        }
+        pendingLoad = handle == null || handle.future().isDone() ? null : handle;
+        if (pendingLoad == null) {
+            return;
+        }
+        if (visibilityTracker == null) {
+            // Scrolling moves the viewport's view, which reaches every label in it as an ancestor move
+            visibilityTracker = new AncestorListener() {
+                @Override
+                public void ancestorAdded(AncestorEvent event) {
+                    updateLoadPriority();
+                }
+
+                @Override
+                public void ancestorRemoved(AncestorEvent event) {
+                    updateLoadPriority();
+                }
+
+                @Override
+                public void ancestorMoved(AncestorEvent event) {
+                    updateLoadPriority();
+                }
+            };
+            addAncestorListener(visibilityTracker);
+        }
+        updateLoadPriority();
+    }
+
+    private void updateLoadPriority() {
+        if (pendingLoad == null) {
+            return;
+        }
+        if (pendingLoad.future().isDone()) {
+            pendingLoad = null;
+            return;
+        }
+        boolean onScreen = isShowing() && !getVisibleRect().isEmpty();
+        pendingLoad.setPriority(onScreen ? ImageLoadPriority.VISIBLE : ImageLoadPriority.PREFETCH);
+    }
+
+    @Override
+    public void removeNotify() {
+        super.removeNotify();
+        if (pendingLoad != null) {
+            pendingLoad.cancel();
+            pendingLoad = null;
+        }
+        // A running Swing timer is referenced from its queue, so a removed label would keep repainting
+        if (animationTimer != null) {
+            animationTimer.stop();
+        }
+    }
+
     public void setLoadedImage(BufferedImage image) {
+        pendingLoad = null;
         isLoading = false;
         animationTimer.stop();
 
@@ -0,0 +1,50 @@
+package com.javaweb.view.components;
+
+import java.awt.*;
+
+/**
+ * Draws the precomputed waveform peaks of a song (see {@code WaveformBuilder}) as one bar per pixel
+ * column, the played part in one color and the rest in another. Peaks are scaled to the loudest one
+ * so quiet tracks still fill the height.
+ */
+public final class WaveformPainter {
+
+    private WaveformPainter() {
+    }
+
+    public static boolean hasPeaks(byte[] peaks) {
+        return peaks != null && peaks.length >= 2;
+    }
+
+    public static void paint(Graphics2D g2d, byte[] peaks, int x, int y, int width, int height,
+                             float progress, Color played, Color unplayed) {
+        if (!hasPeaks(peaks) || width <= 0 || height <= 0) {
+            return;
+        }
+        int pairs = peaks.length / 2;
+        int loudest = 1;
+        for (byte peak : peaks) {
+            loudest = Math.max(loudest, Math.abs((int) peak));
+        }
+
+        float center = y + height / 2f;
+        float scale = (height / 2f) / loudest;
+        int playedWidth = Math.round(width * progress);
+
+        for (int column = 0; column < width; column++) {
+            int from = (int) ((long) column * pairs / width);
+            int to = Math.max(from + 1, (int) ((long) (column + 1) * pairs / width));
+            int min = Byte.MAX_VALUE;
+            int max = Byte.MIN_VALUE;
+            for (int pair = from; pair < to; pair++) {
+                min = Math.min(min, peaks[2 * pair]);
+                max = Math.max(max, peaks[2 * pair + 1]);
+            }
+
+            int top = Math.round(center - max * scale);
+            int bottom = Math.round(center - min * scale);
+            g2d.setColor(column < playedWidth ? played : unplayed);
+            g2d.fillRect(x + column, top, 1, Math.max(1, bottom - top));
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.javaweb.view.components;
+
+import com.formdev.flatlaf.ui.FlatSliderUI;
+
+import javax.swing.*;
+import java.awt.*;
+
+/**
+ * Playback slider that draws the song's waveform in place of the track once peaks are set, and
+ * falls back to the regular track without them.
+ */
+public class WaveformSlider extends JSlider {
+    private byte[] waveformPeaks;
+
+    public WaveformSlider(int min, int max, int value) {
+        super(HORIZONTAL, min, max, value);
+    }
+
+    public void setWaveformPeaks(byte[] waveformPeaks) {
+        this.waveformPeaks = waveformPeaks;
+        repaint();
+    }
+
+    // Re-installed on every look-and-feel refresh (theme changes update the component tree)
+    @Override
+    public void updateUI() {
+        setUI(new WaveformSliderUI(this));
+    }
+
+    private static class WaveformSliderUI extends FlatSliderUI {
+        private final WaveformSlider slider;
+
+        WaveformSliderUI(WaveformSlider slider) {
+            this.slider = slider;
+        }
+
+        @Override
+        protected void paintTrack(Graphics g) {
+            if (!WaveformPainter.hasPeaks(slider.waveformPeaks)) {
+                super.paintTrack(g);
+                return;
+            }
+            Insets insets = slider.getInsets();
+            int height = slider.getHeight() - insets.top - insets.bottom;
+            int range = slider.getMaximum() - slider.getMinimum();
+            float progress = range > 0 ? (float) (slider.getValue() - slider.getMinimum()) / range : 0f;
+
+            Color played = slider.getForeground();
+            Color unplayed = new Color(played.getRed(), played.getGreen(), played.getBlue(), 90);
+            WaveformPainter.paint((Graphics2D) g, slider.waveformPeaks, trackRect.x, insets.top,
+                    trackRect.width, height, progress, played, unplayed);
+        }
+    }
+}
@@ -112,7 +112,7 @@ public class PlaylistSelectionDialog extends JDialog implements ThemeChangeListe
         coverLabel.startLoading();
 
         if (!playlist.getSongs().isEmpty()) {
-            playerFacade.populateSongImage(playlist.getFirstSong(), coverLabel::setLoadedImage);
+            coverLabel.bindLoad(playerFacade.populateSongImage(playlist.getFirstSong(), 40, coverLabel::setLoadedImage));
         } else {
             coverLabel.setLoadedImage(GuiUtil.createBufferImage(AppConstant.DEFAULT_COVER_PATH));
         }
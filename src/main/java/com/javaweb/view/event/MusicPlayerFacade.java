@@ -1,9 +1,11 @@
 package com.javaweb.view.event;
 
+import com.javaweb.enums.ImageLoadPriority;
 import com.javaweb.enums.PlaylistSourceType;
 import com.javaweb.enums.RepeatMode;
 import com.javaweb.model.dto.*;
 import com.javaweb.utils.CommonApiUtil;
+import com.javaweb.utils.ImageLoadScheduler;
 import com.javaweb.utils.ImageMediaUtil;
 import com.javaweb.utils.LocalSongManager;
 import com.javaweb.view.MusicPlayer;
@@ -266,20 +268,42 @@ public class MusicPlayerFacade {
         mediator.notifySliderDragging(value, timeInMillis);
     }
 
-    public void populateSongImage(SongDTO songDTO, Consumer<BufferedImage> callback) {
-        imageMediaUtil.populateSongImage(songDTO, callback);
+    public ImageLoadScheduler.Handle populateSongImage(SongDTO songDTO, Consumer<BufferedImage> callback) {
+        return imageMediaUtil.populateSongImage(songDTO, callback);
     }
 
-    public void populateAlbumImage(AlbumDTO albumDTO, Consumer<BufferedImage> callback) {
-        imageMediaUtil.populateAlbumImage(albumDTO, callback);
+    public ImageLoadScheduler.Handle populateAlbumImage(AlbumDTO albumDTO, Consumer<BufferedImage> callback) {
+        return imageMediaUtil.populateAlbumImage(albumDTO, callback);
     }
 
-    public void populateArtistProfile(ArtistDTO artistDTO, Consumer<BufferedImage> callback) {
-        imageMediaUtil.populateArtistProfile(artistDTO, callback);
+    public ImageLoadScheduler.Handle populateArtistProfile(ArtistDTO artistDTO, Consumer<BufferedImage> callback) {
+        return imageMediaUtil.populateArtistProfile(artistDTO, callback);
     }
 
-    public void populateUserProfile(UserDTO userDTO, Consumer<BufferedImage> callback) {
-        imageMediaUtil.populateUserProfile(userDTO, callback);
+    public ImageLoadScheduler.Handle populateUserProfile(UserDTO userDTO, Consumer<BufferedImage> callback) {
+        return imageMediaUtil.populateUserProfile(userDTO, callback);
+    }
+
+    // Size-aware variants: small views get a thumbnail instead of the full image
+    public ImageLoadScheduler.Handle populateSongImage(SongDTO songDTO, int sizePx, Consumer<BufferedImage> callback) {
+        return imageMediaUtil.populateSongImage(songDTO, sizePx, callback);
+    }
+
+    public ImageLoadScheduler.Handle populateAlbumImage(AlbumDTO albumDTO, int sizePx, Consumer<BufferedImage> callback) {
+        return imageMediaUtil.populateAlbumImage(albumDTO, sizePx, callback);
+    }
+
+    public ImageLoadScheduler.Handle populateArtistProfile(ArtistDTO artistDTO, int sizePx, Consumer<BufferedImage> callback) {
+        return imageMediaUtil.populateArtistProfile(artistDTO, sizePx, callback);
+    }
+
+    public ImageLoadScheduler.Handle populateUserProfile(UserDTO userDTO, int sizePx, Consumer<BufferedImage> callback) {
+        return imageMediaUtil.populateUserProfile(userDTO, sizePx, callback);
+    }
+
+    public ImageLoadScheduler.Handle populateSongImage(SongDTO songDTO, int sizePx, ImageLoadPriority priority,
+                                                       Consumer<BufferedImage> callback) {
+        return imageMediaUtil.populateSongImage(songDTO, sizePx, priority, callback);
     }
 
     public List<SongDTO> getQueueSongs() {
@@ -9,6 +9,8 @@ import org.springframework.stereotype.Component;
 
 import javax.swing.*;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 // Mediator design pattern
 @Slf4j
@@ -18,6 +20,16 @@ public class MusicPlayerMediator {
 
     private final PlayerEventPublisher eventPublisher;
 
+    // Latest frame (high 32 bits) and time in millis (low 32 bits) waiting to be published
+    private final AtomicLong latestProgress = new AtomicLong();
+    private final AtomicBoolean progressPending = new AtomicBoolean(false);
+    private final Runnable publishProgress = () -> {
+        progressPending.set(false);
+        long progress = latestProgress.get();
+        int[] data = new int[]{(int) (progress >>> 32), (int) progress};
+        publishPlayerEvent(new PlayerEvent(PlayerEvent.EventType.PLAYBACK_PROGRESS, data));
+    };
+
     public void subscribeToPlayerEvents(PlayerEventListener listener) {
         eventPublisher.addObserver(listener);
     }
@@ -46,11 +58,15 @@ public class MusicPlayerMediator {
         publishPlayerEvent(new PlayerEvent(PlayerEvent.EventType.PLAYBACK_STOPPED, null));
     }
 
+    /**
+     * Publishes progress on the EDT. Calls made while an update is still queued only replace its
+     * values, so a busy EDT sees the latest position once instead of a backlog of stale ones.
+     */
     public void notifyPlaybackProgress(int frame, int timeInMillis) {
-        final int[] data = new int[]{frame, timeInMillis};
-        SwingUtilities.invokeLater(() -> {
-            publishPlayerEvent(new PlayerEvent(PlayerEvent.EventType.PLAYBACK_PROGRESS, data));
-        });
+        latestProgress.set(((long) frame << 32) | (timeInMillis & 0xFFFFFFFFL));
+        if (progressPending.compareAndSet(false, true)) {
+            SwingUtilities.invokeLater(publishProgress);
+        }
     }
 
     public void notifyRepeatModeChanged(Object repeatMode) {
@@ -197,7 +197,7 @@ public class AccountSettingsPanel extends JPanel implements ThemeChangeListener
 
         AsyncImageLabel profilePicture = GuiUtil.createAsyncImageLabel(150, 150, 15);
         profilePicture.startLoading();
-        musicPlayerFacade.populateUserProfile(currentUser, profilePicture::setLoadedImage);
+        profilePicture.bindLoad(musicPlayerFacade.populateUserProfile(currentUser, 150, profilePicture::setLoadedImage));
         profilePicturePanel.add(profilePicture, BorderLayout.CENTER);
 
         userInfoContainer.add(profilePicturePanel, "top");
@@ -298,7 +298,7 @@ public class AccountSettingsPanel extends JPanel implements ThemeChangeListener
 
         profilePicturePreview = GuiUtil.createAsyncImageLabel(150, 150, 15);
         profilePicturePreview.startLoading();
-        musicPlayerFacade.populateUserProfile(currentUser, profilePicturePreview::setLoadedImage);
+        profilePicturePreview.bindLoad(musicPlayerFacade.populateUserProfile(currentUser, 150, profilePicturePreview::setLoadedImage));
 
         JPanel pictureButtonPanel = GuiUtil.createPanel(new BorderLayout());
 
@@ -7,7 +7,6 @@ import com.javaweb.model.dto.AlbumDTO;
 import com.javaweb.model.dto.ArtistDTO;
 import com.javaweb.model.dto.PlaylistDTO;
 import com.javaweb.model.dto.SongDTO;
-import com.javaweb.service.impl.GoogleDriveService;
 import com.javaweb.utils.*;
 import com.javaweb.view.HomePage;
 import com.javaweb.view.components.AsyncImageLabel;
@@ -28,9 +27,6 @@ import java.awt.event.ActionEvent;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseMotionAdapter;
-import java.io.File;
-import java.io.FileOutputStream;
-import java.io.InputStream;
 import java.util.*;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -461,7 +457,7 @@ public class AlbumViewPanel extends JPanel implements ThemeChangeListener, Playe
                 durationText));
 
         // Load album cover
-        playerFacade.populateAlbumImage(album, coverLabel::setLoadedImage);
+        coverLabel.bindLoad(playerFacade.populateAlbumImage(album, 250, coverLabel::setLoadedImage));
 
         // Update release info
         releaseInfoLabel.setText("Released: " + album.getReleaseYear());
@@ -528,7 +524,7 @@ public class AlbumViewPanel extends JPanel implements ThemeChangeListener, Playe
 
         // Set default playlist cover if exists, otherwise use first song's cover
         if (!tracks.isEmpty()) {
-            playerFacade.populateSongImage(tracks.getFirst(), coverLabel::setLoadedImage);
+            coverLabel.bindLoad(playerFacade.populateSongImage(tracks.getFirst(), 250, coverLabel::setLoadedImage));
         } else {
             coverLabel.setLoadedImage(GuiUtil.createBufferImage(AppConstant.DEFAULT_COVER_PATH));
         }
@@ -654,7 +650,7 @@ public class AlbumViewPanel extends JPanel implements ThemeChangeListener, Playe
         AsyncImageLabel albumCover = GuiUtil.createAsyncImageLabel(150, 150, 15);
         albumCover.startLoading();
         albumCover.setAlignmentX(Component.CENTER_ALIGNMENT);
-        playerFacade.populateAlbumImage(album, albumCover::setLoadedImage);
+        albumCover.bindLoad(playerFacade.populateAlbumImage(album, 150, albumCover::setLoadedImage));
 
         // Album title
         JLabel titleLabel = GuiUtil.createLabel(
@@ -818,112 +814,7 @@ public class AlbumViewPanel extends JPanel implements ThemeChangeListener, Playe
     }
 
     private void downloadSongs() {
-        JDialog progressDialog = GuiUtil.createProgressDialog(
-                SwingUtilities.getWindowAncestor(this),
-                "Downloading Songs",
-                "Downloading " + tracks.size() + " songs...");
-
-        JProgressBar progressBar = GuiUtil.findFirstComponentByType(
-                progressDialog.getContentPane(),
-                JProgressBar.class,
-                bar -> true
-        );
-
-        if (progressBar != null) {
-            progressBar.setStringPainted(true);
-        }
-
-        SwingWorker<Void, DownloadStatus> worker = new SwingWorker<>() {
-            @Override
-            protected Void doInBackground() {
-                int total = tracks.size();
-                int completed = 0;
-
-                for (int i = 0; i < tracks.size(); i++) {
-                    try {
-                        SongDTO song = tracks.get(i);
-                        String songName = StringUtils.getTruncatedText(song.getTitle());
-
-                        publish(new DownloadStatus(
-                                (i * 100) / total,
-                                "Downloading " + songName + " (" + (i + 1) + "/" + total + ")"
-                        ));
-
-                        File targetFile = new File(AppConstant.DEFAULT_DOWNLOAD_DIR,
-                                SongDownloadUtil.sanitizeFileName(songName) + ".mp3");
-
-                        try (InputStream in = App.getBean(GoogleDriveService.class).getFileContent(song.getDriveFileId());
-                             FileOutputStream out = new FileOutputStream(targetFile)) {
-
-                            byte[] buffer = new byte[8192];
-                            int bytesRead;
-
-                            while ((bytesRead = in.read(buffer)) != -1) {
-                                out.write(buffer, 0, bytesRead);
-                            }
-
-                            // Record the download
-                            CommonApiUtil.createUserDownload(song);
-                            completed++;
-                        }
-
-                        // Update progress after completion
-                        publish(new DownloadStatus(
-                                ((i + 1) * 100) / total,
-                                "Downloaded " + songName + " (" + (i + 1) + "/" + total + ")"
-                        ));
-
-                    } catch (Exception e) {
-                        log.error("Error downloading song at index {}: {}", i, e.getMessage(), e);
-                    }
-                }
-
-                return null;
-            }
-
-            @Override
-            protected void process(List<DownloadStatus> statuses) {
-                DownloadStatus latest = statuses.get(statuses.size() - 1);
-
-                if (progressBar != null) {
-                    progressBar.setValue(latest.progressPercentage);
-                    progressBar.setString(latest.progressPercentage + "%");
-                }
-
-                JLabel statusLabel = GuiUtil.findFirstComponentByType(
-                        progressDialog.getContentPane(),
-                        JLabel.class,
-                        label -> true
-                );
-
-                if (statusLabel != null) {
-                    statusLabel.setText(latest.statusMessage);
-                }
-            }
-
-            @Override
-            protected void done() {
-                progressDialog.dispose();
-
-                // Refresh the local songs cache
-                LocalSongManager.getDownloadedSongs();
-
-                // Show completion message
-                GuiUtil.showSuccessMessageDialog(
-                        SwingUtilities.getWindowAncestor(AlbumViewPanel.this),
-                        "Download complete!"
-                );
-
-                // Update the UI if we're in a HomePage
-                Component parent = SwingUtilities.getWindowAncestor(AlbumViewPanel.this);
-                if (parent instanceof HomePage) {
-                    ((HomePage) parent).refreshDownloadedSongsPanel();
-                }
-            }
-        };
-
-        worker.execute();
-        progressDialog.setVisible(true);
+        SongDownloadUtil.downloadSongs(this, tracks);
     }
 
     private String createButtonKey(SongDTO song) {
@@ -935,18 +826,6 @@ public class AlbumViewPanel extends JPanel implements ThemeChangeListener, Playe
         return "unknown:" + System.identityHashCode(song);
     }
 
-    // Helper class for download status updates
-    private static class DownloadStatus {
-        final int progressPercentage;
-        final String statusMessage;
-
-        DownloadStatus(int progressPercentage, String statusMessage) {
-            this.progressPercentage = progressPercentage;
-            this.statusMessage = statusMessage;
-        }
-    }
-
-
     private void handleMoreOptionsButtonClick() {
         if (currentAlbum == null) return;
 
@@ -423,7 +423,7 @@ public class ArtistProfilePanel extends JPanel implements ThemeChangeListener, P
                 ((currentArtist.getFollowerCount() > 1) ? " listeners" : " listener"));
 
         // Load artist image
-        playerFacade.populateArtistProfile(artist, artistHeaderImage::setLoadedImage);
+        artistHeaderImage.bindLoad(playerFacade.populateArtistProfile(artist, artistHeaderImage::setLoadedImage));
 
         // Update follow button
         updateFollowButtonState();
@@ -534,7 +534,7 @@ public class ArtistProfilePanel extends JPanel implements ThemeChangeListener, P
         AsyncImageLabel albumCover = GuiUtil.createAsyncImageLabel(150, 150, 15);
         albumCover.startLoading();
         albumCover.setAlignmentX(Component.CENTER_ALIGNMENT);
-        playerFacade.populateAlbumImage(album, albumCover::setLoadedImage);
+        albumCover.bindLoad(playerFacade.populateAlbumImage(album, 150, albumCover::setLoadedImage));
 
         // Album title
         JLabel titleLabel = GuiUtil.createLabel(
@@ -5,6 +5,7 @@ import com.javaweb.constant.AppConstant;
 import com.javaweb.model.dto.AlbumDTO;
 import com.javaweb.model.dto.ArtistDTO;
 import com.javaweb.model.dto.SongDTO;
+import com.javaweb.model.dto.SongUploadProgressDTO;
 import com.javaweb.model.request.AlbumRequestDTO;
 import com.javaweb.model.request.SongRequestDTO;
 import com.javaweb.utils.CommonApiUtil;
@@ -32,6 +33,7 @@ import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
+import java.util.UUID;
 import java.util.concurrent.atomic.AtomicReference;
 
 @Slf4j
@@ -476,7 +478,7 @@ public class ArtistUploadPanel extends JPanel implements ThemeChangeListener {
 
                 // Load album cover if available
                 if (album.getImageId() != null) {
-                    playerFacade.populateAlbumImage(album, image -> albumCoverPreview.setLoadedImage(image));
+                    albumCoverPreview.bindLoad(playerFacade.populateAlbumImage(album, image -> albumCoverPreview.setLoadedImage(image)));
                 }
 
                 // Load artist
@@ -952,18 +954,30 @@ public class ArtistUploadPanel extends JPanel implements ThemeChangeListener {
                     songRequest.setAlbumId(albumId);
                     songRequest.setArtistIds(artistIds);
                     songRequest.setMp3Files(songFiles);
+                    String uploadId = UUID.randomUUID().toString();
+                    songRequest.setUploadId(uploadId);
 
                     publish(65);
 
+                    // The server reports the bytes it has stored per file while the request runs
                     Thread progressUpdater = new Thread(() -> {
                         try {
-                            for (int progress = 65; progress < 95; progress += 3) {
-                                Thread.sleep(1500);
-                                publish(progress);
+                            while (!Thread.currentThread().isInterrupted()) {
+                                Thread.sleep(1000);
+                                long uploaded = 0;
+                                long totalBytes = 0;
+                                for (SongUploadProgressDTO file : CommonApiUtil.fetchSongUploadProgress(uploadId)) {
+                                    uploaded += file.getBytesUploaded();
+                                    totalBytes += file.getTotalBytes();
+                                }
+                                if (totalBytes > 0) {
+                                    publish(65 + (int) (30 * uploaded / totalBytes));
+                                }
                             }
                         } catch (InterruptedException e) {
                         }
-                    });
+                    }, "AlbumUploadProgress");
+                    progressUpdater.setDaemon(true);
 
                     progressUpdater.start();
 
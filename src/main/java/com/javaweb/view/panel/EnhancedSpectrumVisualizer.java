@@ -1,7 +1,10 @@
 package com.javaweb.view.panel;
 
+import com.javaweb.App;
+import com.javaweb.constant.AppConstant;
 import com.javaweb.utils.FontUtil;
 import com.javaweb.utils.GuiUtil;
+import com.javaweb.utils.SpectrumAnalyzer;
 import com.javaweb.view.theme.ThemeChangeListener;
 import com.javaweb.view.theme.ThemeManager;
 import lombok.Getter;
@@ -9,33 +12,29 @@ import lombok.extern.slf4j.Slf4j;
 
 import javax.swing.*;
 import java.awt.*;
-import java.io.BufferedReader;
-import java.io.FileWriter;
-import java.io.IOException;
-import java.io.InputStreamReader;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
 
 /**
- * Enhanced audio spectrum visualizer that uses CAVA (Console-based Audio Visualizer for ALSA)
- * for high-quality, system audio-level visualization
+ * Enhanced audio spectrum visualizer fed by the in-process {@link SpectrumAnalyzer}, which taps the
+ * PCM the player writes to the output line. Needs no external process.
  */
 @Slf4j
 public class EnhancedSpectrumVisualizer extends JPanel implements ThemeChangeListener {
 
     // Configuration constants
     private static final int DEFAULT_NUM_BANDS = 16;
-    private static final int DEFAULT_FRAMERATE = 240;
+    private static final int DEFAULT_FRAMERATE = AppConstant.SPECTRUM_FRAMERATE;
 
     // Visualization state
     private float[] bands;
 
-    // CAVA process handling
-    private Process cavaProcess;
-    private Thread readerThread;
+    // Spectrum of the decoded audio, filled by the player's output device
+    private final SpectrumAnalyzer spectrumAnalyzer;
+    // This visualizer's bands, only computed while it runs
+    private SpectrumAnalyzer.Bands analyzerBands;
     private boolean running = false;
-    private String configPath;
+    private float smoothing = AppConstant.SPECTRUM_SMOOTHING;
+    private String bandInfo;
+    private int bandInfoWidth;
 
     // Display properties
     @Getter
@@ -49,9 +48,7 @@ public class EnhancedSpectrumVisualizer extends JPanel implements ThemeChangeLis
     private boolean demoMode = true;
     private long demoPhase = 0;
     private float[] demoData;
-    private int historySize = 3;
-    private float[][] barHistory;
-    private int historyIndex = 0;
+    private float[] smoothedDemoData;
 
 
     public EnhancedSpectrumVisualizer() {
@@ -63,7 +60,8 @@ public class EnhancedSpectrumVisualizer extends JPanel implements ThemeChangeLis
         this.numberOfBands = numberOfBands;
         this.bands = new float[numberOfBands];
         this.demoData = new float[numberOfBands];
-        this.barHistory = new float[historySize][numberOfBands];
+        this.smoothedDemoData = new float[numberOfBands];
+        this.spectrumAnalyzer = App.getBean(SpectrumAnalyzer.class);
 
         // Apply theme colors
         ThemeManager themeManager = ThemeManager.getInstance();
@@ -75,13 +73,13 @@ public class EnhancedSpectrumVisualizer extends JPanel implements ThemeChangeLis
         // Setup panel
         setOpaque(false);
 
-        // Create the CAVA config file
-        setupCavaConfig();
-
         // Timer to animate bars
         animationTimer = new Timer(1000 / DEFAULT_FRAMERATE, e -> {
             if (demoMode) {
                 updateDemoVisualization();
+            } else {
+                // Copies into the existing array, nothing is allocated per frame
+                analyzerBands.copyTo(bands);
             }
             repaint();
         });
@@ -91,148 +89,43 @@ public class EnhancedSpectrumVisualizer extends JPanel implements ThemeChangeLis
     }
 
     /**
-     * Create or update CAVA configuration file
-     */
-    private void setupCavaConfig() {
-        try {
-            String userHome = System.getProperty("user.home");
-            Path configDir = Paths.get(userHome, ".config", "cava");
-            Files.createDirectories(configDir);
-
-            configPath = configDir.resolve("musemoe.conf").toString();
-
-            String config =
-                    "[general]\n" +
-                            "framerate = " + DEFAULT_FRAMERATE + "\n" +
-                            "bars = " + numberOfBands + "\n" +
-                            "autosens = 1\n" +
-                            "sensitivity = 100\n" +
-                            "\n" +
-                            "[output]\n" +
-                            "method = raw\n" +
-                            "raw_target = /dev/stdout\n" +
-                            "data_format = ascii\n" +
-                            "ascii_max_range = 100\n" +
-                            "\n" +
-                            "[smoothing]\n" +
-                            "monstercat = 1.5\n" +
-                            "noise_reduction = 85\n";
-
-            try (FileWriter writer = new FileWriter(configPath)) {
-                writer.write(config);
-            }
-
-            log.info("Created CAVA configuration at: {}", configPath);
-        } catch (IOException e) {
-            log.error("Failed to create CAVA config file: {}", e.getMessage());
-        }
-    }
-
-    /**
-     * Starts CAVA visualization process
+     * Starts drawing the live spectrum of the playing audio
      */
-    public void startCava() {
+    public void start() {
         if (running) {
             return;
         }
-
-        try {
-            if (!isCavaAvailable()) {
-                log.error("CAVA is not installed or not in PATH. Falling back to demo mode.");
-                demoMode = true;
-                return;
-            }
-
-            ProcessBuilder pb = new ProcessBuilder(
-                    "cava",
-                    "-p",
-                    configPath
-            );
-            pb.redirectErrorStream(true);
-            cavaProcess = pb.start();
-            running = true;
-
-            readerThread = new Thread(() -> {
-                try (BufferedReader reader = new BufferedReader(
-                        new InputStreamReader(cavaProcess.getInputStream()))) {
-                    String line;
-                    while ((line = reader.readLine()) != null && running) {
-                        String[] parts = line.trim().split(";");
-                        if (parts.length > 0) {
-                            synchronized (bands) {
-                                for (int i = 0; i < parts.length && i < bands.length; i++) {
-                                    try {
-                                        float value = Float.parseFloat(parts[i]) / 100.0f;
-                                        bands[i] = value;
-
-                                        barHistory[historyIndex][i] = value;
-                                    } catch (NumberFormatException ignored) {
-                                    }
-                                }
-                                historyIndex = (historyIndex + 1) % historySize;
-                            }
-
-                            demoMode = false;
-                        }
-                    }
-                } catch (IOException e) {
-                    if (running) {
-                        log.error("Error reading from CAVA: {}", e.getMessage());
-                        demoMode = true;
-                    }
-                }
-            }, "CavaReaderThread");
-
-            readerThread.setDaemon(true);
-            readerThread.start();
-
-            log.info("CAVA visualization started with {} bands", numberOfBands);
-        } catch (IOException e) {
-            log.error("Failed to start CAVA: {}", e.getMessage());
-            demoMode = true;
-            GuiUtil.showErrorMessageDialog(this,
-                    "Failed to start CAVA! Falling back to demo mode.");
-        }
+        analyzerBands = spectrumAnalyzer.createBands(numberOfBands, smoothing);
+        running = true;
+        demoMode = false;
+        log.info("Spectrum visualization started with {} bands", numberOfBands);
     }
 
     /**
-     * Check if CAVA is available on the system
+     * Stops drawing the live spectrum and falls back to the idle animation
      */
-    private boolean isCavaAvailable() {
-        try {
-            Process process;
-            if (System.getProperty("os.name").toLowerCase().contains("win")) {
-                process = Runtime.getRuntime().exec("where cava");
-            } else {
-                process = Runtime.getRuntime().exec("which cava");
-            }
-            return process.waitFor() == 0;
-        } catch (Exception e) {
-            return false;
+    public void stop() {
+        running = false;
+        demoMode = true;
+        if (analyzerBands != null) {
+            spectrumAnalyzer.releaseBands(analyzerBands);
+            analyzerBands = null;
         }
     }
 
-
     /**
-     * Stops CAVA process and resources
+     * Sets how slowly bars fall back after a peak (0 = no smoothing)
      */
-    public void stop() {
-        running = false;
-
-        if (cavaProcess != null) {
-            cavaProcess.destroy();
-            cavaProcess = null;
-        }
-
-        if (readerThread != null && readerThread.isAlive()) {
-            readerThread.interrupt();
-            readerThread = null;
+    public void setSmoothing(float smoothing) {
+        this.smoothing = smoothing;
+        if (analyzerBands != null) {
+            analyzerBands.setSmoothing(smoothing);
         }
     }
 
 
     /**
-     * Update demo visualization with wave-like animation when CAVA is not running
+     * Update demo visualization with wave-like animation when nothing is playing
      */
     private void updateDemoVisualization() {
         demoPhase += 100;
@@ -272,7 +165,7 @@ public class EnhancedSpectrumVisualizer extends JPanel implements ThemeChangeLis
      * Apply smoothing to create more natural transitions between adjacent bars
      */
     private void smoothBarValues() {
-        float[] smoothed = new float[numberOfBands];
+        float[] smoothed = smoothedDemoData;
 
         for (int i = 0; i < numberOfBands; i++) {
             float sum = 0;
@@ -367,6 +260,12 @@ public class EnhancedSpectrumVisualizer extends JPanel implements ThemeChangeLis
             }
         }
 
+        // Only rebuilt when the layout changes
+        if (bandInfo == null || bandInfoWidth != optimalBarWidth) {
+            bandInfo = "Bands: " + numberOfBands + " | Width: " + optimalBarWidth + "px";
+            bandInfoWidth = optimalBarWidth;
+        }
+
         // Hiển thị chỉ báo chế độ demo
         if (demoMode) {
             g2d.setColor(foregroundColor);
@@ -376,7 +275,7 @@ public class EnhancedSpectrumVisualizer extends JPanel implements ThemeChangeLis
             // Hiển thị thông tin về số lượng thanh và kích thước
             g2d.setFont(FontUtil.getSpotifyFont(Font.PLAIN, 12));
             g2d.setColor(foregroundColor);
-            g2d.drawString("Bands: " + numberOfBands + " | Width: " + optimalBarWidth + "px", 10, 40);
+            g2d.drawString(bandInfo, 10, 40);
         } else {
             g2d.setColor(foregroundColor);
             g2d.setFont(FontUtil.getSpotifyFont(Font.BOLD, 14));
@@ -385,7 +284,7 @@ public class EnhancedSpectrumVisualizer extends JPanel implements ThemeChangeLis
             // Hiển thị thông tin về số lượng thanh và kích thước
             g2d.setFont(FontUtil.getSpotifyFont(Font.PLAIN, 12));
             g2d.setColor(foregroundColor);
-            g2d.drawString("Bands: " + numberOfBands + " | Width: " + optimalBarWidth + "px", 10, 40);
+            g2d.drawString(bandInfo, 10, 40);
         }
 
         g2d.dispose();
@@ -409,26 +308,23 @@ public class EnhancedSpectrumVisualizer extends JPanel implements ThemeChangeLis
         this.numberOfBands = newNumberOfBands;
         this.bands = new float[newNumberOfBands];
         this.demoData = new float[newNumberOfBands];
-        this.barHistory = new float[historySize][newNumberOfBands];
-
-        boolean wasRunning = running;
-        stop();
-        setupCavaConfig();
+        this.smoothedDemoData = new float[newNumberOfBands];
+        this.bandInfo = null;
 
-        if (wasRunning) {
-            startCava();
+        if (analyzerBands != null) {
+            spectrumAnalyzer.releaseBands(analyzerBands);
+            analyzerBands = spectrumAnalyzer.createBands(newNumberOfBands, smoothing);
         }
 
         repaint();
     }
 
 
-    public void toggleCAVA(boolean enable) {
+    public void toggleAnalyzer(boolean enable) {
         if (enable && !running) {
-            startCava();
+            start();
         } else if (!enable && running) {
             stop();
-            demoMode = true;
         }
     }
 
@@ -232,7 +232,7 @@ public class HomePanel extends JPanel implements ThemeChangeListener, PlayerEven
         // Create square album cover with rounded corners
         AsyncImageLabel coverLabel = GuiUtil.createAsyncImageLabel(150, 150, 15);
         coverLabel.startLoading();
-        playerFacade.populateAlbumImage(album, coverLabel::setLoadedImage);
+        coverLabel.bindLoad(playerFacade.populateAlbumImage(album, 150, coverLabel::setLoadedImage));
         coverLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
 
         // Create info panel for text
@@ -294,7 +294,7 @@ public class HomePanel extends JPanel implements ThemeChangeListener, PlayerEven
         imagePanel.setAlignmentX(Component.LEFT_ALIGNMENT);
 
         AsyncImageLabel coverLabel = GuiUtil.createAsyncImageLabel(150, 150, 15);
-        playerFacade.populateSongImage(song, coverLabel::setLoadedImage);
+        coverLabel.bindLoad(playerFacade.populateSongImage(song, 150, coverLabel::setLoadedImage));
 
         imagePanel.add(coverLabel);
         card.add(imagePanel);
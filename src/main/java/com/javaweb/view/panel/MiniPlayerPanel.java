@@ -9,6 +9,7 @@ import com.javaweb.model.dto.SongDTO;
 import com.javaweb.utils.FontUtil;
 import com.javaweb.utils.GuiUtil;
 import com.javaweb.view.HomePage;
+import com.javaweb.view.components.WaveformPainter;
 import com.javaweb.view.event.MusicPlayerFacade;
 import com.javaweb.view.event.PlayerEvent;
 import com.javaweb.view.event.PlayerEventListener;
@@ -560,6 +561,7 @@ public class MiniPlayerPanel extends JPanel implements PlayerEventListener, Them
                 case SONG_LOADED -> {
                     SongDTO song = (SongDTO) event.data();
                     updatePlaybackInfo(song);
+                    progressTrackBar.setWaveformPeaks(song.getWaveformPeaks());
                     showPlaybackControls();
                     enablePauseButtonDisablePlayButton();
 
@@ -711,6 +713,7 @@ public class MiniPlayerPanel extends JPanel implements PlayerEventListener, Them
         private static final int CORNER_RADIUS = 3;
         private String timeText = "0:00 / 0:00";
         private Color textColor = accentColor;
+        private byte[] waveformPeaks;
 
         public ProgressTrackBar() {
             setOpaque(false);
@@ -726,6 +729,11 @@ public class MiniPlayerPanel extends JPanel implements PlayerEventListener, Them
             repaint();
         }
 
+        public void setWaveformPeaks(byte[] waveformPeaks) {
+            this.waveformPeaks = waveformPeaks;
+            repaint();
+        }
+
         public void setTimeTextColor(Color color) {
             this.textColor = color;
             repaint();
@@ -742,7 +750,11 @@ public class MiniPlayerPanel extends JPanel implements PlayerEventListener, Them
             g2d.setColor(getBackground());
             g2d.fillRoundRect(0, 0, width, height, CORNER_RADIUS, CORNER_RADIUS);
 
-            if (progress > 0) {
+            if (WaveformPainter.hasPeaks(waveformPeaks)) {
+                Color played = getForeground();
+                Color unplayed = new Color(played.getRed(), played.getGreen(), played.getBlue(), 90);
+                WaveformPainter.paint(g2d, waveformPeaks, 0, 2, width, height - 4, progress, played, unplayed);
+            } else if (progress > 0) {
                 int progressWidth = (int) (width * progress);
                 g2d.setColor(getForeground());
                 g2d.fillRoundRect(0, 0, progressWidth, height, CORNER_RADIUS, CORNER_RADIUS);
@@ -128,7 +128,7 @@ public class QueuePanel extends JPanel implements ThemeChangeListener, PlayerEve
         // Song image
         currentSongImage = GuiUtil.createAsyncImageLabel(120, 120, 15);
         currentSongImage.startLoading();
-        playerFacade.populateSongImage(playerFacade.getCurrentSong(), currentSongImage::setLoadedImage);
+        currentSongImage.bindLoad(playerFacade.populateSongImage(playerFacade.getCurrentSong(), 120, currentSongImage::setLoadedImage));
 
         // Song info panel
         JPanel songInfoPanel = GuiUtil.createPanel(new MigLayout(
@@ -214,7 +214,7 @@ public class QueuePanel extends JPanel implements ThemeChangeListener, PlayerEve
         // Song image
         AsyncImageLabel songImage = GuiUtil.createAsyncImageLabel(120, 120, 15);
         songImage.startLoading();
-        playerFacade.populateSongImage(song, songImage::setLoadedImage);
+        songImage.bindLoad(playerFacade.populateSongImage(song, 120, songImage::setLoadedImage));
 
         // Song info panel
         JPanel songInfoPanel = GuiUtil.createPanel(new MigLayout(
@@ -292,7 +292,7 @@ public class QueuePanel extends JPanel implements ThemeChangeListener, PlayerEve
         if (currentSong != null) {
             currentSongTitle.setText(currentSong.getTitle());
             currentSongArtist.setText(currentSong.getSongArtist() != null ? currentSong.getSongArtist() : "Unknown Artist");
-            playerFacade.populateSongImage(currentSong, image -> currentSongImage.setLoadedImage(image));
+            currentSongImage.bindLoad(playerFacade.populateSongImage(currentSong, 120, image -> currentSongImage.setLoadedImage(image)));
         } else {
             currentSongTitle.setText("No song playing");
             currentSongArtist.setText("");
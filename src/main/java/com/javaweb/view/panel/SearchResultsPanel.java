@@ -269,7 +269,7 @@ public class SearchResultsPanel extends JPanel implements ThemeChangeListener, P
 
         AsyncImageLabel coverLabel = new AsyncImageLabel(250, 250, 15);
         coverLabel.startLoading();
-        playerFacade.populateSongImage(song, coverLabel::setLoadedImage);
+        coverLabel.bindLoad(playerFacade.populateSongImage(song, 250, coverLabel::setLoadedImage));
 
         JPanel coverPanel = GuiUtil.createPanel(new BorderLayout());
         coverPanel.setPreferredSize(new Dimension(250, 250));
@@ -369,7 +369,7 @@ public class SearchResultsPanel extends JPanel implements ThemeChangeListener, P
         // Create artist profile image
         AsyncImageLabel profileLabel = new AsyncImageLabel(150, 150, 15, true);
         profileLabel.startLoading();
-        playerFacade.populateArtistProfile(artist, profileLabel::setLoadedImage);
+        profileLabel.bindLoad(playerFacade.populateArtistProfile(artist, 150, profileLabel::setLoadedImage));
         profileLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
 
         // Create artist details
@@ -437,7 +437,7 @@ public class SearchResultsPanel extends JPanel implements ThemeChangeListener, P
         // Create album cover image
         AsyncImageLabel coverLabel = new AsyncImageLabel(150, 150, 15);
         coverLabel.startLoading();
-        playerFacade.populateAlbumImage(album, coverLabel::setLoadedImage);
+        coverLabel.bindLoad(playerFacade.populateAlbumImage(album, 150, coverLabel::setLoadedImage));
         coverLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
 
 
@@ -627,7 +627,7 @@ public class SearchResultsPanel extends JPanel implements ThemeChangeListener, P
         // Create circular artist profile image
         AsyncImageLabel profileLabel = new AsyncImageLabel(150, 150, 15, true);
         profileLabel.startLoading();
-        playerFacade.populateArtistProfile(artist, profileLabel::setLoadedImage);
+        profileLabel.bindLoad(playerFacade.populateArtistProfile(artist, 150, profileLabel::setLoadedImage));
         profileLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
 
         // Artist name and type label
@@ -692,7 +692,7 @@ public class SearchResultsPanel extends JPanel implements ThemeChangeListener, P
         // Create square album cover with rounded corners
         AsyncImageLabel coverLabel = new AsyncImageLabel(150, 150, 15);
         coverLabel.startLoading();
-        playerFacade.populateAlbumImage(album, coverLabel::setLoadedImage);
+        coverLabel.bindLoad(playerFacade.populateAlbumImage(album, 150, coverLabel::setLoadedImage));
 
         coverLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
 
@@ -766,7 +766,7 @@ public class SearchResultsPanel extends JPanel implements ThemeChangeListener, P
         coverLabel.startLoading();
 
         if (!playlist.getSongs().isEmpty() && playlist.getFirstSong() != null) {
-            playerFacade.populateSongImage(playlist.getFirstSong(), coverLabel::setLoadedImage);
+            coverLabel.bindLoad(playerFacade.populateSongImage(playlist.getFirstSong(), 150, coverLabel::setLoadedImage));
         } else {
             coverLabel.setLoadedImage(GuiUtil.createBufferImage(AppConstant.DEFAULT_COVER_PATH));
         }
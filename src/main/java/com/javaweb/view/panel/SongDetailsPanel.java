@@ -116,7 +116,7 @@ public class SongDetailsPanel extends JPanel implements ThemeChangeListener, Pla
         coverPanel = GuiUtil.createPanel(new BorderLayout());
         coverLabel = new AsyncImageLabel(250, 250, 15);
         coverLabel.startLoading();
-        playerFacade.populateSongImage(currentSong, image -> coverLabel.setLoadedImage(image));
+        coverLabel.bindLoad(playerFacade.populateSongImage(currentSong, 250, image -> coverLabel.setLoadedImage(image)));
 
         coverPanel.add(coverLabel, BorderLayout.CENTER);
 
@@ -305,7 +305,7 @@ public class SongDetailsPanel extends JPanel implements ThemeChangeListener, Pla
         playsLabel.setText(formattedPlays + " plays");
 
         // Load album cover
-        playerFacade.populateSongImage(song, coverLabel::setLoadedImage);
+        coverLabel.bindLoad(playerFacade.populateSongImage(song, 250, coverLabel::setLoadedImage));
         if (currentSong != null) {
             GuiUtil.addSongContextMenu(coverLabel, currentSong);
         }
@@ -355,7 +355,7 @@ public class SongDetailsPanel extends JPanel implements ThemeChangeListener, Pla
         // Circular artist profile image
         AsyncImageLabel profileLabel = GuiUtil.createArtistProfileLabel(120);
         profileLabel.startLoading();
-        playerFacade.populateArtistProfile(artist, profileLabel::setLoadedImage);
+        profileLabel.bindLoad(playerFacade.populateArtistProfile(artist, 120, profileLabel::setLoadedImage));
 
         // Artist label
         JLabel typeLabel = GuiUtil.createLabel("ARTIST", Font.PLAIN, 12);
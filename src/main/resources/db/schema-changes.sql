@@ -0,0 +1,47 @@
+-- Columns and tables added for seek indexes, upload de-duplication, loudness, waveforms and image
+-- renditions, for databases created before them.
+-- spring.jpa.hibernate.ddl-auto is off, so run this once against muse_moe (MySQL 8) before
+-- starting the new server:
+--   mysql -u root -p muse_moe < src/main/resources/db/schema-changes.sql
+-- Every new column is nullable and every new table starts empty, so existing rows keep working and
+-- are filled in by the background jobs and tools noted below.
+
+-- Per-file MP3 seek tables, built in the background after upload or on first request
+CREATE TABLE IF NOT EXISTS seek_index (
+    id             BIGINT      NOT NULL AUTO_INCREMENT,
+    data           MEDIUMBLOB  NOT NULL,
+    total_frames   INT         NULL,
+    frame_interval INT         NULL,
+    created_at     DATETIME(6) NULL,
+    updated_at     DATETIME(6) NULL,
+    PRIMARY KEY (id)
+);
+
+ALTER TABLE streaming_media
+    ADD COLUMN seek_index_id BIGINT NULL,
+    ADD CONSTRAINT uk_streaming_media_seek_index UNIQUE (seek_index_id),
+    ADD CONSTRAINT fk_streaming_media_seek_index FOREIGN KEY (seek_index_id) REFERENCES seek_index (id);
+
+-- Content hash for upload de-duplication; older media stay null and are never matched.
+-- Unique, so two concurrent uploads of the same file end up sharing one row
+ALTER TABLE streaming_media
+    ADD COLUMN content_hash VARCHAR(64) NULL,
+    ADD CONSTRAINT uk_streaming_media_content_hash UNIQUE (content_hash);
+
+-- Loudness normalization, filled in by AudioAnalysisTool for existing songs
+ALTER TABLE song
+    ADD COLUMN loudness_lufs  DOUBLE NULL,
+    ADD COLUMN peak_amplitude DOUBLE NULL;
+
+-- Seek bar waveform, filled in by AudioAnalysisTool for existing songs
+ALTER TABLE song
+    ADD COLUMN waveform_peaks VARBINARY(2000) NULL;
+
+-- Downscaled image copies; images uploaded before it have none and are served as originals
+CREATE TABLE IF NOT EXISTS streaming_media_rendition (
+    streaming_media_id BIGINT       NOT NULL,
+    size_px            INT          NOT NULL,
+    file_id            VARCHAR(255) NOT NULL,
+    PRIMARY KEY (streaming_media_id, size_px),
+    CONSTRAINT fk_streaming_media_rendition_media FOREIGN KEY (streaming_media_id) REFERENCES streaming_media (id)
+);
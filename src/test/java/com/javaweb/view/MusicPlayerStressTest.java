@@ -0,0 +1,190 @@
+package com.javaweb.view;
+
+import com.javaweb.enums.PlaybackState;
+import com.javaweb.enums.PlaylistSourceType;
+import com.javaweb.model.dto.PlaylistDTO;
+import com.javaweb.model.dto.SongDTO;
+import com.javaweb.model.dto.UserDTO;
+import com.javaweb.utils.ImageMediaUtil;
+import com.javaweb.utils.PlaybackMetrics;
+import com.javaweb.utils.StreamingAudioPlayer;
+import com.javaweb.utils.TrackPlayer;
+import com.javaweb.view.advertisement.AdvertisementManager;
+import com.javaweb.view.event.MusicPlayerMediator;
+import com.javaweb.view.user.UserSessionManager;
+import javazoom.jl.player.advanced.PlaybackEvent;
+import javazoom.jl.player.advanced.PlaybackListener;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.swing.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Fires thousands of next/prev/seek commands at {@link MusicPlayer} while each player's decode
+ * thread reports playback start concurrently, then checks that exactly the last requested track
+ * and position are playing.
+ */
+class MusicPlayerStressTest {
+
+    private static final int SONG_COUNT = 12;
+    private static final int COMMAND_COUNT = 5_000;
+    private static final int SONG_LENGTH_MS = 180_000;
+    private static final Set<String> PLAYER_THREAD_NAMES = Set.of("MusicPlayerThread", "PlaybackSliderThread");
+
+    private final List<FakeTrack> tracks = new CopyOnWriteArrayList<>();
+    private List<SongDTO> songs;
+    private MusicPlayer musicPlayer;
+    private long baselinePlayerThreads;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        baselinePlayerThreads = livePlayerThreads();
+
+        UserDTO user = new UserDTO();
+        user.setId(1L);
+        UserSessionManager.getInstance().initializeSession(user, "test-token");
+
+        StreamingAudioPlayer streamingPlayer = mock(StreamingAudioPlayer.class);
+        when(streamingPlayer.createPlayer(any(SongDTO.class), any(PlaybackListener.class), anyLong()))
+                .thenAnswer(invocation -> {
+                    FakeTrack track = new FakeTrack(invocation.getArgument(0), invocation.getArgument(1),
+                            invocation.getArgument(2));
+                    tracks.add(track);
+                    return track.player;
+                });
+
+        AdvertisementManager adManager = mock(AdvertisementManager.class);
+        when(adManager.getUserPlayCounter()).thenReturn(new ConcurrentHashMap<>());
+
+        musicPlayer = new MusicPlayer(streamingPlayer, mock(ImageMediaUtil.class), mock(MusicPlayerMediator.class),
+                adManager, mock(PlaybackMetrics.class));
+
+        songs = new ArrayList<>();
+        for (int i = 0; i < SONG_COUNT; i++) {
+            SongDTO song = new SongDTO();
+            song.setTitle("Song " + i);
+            song.setIsLocalFile(true);
+            song.setFrame(SONG_LENGTH_MS / 26L);
+            song.setFrameRatePerMilliseconds(1 / 26.0);
+            song.setLengthInMilliseconds(SONG_LENGTH_MS);
+            songs.add(song);
+        }
+        PlaylistDTO playlist = new PlaylistDTO();
+        playlist.setSongs(songs);
+        playlist.setSourceType(PlaylistSourceType.LOCAL);
+        musicPlayer.setCurrentPlaylist(playlist);
+    }
+
+    @AfterEach
+    void tearDown() {
+        musicPlayer.stopSong();
+        UserSessionManager.getInstance().clearSession();
+    }
+
+    @Test
+    void lastCommandWinsAfterRapidNextPrevAndSeek() throws Exception {
+        Random random = new Random(42);
+        int expectedIndex = 0;
+        int expectedPosition = 0;
+
+        musicPlayer.loadLocalSong(songs.get(0));
+        for (int i = 0; i < COMMAND_COUNT; i++) {
+            switch (random.nextInt(3)) {
+                case 0 -> {
+                    musicPlayer.nextSong();
+                    expectedIndex = Math.min(expectedIndex + 1, SONG_COUNT - 1);
+                    expectedPosition = 0;
+                }
+                case 1 -> {
+                    musicPlayer.prevSong();
+                    expectedIndex = Math.max(expectedIndex - 1, 0);
+                    expectedPosition = 0;
+                }
+                default -> {
+                    // Same sequence as dragging the playback slider
+                    expectedPosition = random.nextInt(SONG_LENGTH_MS);
+                    musicPlayer.pauseSong();
+                    musicPlayer.setCurrentTimeInMilli(expectedPosition);
+                    musicPlayer.playCurrentSong();
+                }
+            }
+        }
+
+        // Let the callbacks queued on the EDT and the last decode thread run
+        SwingUtilities.invokeAndWait(() -> {
+        });
+        FakeTrack last = tracks.getLast();
+        assertTrue(last.started.await(5, TimeUnit.SECONDS), "last track never started");
+        SwingUtilities.invokeAndWait(() -> {
+        });
+
+        assertSame(songs.get(expectedIndex), musicPlayer.getCurrentSong());
+        assertSame(songs.get(expectedIndex), last.song);
+        assertEquals(expectedPosition, last.startMillis);
+        assertEquals(PlaybackState.PLAYING, musicPlayer.getPlaybackState());
+
+        long running = tracks.stream().filter(track -> !track.stopped).count();
+        assertEquals(1, running, "every replaced player must be stopped");
+        assertFalse(last.stopped, "the last player must still be playing");
+
+        musicPlayer.stopSong();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (livePlayerThreads() > baselinePlayerThreads && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(baselinePlayerThreads, livePlayerThreads(), "player threads outlived the stopped player");
+    }
+
+    private static long livePlayerThreads() {
+        return Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.isAlive() && PLAYER_THREAD_NAMES.contains(thread.getName()))
+                .count();
+    }
+
+    /**
+     * A player that reports playback start from the thread calling play(), like TrackPlayer does on
+     * its first frame. Unlike TrackPlayer, play() then returns instead of blocking until stopped, so
+     * thousands of replaced players don't leave as many parked threads behind.
+     */
+    private static class FakeTrack {
+        private final SongDTO song;
+        private final long startMillis;
+        private final TrackPlayer player = mock(TrackPlayer.class);
+        private final CountDownLatch started = new CountDownLatch(1);
+        private volatile boolean stopped;
+
+        FakeTrack(SongDTO song, PlaybackListener listener, long startMillis) throws Exception {
+            this.song = song;
+            this.startMillis = startMillis;
+            doAnswer(invocation -> {
+                listener.playbackStarted(new PlaybackEvent(null, PlaybackEvent.STARTED, 0));
+                started.countDown();
+                return null;
+            }).when(player).play();
+            doAnswer(invocation -> {
+                stopped = true;
+                return null;
+            }).when(player).stop();
+            when(player.isClosed()).thenAnswer(invocation -> stopped);
+        }
+    }
+}